@@ -0,0 +1,397 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base;
+
+import java.lang.ref.Reference;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.ToLongBiFunction;
+
+/**
+ * A thread safe cache which loads each key only once, even if it is requested by multiple threads at the same time.
+ * Loading different keys is done in parallel (there is no global lock during loading).
+ * The cache can be bounded by the number of entries and/or by the sum of the (estimated) weights of all entries.
+ * If one of the bounds is exceeded, entries are evicted based on the {@link EvictionPolicy}.
+ * The values can be hold with strong, soft or weak references (see {@link Retention}) such that the garbage collector
+ * can remove them in case of memory pressure.
+ * <p>
+ * The eviction scans all entries. This is intended for caches with a moderate number of large values (like ontologies)
+ * where loading a value takes much longer than the scan.
+ * @param <K> the type of the key
+ * @param <V> the type of the value
+ */
+public class BoundedCache<K, V> {
+
+    /**
+     * Which entry is removed when the cache is full.
+     */
+    public enum EvictionPolicy {
+        /**
+         * Least recently used.
+         */
+        LRU,
+        /**
+         * Least frequently used (ties are broken by least recently used).
+         */
+        LFU
+    }
+
+    /**
+     * How the values are referenced by the cache.
+     */
+    public enum Retention {
+        /**
+         * Values are only removed by eviction.
+         */
+        STRONG,
+        /**
+         * Values are referenced by a {@link SoftReference} and can be removed by the garbage collector in case of memory pressure.
+         */
+        SOFT,
+        /**
+         * Values are referenced by a {@link WeakReference} and are removed by the garbage collector as soon as they are not used anymore.
+         */
+        WEAK
+    }
+
+    private final Map<K, Entry<V>> map;
+    private final long maximumSize;
+    private final long maximumWeight;
+    private final ToLongBiFunction<K, V> weigher;
+    private final EvictionPolicy evictionPolicy;
+    private final Retention retention;
+
+    private final AtomicLong clock;
+    private final AtomicLong totalWeight;
+    private final AtomicLong hits;
+    private final AtomicLong misses;
+    private final AtomicLong loadTimeNanos;
+    private final AtomicLong evictions;
+    private final AtomicLong collected;
+
+    /**
+     * Creates an unbounded cache with strong references (the same behaviour as a map).
+     */
+    public BoundedCache() {
+        this(0, 0, null, EvictionPolicy.LRU, Retention.STRONG);
+    }
+
+    /**
+     * Creates a cache which is bounded by the number of entries.
+     * @param maximumSize the maximum number of entries (zero or negative for no bound).
+     * @param evictionPolicy the eviction policy
+     * @param retention the retention of values
+     */
+    public BoundedCache(long maximumSize, EvictionPolicy evictionPolicy, Retention retention) {
+        this(maximumSize, 0, null, evictionPolicy, retention);
+    }
+
+    /**
+     * Creates a new cache.
+     * @param maximumSize the maximum number of entries (zero or negative for no bound).
+     * @param maximumWeight the maximum sum of weights of all entries (zero or negative for no bound).
+     * @param weigher computes the weight of an entry (e.g. the number of triples). Only used if maximumWeight is positive.
+     *      If null, each entry has a weight of one.
+     * @param evictionPolicy the eviction policy
+     * @param retention the retention of values
+     */
+    public BoundedCache(long maximumSize, long maximumWeight, ToLongBiFunction<K, V> weigher, EvictionPolicy evictionPolicy, Retention retention) {
+        this.map = new ConcurrentHashMap<>();
+        this.maximumSize = maximumSize > 0 ? maximumSize : Long.MAX_VALUE;
+        this.maximumWeight = maximumWeight > 0 ? maximumWeight : Long.MAX_VALUE;
+        this.weigher = weigher == null || maximumWeight <= 0 ? (k, v) -> 1L : weigher;
+        this.evictionPolicy = evictionPolicy == null ? EvictionPolicy.LRU : evictionPolicy;
+        this.retention = retention == null ? Retention.STRONG : retention;
+        this.clock = new AtomicLong();
+        this.totalWeight = new AtomicLong();
+        this.hits = new AtomicLong();
+        this.misses = new AtomicLong();
+        this.loadTimeNanos = new AtomicLong();
+        this.evictions = new AtomicLong();
+        this.collected = new AtomicLong();
+    }
+
+    /**
+     * Returns the value for the given key. If the value is not in the cache, it is loaded with the given loader.
+     * If multiple threads request the same key, only one of them loads the value and the others wait for it.
+     * If the loader throws an exception, nothing is cached and the exception is forwarded to the caller.
+     * @param key the key
+     * @param loader the function to compute the value (it should not return null)
+     * @return the value
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        while(true){
+            Entry<V> entry = map.computeIfAbsent(key, k -> new Entry<>());
+            V value;
+            synchronized(entry){
+                if(entry.removed)
+                    continue; // evicted or cleared concurrently - retry with a new entry
+                value = entry.get();
+                if(value != null){
+                    hits.incrementAndGet();
+                    entry.touch(clock.incrementAndGet());
+                    return value;
+                }
+                if(entry.reference != null){
+                    // value was removed by the garbage collector
+                    collected.incrementAndGet();
+                    totalWeight.addAndGet(-entry.weight);
+                    entry.weight = 0;
+                    entry.reference = null;
+                }
+                misses.incrementAndGet();
+                long start = System.nanoTime();
+                try{
+                    value = loader.apply(key);
+                }catch(RuntimeException | Error ex){
+                    entry.removed = true;
+                    map.remove(key, entry);
+                    throw ex;
+                }finally{
+                    loadTimeNanos.addAndGet(System.nanoTime() - start);
+                }
+                if(value == null){
+                    entry.removed = true;
+                    map.remove(key, entry);
+                    return null;
+                }
+                entry.set(value, reference(value), weigher.applyAsLong(key, value));
+                entry.touch(clock.incrementAndGet());
+                totalWeight.addAndGet(entry.weight);
+            }
+            evictIfNecessary(entry);
+            return value;
+        }
+    }
+
+    /**
+     * Returns the cached value or null if not available. This does not load the value.
+     * @param key the key
+     * @return the value or null
+     */
+    public V getIfPresent(K key) {
+        Entry<V> entry = map.get(key);
+        if(entry == null)
+            return null;
+        V value = entry.get();
+        if(value != null){
+            hits.incrementAndGet();
+            entry.touch(clock.incrementAndGet());
+        }
+        return value;
+    }
+
+    /**
+     * Adds (or replaces) a value in the cache.
+     * @param key the key
+     * @param value the value
+     */
+    public void put(K key, V value) {
+        Entry<V> entry = new Entry<>();
+        entry.set(value, reference(value), weigher.applyAsLong(key, value));
+        entry.touch(clock.incrementAndGet());
+        totalWeight.addAndGet(entry.weight);
+        Entry<V> old = map.put(key, entry);
+        if(old != null)
+            markRemoved(old);
+        evictIfNecessary(entry);
+    }
+
+    /**
+     * Removes the given key from the cache.
+     * @param key the key
+     */
+    public void invalidate(K key) {
+        Entry<V> entry = map.remove(key);
+        if(entry != null)
+            markRemoved(entry);
+    }
+
+    /**
+     * Removes all entries of the cache. The statistics are not reset.
+     */
+    public void clear() {
+        for(K key : map.keySet()){
+            invalidate(key);
+        }
+    }
+
+    /**
+     * Returns the number of entries in the cache (including entries whose values are already removed by the garbage collector).
+     * @return the number of entries
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the sum of the weights of all entries.
+     * @return the total weight
+     */
+    public long getTotalWeight() {
+        return totalWeight.get();
+    }
+
+    /**
+     * Returns a snapshot of the statistics of this cache.
+     * @return statistics
+     */
+    public Statistics getStatistics() {
+        return new Statistics(hits.get(), misses.get(), loadTimeNanos.get(), evictions.get(), collected.get(), map.size(), totalWeight.get());
+    }
+
+    private Reference<V> reference(V value){
+        switch(retention){
+            case SOFT:
+                return new SoftReference<>(value);
+            case WEAK:
+                return new WeakReference<>(value);
+            default:
+                return null;
+        }
+    }
+
+    private void markRemoved(Entry<V> entry){
+        synchronized(entry){
+            if(!entry.removed){
+                entry.removed = true;
+                totalWeight.addAndGet(-entry.weight);
+                entry.weight = 0;
+            }
+        }
+    }
+
+    /**
+     * Evicts entries until both bounds are satisfied. The given entry (usually the one which was just loaded) is never evicted.
+     * @param keep the entry to keep
+     */
+    private void evictIfNecessary(Entry<V> keep) {
+        while(map.size() > maximumSize || totalWeight.get() > maximumWeight){
+            K victim = null;
+            Entry<V> victimEntry = null;
+            for(Map.Entry<K, Entry<V>> e : map.entrySet()){
+                Entry<V> candidate = e.getValue();
+                if(candidate == keep || candidate.strong == null && candidate.reference == null)
+                    continue; // do not evict the new entry or entries which are currently loaded
+                if(victimEntry == null || isBetterVictim(candidate, victimEntry)){
+                    victim = e.getKey();
+                    victimEntry = candidate;
+                }
+            }
+            if(victimEntry == null)
+                return;
+            if(map.remove(victim, victimEntry)){
+                markRemoved(victimEntry);
+                evictions.incrementAndGet();
+            }
+        }
+    }
+
+    private boolean isBetterVictim(Entry<V> candidate, Entry<V> current){
+        if(evictionPolicy == EvictionPolicy.LFU && candidate.frequency != current.frequency){
+            return candidate.frequency < current.frequency;
+        }
+        return candidate.lastAccess < current.lastAccess;
+    }
+
+    private static class Entry<V>{
+        private volatile V strong;
+        private volatile Reference<V> reference;
+        private long weight;
+        private volatile long lastAccess;
+        private volatile long frequency;
+        private boolean removed;
+
+        V get(){
+            if(strong != null)
+                return strong;
+            return reference == null ? null : reference.get();
+        }
+
+        void set(V value, Reference<V> reference, long weight){
+            if(reference == null){
+                this.strong = value;
+            }else{
+                this.reference = reference;
+            }
+            this.weight = weight;
+        }
+
+        void touch(long time){
+            this.lastAccess = time;
+            this.frequency++;
+        }
+    }
+
+    /**
+     * Statistics of a {@link BoundedCache}.
+     */
+    public static class Statistics {
+        private final long hitCount;
+        private final long missCount;
+        private final long totalLoadTimeNanos;
+        private final long evictionCount;
+        private final long collectedCount;
+        private final long size;
+        private final long weight;
+
+        Statistics(long hitCount, long missCount, long totalLoadTimeNanos, long evictionCount, long collectedCount, long size, long weight) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.totalLoadTimeNanos = totalLoadTimeNanos;
+            this.evictionCount = evictionCount;
+            this.collectedCount = collectedCount;
+            this.size = size;
+            this.weight = weight;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Returns the ratio of hits to all requests (or 1.0 if there were no requests).
+         * @return the hit rate
+         */
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        public long getTotalLoadTimeNanos() {
+            return totalLoadTimeNanos;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * Returns how often a value was removed by the garbage collector (only for soft or weak retention).
+         * @return the number of collected values
+         */
+        public long getCollectedCount() {
+            return collectedCount;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getWeight() {
+            return weight;
+        }
+
+        @Override
+        public String toString() {
+            return "Statistics{" + "hits=" + hitCount + ", misses=" + missCount + ", loadTimeMs=" + (totalLoadTimeNanos / 1_000_000) +
+                    ", evictions=" + evictionCount + ", collected=" + collectedCount + ", size=" + size + ", weight=" + weight + '}';
+        }
+    }
+}
@@ -104,6 +104,15 @@ public class ParameterConfigKeys {
      */
     public static final String ALLOW_ALIGNMENT_REPAIR = "http://oaei.ontologymatching.org/allowAlignmentRepair";
     
+    /**
+     * A boolean value indicating if alignments should be exchanged in the binary alignment format instead of the XML based alignment format.
+     * This is much faster, but the binary format can only be read by MELT (java) components. Thus it should only be set to true
+     * if all matchers in the pipeline run in the same JVM or on the same host (and not e.g. in a docker container or as a python process).
+     * This defaults to false.
+     * It is used in Alignment2BinaryURLTransformer and BinaryURL2AlignmentTransformer.
+     */
+    public static final String USE_BINARY_ALIGNMENT_FORMAT = "http://oaei.ontologymatching.org/useBinaryAlignmentFormat";
+    
     
     /**
      * A string decribing the format of the input files. This parameter is mainly used by HOBBIT.
@@ -12,12 +12,15 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.apache.http.Header;
 import org.apache.http.HttpEntity;
 import org.apache.http.NameValuePair;
 import org.apache.http.client.config.RequestConfig;
 import org.apache.http.client.entity.UrlEncodedFormEntity;
 import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
 import org.apache.http.client.methods.HttpPost;
+import org.apache.http.client.utils.URIBuilder;
 import org.apache.http.entity.mime.MultipartEntityBuilder;
 import org.apache.http.impl.client.CloseableHttpClient;
 import org.apache.http.impl.client.HttpClients;
@@ -61,6 +64,22 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
      */
     private RequestConfig requestConfig;
 
+    /**
+     * If true, the matching service is called asynchronously: the request returns a job id immediately
+     * and the result is polled (see {@link #setAsynchronous(boolean) }).
+     */
+    private boolean asynchronous = false;
+
+    /**
+     * The initial time in milliseconds to wait between two polls of an asynchronous job.
+     */
+    private long initialPollIntervalInMillis = 1000;
+
+    /**
+     * The maximum time in milliseconds to wait between two polls of an asynchronous job.
+     */
+    private long maxPollIntervalInMillis = 60000;
+
     /**
      * Creates a matcher which wraps a matching service available at the given URI with timeout options.
      *
@@ -114,6 +133,9 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
 
     @Override
     public URL match(URL source, URL target, URL inputAlignment, URL parameters) throws Exception {
+        if (this.asynchronous) {
+            return matchAsynchronous(source, target, inputAlignment, parameters);
+        }
         //https://stackoverflow.com/questions/1378920/how-can-i-make-a-multipart-form-data-post-request-using-java?rq=1
 
         int currentTrials = 0;
@@ -121,31 +143,7 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
 
         while (currentTrials < maxTrials) {
 
-            HttpPost request = new HttpPost(uri);
-
-            if (this.sendContent) {
-                MultipartEntityBuilder builder = MultipartEntityBuilder.create();
-                builder.addBinaryBody("source", source.openStream()) //TODO: close stream?
-                        .addBinaryBody("target", target.openStream());
-                if (inputAlignment != null)
-                    builder.addBinaryBody("inputAlignment", inputAlignment.openStream());
-
-                if (parameters != null)
-                    builder.addBinaryBody("parameters", parameters.openStream());
-
-                request.setEntity(builder.build());
-            } else {
-                List<NameValuePair> params = new ArrayList<>();
-                params.add(new BasicNameValuePair("source", source.toString()));
-                params.add(new BasicNameValuePair("target", target.toString()));
-                if (inputAlignment != null)
-                    params.add(new BasicNameValuePair("inputAlignment", inputAlignment.toString()));
-                if (parameters != null)
-                    params.add(new BasicNameValuePair("parameters", parameters.toString()));
-
-                request.setEntity(new UrlEncodedFormEntity(params));
-            }
-            request.setConfig(this.requestConfig);
+            HttpPost request = createMatchRequest(uri, source, target, inputAlignment, parameters);
             LOGGER.info("Execute now the following HTTP request: {}", request);
 
 
@@ -159,16 +157,7 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
                         isStatusCodeError = true;
                         throw new IOException("Server returned a non 200 status code.");
                     }
-                    if (this.sendContent) {
-                        File alignmentFile = File.createTempFile("alignment", ".rdf");
-                        try (OutputStream out = new FileOutputStream(alignmentFile)) {
-                            entity.writeTo(out);
-                        }
-                        return alignmentFile.toURI().toURL();
-                    } else {
-                        String resultString = EntityUtils.toString(entity);
-                        return new URL(resultString);
-                    }
+                    return getResult(entity);
                 }
             } catch (Exception e) {
                 if (isStatusCodeError) {
@@ -191,6 +180,130 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
         throw new Exception("The service could not be reached after " + maxTrials + ".");
     }
 
+    /**
+     * Submits the match request as an asynchronous job and polls the job until the result is available.
+     * The time between two polls starts with the initial poll interval and is doubled after each poll
+     * (up to the maximum poll interval). Thus no connection is kept open while the matcher is running.
+     */
+    private URL matchAsynchronous(URL source, URL target, URL inputAlignment, URL parameters) throws Exception {
+        URI jobURI = submitJob(source, target, inputAlignment, parameters);
+        LOGGER.info("Submitted asynchronous job: {}", jobURI);
+        long pollInterval = this.initialPollIntervalInMillis;
+        int currentTrials = 0;
+        while (true) {
+            Thread.sleep(pollInterval);
+            pollInterval = Math.min(pollInterval * 2, this.maxPollIntervalInMillis);
+            HttpGet request = new HttpGet(jobURI);
+            request.setConfig(this.requestConfig);
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                currentTrials = 0;
+                int statusCode = response.getStatusLine().getStatusCode();
+                HttpEntity entity = response.getEntity();
+                if (statusCode == 202) {
+                    LOGGER.debug("Job {} is not finished yet: {}", jobURI, entity == null ? "" : EntityUtils.toString(entity));
+                    continue;
+                }
+                if (statusCode != 200 || entity == null) {
+                    String message = entity == null ? "" : EntityUtils.toString(entity);
+                    LOGGER.error("Job {} failed with status code {}: {}", jobURI, statusCode, message);
+                    throw new MatcherHTTPException("Job failed with status code " + statusCode + ": " + message);
+                }
+                return getResult(entity);
+            } catch (MatcherHTTPException e) {
+                throw e;
+            } catch (IOException e) {
+                currentTrials++;
+                if (currentTrials >= maxTrials) {
+                    throw new Exception("The job status could not be retrieved after " + maxTrials + " trials.", e);
+                }
+                LOGGER.info("Could not retrieve the status of job {}. Retry...", jobURI);
+            }
+        }
+    }
+
+    /**
+     * Submits the match request as an asynchronous job.
+     * @return the URI of the job which can be polled
+     */
+    private URI submitJob(URL source, URL target, URL inputAlignment, URL parameters) throws Exception {
+        URI asyncURI = new URIBuilder(uri).addParameter("async", "true").build();
+        int currentTrials = 0;
+        while (true) {
+            HttpPost request = createMatchRequest(asyncURI, source, target, inputAlignment, parameters);
+            request.setHeader("Prefer", "respond-async");
+            LOGGER.info("Execute now the following HTTP request: {}", request);
+            try (CloseableHttpResponse response = httpClient.execute(request)) {
+                int statusCode = response.getStatusLine().getStatusCode();
+                HttpEntity entity = response.getEntity();
+                String body = entity == null ? "" : EntityUtils.toString(entity);
+                if (statusCode == 202) {
+                    Header location = response.getFirstHeader("Location");
+                    if (location != null) {
+                        return uri.resolve(location.getValue());
+                    }
+                    return uri.resolve("jobs/" + body.trim());
+                }
+                if (statusCode != 503) {
+                    LOGGER.error("Server returned status code {} instead of 202: {}", statusCode, body);
+                    throw new MatcherHTTPException("Server returned status code " + statusCode + " instead of 202.");
+                }
+                LOGGER.info("Job queue of the server is full.");
+            } catch (MatcherHTTPException e) {
+                throw e;
+            } catch (IOException e) {
+                LOGGER.info("Endpoint is not ready / an exception occurred.", e);
+            }
+            currentTrials++;
+            if (currentTrials >= maxTrials) {
+                throw new Exception("The job could not be submitted after " + maxTrials + " trials.");
+            }
+            LOGGER.info("Sleep for {} seconds and retry...", sleepTimeInSeconds);
+            Thread.sleep(sleepTimeInSeconds * 1000L);
+        }
+    }
+
+    private HttpPost createMatchRequest(URI requestURI, URL source, URL target, URL inputAlignment, URL parameters) throws IOException {
+        HttpPost request = new HttpPost(requestURI);
+
+        if (this.sendContent) {
+            MultipartEntityBuilder builder = MultipartEntityBuilder.create();
+            builder.addBinaryBody("source", source.openStream()) //TODO: close stream?
+                    .addBinaryBody("target", target.openStream());
+            if (inputAlignment != null)
+                builder.addBinaryBody("inputAlignment", inputAlignment.openStream());
+
+            if (parameters != null)
+                builder.addBinaryBody("parameters", parameters.openStream());
+
+            request.setEntity(builder.build());
+        } else {
+            List<NameValuePair> params = new ArrayList<>();
+            params.add(new BasicNameValuePair("source", source.toString()));
+            params.add(new BasicNameValuePair("target", target.toString()));
+            if (inputAlignment != null)
+                params.add(new BasicNameValuePair("inputAlignment", inputAlignment.toString()));
+            if (parameters != null)
+                params.add(new BasicNameValuePair("parameters", parameters.toString()));
+
+            request.setEntity(new UrlEncodedFormEntity(params));
+        }
+        request.setConfig(this.requestConfig);
+        return request;
+    }
+
+    private URL getResult(HttpEntity entity) throws IOException {
+        if (this.sendContent) {
+            File alignmentFile = File.createTempFile("alignment", ".rdf");
+            try (OutputStream out = new FileOutputStream(alignmentFile)) {
+                entity.writeTo(out);
+            }
+            return alignmentFile.toURI().toURL();
+        } else {
+            String resultString = EntityUtils.toString(entity);
+            return new URL(resultString);
+        }
+    }
+
     public void setTimeout(int socketTimeout, int connectTimeout, int connectionRequestTimeout) {
         this.requestConfig = RequestConfig.custom()
                 .setSocketTimeout(socketTimeout)
@@ -213,4 +326,38 @@ public class MatcherHTTPCall extends MatcherURL implements IMatcher<URL, URL, UR
         this.sendContent = sendContent;
     }
 
+    /**
+     * If true, the matching service is called asynchronously: the match request returns a job id immediately
+     * and the job is polled with an exponential backoff until the result is available.
+     * This avoids to keep a connection open for a long running matcher (which might be closed by proxies).
+     * The matching service needs to support asynchronous jobs (like the MELT HTTP receiver).
+     *
+     * @param asynchronous true to call the service asynchronously
+     */
+    public void setAsynchronous(boolean asynchronous) {
+        this.asynchronous = asynchronous;
+    }
+
+    /**
+     * Sets the time to wait between two polls of an asynchronous job.
+     * The interval starts with the initial value and is doubled after each poll until it reaches the maximum.
+     *
+     * @param initialPollIntervalInMillis the initial time in milliseconds between two polls
+     * @param maxPollIntervalInMillis the maximum time in milliseconds between two polls
+     */
+    public void setPollInterval(long initialPollIntervalInMillis, long maxPollIntervalInMillis) {
+        this.initialPollIntervalInMillis = initialPollIntervalInMillis;
+        this.maxPollIntervalInMillis = maxPollIntervalInMillis;
+    }
+
+    /**
+     * Exception which indicates that the server answered with an error (in this case no retry is executed).
+     */
+    private static class MatcherHTTPException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        MatcherHTTPException(String message) {
+            super(message);
+        }
+    }
 }
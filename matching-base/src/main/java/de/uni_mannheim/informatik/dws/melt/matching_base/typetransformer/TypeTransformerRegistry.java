@@ -10,10 +10,13 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
+import java.util.PriorityQueue;
 import java.util.Properties;
 import java.util.Queue;
 import java.util.ServiceLoader;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -76,10 +79,24 @@ public class TypeTransformerRegistry {
      */
     private static final boolean ALLOW_MULTI_STEP = Boolean.parseBoolean(System.getProperty("MELT_TRANSFORMATION_ALLOW_MULTI_STEP", "true"));
 
-    public static void addTransformer(TypeTransformer<?,?> transformer){
+    /**
+     * The cache of already computed transformation routes together with the transformers it is based on.
+     * It is set to null whenever a transformer is added or removed and lazily recreated.
+     * All modifications of the transformers as well as the recreation of the cache synchronize on the TypeTransformerRegistry class,
+     * thus a cache built from the transformers can never be installed after a concurrent modification invalidated it.
+     */
+    private static volatile RouteCache routeCache = null;
+    
+    /**
+     * Marker in the route cache that no route exists.
+     */
+    private static final TransformationRoute<?> NO_ROUTE = new TransformationRoute<>(Object.class, Object.class, Collections.emptyList(), Integer.MAX_VALUE);
+    
+    public static synchronized void addTransformer(TypeTransformer<?,?> transformer){
         TRANFORMERS.computeIfAbsent(transformer.getSourceType(), __-> new HashMap<>())
                 .computeIfAbsent(transformer.getTargetType(), __-> new HashSet<>())
                 .add(transformer);
+        routeCache = null;
     }
     
     public static void addAllTransformersViaServiceRegistry(){
@@ -103,6 +120,8 @@ public class TypeTransformerRegistry {
         //alignment
         "de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation.Alignment2URLTransformer",
         "de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation.URL2AlignmentTransformer",
+        "de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation.Alignment2BinaryURLTransformer",
+        "de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation.BinaryURL2AlignmentTransformer",
         
         //properties
         "de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.basetransformers.URL2PropertiesTransformer",
@@ -133,7 +152,7 @@ public class TypeTransformerRegistry {
         
     }
     
-    public static void removeTransformer(TypeTransformer<?,?> transformer){
+    public static synchronized void removeTransformer(TypeTransformer<?,?> transformer){
         Map<Class<?>,Set<TypeTransformer<?,?>>> map = TRANFORMERS.get(transformer.getSourceType());
         if(map != null){
             Set<TypeTransformer<?,?>> set = map.get(transformer.getTargetType());
@@ -141,20 +160,22 @@ public class TypeTransformerRegistry {
                 set.remove(transformer);
             }
         }
+        routeCache = null;
     }
     
     /**
      * Removes all transformers. Use it with care.
      */
-    public static void clear(){
+    public static synchronized void clear(){
         TRANFORMERS.clear();
+        routeCache = null;
     }
     
     /**
      * Get all registered tranformers. For debugging purposes.
      * @return all registered transformers.
      */
-    public static Set<TypeTransformer<?,?>> getAllRegisteredTypeTransformers(){
+    public static synchronized Set<TypeTransformer<?,?>> getAllRegisteredTypeTransformers(){
         Set<TypeTransformer<?,?>> transformers = new HashSet<>();
         for(Map<Class<?>,Set<TypeTransformer<?,?>>> entry : TRANFORMERS.values()){
             for(Set<TypeTransformer<?,?>> typetransformers : entry.values()){
@@ -261,6 +282,9 @@ public class TypeTransformerRegistry {
     /**
      * Returns type transformation route for one of the source classes to the target class.If no transformation is available, then a TypeTransformationException is thrown.
      * If no classes are gioven, then null is returned.
+     * The routes are cached based on the source classes, the target class, the hierarchy cost, the multi step setting and the transformation
+     * costs of all registered transformers for the given parameters. Thus a route is only computed once for each parameter combination which
+     * leads to the same transformation costs. The cache is invalidated whenever a transformer is added or removed.
      * @param <T> the target type
      * @param sources the iterable of source classes
      * @param target the target class
@@ -270,6 +294,7 @@ public class TypeTransformerRegistry {
      * @return null if there is no path, otherwise instance of TransformationRoute (which can contain no transformers, when the source is a subclass of target class)
      * @throws TypeTransformationException if no route is found
      */
+    @SuppressWarnings("unchecked")
     public static <T> TransformationRoute<T> getClassTransformationRouteMultipleRepresentations(Iterable<Class<?>> sources, Class<T> target, Properties parameters, int hierarchyTransformationCost, boolean allowMultiStep) throws TypeTransformationException{
         if(sources == null || target == null)
             return null;
@@ -281,87 +306,104 @@ public class TypeTransformerRegistry {
             }
             return null;
         }
-        if(allowMultiStep == false)
-            return transformInOneStep(sources, target, parameters, hierarchyTransformationCost);
-        
-        //simple non performant Dijkstra
-        Set<Class<?>> settledNodes = new HashSet<>();
-        Set<Class<?>> unSettledNodes = new HashSet<>();
-        Map<Class<?>, TransformationEdge> predecessors = new HashMap<>();
-        Map<Class<?>, Integer> distances = new HashMap<>();
-        
+        Set<Class<?>> sourceClasses = new HashSet<>();
         for(Class<?> sourceClass : sources){
-            if(sourceClass == null)
-                continue;
-            for(Entry<Class<?>, Integer> e : getAllSuperClassesAndIterfacesWithCost(sourceClass, hierarchyTransformationCost).entrySet()){
-                distances.put(e.getKey(), e.getValue());
-                unSettledNodes.add(e.getKey());
-                if(e.getKey() != sourceClass){
-                    predecessors.put(e.getKey(), new TransformationEdge(sourceClass, e.getKey(), null, e.getValue()));
-                }
-            }
+            if(sourceClass != null)
+                sourceClasses.add(sourceClass);
         }
-        
-        if(unSettledNodes.isEmpty())
+        if(sourceClasses.isEmpty())
             return null;
         
-        while (unSettledNodes.size() > 0) {
-            Class<?> node = getMinimum(distances, unSettledNodes);
-            if(node.equals(target)){                
-                //search path back starting from target
-                List<TypeTransformer<?,?>> transformers = new ArrayList<>();
-                TransformationEdge previousEdge;
-                Class<?> tmpNode = node;
-                while((previousEdge = predecessors.get(tmpNode)) != null){
-                    if(previousEdge.getTransformer() != null)
-                        transformers.add(previousEdge.getTransformer());
-                    tmpNode = previousEdge.getSource();
-                }
-                Collections.reverse(transformers);
-                return new TransformationRoute<>(tmpNode, target, transformers, distances.get(node));
-            }
-            
-            settledNodes.add(node);
-            unSettledNodes.remove(node);
-            
-            //findMinimalDistances
-            int distanceNode = distances.getOrDefault(node, Integer.MAX_VALUE);
-            
-            for(Entry<Class<?>, Set<TypeTransformer<?,?>>> targetClassToTransformers : TRANFORMERS.getOrDefault(node, new HashMap<>()).entrySet()){
-                for(Entry<Class<?>, Integer> targetClassToHierarchyCost : getAllSuperClassesAndIterfacesWithCost(targetClassToTransformers.getKey(), hierarchyTransformationCost).entrySet()){
-                    Class<?> targetClazz = targetClassToHierarchyCost.getKey();
-                    if(settledNodes.contains(targetClazz))
-                        continue;
-                    for(TypeTransformer<?,?> transformer : targetClassToTransformers.getValue()){
-                        int edgeCost = transformer.getTransformationCost(parameters) + targetClassToHierarchyCost.getValue();
-                        int newCost = distanceNode + edgeCost;
-                        if(distances.getOrDefault(targetClazz, Integer.MAX_VALUE) > newCost){
-                            distances.put(targetClazz, newCost);
-                            unSettledNodes.add(targetClazz);
-                            predecessors.put(targetClazz, new TransformationEdge(node, targetClazz, transformer, edgeCost));
-                        }
-                    }
-                }
+        RouteCache cache = getRouteCache();
+        RouteKey key = new RouteKey(sourceClasses, target, cache.getCostSignature(parameters), hierarchyTransformationCost, allowMultiStep);
+        TransformationRoute<?> route = cache.routes.get(key);
+        if(route == null){
+            if(allowMultiStep){
+                RouteSearch search = new RouteSearch(cache.graph, parameters, hierarchyTransformationCost);
+                search.run(sourceClasses, target);
+                route = search.getRoute(target);
+            }else{
+                route = transformInOneStep(cache.graph, sourceClasses, target, parameters, hierarchyTransformationCost);
             }
+            cache.routes.put(key, route == null ? NO_ROUTE : route);
         }
-        throw new TypeTransformationException("No transformation route is found between " + sources + " to " + target);
+        if(route == null || route == NO_ROUTE)
+            throw new TypeTransformationException("No transformation route is found between " + sourceClasses + " to " + target);
+        return (TransformationRoute<T>) route;
     }
     
-    private static Class<?> getMinimum(Map<Class<?>, Integer> distances, Set<Class<?>> vertexes) {
-        Class<?> minimum = null;
-        int minDistance = Integer.MAX_VALUE;
-        for (Class<?> vertex : vertexes) {
-            int d = distances.getOrDefault(vertex, Integer.MAX_VALUE);
-            if (d < minDistance) {
-                minimum = vertex;
-                minDistance = d;
+    /**
+     * Precomputes all transformation routes between the source and target types of the registered transformers with default parameters
+     * (empty properties) and stores them in the route cache.
+     * This is useful before calling many matchers on small test cases, because then no route needs to be searched anymore.
+     * @return the number of precomputed routes
+     */
+    public static int precomputeTransformationRoutes(){
+        return precomputeTransformationRoutes(new Properties());
+    }
+    
+    /**
+     * Precomputes all transformation routes between the source and target types of the registered transformers and stores them
+     * in the route cache. Routes for subclasses of those types are computed (and cached) on first usage.
+     * The precomputed routes are only used if the transformation costs for later used parameters are the same as for the given ones.
+     * @param parameters the parameters which are used to compute the transformation costs
+     * @return the number of precomputed routes
+     */
+    public static int precomputeTransformationRoutes(Properties parameters){
+        return precomputeTransformationRoutes(parameters, HIERARCHY_TRANSFORMATION_COST);
+    }
+    
+    /**
+     * Precomputes all (multi step) transformation routes between the source and target types of the registered transformers and stores them
+     * in the route cache. Routes for subclasses of those types are computed (and cached) on first usage.
+     * The precomputed routes are only used if the transformation costs for later used parameters are the same as for the given ones.
+     * @param parameters the parameters which are used to compute the transformation costs
+     * @param hierarchyTransformationCost hierarchy transformation cost: see {@link TypeTransformerRegistry#HIERARCHY_TRANSFORMATION_COST}
+     * @return the number of precomputed routes
+     */
+    public static int precomputeTransformationRoutes(Properties parameters, int hierarchyTransformationCost){
+        RouteCache cache = getRouteCache();
+        CostSignature signature = cache.getCostSignature(parameters);
+        Set<Class<?>> types = new HashSet<>();
+        for(TypeTransformer<?,?> transformer : cache.transformers){
+            types.add(transformer.getSourceType());
+            types.add(transformer.getTargetType());
+        }
+        int routes = 0;
+        for(Class<?> source : types){
+            Set<Class<?>> sourceClasses = Collections.singleton(source);
+            RouteSearch search = new RouteSearch(cache.graph, parameters, hierarchyTransformationCost);
+            search.run(sourceClasses, null);
+            Set<Class<?>> targets = new HashSet<>(types);
+            targets.addAll(search.getReachedClasses());
+            for(Class<?> target : targets){
+                if(target == Object.class)
+                    continue;
+                TransformationRoute<?> route = search.getRoute(target);
+                cache.routes.put(new RouteKey(sourceClasses, target, signature, hierarchyTransformationCost, true), route == null ? NO_ROUTE : route);
+                if(route != null)
+                    routes++;
+            }
+        }
+        LOGGER.debug("Precomputed {} transformation routes.", routes);
+        return routes;
+    }
+    
+    private static RouteCache getRouteCache(){
+        RouteCache cache = routeCache;
+        if(cache == null){
+            synchronized(TypeTransformerRegistry.class){
+                cache = routeCache;
+                if(cache == null){
+                    cache = new RouteCache(TRANFORMERS);
+                    routeCache = cache;
+                }
             }
         }
-        return minimum;
+        return cache;
     }
     
-    
-    private static <T> TransformationRoute<T> transformInOneStep(Iterable<Class<?>> sources, Class<T> target, Properties parameters, int hierarchyTransformationCost) throws TypeTransformationException{
+    private static <T> TransformationRoute<T> transformInOneStep(Map<Class<?>, Map<Class<?>,Set<TypeTransformer<?,?>>>> transformers, Iterable<Class<?>> sources, Class<T> target, Properties parameters, int hierarchyTransformationCost){
         //target is not null because this method is called from transformClassMultipleRepresentations
         List<TransformationRoute<T>> transformationRoutes = new ArrayList<>();
         for(Class<?> src : sources){
@@ -369,16 +411,16 @@ public class TypeTransformerRegistry {
                 continue;
             for(Entry<Class<?>, Integer> sourceHierarchy : getAllSuperClassesAndIterfacesWithCost(src, hierarchyTransformationCost).entrySet()){
                 if(sourceHierarchy.getKey() == target){
-                    transformationRoutes.add(new TransformationRoute<>(src, target, new ArrayList<>(), sourceHierarchy.getValue()));
+                    transformationRoutes.add(new TransformationRoute<>(src, target, Collections.emptyList(), sourceHierarchy.getValue()));
                 }
-                for(Entry<Class<?>, Set<TypeTransformer<?,?>>> targetToTransformers : TRANFORMERS.getOrDefault(sourceHierarchy.getKey(), new HashMap<>()).entrySet()){
+                for(Entry<Class<?>, Set<TypeTransformer<?,?>>> targetToTransformers : transformers.getOrDefault(sourceHierarchy.getKey(), Collections.emptyMap()).entrySet()){
                     Integer targetHierarchyCost = getAllSuperClassesAndIterfacesWithCost(targetToTransformers.getKey(), hierarchyTransformationCost).get(target);
                     if(targetHierarchyCost != null){
                         for(TypeTransformer<?,?> transformer : targetToTransformers.getValue()){
                             transformationRoutes.add(new TransformationRoute<>(
                                     src, 
                                     target, 
-                                    Arrays.asList(transformer), 
+                                    Collections.singletonList(transformer), 
                                     sourceHierarchy.getValue() + transformer.getTransformationCost(parameters) +  targetHierarchyCost));
                         }
                     }
@@ -386,7 +428,7 @@ public class TypeTransformerRegistry {
             }
         }
         if(transformationRoutes.isEmpty())
-            throw new TypeTransformationException("No transformation route is found between " + sources + " to " + target);
+            return null;
         transformationRoutes.sort(Comparator.comparing(TransformationRoute::getCost));
         return transformationRoutes.get(0);
     }
@@ -681,7 +723,7 @@ public class TypeTransformerRegistry {
      * Cache for Superclasses and interfaces for a given class.
      * Since there are ussually not so many classes, this information can directly be cache without much memory consumption.
      */
-    private static final Map<Class<?>, Map<Class<?>, Integer>> SUPER_CLASSES_CACHE = new HashMap<>();
+    private static final Map<Class<?>, Map<Class<?>, Integer>> SUPER_CLASSES_CACHE = new ConcurrentHashMap<>();
 
     /**
      * Given a class return all superclasses and interfaces except the Object class (which woul be too generic).
@@ -749,3 +791,223 @@ class TransformationEdge{
     }
 }
 
+/**
+ * Snapshot of the registered transformers together with all routes computed on this snapshot.
+ * A new instance is created whenever the transformers change, thus routes computed concurrently on an old snapshot are never visible.
+ */
+class RouteCache{
+    final Map<Class<?>, Map<Class<?>,Set<TypeTransformer<?,?>>>> graph;
+    final List<TypeTransformer<?,?>> transformers;
+    final Map<RouteKey, TransformationRoute<?>> routes;
+
+    RouteCache(Map<Class<?>, Map<Class<?>,Set<TypeTransformer<?,?>>>> registeredTransformers) {
+        this.graph = new HashMap<>();
+        this.transformers = new ArrayList<>();
+        for(Entry<Class<?>, Map<Class<?>,Set<TypeTransformer<?,?>>>> source : registeredTransformers.entrySet()){
+            Map<Class<?>,Set<TypeTransformer<?,?>>> targets = new HashMap<>();
+            for(Entry<Class<?>,Set<TypeTransformer<?,?>>> target : source.getValue().entrySet()){
+                if(target.getValue().isEmpty())
+                    continue;
+                targets.put(target.getKey(), new HashSet<>(target.getValue()));
+                this.transformers.addAll(target.getValue());
+            }
+            this.graph.put(source.getKey(), targets);
+        }
+        this.routes = new ConcurrentHashMap<>();
+    }
+    
+    /**
+     * The costs of all transformers for the given parameters.
+     * Two parameter objects with the same signature lead to the same routes.
+     * @param parameters the parameters
+     * @return the cost signature
+     */
+    CostSignature getCostSignature(Properties parameters){
+        int[] costs = new int[transformers.size()];
+        for(int i = 0; i < costs.length; i++){
+            costs[i] = transformers.get(i).getTransformationCost(parameters);
+        }
+        return new CostSignature(costs);
+    }
+}
+
+class CostSignature{
+    private final int[] costs;
+    private final int hash;
+
+    CostSignature(int[] costs) {
+        this.costs = costs;
+        this.hash = Arrays.hashCode(costs);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        return Arrays.equals(this.costs, ((CostSignature) obj).costs);
+    }
+}
+
+class RouteKey{
+    private final Set<Class<?>> sources;
+    private final Class<?> target;
+    private final CostSignature costSignature;
+    private final int hierarchyTransformationCost;
+    private final boolean allowMultiStep;
+    private final int hash;
+
+    RouteKey(Set<Class<?>> sources, Class<?> target, CostSignature costSignature, int hierarchyTransformationCost, boolean allowMultiStep) {
+        this.sources = sources;
+        this.target = target;
+        this.costSignature = costSignature;
+        this.hierarchyTransformationCost = hierarchyTransformationCost;
+        this.allowMultiStep = allowMultiStep;
+        this.hash = Objects.hash(sources, target, costSignature, hierarchyTransformationCost, allowMultiStep);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj)
+            return true;
+        if (obj == null || getClass() != obj.getClass())
+            return false;
+        final RouteKey other = (RouteKey) obj;
+        return this.hierarchyTransformationCost == other.hierarchyTransformationCost &&
+                this.allowMultiStep == other.allowMultiStep &&
+                this.target == other.target &&
+                this.sources.equals(other.sources) &&
+                this.costSignature.equals(other.costSignature);
+    }
+}
+
+/**
+ * Dijkstra search (with a priority queue) over the graph of classes where the edges are the type transformers
+ * (and the subclass to superclass relations if hierarchy is allowed).
+ */
+class RouteSearch{
+    private final Map<Class<?>, Map<Class<?>,Set<TypeTransformer<?,?>>>> graph;
+    private final Properties parameters;
+    private final int hierarchyTransformationCost;
+    
+    private final Map<Class<?>, Integer> distances;
+    private final Map<Class<?>, TransformationEdge> predecessors;
+    private final Set<Class<?>> settledNodes;
+    private long insertionCounter;
+
+    RouteSearch(Map<Class<?>, Map<Class<?>,Set<TypeTransformer<?,?>>>> graph, Properties parameters, int hierarchyTransformationCost) {
+        this.graph = graph;
+        this.parameters = parameters;
+        this.hierarchyTransformationCost = hierarchyTransformationCost;
+        this.distances = new HashMap<>();
+        this.predecessors = new HashMap<>();
+        this.settledNodes = new HashSet<>();
+        this.insertionCounter = 0;
+    }
+    
+    /**
+     * Runs the search.
+     * @param sources the source classes
+     * @param target the target class - the search stops when it is settled. If null, all reachable classes are settled.
+     */
+    void run(Set<Class<?>> sources, Class<?> target){
+        PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+        for(Class<?> sourceClass : sources){
+            for(Entry<Class<?>, Integer> e : TypeTransformerRegistry.getAllSuperClassesAndIterfacesWithCost(sourceClass, hierarchyTransformationCost).entrySet()){
+                if(e.getValue() < distances.getOrDefault(e.getKey(), Integer.MAX_VALUE)){
+                    distances.put(e.getKey(), e.getValue());
+                    if(e.getKey() != sourceClass){
+                        predecessors.put(e.getKey(), new TransformationEdge(sourceClass, e.getKey(), null, e.getValue()));
+                    }else{
+                        predecessors.remove(e.getKey());
+                    }
+                    queue.add(new QueueEntry(e.getKey(), e.getValue(), insertionCounter++));
+                }
+            }
+        }
+        
+        while(!queue.isEmpty()){
+            QueueEntry entry = queue.poll();
+            Class<?> node = entry.node;
+            if(settledNodes.contains(node) || entry.distance > distances.get(node))
+                continue; // outdated entry
+            settledNodes.add(node);
+            if(node.equals(target))
+                return;
+            
+            for(Entry<Class<?>, Set<TypeTransformer<?,?>>> targetClassToTransformers : graph.getOrDefault(node, Collections.emptyMap()).entrySet()){
+                for(Entry<Class<?>, Integer> targetClassToHierarchyCost : TypeTransformerRegistry.getAllSuperClassesAndIterfacesWithCost(targetClassToTransformers.getKey(), hierarchyTransformationCost).entrySet()){
+                    Class<?> targetClazz = targetClassToHierarchyCost.getKey();
+                    if(settledNodes.contains(targetClazz))
+                        continue;
+                    for(TypeTransformer<?,?> transformer : targetClassToTransformers.getValue()){
+                        int edgeCost = transformer.getTransformationCost(parameters) + targetClassToHierarchyCost.getValue();
+                        int newCost = entry.distance + edgeCost;
+                        if(distances.getOrDefault(targetClazz, Integer.MAX_VALUE) > newCost){
+                            distances.put(targetClazz, newCost);
+                            predecessors.put(targetClazz, new TransformationEdge(node, targetClazz, transformer, edgeCost));
+                            queue.add(new QueueEntry(targetClazz, newCost, insertionCounter++));
+                        }
+                    }
+                }
+            }
+        }
+    }
+    
+    Set<Class<?>> getReachedClasses(){
+        return settledNodes;
+    }
+    
+    /**
+     * Returns the route to the given target (which has to be settled by {@link #run(java.util.Set, java.lang.Class) }.
+     * @param <T> the type of the target
+     * @param target the target class
+     * @return the route or null if the target is not reached
+     */
+    <T> TransformationRoute<T> getRoute(Class<T> target){
+        if(!settledNodes.contains(target))
+            return null;
+        //search path back starting from target
+        List<TypeTransformer<?,?>> transformers = new ArrayList<>();
+        TransformationEdge previousEdge;
+        Class<?> tmpNode = target;
+        while((previousEdge = predecessors.get(tmpNode)) != null){
+            if(previousEdge.getTransformer() != null)
+                transformers.add(previousEdge.getTransformer());
+            tmpNode = previousEdge.getSource();
+        }
+        Collections.reverse(transformers);
+        return new TransformationRoute<>(tmpNode, target, Collections.unmodifiableList(transformers), distances.get(target));
+    }
+    
+    private static class QueueEntry implements Comparable<QueueEntry>{
+        private final Class<?> node;
+        private final int distance;
+        private final long order;
+
+        QueueEntry(Class<?> node, int distance, long order) {
+            this.node = node;
+            this.distance = distance;
+            this.order = order;
+        }
+
+        @Override
+        public int compareTo(QueueEntry o) {
+            int c = Integer.compare(this.distance, o.distance);
+            if(c != 0)
+                return c;
+            return Long.compare(this.order, o.order);
+        }
+    }
+}
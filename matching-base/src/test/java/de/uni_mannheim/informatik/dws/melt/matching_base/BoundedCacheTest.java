@@ -0,0 +1,141 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.BoundedCache.EvictionPolicy;
+import de.uni_mannheim.informatik.dws.melt.matching_base.BoundedCache.Retention;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+    @Test
+    void loadOnlyOnce() throws Exception {
+        BoundedCache<String, String> cache = new BoundedCache<>();
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try{
+            List<Future<String>> futures = new ArrayList<>();
+            for(int i = 0; i < 32; i++){
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return cache.get("key", k -> {
+                        loads.incrementAndGet();
+                        sleep(50);
+                        return k + "_value";
+                    });
+                }));
+            }
+            start.countDown();
+            for(Future<String> f : futures){
+                assertEquals("key_value", f.get());
+            }
+        }finally{
+            executor.shutdown();
+        }
+        assertEquals(1, loads.get());
+        assertEquals(1, cache.getStatistics().getMissCount());
+        assertEquals(31, cache.getStatistics().getHitCount());
+    }
+
+    @Test
+    void differentKeysLoadInParallel() throws Exception {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>();
+        CountDownLatch bothLoading = new CountDownLatch(2);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try{
+            Future<Integer> one = executor.submit(() -> cache.get(1, k -> { bothLoading.countDown(); await(bothLoading); return k; }));
+            Future<Integer> two = executor.submit(() -> cache.get(2, k -> { bothLoading.countDown(); await(bothLoading); return k; }));
+            //would time out if loading is serialized
+            assertEquals(1, one.get(5, TimeUnit.SECONDS));
+            assertEquals(2, two.get(5, TimeUnit.SECONDS));
+        }finally{
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void evictionBySizeLRU() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(2, EvictionPolicy.LRU, Retention.STRONG);
+        cache.get(1, k -> k);
+        cache.get(2, k -> k);
+        cache.get(1, k -> k); // 2 is now least recently used
+        cache.get(3, k -> k);
+        assertEquals(2, cache.size());
+        assertNotNull(cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+        assertNotNull(cache.getIfPresent(3));
+        assertEquals(1, cache.getStatistics().getEvictionCount());
+    }
+
+    @Test
+    void evictionBySizeLFU() {
+        BoundedCache<Integer, Integer> cache = new BoundedCache<>(2, EvictionPolicy.LFU, Retention.STRONG);
+        cache.get(1, k -> k);
+        cache.get(1, k -> k);
+        cache.get(2, k -> k); // 2 is most recently used, but less frequently
+        cache.get(3, k -> k);
+        assertNotNull(cache.getIfPresent(1));
+        assertNull(cache.getIfPresent(2));
+    }
+
+    @Test
+    void evictionByWeight() {
+        BoundedCache<String, String> cache = new BoundedCache<>(0, 10, (k, v) -> v.length(), EvictionPolicy.LRU, Retention.STRONG);
+        cache.get("a", k -> "12345");
+        cache.get("b", k -> "1234");
+        assertEquals(9, cache.getTotalWeight());
+        cache.get("c", k -> "123");
+        assertNull(cache.getIfPresent("a"));
+        assertEquals(7, cache.getTotalWeight());
+        //an entry which is larger than the maximum weight is still returned and kept
+        assertEquals("12345678901", cache.get("d", k -> "12345678901"));
+        assertEquals(1, cache.size());
+        assertEquals(11, cache.getTotalWeight());
+    }
+
+    @Test
+    void failedLoadIsNotCached() {
+        BoundedCache<String, String> cache = new BoundedCache<>();
+        assertThrows(IllegalStateException.class, () -> cache.get("key", k -> { throw new IllegalStateException(); }));
+        assertEquals(0, cache.size());
+        assertEquals("value", cache.get("key", k -> "value"));
+    }
+
+    @Test
+    void putAndClear() {
+        BoundedCache<String, String> cache = new BoundedCache<>(0, 100, (k, v) -> v.length(), EvictionPolicy.LRU, Retention.SOFT);
+        cache.put("key", "value");
+        assertEquals("value", cache.get("key", k -> "other"));
+        cache.put("key", "replaced");
+        assertEquals(8, cache.getTotalWeight());
+        cache.clear();
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getTotalWeight());
+        assertEquals("other", cache.get("key", k -> "other"));
+    }
+
+    private static void sleep(long millis){
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void await(CountDownLatch latch){
+        try {
+            latch.await();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
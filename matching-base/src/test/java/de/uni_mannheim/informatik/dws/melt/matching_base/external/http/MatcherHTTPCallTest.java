@@ -0,0 +1,98 @@
+package de.uni_mannheim.informatik.dws.melt.matching_base.external.http;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the HTTP call with a mock matching service which supports synchronous and asynchronous requests.
+ */
+public class MatcherHTTPCallTest {
+
+    private static final String RESULT = "file:/tmp/alignment.rdf";
+
+    private HttpServer server;
+    private URI matchURI;
+    private final AtomicInteger polls = new AtomicInteger();
+    private volatile boolean failJob;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/match", exchange -> {
+            String query = exchange.getRequestURI().getQuery();
+            if (query != null && query.contains("async=true")) {
+                exchange.getResponseHeaders().add("Location", "/jobs/42");
+                send(exchange, 202, "42");
+            } else {
+                send(exchange, 200, RESULT);
+            }
+        });
+        server.createContext("/jobs/", exchange -> {
+            if (!exchange.getRequestURI().getPath().equals("/jobs/42")) {
+                send(exchange, 404, "Job not found");
+            } else if (polls.incrementAndGet() < 3) {
+                send(exchange, 202, "RUNNING");
+            } else if (failJob) {
+                send(exchange, 500, "The matcher failed");
+            } else {
+                send(exchange, 200, RESULT);
+            }
+        });
+        server.start();
+        matchURI = URI.create("http://localhost:" + server.getAddress().getPort() + "/match");
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.stop(0);
+    }
+
+    @Test
+    public void testSynchronous() throws Exception {
+        MatcherHTTPCall call = new MatcherHTTPCall(matchURI, false);
+        URL result = call.match(new URL("file:/tmp/source.rdf"), new URL("file:/tmp/target.rdf"), null);
+        assertEquals(RESULT, result.toString());
+        assertEquals(0, polls.get());
+    }
+
+    @Test
+    public void testAsynchronous() throws Exception {
+        MatcherHTTPCall call = new MatcherHTTPCall(matchURI, false);
+        call.setAsynchronous(true);
+        call.setPollInterval(10, 40);
+        URL result = call.match(new URL("file:/tmp/source.rdf"), new URL("file:/tmp/target.rdf"), null);
+        assertEquals(RESULT, result.toString());
+        assertEquals(3, polls.get());
+    }
+
+    @Test
+    public void testAsynchronousFailure() throws Exception {
+        failJob = true;
+        MatcherHTTPCall call = new MatcherHTTPCall(matchURI, false);
+        call.setAsynchronous(true);
+        call.setPollInterval(10, 40);
+        IOException exception = assertThrows(IOException.class,
+                () -> call.match(new URL("file:/tmp/source.rdf"), new URL("file:/tmp/target.rdf"), null));
+        assertTrue(exception.getMessage().contains("500"));
+        assertEquals(3, polls.get());
+    }
+
+    private static void send(HttpExchange exchange, int statusCode, String body) throws IOException {
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(statusCode, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
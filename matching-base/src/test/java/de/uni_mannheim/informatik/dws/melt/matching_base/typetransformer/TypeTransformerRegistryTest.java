@@ -8,6 +8,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.function.Supplier;
 import javassist.CannotCompileException;
 import javassist.ClassPool;
@@ -161,6 +165,90 @@ public class TypeTransformerRegistryTest {
         assertEquals(1, r.getTransformations().size());
     }
     
+    @Test
+    public void testRouteCacheInvalidation() throws TypeTransformationException{
+        TypeTransformerRegistry.clear();
+        TypeTransformerRegistry.addTransformer(new TypeTransformerForTest<>(SourceSubClass.class, MiddleClass.class, 10));
+        TypeTransformerRegistry.addTransformer(new TypeTransformerForTest<>(MiddleClass.class, TargetSubClass.class, 10));
+        
+        TransformationRoute<TargetSubClass> r = TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class, new Properties(), -1, true);
+        assertEquals(20, r.getCost());
+        assertSame(r, TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class, new Properties(), -1, true));
+        
+        //a cheaper transformer is added - the cached route should not be used anymore
+        TypeTransformer<SourceSubClass, TargetSubClass> direct = new TypeTransformerForTest<>(SourceSubClass.class, TargetSubClass.class, 5);
+        TypeTransformerRegistry.addTransformer(direct);
+        r = TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class, new Properties(), -1, true);
+        assertEquals(5, r.getCost());
+        assertEquals(1, r.getTransformations().size());
+        
+        TypeTransformerRegistry.removeTransformer(direct);
+        assertEquals(20, TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class, new Properties(), -1, true).getCost());
+        
+        TypeTransformerRegistry.clear();
+        assertThrows(TypeTransformationException.class, () -> TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class, new Properties(), -1, true));
+        //also the missing route is cached and the exception is thrown again
+        assertThrows(TypeTransformationException.class, () -> TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class, new Properties(), -1, true));
+        
+        TypeTransformerRegistry.addTransformer(direct);
+        assertEquals(5, TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class, new Properties(), -1, true).getCost());
+    }
+    
+    @Test
+    public void testConcurrentModification() throws Exception{
+        TypeTransformerRegistry.clear();
+        TypeTransformerRegistry.addTransformer(new TypeTransformerForTest<>(SourceSubClass.class, MiddleClass.class, 10));
+        TypeTransformerRegistry.addTransformer(new TypeTransformerForTest<>(MiddleClass.class, TargetSubClass.class, 10));
+        TypeTransformer<SourceSubClass, TargetSubClass> direct = new TypeTransformerForTest<>(SourceSubClass.class, TargetSubClass.class, 5);
+        
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try{
+            List<Future<?>> readers = new ArrayList<>();
+            for(int i = 0; i < 3; i++){
+                readers.add(executor.submit(() -> {
+                    while(running.get()){
+                        TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class, new Properties(), -1, true);
+                    }
+                    return null;
+                }));
+            }
+            for(int i = 0; i < 2000; i++){
+                TypeTransformerRegistry.addTransformer(direct);
+                TypeTransformerRegistry.removeTransformer(direct);
+            }
+            TypeTransformerRegistry.addTransformer(direct);
+            running.set(false);
+            for(Future<?> reader : readers){
+                reader.get();
+            }
+        }finally{
+            executor.shutdownNow();
+        }
+        //no route cache which was computed before the last modification may be used
+        assertEquals(5, TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class, new Properties(), -1, true).getCost());
+    }
+    
+    @Test
+    public void testPrecomputeTransformationRoutes() throws TypeTransformationException{
+        TypeTransformerRegistry.clear();
+        TypeTransformerRegistry.addTransformer(new TypeTransformerForTest<>(SourceSuperClass.class, MiddleClass.class, 10));
+        TypeTransformerRegistry.addTransformer(new TypeTransformerForTest<>(MiddleClass.class, TargetSubClass.class, 10));
+        
+        assertTrue(TypeTransformerRegistry.precomputeTransformationRoutes(new Properties(), 5) > 0);
+        TransformationRoute<TargetSuperClass> precomputed = TypeTransformerRegistry.getClassTransformationRoute(SourceSuperClass.class, TargetSuperClass.class, new Properties(), 5, true);
+        assertEquals(25, precomputed.getCost());
+        assertEquals(2, precomputed.getTransformations().size());
+        assertSame(precomputed, TypeTransformerRegistry.getClassTransformationRoute(SourceSuperClass.class, TargetSuperClass.class, new Properties(), 5, true));
+        
+        assertThrows(TypeTransformationException.class, () -> TypeTransformerRegistry.getClassTransformationRoute(TargetSubClass.class, SourceSuperClass.class, new Properties(), 5, true));
+        
+        //subclasses are not precomputed but still work
+        TransformationRoute<TargetSubClass> r = TypeTransformerRegistry.getClassTransformationRoute(SourceSubClass.class, TargetSubClass.class, new Properties(), 5, true);
+        assertEquals(25, r.getCost());
+        assertEquals(SourceSubClass.class, r.getSource());
+    }
+    
     @Test
     public void testNullValues() throws TypeTransformationException{
         assertEquals(null, TypeTransformerRegistry.getObjectTransformationRoute(null, null));
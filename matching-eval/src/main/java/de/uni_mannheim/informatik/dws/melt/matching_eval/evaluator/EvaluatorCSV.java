@@ -26,15 +26,32 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.nio.CharBuffer;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import org.apache.commons.lang3.time.DurationFormatUtils;
 
 /**
  * This evaluator is capable of persisting the results of the matching process in a CSV file (which can be consumed
  * in Excel, for example).
  * It divides mappings into certain groups, namely: classes, properties, instances, and allConfusionMatrix.
+ * The combinations of matcher and test case can be evaluated in parallel (see {@link #setNumberOfThreads(int)}).
+ * The alignment cube is streamed: each combination writes its rows to a temporary shard file and the shards are merged
+ * at the end. Thus, only the analytical data of one test case per thread is held in memory.
  * If the alignment file are very large, it is better to use EvaluatorBasic.
  * @author Jan Portisch
  */
@@ -79,10 +96,17 @@ public class EvaluatorCSV extends Evaluator {
     private boolean isPrintAsShortenedString = true;
 
     /**
-     * Analytical Store for all alignments.
+     * Analytical Store which holds the configuration (resource explainers, correspondence extensions) of the alignment cube.
+     * The data itself is held in one small cube per test case and matcher (see {@link #createAlignmentsCube()}).
+     * The resource explainers are stateful, thus this instance is also used as lock when the cube rows are written.
      */
     private AlignmentsCube alignmentsCube;
 
+    /**
+     * The number of threads which evaluate the combinations of matcher and test case in parallel. Default: 1.
+     */
+    private int numberOfThreads = 1;
+
     /**
      * Printer which can be used to print an individual matcher performance for a test case
      * (e.g. precision, recall, f1).
@@ -112,6 +136,16 @@ public class EvaluatorCSV extends Evaluator {
 
     private static final String TRACK_PERFORMANCE_CUBE_FILE_NAME = "trackPerformanceCube.csv";
 
+    private static final String ALIGNMENT_CUBE_FILE_NAME = "alignmentCube.csv";
+
+    /**
+     * The mapping features of the alignment cube. The cubes of all test cases and matchers are written with these
+     * columns (empty if a cube does not have the feature) such that the rows match the header of the merged file.
+     */
+    private static final List<String> CUBE_FEATURE_NAMES = Arrays.asList(
+            AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString(),
+            AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString());
+
     private static CSVFormat csvFormat = CSVFormat.DEFAULT;
 
     /**
@@ -212,7 +246,7 @@ public class EvaluatorCSV extends Evaluator {
      * @param results The execution results for which an evaluation shall be performed.
      */
     public EvaluatorCSV(ExecutionResultSet results){
-       this(results, new ConfusionMatrixMetric());
+       this(results, ConfusionMatrixMetric.getSharedInstance());
     }
 
     /**
@@ -222,27 +256,125 @@ public class EvaluatorCSV extends Evaluator {
      * @param isPrintAsShortenedString The CSV output will be written with shortened URIs.
      */
     public EvaluatorCSV(ExecutionResultSet results, boolean isPrintAsShortenedString){
-        this(results, new ConfusionMatrixMetric(), isPrintAsShortenedString);
+        this(results, ConfusionMatrixMetric.getSharedInstance(), isPrintAsShortenedString);
     }
 
     @Override
     public void writeResultsToDirectory(File baseDirectory) {
         initializePrinters(baseDirectory);
-        for (String matcher : this.results.getDistinctMatchers()) {
-            LOGGER.info("Evaluate matcher {}", matcher);
-            // individual evaluation per test case
-            for (TestCase testCase : this.results.getDistinctTestCases(matcher)) {
-                writeOverviewFileMatcherTestCase(testCase, matcher, baseDirectory, false);
+        // individual evaluation per test case
+        File alignmentCubeFile = new File(baseDirectory, ALIGNMENT_CUBE_FILE_NAME);
+        try (Writer cubeWriter = new OutputStreamWriter(new FileOutputStream(alignmentCubeFile), StandardCharsets.UTF_8)) {
+            for (MatcherTestCaseEvaluation evaluation : evaluateMatcherTestCases(baseDirectory, cubeWriter, false)) {
+                for (String[] record : evaluation.performanceRecords) {
+                    testCasePerformanceCubePrinter.printRecord((Object[]) record);
+                }
             }
+        } catch (IOException ioe) {
+            LOGGER.error("Could not write the individual evaluation files and the alignment cube.", ioe);
+        }
+        for (String matcher : this.results.getDistinctMatchers()) {
             for (Track track : this.results.getDistinctTracks(matcher)) {
                 writeAggregatedFileMatcherTrack(track, matcher, baseDirectory);
             }
         }
-        LOGGER.info("Writing alignment cube");
-        alignmentsCube.write(baseDirectory);
         closePrinters();
     }
 
+    /**
+     * Evaluates all combinations of matcher and test case (in parallel if {@link #numberOfThreads} is greater than one)
+     * and streams the alignment cube to the given output.
+     * Each combination writes its part of the alignment cube to a shard file. At the end, the header and all shards
+     * are written to the output in the order of the combinations (matcher by matcher).
+     *
+     * @param baseDirectory Base directory where the individual files shall be written. If null, only the alignment cube is computed.
+     * @param cubeOutput The output to which the alignment cube is written.
+     * @param printShort Indicator whether the alignment cube shall be written with shortened URIs.
+     * @return The evaluations in the order of the combinations.
+     * @throws IOException If the shards cannot be created or merged.
+     */
+    private List<MatcherTestCaseEvaluation> evaluateMatcherTestCases(File baseDirectory, Appendable cubeOutput, boolean printShort) throws IOException {
+        List<String> matchers = new ArrayList<>();
+        List<TestCase> testCases = new ArrayList<>();
+        for (String matcher : this.results.getDistinctMatchers()) {
+            for (TestCase testCase : this.results.getDistinctTestCases(matcher)) {
+                matchers.add(matcher);
+                testCases.add(testCase);
+            }
+        }
+        LOGGER.info("Evaluate {} combinations of matcher and test case.", matchers.size());
+
+        File shardDirectory = baseDirectory == null ?
+                Files.createTempDirectory("alignmentCubeShards").toFile() :
+                Files.createTempDirectory(baseDirectory.toPath(), "alignmentCubeShards").toFile();
+        try {
+            IntFunction<MatcherTestCaseEvaluation> evaluator = i -> writeOverviewFileMatcherTestCase(testCases.get(i),
+                    matchers.get(i), baseDirectory, new File(shardDirectory, i + ".csv"), printShort);
+            List<MatcherTestCaseEvaluation> evaluations;
+            if (numberOfThreads <= 1 || matchers.size() <= 1) {
+                evaluations = new ArrayList<>();
+                for (int i = 0; i < matchers.size(); i++) {
+                    evaluations.add(evaluator.apply(i));
+                }
+            } else {
+                ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+                try {
+                    evaluations = pool.submit(() -> IntStream.range(0, matchers.size()).parallel()
+                            .mapToObj(evaluator)
+                            .collect(Collectors.toList())).get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    throw new IllegalStateException("Interrupted while evaluating the execution results.", ex);
+                } catch (ExecutionException ex) {
+                    if (ex.getCause() instanceof RuntimeException) {
+                        throw (RuntimeException) ex.getCause();
+                    }
+                    throw new IllegalStateException("Could not evaluate the execution results.", ex.getCause());
+                } finally {
+                    pool.shutdown();
+                }
+            }
+
+            LOGGER.info("Writing alignment cube");
+            CSVPrinter headerPrinter = new CSVPrinter(cubeOutput, CSVFormat.DEFAULT);
+            headerPrinter.printRecord(createAlignmentsCube().getHeader(CUBE_FEATURE_NAMES));
+            headerPrinter.flush();
+            char[] buffer = new char[8192];
+            for (MatcherTestCaseEvaluation evaluation : evaluations) {
+                if (!evaluation.shard.exists()) {
+                    continue;
+                }
+                try (Reader reader = new InputStreamReader(new FileInputStream(evaluation.shard), StandardCharsets.UTF_8)) {
+                    int read;
+                    while ((read = reader.read(buffer)) != -1) {
+                        cubeOutput.append(CharBuffer.wrap(buffer, 0, read));
+                    }
+                }
+            }
+            return evaluations;
+        } finally {
+            File[] shards = shardDirectory.listFiles();
+            if (shards != null) {
+                for (File shard : shards) {
+                    shard.delete();
+                }
+            }
+            shardDirectory.delete();
+        }
+    }
+
+    /**
+     * Creates a new (empty) alignment cube with the configuration of {@link #alignmentsCube}.
+     * @return New alignment cube.
+     */
+    private AlignmentsCube createAlignmentsCube() {
+        AlignmentsCube cube = new AlignmentsCube();
+        cube.setResourceExplainers(alignmentsCube.getResourceExplainers());
+        cube.setCorrespondenceExtensions(this.correspondenceExtensions);
+        cube.setPrintCorrespondenceExtensions(alignmentsCube.isPrintCorrespondenceExtensions());
+        return cube;
+    }
+
     /**
      * This method initializes global writers for the performance KPI CSV files.
      *
@@ -384,13 +516,20 @@ public class EvaluatorCSV extends Evaluator {
 
     /**
      * Write the overview file, i.e. KPIs such as recall or precision, for a matcher on a particular test case.
+     * The analytical data (alignment cube) of the test case is written to the given shard file.
+     * This method can be called from multiple threads (for different combinations of test case and matcher).
      *
      * @param testCase      Test case
      * @param matcher       Matcher name
-     * @param baseDirectory Base directory where file shall be written.
-     * @param onlyCalculateCube Indicator whether only the {@link EvaluatorCSV#alignmentsCube} shall be calculated.
+     * @param baseDirectory Base directory where file shall be written. If null, only the alignment cube is calculated.
+     * @param shard         The file to which the rows of the alignment cube shall be written.
+     * @param printShort    Indicator whether the alignment cube shall be written with shortened URIs.
+     * @return The evaluation which contains the records for the test case performance cube.
      */
-    private void writeOverviewFileMatcherTestCase(TestCase testCase, String matcher, File baseDirectory, boolean onlyCalculateCube) {
+    private MatcherTestCaseEvaluation writeOverviewFileMatcherTestCase(TestCase testCase, String matcher, File baseDirectory, File shard, boolean printShort) {
+        boolean onlyCalculateCube = baseDirectory == null;
+        AlignmentsCube testCaseCube = createAlignmentsCube();
+        List<String[]> performanceRecords = new ArrayList<>();
 
         // write alignment file
         if(!onlyCalculateCube) {
@@ -401,31 +540,33 @@ public class EvaluatorCSV extends Evaluator {
 
         // evaluate system result
         ExecutionResult allExecutionResult = results.get(testCase, matcher);
-        ConfusionMatrix allCm = confusionMatrixMetric.compute(results.get(testCase, matcher));
-        ConfusionMatrix classCm = confusionMatrixMetric.compute(results.get(testCase, matcher, classRefiner));
-        ConfusionMatrix propertiesCm = confusionMatrixMetric.compute(results.get(testCase, matcher, propertyRefiner));
-        ConfusionMatrix instanceCm = confusionMatrixMetric.compute(results.get(testCase, matcher, instanceRefiner));
-        ConfusionMatrix allResidualCm = confusionMatrixMetric.compute(results.get(testCase, matcher, residualRefiner));
-        ConfusionMatrix classResidualCm = confusionMatrixMetric.compute(results.get(testCase, matcher, classRefiner, residualRefiner));
-        ConfusionMatrix propertiesResidualCm = confusionMatrixMetric.compute(results.get(testCase, matcher, propertyRefiner, residualRefiner));
-        ConfusionMatrix instanceResidualCm = confusionMatrixMetric.compute(results.get(testCase, matcher, instanceRefiner, residualRefiner));
+        // the correspondences of allCm and allResidualCm are needed for the test case cube: compute them without the cache
+        // such that the materialized alignments are not kept in the (shared) cache of the metric; only the counts are needed for the others
+        ConfusionMatrix allCm = confusionMatrixMetric.computeWithCorrespondences(allExecutionResult);
+        ConfusionMatrix classCm = confusionMatrixMetric.get(results.get(testCase, matcher, classRefiner));
+        ConfusionMatrix propertiesCm = confusionMatrixMetric.get(results.get(testCase, matcher, propertyRefiner));
+        ConfusionMatrix instanceCm = confusionMatrixMetric.get(results.get(testCase, matcher, instanceRefiner));
+        ConfusionMatrix allResidualCm = confusionMatrixMetric.computeWithCorrespondences(results.get(testCase, matcher, residualRefiner));
+        ConfusionMatrix classResidualCm = confusionMatrixMetric.get(results.get(testCase, matcher, classRefiner, residualRefiner));
+        ConfusionMatrix propertiesResidualCm = confusionMatrixMetric.get(results.get(testCase, matcher, propertyRefiner, residualRefiner));
+        ConfusionMatrix instanceResidualCm = confusionMatrixMetric.get(results.get(testCase, matcher, instanceRefiner, residualRefiner));
 
         // evaluation result
         if (allCm.getTruePositive() != null)
-            alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allCm.getTruePositive(), AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString(), "true positive");
+            testCaseCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allCm.getTruePositive(), AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString(), "true positive");
         if (allCm.getFalsePositive() != null)
-            alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allCm.getFalsePositive(), AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString(), "false positive");
+            testCaseCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allCm.getFalsePositive(), AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString(), "false positive");
         if (allCm.getFalseNegative() != null)
-            alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allCm.getFalseNegative(), AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString(), "false negative");
+            testCaseCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allCm.getFalseNegative(), AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString(), "false negative");
 
         // residuals (true)
         if (allResidualCm.getTruePositive() != null)
-            alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allResidualCm.getTruePositive(), AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString(), "true");
+            testCaseCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allResidualCm.getTruePositive(), AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString(), "true");
         if (allResidualCm.getFalseNegative() != null)
-            alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allResidualCm.getFalseNegative(), AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString(), "true");
+            testCaseCube.getAnalyticalMappingInformation(testCase, matcher).addAll(allResidualCm.getFalseNegative(), AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString(), "true");
 
         // residuals (false) -> all correspondences that are not true are false
-        HashMap<Correspondence, HashMap<String, String>> mappingInformation = alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).getMappingInformation();
+        HashMap<Correspondence, HashMap<String, String>> mappingInformation = testCaseCube.getAnalyticalMappingInformation(testCase, matcher).getMappingInformation();
         List<Correspondence> nonResidualCorrespondence = new ArrayList<>();
         for(HashMap.Entry<Correspondence, HashMap<String, String>> entry : mappingInformation.entrySet()){
             if(!entry.getValue().containsKey(AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString())){
@@ -433,8 +574,17 @@ public class EvaluatorCSV extends Evaluator {
                 nonResidualCorrespondence.add(entry.getKey());
             }
         }
-        alignmentsCube.getAnalyticalMappingInformation(testCase, matcher).addAll(nonResidualCorrespondence, AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString(), "false");
-        alignmentsCube.setCorrespondenceExtensions(this.getCorrespondenceExtensions(results));
+        testCaseCube.getAnalyticalMappingInformation(testCase, matcher).addAll(nonResidualCorrespondence, AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString(), "false");
+
+        try (Writer shardWriter = new OutputStreamWriter(new FileOutputStream(shard), StandardCharsets.UTF_8)) {
+            // the resource explainers are shared and stateful
+            synchronized (this.alignmentsCube) {
+                testCaseCube.writeRecords(shardWriter, CUBE_FEATURE_NAMES, printShort);
+            }
+        } catch (IOException ioe) {
+            LOGGER.error("Could not write the alignment cube of matcher {} on test case {}.", matcher, testCase.getName(), ioe);
+        }
+        MatcherTestCaseEvaluation evaluation = new MatcherTestCaseEvaluation(performanceRecords, shard);
 
         if(!onlyCalculateCube) {
             try {
@@ -450,13 +600,13 @@ public class EvaluatorCSV extends Evaluator {
                 CSVPrinter printer = csvFormat.print(fileToBeWritten, StandardCharsets.UTF_8);
                 printer.printRecord(getHeaderIndividual());
                 printer.printRecord(toStringArrayWithArrayAtTheEnd(extensionValues, "ALL", allCm.getPrecision(), allCm.getRecall(), allResidualCm.getRecall(), allCm.getF1measure(), allCm.getTruePositiveSize(), allCm.getFalsePositiveSize(), allCm.getFalseNegativeSize(), allCm.getNumberOfCorrespondences(), allExecutionResult.getRuntime(), getFormattedRuntime(allExecutionResult.getRuntime())));
-                testCasePerformanceCubePrinter.printRecord(toStringArrayWithArrayAtTheEnd(extensionValues, testCase.getTrack().getName(), testCase.getName(), matcher, "ALL", allCm.getPrecision(), allCm.getRecall(), allResidualCm.getRecall(), allCm.getF1measure(), allCm.getTruePositiveSize(), allCm.getFalsePositiveSize(), allCm.getFalseNegativeSize(), allCm.getNumberOfCorrespondences(), allExecutionResult.getRuntime(), getFormattedRuntime(allExecutionResult.getRuntime())));
+                performanceRecords.add(toStringArrayWithArrayAtTheEnd(extensionValues, testCase.getTrack().getName(), testCase.getName(), matcher, "ALL", allCm.getPrecision(), allCm.getRecall(), allResidualCm.getRecall(), allCm.getF1measure(), allCm.getTruePositiveSize(), allCm.getFalsePositiveSize(), allCm.getFalseNegativeSize(), allCm.getNumberOfCorrespondences(), allExecutionResult.getRuntime(), getFormattedRuntime(allExecutionResult.getRuntime())));
                 printer.printRecord(toStringArrayWithArrayAtTheEnd(extensionValues, "CLASSES", classCm.getPrecision(), classCm.getRecall(), classResidualCm.getRecall(), classCm.getF1measure(), classCm.getTruePositiveSize(), classCm.getFalsePositiveSize(), classCm.getFalseNegativeSize(), classCm.getNumberOfCorrespondences(), "-", "-"));
-                testCasePerformanceCubePrinter.printRecord(toStringArrayWithArrayAtTheEnd(extensionValues, testCase.getTrack().getName(), testCase.getName(), matcher, "CLASSES", classCm.getPrecision(), classCm.getRecall(), classResidualCm.getRecall(), classCm.getF1measure(), classCm.getTruePositiveSize(), classCm.getFalsePositiveSize(), classCm.getFalseNegativeSize(), classCm.getNumberOfCorrespondences(), "-", "-"));
+                performanceRecords.add(toStringArrayWithArrayAtTheEnd(extensionValues, testCase.getTrack().getName(), testCase.getName(), matcher, "CLASSES", classCm.getPrecision(), classCm.getRecall(), classResidualCm.getRecall(), classCm.getF1measure(), classCm.getTruePositiveSize(), classCm.getFalsePositiveSize(), classCm.getFalseNegativeSize(), classCm.getNumberOfCorrespondences(), "-", "-"));
                 printer.printRecord(toStringArrayWithArrayAtTheEnd(extensionValues, "PROPERTIES", propertiesCm.getPrecision(), propertiesCm.getRecall(), propertiesResidualCm.getRecall(), propertiesCm.getF1measure(), propertiesCm.getTruePositiveSize(), propertiesCm.getFalsePositiveSize(), propertiesCm.getFalseNegativeSize(), propertiesCm.getNumberOfCorrespondences(), "-", "-"));
-                testCasePerformanceCubePrinter.printRecord(toStringArrayWithArrayAtTheEnd(extensionValues, testCase.getTrack().getName(), testCase.getName(), matcher, "PROPERTIES", propertiesCm.getPrecision(), propertiesCm.getRecall(), propertiesResidualCm.getRecall(), propertiesCm.getF1measure(), propertiesCm.getTruePositiveSize(), propertiesCm.getFalsePositiveSize(), propertiesCm.getFalseNegativeSize(), propertiesCm.getNumberOfCorrespondences(), "-", "-"));
+                performanceRecords.add(toStringArrayWithArrayAtTheEnd(extensionValues, testCase.getTrack().getName(), testCase.getName(), matcher, "PROPERTIES", propertiesCm.getPrecision(), propertiesCm.getRecall(), propertiesResidualCm.getRecall(), propertiesCm.getF1measure(), propertiesCm.getTruePositiveSize(), propertiesCm.getFalsePositiveSize(), propertiesCm.getFalseNegativeSize(), propertiesCm.getNumberOfCorrespondences(), "-", "-"));
                 printer.printRecord(toStringArrayWithArrayAtTheEnd(extensionValues, "INSTANCES", instanceCm.getPrecision(), instanceCm.getRecall(), instanceResidualCm.getRecall(), instanceCm.getF1measure(), instanceCm.getTruePositiveSize(), instanceCm.getFalsePositiveSize(), instanceCm.getFalseNegativeSize(), instanceCm.getNumberOfCorrespondences(), "-", "-"));
-                testCasePerformanceCubePrinter.printRecord(toStringArrayWithArrayAtTheEnd(extensionValues, testCase.getTrack().getName(), testCase.getName(), matcher, "INSTANCES", instanceCm.getPrecision(), instanceCm.getRecall(), instanceResidualCm.getRecall(), instanceCm.getF1measure(), instanceCm.getTruePositiveSize(), instanceCm.getFalsePositiveSize(), instanceCm.getFalseNegativeSize(), instanceCm.getNumberOfCorrespondences(), "-", "-"));
+                performanceRecords.add(toStringArrayWithArrayAtTheEnd(extensionValues, testCase.getTrack().getName(), testCase.getName(), matcher, "INSTANCES", instanceCm.getPrecision(), instanceCm.getRecall(), instanceResidualCm.getRecall(), instanceCm.getF1measure(), instanceCm.getTruePositiveSize(), instanceCm.getFalsePositiveSize(), instanceCm.getFalseNegativeSize(), instanceCm.getNumberOfCorrespondences(), "-", "-"));
                 printer.flush();
                 printer.close();
             } catch (IOException ioe) {
@@ -464,6 +614,27 @@ public class EvaluatorCSV extends Evaluator {
                 ioe.printStackTrace();
             }
         }
+        return evaluation;
+    }
+
+    /**
+     * The result of {@link #writeOverviewFileMatcherTestCase(TestCase, String, File, File, boolean)}.
+     */
+    private static class MatcherTestCaseEvaluation {
+        /**
+         * The records for the test case performance cube.
+         */
+        private final List<String[]> performanceRecords;
+
+        /**
+         * The file which contains the rows of the alignment cube.
+         */
+        private final File shard;
+
+        MatcherTestCaseEvaluation(List<String[]> performanceRecords, File shard) {
+            this.performanceRecords = performanceRecords;
+            this.shard = shard;
+        }
     }
 
     /**
@@ -570,36 +741,30 @@ public class EvaluatorCSV extends Evaluator {
     }
 
     /**
-     * Obtain an output stream that can be used to write the CSV file.
+     * Obtain the alignment cube as CSV string.
+     * For large evaluations, use {@link #writeAlignmentsCube(Appendable)} which does not hold the whole cube in memory.
      * @return CSV String representation of the alignment cube.
      */
     public String getAlignmentsCubeAsString(){
-        if(!isPrintAsShortenedString) {
-            for (String matcher : this.results.getDistinctMatchers()) {
-                // individual evaluation per test case
-                for (TestCase testCase : this.results.getDistinctTestCases(matcher)) {
-                    writeOverviewFileMatcherTestCase(testCase, matcher, null, true);
-                }
-            }
-            return this.alignmentsCube.toString();
-        } else {
-            // shortened string, default option
-            return getAlignmentsCubeAsShortenedString();
+        StringWriter writer = new StringWriter();
+        try {
+            writeAlignmentsCube(writer);
+        } catch (IOException ioe) {
+            LOGGER.error("Could not transform the alignment cube to String.", ioe);
+            return null;
         }
+        return writer.toString();
     }
 
     /**
-     * Obtain an output stream that can be used to write the CSV file.
-     * @return CSV String representation of the alignment cube.
+     * Write the alignment cube as CSV (with shortened URIs if {@link #isPrintAsShortenedString()} is true) to the given output.
+     * The combinations of matcher and test case are evaluated one after the other (or in parallel, see
+     * {@link #setNumberOfThreads(int)}) and their rows are streamed to the output.
+     * @param out The output to which the alignment cube is written. It is not closed.
+     * @throws IOException If an I/O error occurs.
      */
-    private String getAlignmentsCubeAsShortenedString(){
-        for (String matcher : this.results.getDistinctMatchers()) {
-            // individual evaluation per test case
-            for (TestCase testCase : this.results.getDistinctTestCases(matcher)) {
-                writeOverviewFileMatcherTestCase(testCase, matcher, null, true);
-            }
-        }
-        return this.alignmentsCube.toShortString();
+    public void writeAlignmentsCube(Appendable out) throws IOException {
+        evaluateMatcherTestCases(null, out, isPrintAsShortenedString);
     }
 
     //-------------------------------------------------------------------------------------------
@@ -668,6 +833,19 @@ public class EvaluatorCSV extends Evaluator {
         isPrintAlignmentExtensions = printAlignmentExtensions;
     }
 
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Set the number of threads which evaluate the combinations of matcher and test case in parallel.
+     * The explanation of the resources (resource explainers) is not parallelized because the explainers are stateful.
+     * @param numberOfThreads Number of threads (1 means no parallelism).
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
     public static String getTrackPerformanceCubeFileName() {
         return TRACK_PERFORMANCE_CUBE_FILE_NAME;
     }
@@ -2,32 +2,65 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric;
 
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Abstract class which represents a metric.
+ * The results are cached in a thread safe {@link MetricCache} which only holds weak references to the execution results
+ * and which is bounded by a maximum weight (see {@link #getCacheWeight(Object)}).
  * @author Sven Hertling, Jan Portisch
  */
 public abstract class Metric<MetricResult> {
 
 
-    protected Map<ExecutionResult, MetricResult> cache = new HashMap<>();
-        
+    /**
+     * The default maximum weight of the cache.
+     */
+    public static final long DEFAULT_MAXIMUM_CACHE_WEIGHT = 10_000_000L;
+
+    protected MetricCache<MetricResult> cache = new MetricCache<>(DEFAULT_MAXIMUM_CACHE_WEIGHT, this::getCacheWeight);
+
     /**
      * Triggers the computation of the metric for an individual execution result.
      * The metric should always use the {@link ExecutionResult#getSystemAlignment()} and {@link ExecutionResult#getReferenceAlignment()} methods.
+     * This method can be called from multiple threads.
      * @param executionResult Execution result for which the calculation shall be performed.
      * @return The metric result.
      */
     public MetricResult get(ExecutionResult executionResult){
         MetricResult result = cache.get(executionResult);
         if(result == null){
-            result = compute(executionResult);
-            this.cache.put(executionResult, result);
+            result = cache.putIfAbsent(executionResult, compute(executionResult));
         }
         return result;
     }
-    
+
     protected abstract MetricResult compute(ExecutionResult executionResult);
+
+    /**
+     * Returns the weight of a result in the cache. The default is one, thus the maximum cache weight is the maximum number of cached results.
+     * Metrics with large results should return a value which is proportional to the memory consumption.
+     * @param result the metric result
+     * @return the weight (greater or equal to zero)
+     */
+    protected long getCacheWeight(MetricResult result){
+        return 1L;
+    }
+
+    /**
+     * Sets the maximum weight of the cache. Zero disables the caching.
+     * @param maximumCacheWeight the maximum sum of weights of all cached results
+     */
+    public void setMaximumCacheWeight(long maximumCacheWeight){
+        this.cache.setMaximumWeight(maximumCacheWeight);
+    }
+
+    public long getMaximumCacheWeight(){
+        return this.cache.getMaximumWeight();
+    }
+
+    /**
+     * Removes all cached results.
+     */
+    public void clearCache(){
+        this.cache.clear();
+    }
 }
@@ -0,0 +1,222 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric;
+
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.ToLongFunction;
+
+/**
+ * A thread safe cache of metric results which is used by {@link Metric}.
+ * <ul>
+ * <li>The keys (execution results) are only weakly referenced: as soon as an execution result is no longer used
+ * anywhere else, its entry is removed and the result can be garbage collected.
+ * Keys are compared by identity (like in an {@link java.util.IdentityHashMap}) because two equal execution results
+ * (same test case, matcher and refinements) can still have different alignments.</li>
+ * <li>The cache is bounded by a maximum weight. Each value is weighted with a user defined function
+ * (e.g. the number of correspondences it holds) and the least recently used entries are removed first.</li>
+ * </ul>
+ * Values should not reference their key strongly, otherwise the entry is only removed because of the weight bound.
+ *
+ * @param <V> Type of the cached metric result.
+ */
+public class MetricCache<V> {
+
+
+    /**
+     * The entries in access order.
+     */
+    private final LinkedHashMap<KeyReference, Entry<V>> entries;
+
+    /**
+     * Queue of keys which were garbage collected.
+     */
+    private final ReferenceQueue<ExecutionResult> queue;
+
+    /**
+     * The function which computes the weight of a value.
+     */
+    private final ToLongFunction<V> weigher;
+
+    /**
+     * The maximum sum of weights of all entries.
+     */
+    private long maximumWeight;
+
+    /**
+     * The current sum of weights of all entries.
+     */
+    private long totalWeight;
+
+    /**
+     * Constructor
+     * @param maximumWeight the maximum sum of weights of all values
+     * @param weigher the function which computes the weight of a value (should be greater or equal to zero)
+     */
+    public MetricCache(long maximumWeight, ToLongFunction<V> weigher) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        this.queue = new ReferenceQueue<>();
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        this.totalWeight = 0;
+    }
+
+    /**
+     * Constructor which weights each value with one (thus the maximum weight is the maximum number of entries).
+     * @param maximumSize the maximum number of entries
+     */
+    public MetricCache(long maximumSize) {
+        this(maximumSize, value -> 1L);
+    }
+
+    /**
+     * Returns the cached value.
+     * @param key the execution result
+     * @return the cached value or null if there is none
+     */
+    public synchronized V get(ExecutionResult key) {
+        expungeCollectedKeys();
+        Entry<V> entry = entries.get(new KeyReference(key, null));
+        return entry == null ? null : entry.value;
+    }
+
+    /**
+     * Adds the value if no value is cached for the key yet.
+     * This allows to compute values outside of the lock: if two threads compute the value for the same key at the
+     * same time, both get the value which was added first.
+     * @param key the execution result
+     * @param value the value (if it is null, nothing is cached)
+     * @return the value which is cached for the key (the given one or the one which was added before)
+     */
+    public synchronized V putIfAbsent(ExecutionResult key, V value) {
+        if (value == null) {
+            return null;
+        }
+        expungeCollectedKeys();
+        KeyReference reference = new KeyReference(key, queue);
+        Entry<V> existing = entries.get(reference);
+        if (existing != null) {
+            return existing.value;
+        }
+        long weight = weigher.applyAsLong(value);
+        entries.put(reference, new Entry<>(value, weight));
+        totalWeight += weight;
+        evict();
+        return value;
+    }
+
+    /**
+     * Removes the value for the given key.
+     * @param key the execution result
+     */
+    public synchronized void invalidate(ExecutionResult key) {
+        Entry<V> entry = entries.remove(new KeyReference(key, null));
+        if (entry != null) {
+            totalWeight -= entry.weight;
+        }
+    }
+
+    /**
+     * Removes all values.
+     */
+    public synchronized void clear() {
+        entries.clear();
+        totalWeight = 0;
+        while (queue.poll() != null) {
+            //nothing to do - just empty the queue
+        }
+    }
+
+    /**
+     * Returns the number of cached values.
+     * @return number of values
+     */
+    public synchronized int size() {
+        expungeCollectedKeys();
+        return entries.size();
+    }
+
+    /**
+     * Returns the sum of the weights of all cached values.
+     * @return total weight
+     */
+    public synchronized long getTotalWeight() {
+        expungeCollectedKeys();
+        return totalWeight;
+    }
+
+    public synchronized long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * Sets the maximum weight. If the cache is already heavier, the least recently used entries are removed.
+     * @param maximumWeight the maximum sum of weights of all values (zero disables caching)
+     */
+    public synchronized void setMaximumWeight(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        evict();
+    }
+
+    private void evict() {
+        Iterator<Entry<V>> iterator = entries.values().iterator();
+        while (totalWeight > maximumWeight && iterator.hasNext()) {
+            totalWeight -= iterator.next().weight;
+            iterator.remove();
+        }
+    }
+
+    private void expungeCollectedKeys() {
+        Reference<? extends ExecutionResult> reference;
+        while ((reference = queue.poll()) != null) {
+            Entry<V> entry = entries.remove(reference);
+            if (entry != null) {
+                totalWeight -= entry.weight;
+            }
+        }
+    }
+
+    private static class Entry<V> {
+        private final V value;
+        private final long weight;
+
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Weak reference to an execution result which compares the referents by identity.
+     * Once the referent is collected, the reference is only equal to itself.
+     */
+    private static class KeyReference extends WeakReference<ExecutionResult> {
+        private final int hash;
+
+        KeyReference(ExecutionResult key, ReferenceQueue<ExecutionResult> queue) {
+            super(key, queue);
+            this.hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            if (!(obj instanceof KeyReference)) {
+                return false;
+            }
+            ExecutionResult referent = get();
+            return referent != null && referent == ((KeyReference) obj).get();
+        }
+    }
+}
@@ -1,9 +1,16 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm;
 
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+
+import java.util.Arrays;
+import java.util.function.Supplier;
 
 /**
  * Data Structure for an individual confusion matrix.
+ * A confusion matrix computed by the {@link ConfusionMatrixMetric} is lightweight: it only holds the number of
+ * true positives, false positives and false negatives as well as the confidences of the true and false positives.
+ * The correspondences themselves are only computed when they are requested (e.g. with {@link #getTruePositive()}).
  *
  * @author Sven Hertling, Jan Portisch
  */
@@ -23,6 +30,25 @@ public class ConfusionMatrix {
      */
     private int numberOfCorrespondences;
 
+    private final int truePositiveSize;
+    private final int falsePositiveSize;
+    private final int falseNegativeSize;
+
+    /**
+     * Sorted (ascending) confidences of the true positives. Null if not computed yet.
+     */
+    private double[] truePositiveConfidences;
+
+    /**
+     * Sorted (ascending) confidences of the false positives. Null if not computed yet.
+     */
+    private double[] falsePositiveConfidences;
+
+    /**
+     * Computes the confusion matrix including the correspondences. Null if the correspondences are already available.
+     */
+    private Supplier<ConfusionMatrix> correspondenceSupplier;
+
 
     /**
      * Constructor to fill confusion matrix. The number of correspondences is assumed to be {@code truePositive + falsePositive}.
@@ -39,6 +65,9 @@ public class ConfusionMatrix {
         this.precision = precision;
         this.recall = recall;
         this.numberOfCorrespondences = truePositive.size() + falsePositive.size();
+        this.truePositiveSize = truePositive.size();
+        this.falsePositiveSize = falsePositive.size();
+        this.falseNegativeSize = falseNegative.size();
     }
 
     /**
@@ -58,6 +87,72 @@ public class ConfusionMatrix {
         this.precision = precision;
         this.recall = recall;
         this.numberOfCorrespondences = numberOfCorrespondences;
+        this.truePositiveSize = truePositive.size();
+        this.falsePositiveSize = falsePositive.size();
+        this.falseNegativeSize = falseNegative.size();
+    }
+
+    /**
+     * Constructor for a lightweight confusion matrix which only holds counts and confidences.
+     * @param truePositiveConfidences Sorted (ascending) confidences of the true positives.
+     * @param falsePositiveConfidences Sorted (ascending) confidences of the false positives.
+     * @param falseNegativeSize The number of false negatives.
+     * @param numberOfCorrespondences The number of correspondences in the system alignment.
+     * @param precision Precision as double [0, 1].
+     * @param recall Recall as double [0, 1].
+     * @param correspondenceSupplier Computes the full confusion matrix when the correspondences are requested.
+     */
+    ConfusionMatrix(double[] truePositiveConfidences, double[] falsePositiveConfidences, int falseNegativeSize,
+                    int numberOfCorrespondences, double precision, double recall, Supplier<ConfusionMatrix> correspondenceSupplier){
+        this.truePositiveConfidences = truePositiveConfidences;
+        this.falsePositiveConfidences = falsePositiveConfidences;
+        this.truePositiveSize = truePositiveConfidences.length;
+        this.falsePositiveSize = falsePositiveConfidences.length;
+        this.falseNegativeSize = falseNegativeSize;
+        this.numberOfCorrespondences = numberOfCorrespondences;
+        this.precision = precision;
+        this.recall = recall;
+        this.correspondenceSupplier = correspondenceSupplier;
+    }
+
+    /**
+     * Computes the correspondences (true positive, false positive and false negative alignments) if they are not available yet.
+     */
+    private synchronized void loadCorrespondences(){
+        if(this.correspondenceSupplier != null){
+            ConfusionMatrix full = this.correspondenceSupplier.get();
+            this.truePositive = full.truePositive;
+            this.falsePositive = full.falsePositive;
+            this.falseNegative = full.falseNegative;
+            this.correspondenceSupplier = null;
+        }
+    }
+
+    /**
+     * Returns a confusion matrix which holds the correspondences without storing them in this confusion matrix.
+     * This is used for temporary computations (e.g. aggregations) on lightweight confusion matrices which are cached
+     * (e.g. by {@link ConfusionMatrixMetric#getSharedInstance()}), such that the alignments are not kept in the cache.
+     * @return this confusion matrix if the correspondences are already available, otherwise a new full confusion matrix
+     */
+    ConfusionMatrix materialize(){
+        Supplier<ConfusionMatrix> supplier;
+        synchronized(this){
+            if(this.correspondenceSupplier == null){
+                return this;
+            }
+            supplier = this.correspondenceSupplier;
+        }
+        return supplier.get();
+    }
+
+    /**
+     * Returns true if the correspondences are already computed. For lightweight confusion matrices, the
+     * correspondences are computed on the first call of {@link #getTruePositive()}, {@link #getFalsePositive()}, or
+     * {@link #getFalseNegative()}.
+     * @return true if the correspondences are available without computation
+     */
+    public synchronized boolean hasCorrespondences(){
+        return this.correspondenceSupplier == null;
     }
 
     /**
@@ -65,11 +160,12 @@ public class ConfusionMatrix {
      * @return found and correct mappings (correct)
      */
     public Alignment getTruePositive() {
+        loadCorrespondences();
         return truePositive;
     }
     
     public int getTruePositiveSize() {
-        return truePositive.size();
+        return truePositiveSize;
     }
 
     /**
@@ -77,11 +173,12 @@ public class ConfusionMatrix {
      * @return found but not correct mappings (too much)
      */
     public Alignment getFalsePositive() {
+        loadCorrespondences();
         return falsePositive;
     }
     
     public int getFalsePositiveSize() {
-        return falsePositive.size();
+        return falsePositiveSize;
     }
 
     /**
@@ -89,11 +186,44 @@ public class ConfusionMatrix {
      * @return correct but not found by the matcher (should be found)
      */
     public Alignment getFalseNegative() {
+        loadCorrespondences();
         return falseNegative;
     }
     
     public int getFalseNegativeSize() {
-        return falseNegative.size();
+        return falseNegativeSize;
+    }
+
+    /**
+     * Returns the confidences of the true positives.
+     * @return sorted (ascending) confidences of the true positives
+     */
+    public synchronized double[] getTruePositiveConfidences() {
+        if(this.truePositiveConfidences == null){
+            this.truePositiveConfidences = getSortedConfidences(getTruePositive());
+        }
+        return this.truePositiveConfidences.clone();
+    }
+
+    /**
+     * Returns the confidences of the false positives.
+     * @return sorted (ascending) confidences of the false positives
+     */
+    public synchronized double[] getFalsePositiveConfidences() {
+        if(this.falsePositiveConfidences == null){
+            this.falsePositiveConfidences = getSortedConfidences(getFalsePositive());
+        }
+        return this.falsePositiveConfidences.clone();
+    }
+
+    private static double[] getSortedConfidences(Alignment alignment){
+        double[] confidences = new double[alignment.size()];
+        int i = 0;
+        for(Correspondence c : alignment){
+            confidences[i++] = c.getConfidence();
+        }
+        Arrays.sort(confidences);
+        return confidences;
     }
 
     public double getPrecision() {
@@ -133,15 +263,17 @@ public class ConfusionMatrix {
      * @return a new confusion matrix which is the set difference.
      */
     public ConfusionMatrix subtract(ConfusionMatrix other){
+        ConfusionMatrix thisFull = this.materialize();
+        ConfusionMatrix otherFull = other.materialize();
         
-        Alignment subTruePositive = new Alignment(this.truePositive);
-        subTruePositive.removeAll(other.truePositive);
+        Alignment subTruePositive = new Alignment(thisFull.getTruePositive());
+        subTruePositive.removeAll(otherFull.getTruePositive());
         
-        Alignment subFalsePositive = new Alignment(this.falsePositive);
-        subFalsePositive.removeAll(other.falsePositive);
+        Alignment subFalsePositive = new Alignment(thisFull.getFalsePositive());
+        subFalsePositive.removeAll(otherFull.getFalsePositive());
         
-        Alignment subFalseNegative = new Alignment(this.falseNegative);
-        subFalseNegative.removeAll(other.falseNegative);
+        Alignment subFalseNegative = new Alignment(thisFull.getFalseNegative());
+        subFalseNegative.removeAll(otherFull.getFalseNegative());
 
         int numberOfCorrespondences = this.getNumberOfCorrespondences();
         numberOfCorrespondences = numberOfCorrespondences - other.getNumberOfCorrespondences();
@@ -151,8 +283,8 @@ public class ConfusionMatrix {
 
     @Override
     public String toString() {
-        return "ConfusionMatrix: TP:" + truePositive.size() + 
-                ", FP=" + falsePositive.size() + ", FN=" + falseNegative.size() + 
+        return "ConfusionMatrix: TP:" + truePositiveSize + 
+                ", FP=" + falsePositiveSize + ", FN=" + falseNegativeSize + 
                 ", PREC=" + String.format("%.4f", precision) + 
                 ", REC=" + String.format("%.4f", recall) + 
                 ", F1=" + String.format("%.4f", getF1measure());
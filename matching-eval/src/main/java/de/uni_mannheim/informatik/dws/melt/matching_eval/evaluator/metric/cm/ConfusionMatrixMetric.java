@@ -8,12 +8,20 @@ import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.Metric;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.HashSet;
+import java.util.Set;
+import java.util.function.Supplier;
 
 
 /**
  * Confusion Matrix Metric.
  * Can handle full and partial gold standards as well as explict null mappings (there is no match for one entity).
+ * The computed confusion matrices are lightweight (see {@link ConfusionMatrix}): the true positive, false positive and
+ * false negative alignments are only built when they are requested.
+ * Use {@link #getSharedInstance()} to share the cached confusion matrices between evaluators.
  * @see <a href="https://github.com/DanFaria/OAEI_SealsClient/blob/020d97bbfb6816dcca55de5ce178c716da15b711/SealsClientSource/src/main/java/eu/sealsproject/omt/client/Client.java#L322">https://github.com/DanFaria/OAEI_SealsClient/blob/020d97bbfb6816dcca55de5ce178c716da15b711/SealsClientSource/src/main/java/eu/sealsproject/omt/client/Client.java#L322</a>
  * @see <a href="https://github.com/DanFaria/OAEI_SealsClient/blob/master/SealsClientSource/src/main/java/eu/sealsproject/omt/client/HashAlignment.java">https://github.com/DanFaria/OAEI_SealsClient/blob/master/SealsClientSource/src/main/java/eu/sealsproject/omt/client/HashAlignment.java</a>
  * @see <a href="http://www.cs.ox.ac.uk/isg/projects/SEALS/oaei/2017/oaei2017_umls_reference.html">http://www.cs.ox.ac.uk/isg/projects/SEALS/oaei/2017/oaei2017_umls_reference.html</a>
@@ -27,31 +35,202 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
      */
     private Logger LOGGER = LoggerFactory.getLogger(ConfusionMatrixMetric.class);
 
+    /**
+     * Instance which is shared between evaluators such that the confusion matrix of an execution result is only computed once.
+     */
+    private static final ConfusionMatrixMetric SHARED_INSTANCE = new ConfusionMatrixMetric();
+
+    /**
+     * Returns an instance which is shared (e.g. by the default constructors of the evaluators and by the confidence finder)
+     * such that the confusion matrix of an execution result is only computed once.
+     * Callers which need the correspondences (true positive, false positive, false negative alignments) should use
+     * {@link #computeWithCorrespondences(ExecutionResult)} instead, otherwise the alignments are kept in the shared cache.
+     * @return the shared confusion matrix metric
+     */
+    public static ConfusionMatrixMetric getSharedInstance() {
+        return SHARED_INSTANCE;
+    }
+
     @Override
     public ConfusionMatrix compute(ExecutionResult executionResult) {
-        if(executionResult.getTestCase().getGoldStandardCompleteness().isGoldStandardComplete()){
-            return computeForCompleteGoldStandard(executionResult);
+        //do not reference the execution result in the supplier because it is the (weak) key of the cache
+        Alignment systemAlignment = executionResult.getSystemAlignment();
+        Alignment referenceAlignment = executionResult.getReferenceAlignment();
+        GoldStandardCompleteness gsCompleteness = executionResult.getTestCase().getGoldStandardCompleteness();
+        if(gsCompleteness.isGoldStandardComplete()){
+            return countForCompleteGoldStandard(systemAlignment, referenceAlignment);
         }
         else{
-            return computeForPartialGoldStandard(executionResult);
+            return countForPartialGoldStandard(systemAlignment, referenceAlignment, gsCompleteness);
+        }
+    }
+
+    /**
+     * Computes the confusion matrix including all correspondences (true positive, false positive and false negative alignments).
+     * In contrast to {@link #compute(ExecutionResult)}, the alignments are built immediately.
+     * @param executionResult The execution result for which the confusion matrix shall be calculated.
+     * @return The confusion matrix.
+     */
+    public ConfusionMatrix computeWithCorrespondences(ExecutionResult executionResult) {
+        GoldStandardCompleteness gsCompleteness = executionResult.getTestCase().getGoldStandardCompleteness();
+        if(gsCompleteness.isGoldStandardComplete()){
+            return computeForCompleteGoldStandard(executionResult.getSystemAlignment(), executionResult.getReferenceAlignment());
+        }
+        else{
+            return computeForPartialGoldStandard(executionResult.getSystemAlignment(), executionResult.getReferenceAlignment(), gsCompleteness);
+        }
+    }
+
+    @Override
+    protected long getCacheWeight(ConfusionMatrix result) {
+        return 1L + result.getTruePositiveSize() + result.getFalsePositiveSize() + result.getFalseNegativeSize();
+    }
+
+    /**
+     * Counts the true positives, false positives, and false negatives like {@link #computeForPartialGoldStandard(Alignment, Alignment, GoldStandardCompleteness)}
+     * without building any alignment.
+     * @param systemAlignment The system alignment.
+     * @param referenceAlignment The reference alignment.
+     * @param gsCompleteness The completeness of the gold standard.
+     * @return The lightweight confusion matrix.
+     */
+    private ConfusionMatrix countForPartialGoldStandard(Alignment systemAlignment, Alignment referenceAlignment, GoldStandardCompleteness gsCompleteness){
+        Set<Correspondence> truePositives = new HashSet<>();
+        Set<Correspondence> falsePositives = new HashSet<>();
+        int falseNegativeSize = 0;
+
+        for(Correspondence referenceCell : referenceAlignment){
+            if(referenceCell.getRelation() == CorrespondenceRelation.UNKNOWN){
+                //silently ignored
+            }
+            else if(referenceCell.getRelation() == CorrespondenceRelation.INCOMPAT){
+                if(referenceCell.getEntityTwo().equals("null") || referenceCell.getEntityTwo().trim().isEmpty()){
+                    for(Correspondence c : systemAlignment.getCorrespondencesSourceRelation(referenceCell.getEntityOne(), CorrespondenceRelation.EQUIVALENCE))
+                        falsePositives.add(c);
+                } else if(referenceCell.getEntityOne().equals("null") || referenceCell.getEntityOne().trim().isEmpty()){
+                    for(Correspondence c : systemAlignment.getCorrespondencesTargetRelation(referenceCell.getEntityTwo(), CorrespondenceRelation.EQUIVALENCE))
+                        falsePositives.add(c);
+                } else {
+                    Correspondence systemCell = systemAlignment.getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), CorrespondenceRelation.EQUIVALENCE);
+                    if(systemCell != null){
+                        falsePositives.add(systemCell);
+                    }
+                }
+            }
+            else {
+                Correspondence systemCell = systemAlignment.getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), referenceCell.getRelation());
+                if(systemCell != null){
+                    truePositives.add(systemCell);
+                } else {
+                    referenceCell.setConfidence(0.0);
+                    falseNegativeSize++;
+                }
+
+                if(gsCompleteness.isTargetComplete()){
+                    for(Correspondence sameTarget : systemAlignment.getCorrespondencesTargetRelation(referenceCell.getEntityTwo(), referenceCell.getRelation())){
+                        if(sameTarget.equals(referenceCell) == false){
+                            falsePositives.add(sameTarget);
+                        }
+                    }
+                }
+
+                if(gsCompleteness.isSourceComplete()){
+                    for(Correspondence sameSource : systemAlignment.getCorrespondencesSourceRelation(referenceCell.getEntityOne(), referenceCell.getRelation())){
+                        if(sameSource.equals(referenceCell) == false){
+                            falsePositives.add(sameSource);
+                        }
+                    }
+                }
+            }
         }
+        falsePositives.removeAll(truePositives);
+
+        return calculateLightweightConfusionMatrix(getSortedConfidences(truePositives), getSortedConfidences(falsePositives),
+                falseNegativeSize, systemAlignment.size(),
+                () -> computeForPartialGoldStandard(systemAlignment, referenceAlignment, gsCompleteness));
+    }
+
+    /**
+     * Counts the true positives, false positives, and false negatives like {@link #computeForCompleteGoldStandard(Alignment, Alignment)}
+     * without building any alignment.
+     * @param systemAlignment The system alignment.
+     * @param referenceAlignment The reference alignment.
+     * @return The lightweight confusion matrix.
+     */
+    private ConfusionMatrix countForCompleteGoldStandard(Alignment systemAlignment, Alignment referenceAlignment){
+        Set<Correspondence> truePositives = new HashSet<>();
+        Set<Correspondence> notFalsePositives = new HashSet<>();
+        int falseNegativeSize = 0;
+
+        for(Correspondence referenceCell : referenceAlignment){
+            if(referenceCell.getRelation() == CorrespondenceRelation.UNKNOWN){
+                for(Correspondence c : systemAlignment.getCorrespondencesSourceTarget(referenceCell.getEntityOne(), referenceCell.getEntityTwo()))
+                    notFalsePositives.add(c);
+            }
+            else {
+                Correspondence systemCell = systemAlignment.getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), referenceCell.getRelation());
+                if(systemCell != null){
+                    truePositives.add(systemCell);
+                    notFalsePositives.add(systemCell);
+                } else {
+                    referenceCell.setConfidence(0.0);
+                    falseNegativeSize++;
+                }
+            }
+        }
+
+        double[] falsePositiveConfidences = new double[systemAlignment.size()];
+        int falsePositiveSize = 0;
+        for(Correspondence c : systemAlignment){
+            if(notFalsePositives.contains(c) == false){
+                falsePositiveConfidences[falsePositiveSize++] = c.getConfidence();
+            }
+        }
+        falsePositiveConfidences = Arrays.copyOf(falsePositiveConfidences, falsePositiveSize);
+        Arrays.sort(falsePositiveConfidences);
+
+        return calculateLightweightConfusionMatrix(getSortedConfidences(truePositives), falsePositiveConfidences,
+                falseNegativeSize, systemAlignment.size(),
+                () -> computeForCompleteGoldStandard(systemAlignment, referenceAlignment));
+    }
+
+    private static ConfusionMatrix calculateLightweightConfusionMatrix(double[] truePositiveConfidences, double[] falsePositiveConfidences,
+                                                                       int falseNegativeSize, int numberOfCorrespondences,
+                                                                       Supplier<ConfusionMatrix> correspondenceSupplier){
+        double tpSize = truePositiveConfidences.length;
+        double fpSize = falsePositiveConfidences.length;
+        double precision = divideWithTwoDenominators(tpSize, tpSize, fpSize);
+        double recall = divideWithTwoDenominators(tpSize, tpSize, falseNegativeSize);
+        return new ConfusionMatrix(truePositiveConfidences, falsePositiveConfidences, falseNegativeSize,
+                numberOfCorrespondences, precision, recall, correspondenceSupplier);
+    }
+
+    private static double[] getSortedConfidences(Collection<Correspondence> correspondences){
+        double[] confidences = new double[correspondences.size()];
+        int i = 0;
+        for(Correspondence c : correspondences){
+            confidences[i++] = c.getConfidence();
+        }
+        Arrays.sort(confidences);
+        return confidences;
     }
 
 
     /**
      * Calculate the confusion matrix under the premises that the gold standard is incomplete, i.e., partial.
-     * @param executionResult The execution result for which the gold standard shall be calculated.
+     * @param systemAlignment The system alignment.
+     * @param referenceAlignment The reference alignment.
+     * @param gsCompleteness The completeness of the gold standard.
      * @return The confusion matrix.
      */
-    private ConfusionMatrix computeForPartialGoldStandard(ExecutionResult executionResult){
+    private ConfusionMatrix computeForPartialGoldStandard(Alignment systemAlignment, Alignment referenceAlignment, GoldStandardCompleteness gsCompleteness){
         Alignment truePositives = new Alignment();
         Alignment falsePositives = new Alignment();
         Alignment falseNegatives = new Alignment();
 
-        int numberOfCorrespondences = executionResult.getSystemAlignment().size();
-        GoldStandardCompleteness gsCompleteness = executionResult.getTestCase().getGoldStandardCompleteness();
+        int numberOfCorrespondences = systemAlignment.size();
 
-        for(Correspondence referenceCell : executionResult.getReferenceAlignment()){
+        for(Correspondence referenceCell : referenceAlignment){
             if(referenceCell.getRelation() == CorrespondenceRelation.UNKNOWN){
                 //see http://www.cs.ox.ac.uk/isg/projects/SEALS/oaei/2017/oaei2017_umls_reference.html
                 //don't add it to falsePositive because it should be silently ignored
@@ -60,14 +239,14 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
                 //mapping like <"null", "http://.....", =, 1.0> or <"http://.....", "null", =, 1.0>
                 //to express than one resource has no correspondence
                 if(referenceCell.getEntityTwo().equals("null") || referenceCell.getEntityTwo().trim().isEmpty()){
-                    for(Correspondence c : executionResult.getSystemAlignment().getCorrespondencesSourceRelation(referenceCell.getEntityOne(), CorrespondenceRelation.EQUIVALENCE))
+                    for(Correspondence c : systemAlignment.getCorrespondencesSourceRelation(referenceCell.getEntityOne(), CorrespondenceRelation.EQUIVALENCE))
                         falsePositives.add(c);
                 } else if(referenceCell.getEntityOne().equals("null") || referenceCell.getEntityOne().trim().isEmpty()){
-                    for(Correspondence c : executionResult.getSystemAlignment().getCorrespondencesTargetRelation(referenceCell.getEntityTwo(), CorrespondenceRelation.EQUIVALENCE))
+                    for(Correspondence c : systemAlignment.getCorrespondencesTargetRelation(referenceCell.getEntityTwo(), CorrespondenceRelation.EQUIVALENCE))
                         falsePositives.add(c);
                 } else {
                     //negative mapping -> this mapping should not appear in the systemAlignment alignment, otherwise this is a false positive
-                    Correspondence systemCell = executionResult.getSystemAlignment().getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), CorrespondenceRelation.EQUIVALENCE);
+                    Correspondence systemCell = systemAlignment.getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), CorrespondenceRelation.EQUIVALENCE);
                     if(systemCell != null){
                         //found something which should not be found
                         falsePositives.add(systemCell);
@@ -75,7 +254,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
                 }
             }
             else {
-                Correspondence systemCell = executionResult.getSystemAlignment().getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), referenceCell.getRelation());
+                Correspondence systemCell = systemAlignment.getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), referenceCell.getRelation());
 
                 if(systemCell != null){
                     truePositives.add(systemCell);
@@ -87,7 +266,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
                 }
 
                 if(gsCompleteness.isTargetComplete()){
-                    for(Correspondence sameTarget : executionResult.getSystemAlignment().getCorrespondencesTargetRelation(referenceCell.getEntityTwo(), referenceCell.getRelation())){
+                    for(Correspondence sameTarget : systemAlignment.getCorrespondencesTargetRelation(referenceCell.getEntityTwo(), referenceCell.getRelation())){
                         if(sameTarget.equals(referenceCell) == false){
                             falsePositives.add(sameTarget);
                         }
@@ -95,7 +274,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
                 }
 
                 if(gsCompleteness.isSourceComplete()){
-                    for(Correspondence sameSource : executionResult.getSystemAlignment().getCorrespondencesSourceRelation(referenceCell.getEntityOne(), referenceCell.getRelation())){
+                    for(Correspondence sameSource : systemAlignment.getCorrespondencesSourceRelation(referenceCell.getEntityOne(), referenceCell.getRelation())){
                         if(sameSource.equals(referenceCell) == false){
                             falsePositives.add(sameSource);
                         }
@@ -118,22 +297,23 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
 
     /**
      * Calculate the confusion matrix under the premises that the gold standard is complete.
-     * @param executionResult The execution result for which the gold standard shall be calculated.
+     * @param systemAlignment The system alignment.
+     * @param referenceAlignment The reference alignment.
      * @return The confusion matrix.
      */
-    private ConfusionMatrix computeForCompleteGoldStandard(ExecutionResult executionResult){
+    private ConfusionMatrix computeForCompleteGoldStandard(Alignment systemAlignment, Alignment referenceAlignment){
         //TODO: what happens when referenceAlignment is empty and systemAlignment contains 200 mappings?
         Alignment truePositives = new Alignment();
-        Alignment falsePositives = new Alignment(executionResult.getSystemAlignment());
+        Alignment falsePositives = new Alignment(systemAlignment);
         Alignment falseNegatives = new Alignment();
         
-        for(Correspondence referenceCell : executionResult.getReferenceAlignment()){
+        for(Correspondence referenceCell : referenceAlignment){
             if(referenceCell.getRelation() == CorrespondenceRelation.UNKNOWN){
                 //see http://www.cs.ox.ac.uk/isg/projects/SEALS/oaei/2017/oaei2017_umls_reference.html
                 falsePositives.removeCorrespondencesSourceTarget(referenceCell.getEntityOne(), referenceCell.getEntityTwo());
             }//incompat should not appear in gold standard if it is a complete gold standard
             else {
-                Correspondence systemCell = executionResult.getSystemAlignment().getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), referenceCell.getRelation());
+                Correspondence systemCell = systemAlignment.getCorrespondence(referenceCell.getEntityOne(), referenceCell.getEntityTwo(), referenceCell.getRelation());
                 if(systemCell != null){
                     truePositives.add(systemCell);
                     falsePositives.remove(systemCell);
@@ -143,7 +323,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
                 }
             }
         }
-        int numberOfCorrespondences = executionResult.getSystemAlignment().size();
+        int numberOfCorrespondences = systemAlignment.size();
         return calculateConfusionMatrixFromMappings(truePositives, falsePositives, falseNegatives, numberOfCorrespondences);
     }
 
@@ -177,7 +357,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     public ConfusionMatrix getMicroAveragesForResults(Iterable<ExecutionResult> resultsForCalculation) {
         HashSet<ConfusionMatrix> confusionMatrices = new HashSet<>();
         for (ExecutionResult result : resultsForCalculation) {
-            confusionMatrices.add(compute(result));
+            confusionMatrices.add(get(result));
         }
         return getMicroAverages(confusionMatrices);
     }
@@ -192,7 +372,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     public ConfusionMatrix getMacroAveragesForResults(Iterable<ExecutionResult> resultsForCalculation) {
         HashSet<ConfusionMatrix> confusionMatrices = new HashSet<>();
         for (ExecutionResult result : resultsForCalculation) {
-            confusionMatrices.add(compute(result));
+            confusionMatrices.add(get(result));
         }
         return getMacroAverages(confusionMatrices);
     }
@@ -207,7 +387,7 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
     public ConfusionMatrix getMacroAveragesForResults(Iterable<ExecutionResult> resultsForCalculation, int numberOfTestCases) {
         HashSet<ConfusionMatrix> confusionMatrices = new HashSet<>();
         for (ExecutionResult result : resultsForCalculation) {
-            confusionMatrices.add(compute(result));
+            confusionMatrices.add(get(result));
         }
         Alignment truePositive = new Alignment();
         Alignment falsePositive = new Alignment();
@@ -216,11 +396,12 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
         double precision = 0.0; // dummy init
         double recall = 0.0; // dummy init
 
-        // for aggregation:
+        // for aggregation (the correspondences are not stored in the cached confusion matrices):
         for (ConfusionMatrix individualConfusionMatrix : confusionMatrices) {
-            truePositive.addAll(individualConfusionMatrix.getTruePositive());
-            falsePositive.addAll(individualConfusionMatrix.getFalsePositive());
-            falseNegative.addAll(individualConfusionMatrix.getFalseNegative());
+            ConfusionMatrix full = individualConfusionMatrix.materialize();
+            truePositive.addAll(full.getTruePositive());
+            falsePositive.addAll(full.getFalsePositive());
+            falseNegative.addAll(full.getFalseNegative());
         }
         
         double aggregatedPrecision = 0.0;
@@ -287,10 +468,12 @@ public class ConfusionMatrixMetric extends Metric<ConfusionMatrix> {
         // for number of correspondences
         int numberOfCorrespondences = 0;
 
+        // the correspondences are not stored in the (possibly cached) confusion matrices
         for (ConfusionMatrix individualConfusionMatrix : confusionMatrices) {
-            truePositive.addAll(individualConfusionMatrix.getTruePositive());
-            falsePositive.addAll(individualConfusionMatrix.getFalsePositive());
-            falseNegative.addAll(individualConfusionMatrix.getFalseNegative());
+            ConfusionMatrix full = individualConfusionMatrix.materialize();
+            truePositive.addAll(full.getTruePositive());
+            falsePositive.addAll(full.getFalsePositive());
+            falseNegative.addAll(full.getFalseNegative());
             numberOfElementsInConfusionMatrices++;
             numberOfCorrespondences += individualConfusionMatrix.getNumberOfCorrespondences();
         }
@@ -3,6 +3,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.significance
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.Evaluator;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import org.apache.commons.math3.distribution.ChiSquaredDistribution;
 import org.slf4j.Logger;
@@ -11,9 +12,17 @@ import org.slf4j.LoggerFactory;
 import java.io.*;
 import java.math.BigInteger;
 import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 
 import static de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.significance.TestType.ASYMPTOTIC_CONTINUITY_CORRECTION_EXACT_FALLBACK;
 
@@ -49,6 +58,21 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
 
     public static final double DEFAULT_TRACK_SIGNIFICANCE_SHARE = 0.5;
 
+    /**
+     * Chi squared distribution with one degree of freedom (used by the asymptotic tests).
+     */
+    private static final ChiSquaredDistribution CHI_SQUARED_DISTRIBUTION = new ChiSquaredDistribution(1);
+
+    /**
+     * Number of threads which are used to compute the test cases in parallel.
+     */
+    private int numberOfThreads = 1;
+
+    /**
+     * The contingency counts of all matcher pairs (lazily computed).
+     */
+    private List<McNemarCounts> counts;
+
 
     // Default file names (files will be created in baseDirectory.
 
@@ -364,78 +388,165 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
         }
     }
 
+    /**
+     * Calculates the p values for all pairs of matchers which were executed on the same test case.
+     * Only raw results (without refinements) are considered.
+     *
+     * @param alpha    The alpha which is stored in the result keys.
+     * @param testType The type of test to be used.
+     * @return Map from matcher pair and test case to the p value.
+     */
     public Map<McNemarIndividualResult, Double> calculatePvalues(double alpha, TestType testType) {
         Map<McNemarIndividualResult, Double> result = new HashMap<>();
-        for (ExecutionResult result1 : results) {
-            if (result1.getRefinements().size() > 0) {
-                // for now we only work with raw results
-                continue;
-            }
-            for (ExecutionResult result2 : results) {
-                if (result2.getRefinements().size() > 0) {
-                    // for now we only work with raw results
-                    continue;
-                }
-                if (result1.getTestCase().getName().equals(result2.getTestCase().getName()) && result1.getTrack().getName().equals(result2.getTrack().getName())) {
-                    McNemarIndividualResult mr = new McNemarIndividualResult(result1.getMatcherName(), result2.getMatcherName(), result1.getTestCase().getName(), result1.getTrack().getName(), alpha);
-                    double pValue;
-                    try {
-                        pValue = pValueConsideringFalsePositives(result1, result2, testType);
-                        result.put(mr, pValue);
-                    } catch (ArithmeticException ae) {
-                        ae.printStackTrace();
-                    }
-                }
+        for (McNemarCounts counts : getCounts()) {
+            ExecutionResult result1 = counts.executionResult1;
+            ExecutionResult result2 = counts.executionResult2;
+            McNemarIndividualResult mr = new McNemarIndividualResult(result1.getMatcherName(), result2.getMatcherName(), result1.getTestCase().getName(), result1.getTrack().getName(), alpha);
+            try {
+                result.put(mr, pValue(counts.n01, counts.n10, testType, result1.getMatcherName(), result2.getMatcherName()));
+            } catch (ArithmeticException ae) {
+                ae.printStackTrace();
             }
         }
         return result;
     }
 
     /**
-     * Given two execution results, it is determined whether the two results are significantly different (p &lt; alpha).
-     * The execution results must be from the same test case.
+     * Returns the contingency counts of all matcher pairs. They are computed only once because they do not depend on
+     * the test type.
      *
-     * @param executionResult1 Result 1.
-     * @param executionResult2 Result 2.
-     * @return p value
+     * @return The counts in the order of the results.
      */
-    private double pValueConsideringFalsePositives(ExecutionResult executionResult1, ExecutionResult executionResult2) {
-        return pValueConsideringFalsePositives(executionResult1, executionResult2, TestType.ASYMPTOTIC_CONTINUITY_CORRECTION);
+    private synchronized List<McNemarCounts> getCounts() {
+        if (counts == null) {
+            counts = computeCounts(results, numberOfThreads);
+        }
+        return counts;
     }
 
     /**
-     * GGiven two execution results, it is determined whether the two results are significantly different (p &lt; alpha).
-     * The execution results must be from the same test case.
+     * Groups the raw results by test case and computes the counts n01 and n10 for all pairs within each group.
      *
-     * @param executionResult1 Result 1.
-     * @param executionResult2 Result 2.
-     * @param testType         The type of test to be used.
-     * @return p value. NaN if p cannot be calculated.
+     * @param results         The execution results.
+     * @param numberOfThreads The number of threads (the test cases are processed in parallel).
+     * @return The counts (ordered by test case and then by the order of the results).
+     */
+    static List<McNemarCounts> computeCounts(Iterable<ExecutionResult> results, int numberOfThreads) {
+        Map<List<String>, List<ExecutionResult>> resultsPerTestCase = new LinkedHashMap<>();
+        for (ExecutionResult executionResult : results) {
+            if (executionResult.getRefinements().size() > 0) {
+                // for now we only work with raw results
+                continue;
+            }
+            resultsPerTestCase.computeIfAbsent(
+                    Arrays.asList(executionResult.getTrack().getName(), executionResult.getTestCase().getName()),
+                    k -> new ArrayList<>()).add(executionResult);
+        }
+        List<List<ExecutionResult>> groups = new ArrayList<>(resultsPerTestCase.values());
+        if (numberOfThreads <= 1 || groups.size() <= 1) {
+            List<McNemarCounts> counts = new ArrayList<>();
+            for (List<ExecutionResult> group : groups) {
+                counts.addAll(computeCountsForTestCase(group));
+            }
+            return counts;
+        }
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try {
+            return pool.submit(() -> groups.parallelStream()
+                    .map(EvaluatorMcNemarSignificance::computeCountsForTestCase)
+                    .flatMap(List::stream)
+                    .collect(Collectors.toList())).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while computing the McNemar counts.", ex);
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            throw new IllegalStateException("Could not compute the McNemar counts.", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Computes the counts n01 and n10 for all pairs of results of one test case.
+     * All correspondences of the test case are indexed once and each system and reference alignment is encoded as
+     * bitset. The counts are then computed with bit operations and population counts:
+     * <ul>
+     *     <li>n01 = |(A2 &cap; R) \ A1| + |(A1 \ A2) \ R|</li>
+     *     <li>n10 = |(A1 &cap; R) \ A2| + |(A2 \ A1) \ R|</li>
+     * </ul>
+     *
+     * @param group The results of one test case.
+     * @return The counts of all (ordered) pairs.
      */
-    private double pValueConsideringFalsePositives(ExecutionResult executionResult1, ExecutionResult executionResult2, TestType testType) {
+    static List<McNemarCounts> computeCountsForTestCase(List<ExecutionResult> group) {
+        Map<Correspondence, Integer> index = new HashMap<>();
+        for (ExecutionResult executionResult : group) {
+            addToIndex(index, executionResult.getSystemAlignment());
+            addToIndex(index, executionResult.getReferenceAlignment());
+        }
+        int words = (index.size() + 63) >>> 6;
+        long[][] system = new long[group.size()][];
+        long[][] reference = new long[group.size()][];
+        // the reference alignment is usually shared by all results of a test case
+        Map<Alignment, long[]> encodedReferences = new IdentityHashMap<>();
+        for (int i = 0; i < group.size(); i++) {
+            system[i] = encode(index, group.get(i).getSystemAlignment(), words);
+            reference[i] = encodedReferences.computeIfAbsent(group.get(i).getReferenceAlignment(),
+                    r -> encode(index, r, words));
+        }
 
-        // initialize the chi square distribution
-        ChiSquaredDistribution distribution = new ChiSquaredDistribution(1);
+        List<McNemarCounts> counts = new ArrayList<>(group.size() * group.size());
+        for (int i = 0; i < group.size(); i++) {
+            long[] s1 = system[i];
+            long[] r1 = reference[i];
+            for (int j = 0; j < group.size(); j++) {
+                long[] s2 = system[j];
+                long[] r2 = reference[j];
+                int n01 = 0;
+                int n10 = 0;
+                for (int w = 0; w < words; w++) {
+                    n01 += Long.bitCount(s2[w] & r2[w] & ~s1[w]) + Long.bitCount(s1[w] & ~s2[w] & ~r1[w]);
+                    n10 += Long.bitCount(s1[w] & r1[w] & ~s2[w]) + Long.bitCount(s2[w] & ~s1[w] & ~r1[w]);
+                }
+                counts.add(new McNemarCounts(group.get(i), group.get(j), n01, n10));
+            }
+        }
+        return counts;
+    }
 
-        // n01
-        Alignment A2_intersects_R = Alignment.intersection(executionResult2.getSystemAlignment(), executionResult2.getReferenceAlignment());
-        Alignment A2_intersects_R_minus_A1 = Alignment.subtraction(A2_intersects_R, executionResult1.getSystemAlignment());
-        int summand_01a = A2_intersects_R_minus_A1.size();
-        int summand_01b = Alignment.subtraction(Alignment.subtraction(executionResult1.getSystemAlignment(), executionResult2.getSystemAlignment()), executionResult1.getReferenceAlignment()).size();
-        int n01 = summand_01a + summand_01b;
+    private static void addToIndex(Map<Correspondence, Integer> index, Alignment alignment) {
+        for (Correspondence correspondence : alignment) {
+            index.putIfAbsent(correspondence, index.size());
+        }
+    }
 
-        // n10
-        Alignment A1_intersects_R = Alignment.intersection(executionResult1.getSystemAlignment(), executionResult1.getReferenceAlignment());
-        Alignment A1_intersects_R_minus_A2 = Alignment.subtraction(A1_intersects_R, executionResult2.getSystemAlignment());
-        int summand_10a = A1_intersects_R_minus_A2.size();
-        int summand_10b = Alignment.subtraction(Alignment.subtraction(executionResult2.getSystemAlignment(), executionResult1.getSystemAlignment()), executionResult1.getReferenceAlignment()).size();
-        int n10 = summand_10a + summand_10b;
+    private static long[] encode(Map<Correspondence, Integer> index, Alignment alignment, int words) {
+        long[] bits = new long[words];
+        for (Correspondence correspondence : alignment) {
+            int i = index.get(correspondence);
+            bits[i >>> 6] |= 1L << i;
+        }
+        return bits;
+    }
 
+    /**
+     * Calculates the p value given the counts of the contingency table.
+     *
+     * @param n01          Number of correspondences where the first matcher is wrong and the second one is right.
+     * @param n10          Number of correspondences where the first matcher is right and the second one is wrong.
+     * @param testType     The type of test to be used.
+     * @param matcherName1 Name of the first matcher (for logging).
+     * @param matcherName2 Name of the second matcher (for logging).
+     * @return p value. NaN if p cannot be calculated.
+     */
+    private static double pValue(int n01, int n10, TestType testType, String matcherName1, String matcherName2) {
         if (testType == TestType.ASYMPTOTIC) {
             if (n01 == 0 && n10 == 0) {
                 LOGGER.warn("Significance cannot be determined using McNemar's Asymptotic test because" +
-                        "n01 == 0 and n10 == 0. [Matchers: " + executionResult1.getMatcherName() + " | " +
-                        executionResult2.getMatcherName() + "]");
+                        "n01 == 0 and n10 == 0. [Matchers: " + matcherName1 + " | " + matcherName2 + "]");
                 // most likely this is the case for identical alignments
                 return 1.0;
             }
@@ -443,13 +554,14 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
                 LOGGER.warn("A sufficient number of data is required: n01 + n10 >= 25. This is not the case here.");
                 return Double.NaN;
             }
-            double chiSquare = Math.pow(n01 - n10, 2) / (n01 + n10);
-            return (1.0 - distribution.cumulativeProbability(chiSquare));
+            double difference = n01 - n10;
+            double chiSquare = difference * difference / (n01 + n10);
+            return (1.0 - CHI_SQUARED_DISTRIBUTION.cumulativeProbability(chiSquare));
         } else if (testType == TestType.ASYMPTOTIC_CONTINUITY_CORRECTION) {
             if (n01 == 0 && n10 == 0) {
                 LOGGER.warn("Significance cannot be determined using McNemar's Asymptotic test with continuity " +
-                        "correction because n01 == 0 and n10 == 0. [Matchers: " + executionResult1.getMatcherName() +
-                        " | " + executionResult2.getMatcherName() + "]");
+                        "correction because n01 == 0 and n10 == 0. [Matchers: " + matcherName1 +
+                        " | " + matcherName2 + "]");
                 // most likely this is the case for identical alignments
                 return 1.0;
             }
@@ -457,26 +569,21 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
                 LOGGER.warn("A sufficient number of data is required: n01 + n10 >= 25. This is not the case here.");
                 return Double.NaN;
             }
-            double chiSquare = Math.pow(Math.abs(n01 - n10) - 1, 2) / (n01 + n10);
-            return (1.0 - distribution.cumulativeProbability(chiSquare));
+            double difference = Math.abs(n01 - n10) - 1;
+            double chiSquare = difference * difference / (n01 + n10);
+            return (1.0 - CHI_SQUARED_DISTRIBUTION.cumulativeProbability(chiSquare));
         } else if (testType == TestType.EXACT) {
-            int n = n01 + n10;
-            int result = 0;
-            for (int x = 0; x < n; x++) {
-                result += nCr(n, x) * 0.25;
-            }
-            return result;
+            return exactPvalue(n01, n10);
         } else if (testType == TestType.ASYMPTOTIC_EXACT_FALLBACK) {
-            double resultAsymptotic = pValueConsideringFalsePositives(executionResult1, executionResult2,
-                    TestType.ASYMPTOTIC);
+            double resultAsymptotic = pValue(n01, n10, TestType.ASYMPTOTIC, matcherName1, matcherName2);
             if (Double.isNaN(resultAsymptotic)) {
-                return pValueConsideringFalsePositives(executionResult1, executionResult2, TestType.EXACT);
+                return exactPvalue(n01, n10);
             } else return resultAsymptotic;
         } else if (testType == ASYMPTOTIC_CONTINUITY_CORRECTION_EXACT_FALLBACK) {
-            double resultAsymptoticCCorrection = pValueConsideringFalsePositives(executionResult1, executionResult2,
-                    TestType.ASYMPTOTIC_CONTINUITY_CORRECTION);
+            double resultAsymptoticCCorrection = pValue(n01, n10, TestType.ASYMPTOTIC_CONTINUITY_CORRECTION,
+                    matcherName1, matcherName2);
             if (Double.isNaN(resultAsymptoticCCorrection)) {
-                return pValueConsideringFalsePositives(executionResult1, executionResult2, TestType.EXACT);
+                return exactPvalue(n01, n10);
             } else return resultAsymptoticCCorrection;
         }
 
@@ -492,6 +599,39 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
         return Double.NaN;
     }
 
+    /**
+     * Exact (two-sided) McNemar test: {@code p = 2 * sum_{x=0}^{min(n01,n10)} nCr(n, x) * 0.5^n} with
+     * {@code n = n01 + n10} (at most 1.0).
+     * The sum is computed in log space so that it does not overflow for large n.
+     *
+     * @param n01 Count n01 of the contingency table.
+     * @param n10 Count n10 of the contingency table.
+     * @return p value
+     */
+    static double exactPvalue(int n01, int n10) {
+        int n = n01 + n10;
+        if (n == 0) {
+            return 1.0;
+        }
+        int k = Math.min(n01, n10);
+        double logHalfPowN = n * Math.log(0.5);
+        // log(nCr(n, x)) is updated iteratively: nCr(n, x + 1) = nCr(n, x) * (n - x) / (x + 1)
+        double logBinomial = 0.0;
+        double maxLogTerm = logHalfPowN; // the terms grow with x up to k <= n/2
+        double[] logTerms = new double[k + 1];
+        for (int x = 0; x <= k; x++) {
+            logTerms[x] = logBinomial + logHalfPowN;
+            maxLogTerm = Math.max(maxLogTerm, logTerms[x]);
+            logBinomial += Math.log(n - x) - Math.log(x + 1);
+        }
+        double sum = 0.0;
+        for (double logTerm : logTerms) {
+            sum += Math.exp(logTerm - maxLogTerm);
+        }
+        double p = 2.0 * Math.exp(maxLogTerm + Math.log(sum));
+        return Math.min(1.0, p);
+    }
+
     /**
      * From n choose r with large numbers.
      *
@@ -509,14 +649,24 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
     }
 
     /**
-     * From n choose r.
+     * From n choose r. The multiplicative formula is used such that no factorial needs to be computed.
      *
      * @param n N of nCr(N,r)
      * @param r R of nCr(n,R)
      * @return nCr(n, r)
+     * @throws ArithmeticException if the result does not fit into a long (use {@link #nCrBigInt(int, int)} then).
      */
     static long nCr(int n, int r) {
-        return fact(n) / (fact(r) * fact(n - r));
+        if (r < 0 || r > n) {
+            return 0;
+        }
+        r = Math.min(r, n - r);
+        long result = 1;
+        for (int k = 0; k < r; k++) {
+            // exact: the product of (k + 1) consecutive numbers is divisible by (k + 1)!
+            result = Math.multiplyExact(result, n - k) / (k + 1);
+        }
+        return result;
     }
 
     /**
@@ -533,6 +683,19 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
         return res;
     }
 
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Set the number of threads which are used to compute the test cases in parallel.
+     *
+     * @param numberOfThreads Number of threads (1 means no parallelism).
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
     public double getTrackSignificanceShare() {
         return trackSignificanceShare;
     }
@@ -546,4 +709,21 @@ public class EvaluatorMcNemarSignificance extends Evaluator {
             this.trackSignificanceShare = DEFAULT_TRACK_SIGNIFICANCE_SHARE;
         }
     }
+
+    /**
+     * The counts n01 and n10 of the contingency table of two execution results of the same test case.
+     */
+    static class McNemarCounts {
+        final ExecutionResult executionResult1;
+        final ExecutionResult executionResult2;
+        final int n01;
+        final int n10;
+
+        McNemarCounts(ExecutionResult executionResult1, ExecutionResult executionResult2, int n01, int n10) {
+            this.executionResult1 = executionResult1;
+            this.executionResult2 = executionResult2;
+            this.n01 = n01;
+            this.n10 = n10;
+        }
+    }
 }
@@ -7,8 +7,7 @@ public enum TestType {
 
 
     /**
-     * Exact McNemar test.
-     * Only use the exact test for very small datasets, the factorial quickly gets too large.
+     * Exact McNemar test (binomial test, computed in log space such that it also works for large datasets).
      * If you want to use the exact tests for small datasets automatically, use
      * the types with automatic fallback to the exact tests for
      * small data ({@link TestType#ASYMPTOTIC_EXACT_FALLBACK},
@@ -114,7 +114,8 @@ public class AlignmentsCube {
             File fileToBeWritten = new File(baseDirectory, "alignmentCube.csv");
             fileToBeWritten.getParentFile().mkdirs();
             CSVPrinter printer = CSVFormat.DEFAULT.print(fileToBeWritten, StandardCharsets.UTF_8);
-            List<String> header = getHeader();
+            List<String> featureNames = getFeatureNames();
+            List<String> header = getHeader(featureNames);
             printer.printRecord(header);
 
             for (HashMap.Entry<TestCaseMatcher, AnalyticalAlignmentInformation> cubeComponent : this.alignmentDataCube.entrySet()) {
@@ -173,7 +174,7 @@ public class AlignmentsCube {
                     }
 
                     // add feature values
-                    for(String featureName : getFeatureNames()){
+                    for(String featureName : featureNames){
                         String featureValue = mappingInformationEntry.getValue().get(featureName);
                         if(featureValue == null){
                             record.add("");
@@ -226,6 +227,61 @@ public class AlignmentsCube {
      * @return Large String.
      */
     public String toShortString(){
+        try {
+            StringWriter writer = new StringWriter();
+            CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
+            printer.printRecord(getHeader()); // shorter header
+            printRecords(printer, getFeatureNames(), true);
+            // note: writer does not have to be closed.
+            return writer.toString();
+        } catch (IOException ioe){
+            LOGGER.error("Could not transform AlignmentsCube to String.", ioe);
+            return null;
+        }
+    }
+
+    /**
+     * Writes all records of the cube (without the CSV header) to the given output.
+     * In contrast to {@link #toString()} and {@link #toShortString()}, no string of the whole cube is created.
+     * The feature columns are the ones of this cube (see {@link #getHeader()}).
+     *
+     * @param out The output to which the records are written. It is flushed but not closed.
+     * @param printShort Indicator whether prefixes shall be used in URIs (like in {@link #toShortString()}).
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeRecords(Appendable out, boolean printShort) throws IOException {
+        writeRecords(out, getMappingFeatureNames(), printShort);
+    }
+
+    /**
+     * Writes all records of the cube (without the CSV header) to the given output.
+     * This allows to stream a large evaluation: one small cube is filled per test case and matcher, written, and discarded.
+     * All cubes which are written to the same file have to use the same feature names such that the columns
+     * match the header of {@link #getHeader(Collection)}. Features which do not exist in this cube are written as empty values.
+     *
+     * @param out The output to which the records are written. It is flushed but not closed.
+     * @param featureNames The feature names of all cubes (the same as for {@link #getHeader(Collection)}).
+     * @param printShort Indicator whether prefixes shall be used in URIs (like in {@link #toShortString()}).
+     * @throws IOException If an I/O error occurs.
+     */
+    public void writeRecords(Appendable out, Collection<String> featureNames, boolean printShort) throws IOException {
+        CSVPrinter printer = new CSVPrinter(out, CSVFormat.DEFAULT);
+        printRecords(printer, orderFeatureNames(featureNames), printShort);
+        printer.flush();
+    }
+
+    /**
+     * Prints all records of the cube.
+     * @param printer The printer to be used.
+     * @param featureNames The ordered feature names which are printed.
+     * @param printShort Indicator whether prefixes shall be used in URIs.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void printRecords(CSVPrinter printer, List<String> featureNames, boolean printShort) throws IOException {
+        if(!printShort){
+            printRecords(printer, featureNames, null, null, false);
+            return;
+        }
         HashMap<TestCaseMatcher, PrefixLookup> leftURIs = new HashMap<>();
         HashMap<TestCaseMatcher, PrefixLookup> rightURIs = new HashMap<>();
         for(Entry<TestCaseMatcher, AnalyticalAlignmentInformation> entry : this.alignmentDataCube.entrySet()){
@@ -238,21 +294,7 @@ public class AlignmentsCube {
             leftURIs.put(entry.getKey(), new PrefixLookup(leftUris));
             rightURIs.put(entry.getKey(), new PrefixLookup(rightUris));            
         }
-        
-        try {
-            StringWriter writer = new StringWriter();
-            CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
-            printer.printRecord(getHeader()); // shorter header
-            List<List<String>> records = getRecordsToPrintForToStringMethods(leftURIs, rightURIs, true);
-            for(List<String> record : records){
-                printer.printRecord(record);
-            }
-            // note: writer does not have to be closed.
-            return writer.toString();
-        } catch (IOException ioe){
-            LOGGER.error("Could not transform AlignmentsCube to String.", ioe);
-            return null;
-        }
+        printRecords(printer, featureNames, leftURIs, rightURIs, true);
     }
 
 
@@ -300,9 +342,7 @@ public class AlignmentsCube {
             StringWriter writer = new StringWriter();
             CSVPrinter printer = new CSVPrinter(writer, CSVFormat.DEFAULT);
             printer.printRecord(getHeader());
-            for(List<String> record : getRecordsToPrintForToStringMethods()){
-                printer.printRecord(record);
-            }
+            printRecords(printer, getFeatureNames(), false);
             // note: writer does not have to be closed.
             return writer.toString();
         } catch (IOException ioe){
@@ -312,22 +352,20 @@ public class AlignmentsCube {
     }
 
 
-    private List<List<String>> getRecordsToPrintForToStringMethods(){
-        return getRecordsToPrintForToStringMethods(null, null, false);
-    }
-
     /**
-     * This method returns the alignment cube in a way that it can be easily printed as String.
-     * This internal method is to be used by {@link AlignmentsCube#toString()} and {@link AlignmentsCube#toShortString()}.
-     * This method only contains the data (without the CSV header).
+     * This method prints the alignment cube record by record.
+     * This internal method is to be used by {@link AlignmentsCube#toString()}, {@link AlignmentsCube#toShortString()},
+     * and {@link AlignmentsCube#writeRecords(Appendable, Collection, boolean)}.
+     * This method only prints the data (without the CSV header).
      *
+     * @param printer The printer to be used.
+     * @param featureNames The ordered feature names which are printed (empty value if a correspondence does not have the feature).
      * @param left Left side.
      * @param right Right side.
      * @param printShort Indicator whether prefixes shall be used in URIs.
-     * @return List of the records to be printed.
+     * @throws IOException If an I/O error occurs.
      */
-    private List<List<String>> getRecordsToPrintForToStringMethods(HashMap<TestCaseMatcher, PrefixLookup> left, HashMap<TestCaseMatcher, PrefixLookup> right, boolean printShort){
-        List<List<String>> result = new ArrayList<>();
+    private void printRecords(CSVPrinter printer, List<String> featureNames, HashMap<TestCaseMatcher, PrefixLookup> left, HashMap<TestCaseMatcher, PrefixLookup> right, boolean printShort) throws IOException {
         for (HashMap.Entry<TestCaseMatcher, AnalyticalAlignmentInformation> cubeComponent : this.alignmentDataCube.entrySet()) {
             String trackName = cubeComponent.getKey().testCase.getTrack().getName();
             String testCaseName = cubeComponent.getKey().testCase.getName();
@@ -410,7 +448,7 @@ public class AlignmentsCube {
                 }
 
                 // add feature values
-                for (String featureName : getFeatureNames()) {
+                for (String featureName : featureNames) {
                     String featureValue = mappingInformationEntry.getValue().get(featureName);
                     if (featureValue == null) {
                         record.add("");
@@ -430,10 +468,9 @@ public class AlignmentsCube {
                     }
                 }
 
-                result.add(record);
+                printer.printRecord(record);
             } // end of loop over mapping information entry
         } // end of loop over mapping information entries a.k.a. cubeComponent
-        return result;
     }
 
 
@@ -443,6 +480,18 @@ public class AlignmentsCube {
      * @return Cube header as String List.
      */
     public List<String> getHeader() {
+        return getHeader(getFeatureNames());
+    }
+
+
+    /**
+     * Get the header of the cube for the given feature names. This is helpful if the records of multiple cubes are
+     * written to one file (see {@link #writeRecords(Appendable, Collection, boolean)}).
+     *
+     * @param featureNames The feature names of all cubes (see {@link #getMappingFeatureNames()}).
+     * @return Cube header as String List.
+     */
+    public List<String> getHeader(Collection<String> featureNames) {
         List<String> header = new ArrayList<>();
         header.add("Track");
         header.add("TestCase");
@@ -461,7 +510,7 @@ public class AlignmentsCube {
                 header.add(featureName +" Right");
             }
         }
-        for (String featureName : getFeatureNames()) {
+        for (String featureName : orderFeatureNames(featureNames)) {
             header.add(featureName);
         }
 
@@ -480,11 +529,32 @@ public class AlignmentsCube {
      * @return a list of all feature names.
      */
     private ArrayList<String> getFeatureNames() {
-        ArrayList<String> result = new ArrayList<>();
+        return orderFeatureNames(getMappingFeatureNames());
+    }
+
+
+    /**
+     * Get the names of all features which are used in the cube (in no particular order).
+     *
+     * @return The set of feature names.
+     */
+    public Set<String> getMappingFeatureNames() {
         HashSet<String> featureNames = new HashSet<>();
         for (HashMap.Entry<TestCaseMatcher, AnalyticalAlignmentInformation> entry : this.alignmentDataCube.entrySet()) {
             featureNames.addAll(entry.getValue().getMappingFeatureNames());
         }
+        return featureNames;
+    }
+
+
+    /**
+     * Orders the feature names such that the default features come first.
+     *
+     * @param featureNames The feature names.
+     * @return Ordered list of feature names.
+     */
+    private static ArrayList<String> orderFeatureNames(Collection<String> featureNames) {
+        ArrayList<String> result = new ArrayList<>();
         // keeping a certain order (relevant if cube is looked at in excel file
         if (featureNames.contains(AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString())) {
             result.add(AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString());
@@ -492,7 +562,8 @@ public class AlignmentsCube {
         if (featureNames.contains(AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString())) {
             result.add(AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString());
         }
-        for (String featureName : featureNames) {
+        // other features in alphabetical order such that multiple cubes with the same features have the same columns
+        for (String featureName : new TreeSet<>(featureNames)) {
             // already added:
             if (featureName.equals(AnalyticalAlignmentInformation.DefaultFeatures.RESIDUAL.toString())) continue;
             if (featureName.equals(AnalyticalAlignmentInformation.DefaultFeatures.EVALUATION_RESULT.toString()))
@@ -4,10 +4,12 @@ import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.Evaluator;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.EvaluatorCSV;
 import java.io.BufferedWriter;
-import java.io.ByteArrayOutputStream;
 import java.io.File;
-import java.io.FileWriter;
 import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Reader;
+import java.io.UncheckedIOException;
 import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
@@ -19,6 +21,8 @@ import java.util.List;
 import java.util.Set;
 import java.util.function.Supplier;
 import java.util.zip.GZIPOutputStream;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
 import org.apache.velocity.Template;
 import org.apache.velocity.VelocityContext;
@@ -29,6 +33,9 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Generates a dashboard with dc.js components based on the generated csv file.
+ * The csv data is streamed (e.g. from {@link EvaluatorCSV#writeAlignmentsCube(Appendable)}) and converted by the
+ * {@link DashboardDataWriter} into columnar chunks. The generated page only loads the chunks which are needed
+ * for the selected tracks, test cases and matchers (see {@link #setInitialRowLimit(int)}).
  * Example on how to use:
  * <pre>
  * {@code
@@ -44,8 +51,30 @@ public class DashboardBuilder extends Evaluator {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(DashboardBuilder.class);
     
+    /**
+     * The default maximum number of rows which are loaded when the dashboard is opened.
+     */
+    public static final int DEFAULT_INITIAL_ROW_LIMIT = 500_000;
+    
+    protected CsvProvider csvProvider;
+    
+    /**
+     * Returns the whole csv data as one string.
+     * @deprecated use {@link #csvProvider} which streams the data. If a subclass assigns another supplier,
+     * it is still used to write the data.
+     */
+    @Deprecated
     protected Supplier<String> csvSupplier;
     
+    /**
+     * The supplier which is created in the constructor (to detect if a subclass assigned another one).
+     */
+    private final Supplier<String> defaultCsvSupplier;
+    
+    protected DashboardDataWriter dataWriter;
+    
+    protected int initialRowLimit;
+    
     protected Template template;
     
     protected List<DcjsElement> currentRow;
@@ -61,13 +90,45 @@ public class DashboardBuilder extends Evaluator {
     
     
     
-    public DashboardBuilder(Supplier<String> csvSupplier, ExecutionResultSet executionResultSet, String titleOfPage, String additionalText){
+    /**
+     * Writes the csv data (with header) which is shown in the dashboard.
+     */
+    @FunctionalInterface
+    public interface CsvProvider {
+        /**
+         * Writes the csv data to the given output.
+         * @param out the output (should not be closed)
+         * @throws IOException if an I/O error occurs
+         */
+        void writeCsv(Appendable out) throws IOException;
+    }
+    
+    /**
+     * Constructor
+     * @param csvProvider Writes the csv data which is shown in the dashboard.
+     * @param executionResultSet The execution result set (can be null).
+     * @param titleOfPage The title of the generated HTML page.
+     * @param additionalText additionalText
+     */
+    public DashboardBuilder(CsvProvider csvProvider, ExecutionResultSet executionResultSet, String titleOfPage, String additionalText){
         super(executionResultSet);
         Velocity.setProperty("resource.loaders", "classpath");
         Velocity.setProperty("resource.loader.classpath.class", ClasspathResourceLoader.class.getName());        
         Velocity.init();
         this.template = Velocity.getTemplate("templates/dashboard/dashboard.vm");
-        this.csvSupplier = csvSupplier;
+        this.csvProvider = csvProvider;
+        this.defaultCsvSupplier = () -> {
+            StringBuilder sb = new StringBuilder();
+            try {
+                csvProvider.writeCsv(sb);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            return sb.toString();
+        };
+        this.csvSupplier = this.defaultCsvSupplier;
+        this.dataWriter = new DashboardDataWriter();
+        this.initialRowLimit = DEFAULT_INITIAL_ROW_LIMIT;
         this.rows = new ArrayList<>();
         this.currentRow = new ArrayList<>();
         this.title = titleOfPage;
@@ -76,6 +137,17 @@ public class DashboardBuilder extends Evaluator {
         
         addDefaultDashboard();
     }
+    
+    /**
+     * Constructor
+     * @param csvSupplier Returns the csv data which is shown in the dashboard.
+     * @param executionResultSet The execution result set (can be null).
+     * @param titleOfPage The title of the generated HTML page.
+     * @param additionalText additionalText
+     */
+    public DashboardBuilder(Supplier<String> csvSupplier, ExecutionResultSet executionResultSet, String titleOfPage, String additionalText){
+        this(out -> out.append(csvSupplier.get()), executionResultSet, titleOfPage, additionalText);
+    }
 
     /**
      * Constructor
@@ -85,9 +157,9 @@ public class DashboardBuilder extends Evaluator {
      * @param additionalText additionalText
      */
     public DashboardBuilder(EvaluatorCSV evaluatorCSV, String titleOfPage, String additionalText){
-        this(() -> {
+        this(out -> {
             evaluatorCSV.setPrintCorrespondenceExtensions(false); 
-            return evaluatorCSV.getAlignmentsCubeAsString().trim();
+            evaluatorCSV.writeAlignmentsCube(out);
         }, evaluatorCSV.getResults(), titleOfPage, additionalText);
     }
 
@@ -124,12 +196,9 @@ public class DashboardBuilder extends Evaluator {
      * @param additionalText additional text for the page
      */
     public DashboardBuilder(File csvFile, String titleOfPage, String additionalText){
-        this(()-> {
-            try{
-                return new String(Files.readAllBytes(csvFile.toPath()), StandardCharsets.UTF_8);
-            }catch(IOException ex){
-                LOGGER.error("Could not read csv file", ex);
-                return "";
+        this(out -> {
+            try(Reader reader = Files.newBufferedReader(csvFile.toPath(), StandardCharsets.UTF_8)){
+                IOUtils.copy(reader, out);
             }
         },null, titleOfPage, additionalText);
     } 
@@ -538,6 +607,28 @@ public class DashboardBuilder extends Evaluator {
         return this;
     }
     
+    /**
+     * Sets the maximum number of rows in one data chunk.
+     * @param chunkSize the maximum number of rows in one chunk
+     * @return this builder
+     */
+    public DashboardBuilder setChunkSize(int chunkSize){
+        this.dataWriter.setChunkSize(chunkSize);
+        return this;
+    }
+    
+    /**
+     * Sets the maximum number of rows which are loaded when the dashboard is opened.
+     * If the data has more rows, only the chunks of the first track are loaded and further tracks, test cases or matchers
+     * can be loaded with the data selection of the page.
+     * @param initialRowLimit maximum number of rows which are loaded initially
+     * @return this builder
+     */
+    public DashboardBuilder setInitialRowLimit(int initialRowLimit){
+        this.initialRowLimit = initialRowLimit;
+        return this;
+    }
+    
     
     
     @Override
@@ -550,7 +641,8 @@ public class DashboardBuilder extends Evaluator {
     }
 
     /**
-     * Writes the HTML content to one file. This includes also the data (csv) which is included in the HTML file.
+     * Writes the HTML content to one file. This includes also the data chunks which are embedded in the HTML file
+     * and only parsed when they are needed.
      * This HTML file can be opened directly by a browser.
      * @param htmlFile the file where all html data should be written to
      */
@@ -562,43 +654,67 @@ public class DashboardBuilder extends Evaluator {
 
         //in case the last row is not closed:
         newRow();
-
-        VelocityContext context = prepareVelocityContext();
-        context.put("csvData", this.csvSupplier.get());
-        /*context.put("csvData", "Track,TestCase,left_label,left_comment,left_explicit_type,left_uri,relation,confidence,right_uri,right_label,right_comment,right explicit type,result\n" +
-"conference,conference-sigkdd,[],[],[http://www.w3.org/2002/07/owl-Class],http://conference-Review,=,1.0,http://sigkdd-Review,[],[],[http://www.w3.org/2002/07/owl-Class],true positive\n" +
-"conference,conference-sigkdd,[],[],[http://www.w3.org/2002/07/owl-Class],http://conference-Committee,=,1.0,http://sigkdd-Committee,[],[],[http://www.w3.org/2002/07/owl-Class],true positive\n" +
-"conference,conference-sigkdd,[],[],[http://www.w3.org/2002/07/owl-Class],http://conference-Person,=,1.0,http://sigkdd-Person,[],[],[http://www.w3.org/2002/07/owl-Class],true positive");
-        */
         
-        try(Writer writer = new FileWriter(htmlFile)){
-            template.merge( context, writer );
+        File tmpDirectory = null;
+        try {
+            tmpDirectory = Files.createTempDirectory("meltDashboard").toFile();
+            File dataDirectory = new File(tmpDirectory, "data");
+            List<File> chunkFiles = writeDataChunks(dataDirectory, tmpDirectory);
+            VelocityContext context = prepareVelocityContext();
+            context.put("chunkManifest", readFile(DashboardDataWriter.getManifestFile(dataDirectory)));
+            context.put("inlineChunks", chunkFiles);
+            context.put("chunkReader", new ChunkReader());
+            mergeTemplate(context, htmlFile);
+        } catch (IOException ex) {
+            LOGGER.error("Could not write to file.", ex);
+        } finally {
+            FileUtils.deleteQuietly(tmpDirectory);
+        }
+    }
+    
+    /**
+     * Writes the HTML content to htmlFile and the data in columnar chunks to the data directory.
+     * The HTML page only loads the chunks which are needed for the current data selection.
+     * This is for publishing the dashboard to a server (the data directory has to be in the same directory as the HTML file).
+     * @param htmlFile the file where all html code should be written to
+     * @param dataDirectory the directory where the data chunks and the manifest should be written to
+     */
+    public void writeToChunkedFiles(File htmlFile, File dataDirectory){
+        newRow();
+        
+        File tmpDirectory = null;
+        try {
+            tmpDirectory = Files.createTempDirectory("meltDashboard").toFile();
+            writeDataChunks(dataDirectory, tmpDirectory);
+            VelocityContext context = prepareVelocityContext();
+            context.put("chunkManifest", readFile(DashboardDataWriter.getManifestFile(dataDirectory)));
+            context.put("chunkLocation", dataDirectory.getName());
+            mergeTemplate(context, htmlFile);
         } catch (IOException ex) {
             LOGGER.error("Could not write to file.", ex);
+        } finally {
+            FileUtils.deleteQuietly(tmpDirectory);
         }
     }
     
     /**
      * Writes the HTML content to htmlFile and the data (csv) to another file.
      * This is for publishing the dashboard to a server.
+     * For large data, use {@link #writeToChunkedFiles(File, File)} which loads only the data which is needed.
      * @param htmlFile the file where all html code should be written to
      * @param csvFile the file where all data should be written to
      */
     public void writeToFile(File htmlFile, File csvFile){
         newRow();
         
-        try(Writer writer = new BufferedWriter(new FileWriter(csvFile))){
-            writer.write(this.csvSupplier.get());
+        try(Writer writer = Files.newBufferedWriter(csvFile.toPath(), StandardCharsets.UTF_8)){
+            writeCsv(writer);
         } catch (IOException ex) {
             LOGGER.error("Could not write to file.", ex);
         }
         VelocityContext context = prepareVelocityContext();
         context.put("remoteLocation", csvFile.getName());
-        try(Writer writer = new FileWriter(htmlFile)){
-            template.merge( context, writer );
-        } catch (IOException ex) {
-            LOGGER.error("Could not write to file.", ex);
-        }
+        mergeTemplate(context, htmlFile);
     }
     
     /**
@@ -611,41 +727,78 @@ public class DashboardBuilder extends Evaluator {
     public void writeToCompressedFile(File htmlFile, File csvFile){
         newRow();
         
-        try(Writer writer = new BufferedWriter(new FileWriter(csvFile))){
-            String csv = this.csvSupplier.get();
-            writer.write(Base64.getEncoder().encodeToString(getGzippedByteArray(csv)));
+        try(OutputStream base64Stream = Base64.getEncoder().wrap(Files.newOutputStream(csvFile.toPath()));
+            Writer writer = new BufferedWriter(new OutputStreamWriter(new GZIPOutputStream(base64Stream), StandardCharsets.UTF_8))){
+            writeCsv(writer);
         } catch (IOException ex) {
             LOGGER.error("Could not write to file.", ex);
         }
         VelocityContext context = prepareVelocityContext();
         context.put("compressedRemoteLocation", csvFile.getName());
-        try(Writer writer = new FileWriter(htmlFile)){
-            template.merge( context, writer );
-        } catch (IOException ex) {
-            LOGGER.error("Could not write to file.", ex);
+        mergeTemplate(context, htmlFile);
+    }
+    
+    /**
+     * Reads a data chunk. This is used in the template to embed one chunk after the other
+     * (thus not all chunks need to be in memory).
+     */
+    public static class ChunkReader {
+        public String read(File chunkFile) throws IOException {
+            return readFile(chunkFile);
         }
     }
     
     //Private helper methods
     
-    private byte[] getGzippedByteArray(String text){
-        try(ByteArrayOutputStream byteStream = new ByteArrayOutputStream()){            
-            try(GZIPOutputStream gzipStream = new GZIPOutputStream(byteStream)){
-                gzipStream.write(text.getBytes(StandardCharsets.UTF_8));
-            }            
-            return byteStream.toByteArray();
+    /**
+     * Streams the csv data to a temporary file and converts it to columnar chunks.
+     * @param dataDirectory the directory where the chunks and the manifest are written to
+     * @param tmpDirectory the directory for the temporary csv file
+     * @return the chunk files
+     */
+    private List<File> writeDataChunks(File dataDirectory, File tmpDirectory) throws IOException {
+        File csvFile = new File(tmpDirectory, "data.csv");
+        try {
+            try(Writer writer = Files.newBufferedWriter(csvFile.toPath(), StandardCharsets.UTF_8)){
+                writeCsv(writer);
+            }
+            return this.dataWriter.write(csvFile, dataDirectory);
+        } finally {
+            Files.deleteIfExists(csvFile.toPath());
+        }
+    }
+    
+    /**
+     * Writes the csv data with the {@link #csvProvider} or with the {@link #csvSupplier} if a subclass assigned one.
+     */
+    @SuppressWarnings("deprecation")
+    private void writeCsv(Appendable out) throws IOException {
+        if(this.csvSupplier != null && this.csvSupplier != this.defaultCsvSupplier){
+            out.append(this.csvSupplier.get());
+        }else{
+            this.csvProvider.writeCsv(out);
+        }
+    }
+    
+    private void mergeTemplate(VelocityContext context, File htmlFile){
+        try(Writer writer = Files.newBufferedWriter(htmlFile.toPath(), StandardCharsets.UTF_8)){
+            template.merge( context, writer );
         } catch (IOException ex) {
-            LOGGER.error("Could not create gzipped byte array", ex);
-            return new byte[0];
+            LOGGER.error("Could not write to file.", ex);
         }
     }
     
+    private static String readFile(File file) throws IOException {
+        return new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8);
+    }
+    
     private VelocityContext prepareVelocityContext(){
         VelocityContext context = new VelocityContext();
         context.put("title", title);
         context.put("additionalText", additionalText);
         context.put("dcjsElements", rows);
         context.put("loadingSpinner", this.dataLoadingIndicator);
+        context.put("initialRowLimit", this.initialRowLimit);
         context.put("dimensionDefinition", this.getAllDimensionDefinitions());
         context.put("groupDefinition", this.getAllGroupDefinitions());
         context.put("jsHelperFileNames", this.getAllJsHelperFileNames());
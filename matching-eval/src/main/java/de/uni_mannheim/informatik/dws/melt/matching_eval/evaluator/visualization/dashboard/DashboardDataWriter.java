@@ -0,0 +1,385 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.visualization.dashboard;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.CharacterEscapes;
+import java.io.File;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+
+/**
+ * Writes the data of a dashboard (the alignment cube as csv) in a compact columnar format which is split into chunks.
+ * <ul>
+ * <li>Each chunk is a JSON file which contains the rows of the chunk column by column.
+ * Columns which only contain numbers are written as numbers, all other columns are dictionary encoded
+ * (a list of distinct values per chunk and the index of the value for each row).
+ * The index columns are always dictionary encoded, even if they only contain numbers (e.g. test cases 101, 201).</li>
+ * <li>The manifest ({@link #MANIFEST_FILE_NAME}) contains the columns, their types and for each chunk the distinct values
+ * of the index columns (by default track, test case and matcher). This allows the dashboard to load only the chunks which
+ * are needed for the current selection.</li>
+ * </ul>
+ * The csv file is read twice (once to determine the column types and once to write the chunks) and only one chunk is
+ * held in memory. The characters {@code <}, {@code >} and {@code &} are escaped, thus the JSON can be embedded in HTML.
+ */
+public class DashboardDataWriter {
+
+
+    /**
+     * The default number of rows in one chunk.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 50_000;
+
+    /**
+     * Name of the manifest file in the data directory.
+     */
+    public static final String MANIFEST_FILE_NAME = "manifest.json";
+
+    /**
+     * Values which can be written as a JSON number without any conversion.
+     */
+    private static final Pattern JSON_NUMBER = Pattern.compile("-?(?:0|[1-9][0-9]*)(?:\\.[0-9]+)?(?:[eE][+-]?[0-9]+)?");
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Maximum number of rows in one chunk.
+     */
+    private int chunkSize;
+
+    /**
+     * The columns whose distinct values are stored in the manifest for each chunk.
+     */
+    private List<String> indexColumns;
+
+    /**
+     * Constructor
+     * @param chunkSize The maximum number of rows in one chunk.
+     * @param indexColumns The columns whose distinct values are stored in the manifest for each chunk.
+     *                     Columns which do not appear in the csv file are ignored.
+     */
+    public DashboardDataWriter(int chunkSize, List<String> indexColumns) {
+        setChunkSize(chunkSize);
+        this.indexColumns = indexColumns;
+    }
+
+    /**
+     * Constructor which uses the default chunk size and indexes track, test case and matcher.
+     */
+    public DashboardDataWriter() {
+        this(DEFAULT_CHUNK_SIZE, Arrays.asList("Track", "TestCase", "Matcher"));
+    }
+
+    /**
+     * Writes the chunks and the manifest of the given csv file to the given directory.
+     * @param csvFile The csv file (format {@link CSVFormat#DEFAULT}) which has a header in the first line.
+     * @param directory The directory to which the chunks and the manifest are written. It is created if it does not exist.
+     * @return The chunk files in the order in which they appear in the manifest.
+     * @throws IOException If an I/O error occurs.
+     */
+    public List<File> write(File csvFile, File directory) throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            throw new IOException("Could not create the directory " + directory);
+        }
+        List<String> header;
+        Map<String, Integer> indexPositions = new LinkedHashMap<>();
+        boolean[] numeric;
+        try (CSVParser parser = openCsv(csvFile)) {
+            header = parser.getHeaderNames();
+            for (String column : indexColumns) {
+                int position = header.indexOf(column);
+                if (position >= 0) {
+                    indexPositions.put(column, position);
+                }
+            }
+            numeric = new boolean[header.size()];
+            Arrays.fill(numeric, true);
+            //index columns are compared with the selected values (strings) in the dashboard, thus they are never numeric
+            for (int position : indexPositions.values()) {
+                numeric[position] = false;
+            }
+            for (CSVRecord record : parser) {
+                for (int i = 0; i < numeric.length; i++) {
+                    if (numeric[i] && (i >= record.size() || !JSON_NUMBER.matcher(record.get(i)).matches())) {
+                        numeric[i] = false;
+                    }
+                }
+            }
+        }
+
+        List<File> chunkFiles = new ArrayList<>();
+        List<Chunk> chunks = new ArrayList<>();
+        long rows = 0;
+        try (CSVParser parser = openCsv(csvFile)) {
+            Chunk chunk = new Chunk(numeric, indexPositions);
+            for (CSVRecord record : parser) {
+                chunk.add(record);
+                rows++;
+                if (chunk.rows >= chunkSize) {
+                    chunkFiles.add(writeChunk(chunk, directory, chunks.size()));
+                    chunks.add(chunk.clearData());
+                    chunk = new Chunk(numeric, indexPositions);
+                }
+            }
+            if (chunk.rows > 0) {
+                chunkFiles.add(writeChunk(chunk, directory, chunks.size()));
+                chunks.add(chunk.clearData());
+            }
+        }
+
+        try (JsonGenerator json = createGenerator(Files.newBufferedWriter(getManifestFile(directory).toPath(), StandardCharsets.UTF_8))) {
+            json.writeStartObject();
+            json.writeArrayFieldStart("columns");
+            for (int i = 0; i < header.size(); i++) {
+                json.writeStartObject();
+                json.writeStringField("name", header.get(i));
+                json.writeStringField("type", numeric[i] ? "number" : "string");
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeArrayFieldStart("index");
+            for (String column : indexPositions.keySet()) {
+                json.writeString(column);
+            }
+            json.writeEndArray();
+            json.writeNumberField("rows", rows);
+            json.writeArrayFieldStart("chunks");
+            for (int i = 0; i < chunks.size(); i++) {
+                json.writeStartObject();
+                json.writeStringField("file", chunkFiles.get(i).getName());
+                json.writeNumberField("rows", chunks.get(i).rows);
+                json.writeObjectFieldStart("index");
+                for (Map.Entry<String, Set<String>> entry : chunks.get(i).indexValues.entrySet()) {
+                    json.writeArrayFieldStart(entry.getKey());
+                    for (String value : entry.getValue()) {
+                        json.writeString(value);
+                    }
+                    json.writeEndArray();
+                }
+                json.writeEndObject();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return chunkFiles;
+    }
+
+    /**
+     * Returns the manifest file in the given data directory.
+     * @param directory The data directory.
+     * @return The manifest file.
+     */
+    public static File getManifestFile(File directory) {
+        return new File(directory, MANIFEST_FILE_NAME);
+    }
+
+    private File writeChunk(Chunk chunk, File directory, int chunkNumber) throws IOException {
+        File chunkFile = new File(directory, "chunk_" + chunkNumber + ".json");
+        try (JsonGenerator json = createGenerator(Files.newBufferedWriter(chunkFile.toPath(), StandardCharsets.UTF_8))) {
+            json.writeStartObject();
+            json.writeNumberField("rows", chunk.rows);
+            json.writeArrayFieldStart("columns");
+            for (Column column : chunk.columns) {
+                json.writeStartObject();
+                if (column.dictionary != null) {
+                    json.writeArrayFieldStart("dictionary");
+                    for (String value : column.dictionary.keySet()) {
+                        json.writeString(value);
+                    }
+                    json.writeEndArray();
+                }
+                json.writeArrayFieldStart("values");
+                if (column.dictionary != null) {
+                    for (int i = 0; i < column.indices.size(); i++) {
+                        json.writeNumber(column.indices.get(i));
+                    }
+                } else {
+                    for (String number : column.numbers) {
+                        json.writeNumber(number);
+                    }
+                }
+                json.writeEndArray();
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+            json.writeEndObject();
+        }
+        return chunkFile;
+    }
+
+    private static CSVParser openCsv(File csvFile) throws IOException {
+        Reader reader = Files.newBufferedReader(csvFile.toPath(), StandardCharsets.UTF_8);
+        return CSVFormat.DEFAULT.withFirstRecordAsHeader().withAllowDuplicateHeaderNames().parse(reader);
+    }
+
+    private static JsonGenerator createGenerator(Writer writer) throws IOException {
+        JsonGenerator generator = JSON_FACTORY.createGenerator(writer);
+        generator.setCharacterEscapes(HtmlSafeCharacterEscapes.INSTANCE);
+        return generator;
+    }
+
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Sets the maximum number of rows in one chunk.
+     * @param chunkSize The maximum number of rows (greater than zero).
+     */
+    public void setChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("The chunk size has to be greater than zero.");
+        }
+        this.chunkSize = chunkSize;
+    }
+
+    public List<String> getIndexColumns() {
+        return indexColumns;
+    }
+
+    public void setIndexColumns(List<String> indexColumns) {
+        this.indexColumns = indexColumns;
+    }
+
+    /**
+     * The rows of one chunk in columnar form.
+     */
+    private static class Chunk {
+        private final Column[] columns;
+        private final Map<String, Integer> indexPositions;
+        private final Map<String, Set<String>> indexValues;
+        private int rows;
+
+        Chunk(boolean[] numeric, Map<String, Integer> indexPositions) {
+            this.columns = new Column[numeric.length];
+            for (int i = 0; i < numeric.length; i++) {
+                this.columns[i] = new Column(numeric[i]);
+            }
+            this.indexPositions = indexPositions;
+            this.indexValues = new LinkedHashMap<>();
+            for (String column : indexPositions.keySet()) {
+                this.indexValues.put(column, new TreeSet<>());
+            }
+            this.rows = 0;
+        }
+
+        void add(CSVRecord record) {
+            for (int i = 0; i < columns.length; i++) {
+                columns[i].add(i < record.size() ? record.get(i) : "");
+            }
+            for (Map.Entry<String, Integer> entry : indexPositions.entrySet()) {
+                int position = entry.getValue();
+                indexValues.get(entry.getKey()).add(position < record.size() ? record.get(position) : "");
+            }
+            rows++;
+        }
+
+        /**
+         * Removes the column data which is no longer needed after the chunk is written (the index values are kept for the manifest).
+         * @return this chunk
+         */
+        Chunk clearData() {
+            Arrays.fill(columns, null);
+            return this;
+        }
+    }
+
+    /**
+     * One column of a chunk: either dictionary encoded or numeric.
+     */
+    private static class Column {
+        private final Map<String, Integer> dictionary;
+        private final IntList indices;
+        private final List<String> numbers;
+
+        Column(boolean numeric) {
+            if (numeric) {
+                this.dictionary = null;
+                this.indices = null;
+                this.numbers = new ArrayList<>();
+            } else {
+                this.dictionary = new LinkedHashMap<>();
+                this.indices = new IntList();
+                this.numbers = null;
+            }
+        }
+
+        void add(String value) {
+            if (dictionary == null) {
+                numbers.add(value);
+            } else {
+                Integer index = dictionary.get(value);
+                if (index == null) {
+                    index = dictionary.size();
+                    dictionary.put(value, index);
+                }
+                indices.add(index);
+            }
+        }
+    }
+
+    /**
+     * Growable list of primitive integers.
+     */
+    private static class IntList {
+        private int[] values = new int[16];
+        private int size = 0;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        int get(int index) {
+            return values[index];
+        }
+
+        int size() {
+            return size;
+        }
+    }
+
+    /**
+     * Escapes the characters which could end a script element or start an HTML entity.
+     */
+    private static class HtmlSafeCharacterEscapes extends CharacterEscapes {
+        private static final HtmlSafeCharacterEscapes INSTANCE = new HtmlSafeCharacterEscapes();
+        private static final long serialVersionUID = 1L;
+
+        private final int[] asciiEscapes;
+
+        HtmlSafeCharacterEscapes() {
+            this.asciiEscapes = CharacterEscapes.standardAsciiEscapesForJSON();
+            this.asciiEscapes['<'] = CharacterEscapes.ESCAPE_STANDARD;
+            this.asciiEscapes['>'] = CharacterEscapes.ESCAPE_STANDARD;
+            this.asciiEscapes['&'] = CharacterEscapes.ESCAPE_STANDARD;
+        }
+
+        @Override
+        public int[] getEscapeCodesForAscii() {
+            return asciiEscapes;
+        }
+
+        @Override
+        public SerializableString getEscapeSequence(int ch) {
+            return null;
+        }
+    }
+}
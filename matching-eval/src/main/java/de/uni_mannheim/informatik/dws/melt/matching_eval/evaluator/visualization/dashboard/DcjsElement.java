@@ -79,13 +79,13 @@ public class DcjsElement {
     }    
     
     public void createDimensionDefinitionCsvField(String dimensionName, String csvFieldName, String defaultValue){
-        createDimensionDefinition(dimensionName, String.format("function(d) {return d[\"%s\"] || %s;}", csvFieldName, defaultValue));
+        createDimensionDefinition(dimensionName, String.format("function(d) {return d[\"%1$s\"] === undefined || d[\"%1$s\"] === null ? %2$s : d[\"%1$s\"];}", csvFieldName, defaultValue));
     }
     
     public void createDimensionDefinitionMultipleCsvFields(String dimensionName, String... csvFieldName){
         List<String> fieldNameList = Arrays.asList(csvFieldName);
         String accessors = fieldNameList.stream()
-                .map(field -> String.format("d[\"%s\"] || \"\"", field))
+                .map(field -> String.format("(d[\"%1$s\"] === undefined || d[\"%1$s\"] === null ? \"\" : d[\"%1$s\"])", field))
                 .collect(Collectors.joining(","));
         createDimensionDefinition(dimensionName, String.format("function(d) {return [%s];}", accessors));
     }
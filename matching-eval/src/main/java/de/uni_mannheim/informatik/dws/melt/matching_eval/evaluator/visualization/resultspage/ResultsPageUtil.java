@@ -46,7 +46,7 @@ public class ResultsPageUtil {
      */
     public ResultsPageUtil(ExecutionResultSet results, boolean isMicro){
         this.results = results;
-        this.cmMetric = new ConfusionMatrixMetric();
+        this.cmMetric = ConfusionMatrixMetric.getSharedInstance();
         this.matchers = getOrderedMatchers();
         this.testcases = getOrderedTestCases();
         this.isMicro = isMicro;
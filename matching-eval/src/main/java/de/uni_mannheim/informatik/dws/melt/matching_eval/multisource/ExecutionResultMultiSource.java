@@ -75,10 +75,7 @@ public class ExecutionResultMultiSource {
         
         Map<TestCase, Alignment> testcaseToAlignment = new HashMap<>();
         if(computeTransitiveClosure){
-            TransitiveClosure<String> alignmentClosure = new TransitiveClosure<>();
-            for(Correspondence c : fullAlignment){
-                alignmentClosure.add(c.getEntityOne(), c.getEntityTwo());
-            }
+            TransitiveClosure<String> alignmentClosure = TransitiveClosure.fromAlignment(fullAlignment, Runtime.getRuntime().availableProcessors());
             for(Set<String> sameAs : alignmentClosure.getClosure()){
                 Map<TestCase, SourceTargetURIs> map = partitioner.partition(sameAs);
                 for(Map.Entry<TestCase, SourceTargetURIs> entry : map.entrySet()){
@@ -0,0 +1,247 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning;
+
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+
+
+/**
+ * Precision, recall and F-measure of a system alignment for all possible confidence thresholds.
+ * The curve is computed from one confusion matrix: the confidences of the true and false positives are sorted once
+ * and all values for a threshold t (keep all correspondences with confidence &ge; t, like {@link Alignment#cut(double)})
+ * are derived by counting. Thus no alignment needs to be cut or evaluated per threshold.
+ * The values are the same as the ones of the confusion matrix of an execution result which is refined
+ * with a {@link de.uni_mannheim.informatik.dws.melt.matching_eval.refinement.ConfidenceRefiner}.
+ */
+public class ConfidenceCurve {
+
+
+    /**
+     * Sorted (ascending) confidences of the true positives.
+     */
+    private final double[] truePositiveConfidences;
+
+    /**
+     * Sorted (ascending) confidences of the false positives.
+     */
+    private final double[] falsePositiveConfidences;
+
+    /**
+     * Number of correspondences in the reference which can be found (true positives and false negatives without threshold).
+     */
+    private final int referenceSize;
+
+    /**
+     * Distinct confidences of the true and false positives in ascending order.
+     */
+    private final double[] thresholds;
+
+    /**
+     * Number of true positives for each threshold.
+     */
+    private final int[] truePositives;
+
+    /**
+     * Number of false positives for each threshold.
+     */
+    private final int[] falsePositives;
+
+    /**
+     * Constructor
+     * @param confusionMatrix The confusion matrix of the execution result without any threshold.
+     */
+    public ConfidenceCurve(ConfusionMatrix confusionMatrix){
+        this.truePositiveConfidences = confusionMatrix.getTruePositiveConfidences();
+        this.falsePositiveConfidences = confusionMatrix.getFalsePositiveConfidences();
+        this.referenceSize = confusionMatrix.getTruePositiveSize() + confusionMatrix.getFalseNegativeSize();
+
+        // sweep from the highest to the lowest confidence
+        double[] distinct = new double[truePositiveConfidences.length + falsePositiveConfidences.length];
+        int[] tp = new int[distinct.length];
+        int[] fp = new int[distinct.length];
+        int i = truePositiveConfidences.length - 1;
+        int j = falsePositiveConfidences.length - 1;
+        int tpCount = 0;
+        int fpCount = 0;
+        int size = 0;
+        while(i >= 0 || j >= 0){
+            double threshold = Math.max(
+                    i >= 0 ? truePositiveConfidences[i] : Double.NEGATIVE_INFINITY,
+                    j >= 0 ? falsePositiveConfidences[j] : Double.NEGATIVE_INFINITY);
+            while(i >= 0 && truePositiveConfidences[i] == threshold){
+                tpCount++;
+                i--;
+            }
+            while(j >= 0 && falsePositiveConfidences[j] == threshold){
+                fpCount++;
+                j--;
+            }
+            distinct[size] = threshold;
+            tp[size] = tpCount;
+            fp[size] = fpCount;
+            size++;
+        }
+        this.thresholds = new double[size];
+        this.truePositives = new int[size];
+        this.falsePositives = new int[size];
+        for(int k = 0; k < size; k++){
+            this.thresholds[k] = distinct[size - 1 - k];
+            this.truePositives[k] = tp[size - 1 - k];
+            this.falsePositives[k] = fp[size - 1 - k];
+        }
+    }
+
+    /**
+     * Constructor. The confusion matrix is taken from {@link ConfusionMatrixMetric#getSharedInstance()}, thus it is
+     * computed only once for all evaluators which use the shared instance.
+     * @param executionResult The execution result for which the curve shall be computed.
+     */
+    public ConfidenceCurve(ExecutionResult executionResult){
+        this(ConfusionMatrixMetric.getSharedInstance().get(executionResult));
+    }
+
+    /**
+     * Returns the number of distinct confidences which appear in the system alignment (true and false positives).
+     * @return number of points on the curve
+     */
+    public int size(){
+        return thresholds.length;
+    }
+
+    /**
+     * Returns the threshold of the given point.
+     * @param index the index of the point (between zero and {@link #size()}; points are ordered by ascending threshold)
+     * @return the threshold
+     */
+    public double getThreshold(int index){
+        return thresholds[index];
+    }
+
+    /**
+     * Returns a copy of all thresholds in ascending order.
+     * @return the thresholds
+     */
+    public double[] getThresholds(){
+        return thresholds.clone();
+    }
+
+    public int getTruePositiveSize(int index){
+        return truePositives[index];
+    }
+
+    public int getFalsePositiveSize(int index){
+        return falsePositives[index];
+    }
+
+    public int getFalseNegativeSize(int index){
+        return referenceSize - truePositives[index];
+    }
+
+    public double getPrecision(int index){
+        return divideWithTwoDenominators(truePositives[index], truePositives[index], falsePositives[index]);
+    }
+
+    public double getRecall(int index){
+        return divideWithTwoDenominators(truePositives[index], truePositives[index], getFalseNegativeSize(index));
+    }
+
+    public double getF1measure(int index){
+        return getFbetaMeasure(index, 1.0);
+    }
+
+    public double getFbetaMeasure(int index, double beta){
+        return fBeta(getPrecision(index), getRecall(index), beta);
+    }
+
+    /**
+     * Returns the number of true positives if only correspondences with a confidence greater or equal to the threshold are kept.
+     * @param threshold the threshold (it does not need to occur in the alignment)
+     * @return number of true positives
+     */
+    public int getTruePositiveSizeForThreshold(double threshold){
+        return countGreaterOrEqual(truePositiveConfidences, threshold);
+    }
+
+    /**
+     * Returns the number of false positives if only correspondences with a confidence greater or equal to the threshold are kept.
+     * @param threshold the threshold (it does not need to occur in the alignment)
+     * @return number of false positives
+     */
+    public int getFalsePositiveSizeForThreshold(double threshold){
+        return countGreaterOrEqual(falsePositiveConfidences, threshold);
+    }
+
+    /**
+     * Returns the number of false negatives if only correspondences with a confidence greater or equal to the threshold are kept.
+     * @param threshold the threshold (it does not need to occur in the alignment)
+     * @return number of false negatives
+     */
+    public int getFalseNegativeSizeForThreshold(double threshold){
+        return referenceSize - getTruePositiveSizeForThreshold(threshold);
+    }
+
+    public double getPrecisionForThreshold(double threshold){
+        int tp = getTruePositiveSizeForThreshold(threshold);
+        return divideWithTwoDenominators(tp, tp, getFalsePositiveSizeForThreshold(threshold));
+    }
+
+    public double getRecallForThreshold(double threshold){
+        int tp = getTruePositiveSizeForThreshold(threshold);
+        return divideWithTwoDenominators(tp, tp, referenceSize - tp);
+    }
+
+    public double getFbetaMeasureForThreshold(double threshold, double beta){
+        return fBeta(getPrecisionForThreshold(threshold), getRecallForThreshold(threshold), beta);
+    }
+
+    /**
+     * Returns the threshold (one of the occurring confidences) with the highest F-beta measure.
+     * In case of ties, the highest threshold is returned.
+     * @param beta the beta of the F-measure (1.0 for F1)
+     * @return the best threshold or 1.0 if the system alignment is empty
+     */
+    public double getBestThresholdForFbetaMeasure(double beta){
+        double bestThreshold = 1.0d;
+        double bestValue = 0.0d;
+        for(int i = 0; i < thresholds.length; i++){
+            double value = getFbetaMeasure(i, beta);
+            if(value >= bestValue){
+                bestThreshold = thresholds[i];
+                bestValue = value;
+            }
+        }
+        return bestThreshold;
+    }
+
+    private static int countGreaterOrEqual(double[] sorted, double threshold){
+        int low = 0;
+        int high = sorted.length;
+        while(low < high){
+            int mid = (low + high) >>> 1;
+            if(sorted[mid] < threshold){
+                low = mid + 1;
+            }else{
+                high = mid;
+            }
+        }
+        return sorted.length - low;
+    }
+
+    private static double fBeta(double precision, double recall, double beta){
+        double betaSquared = beta * beta;
+        double denominator = (betaSquared * precision) + recall;
+        if(denominator == 0){
+            return 0;
+        }
+        return (1 + betaSquared) * (precision * recall) / denominator;
+    }
+
+    private static double divideWithTwoDenominators(double numerator, double denominatorOne, double denominatorTwo) {
+        if ((denominatorOne + denominatorTwo) > 0.0) {
+            return numerator / (denominatorOne + denominatorTwo);
+        } else {
+            return 0.0;
+        }
+    }
+}
@@ -3,8 +3,6 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.refinement.ConfidenceRefiner;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
-import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
-import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 
 import java.math.BigDecimal;
@@ -73,25 +71,19 @@ public class ConfidenceFinder{
 
     /**
      * Given an ExecutionResult, this method determines the best cutting point in order to optimize the F1-score.
+     * The candidate thresholds are the occurring confidences rounded to two decimals.
      * @param executionResult The execution result for which the optimal confidence threshold shall be determined.
      * @return The optimal confidence threshold.
      */
     public static double getBestConfidenceForFmeasure(ExecutionResult executionResult){
-        ConfusionMatrix m = new ConfusionMatrixMetric().compute(executionResult);
+        ConfidenceCurve curve = getConfidenceCurve(executionResult);
 
         List<Double> systemConfidences = new ArrayList<>(getOccurringConfidences(executionResult.getSystemAlignment(), 2));
         Collections.sort(systemConfidences);
         double bestConf = 1.0d;
         double bestValue = 0.0d;
         for(Double conf : systemConfidences){
-            int tpSize = m.getTruePositive().cut(conf).size();
-            int fpSize = m.getFalsePositive().cut(conf).size();
-            int fnSize = m.getFalseNegative().cut(conf).size();
-            
-            double precision = divideWithTwoDenominators(tpSize, tpSize, fpSize);
-            double recall = divideWithTwoDenominators(tpSize, tpSize, fnSize);
-            double f1measure = divideWithTwoDenominators(2*precision*recall, precision, recall);
-            
+            double f1measure = curve.getFbetaMeasureForThreshold(conf, 1.0);
             if(f1measure >= bestValue){
                 bestConf = conf;
                 bestValue = f1measure;
@@ -99,7 +91,25 @@ public class ConfidenceFinder{
         }
         return bestConf;
     }
-    
+
+    /**
+     * Computes precision, recall and F-measure of the execution result for all occurring confidences as thresholds.
+     * This is much cheaper than {@link #getConfidenceResultSet(ExecutionResult)} because no alignment is cut and
+     * evaluated per threshold.
+     * @param executionResult The execution result.
+     * @return The confidence curve.
+     */
+    public static ConfidenceCurve getConfidenceCurve(ExecutionResult executionResult){
+        return new ConfidenceCurve(executionResult);
+    }
+
+    /**
+     * Refines the execution result with all occurring confidences (rounded to two decimals) as thresholds.
+     * If only the values of the confusion matrices are required, use {@link #getConfidenceCurve(ExecutionResult)}
+     * which does not materialize one refined execution result per threshold.
+     * @param executionResult The execution result.
+     * @return The execution result set containing the given and all refined execution results.
+     */
     public static ExecutionResultSet getConfidenceResultSet(ExecutionResult executionResult){
         ExecutionResultSet s = new ExecutionResultSet();
         s.add(executionResult);
@@ -111,20 +121,5 @@ public class ConfidenceFinder{
         return s;
     }
 
-    /**
-     * Simple division that is to be performed. The two denominators will be added.
-     *
-     * @param numerator      Numerator of fraction
-     * @param denominatorOne Denominator 1
-     * @param denominatorTwo Denominator 2
-     * @return Result as double.
-     */
-    private static double divideWithTwoDenominators(double numerator, double denominatorOne, double denominatorTwo) {
-        if ((denominatorOne + denominatorTwo) > 0.0) {
-            return numerator / (denominatorOne + denominatorTwo);
-        } else {
-            return 0.0;
-        }
-    }
     
 }
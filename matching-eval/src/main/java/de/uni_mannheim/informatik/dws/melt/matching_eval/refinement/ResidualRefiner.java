@@ -1,5 +1,6 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.refinement;
 
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.Executor;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
@@ -67,11 +68,7 @@ public class ResidualRefiner implements Refiner {
         if (this.baselineExecutionResult != null) {
             usedBaseline = this.baselineExecutionResult;
         } else {
-            usedBaseline = this.executionResultSetForLookups.get(toBeRefined.getTestCase(), "baseLineMatcher");
-            if (usedBaseline == null) {
-                usedBaseline = Executor.runSingle(toBeRefined.getTestCase(), baselineMatcher, "baseLineMatcher");
-                this.executionResultSetForLookups.add(usedBaseline);
-            }
+            usedBaseline = getBaseline(toBeRefined.getTestCase());
         }
 
         // new reference alignment: old - trivial matches
@@ -93,6 +90,23 @@ public class ResidualRefiner implements Refiner {
     }
 
 
+    /**
+     * Returns the baseline execution result for the given test case (the baseline matcher is run only once per test case).
+     * This method is synchronized because the refiner can be used by multiple threads (e.g. in the EvaluatorCSV).
+     *
+     * @param testCase The test case.
+     * @return The baseline execution result.
+     */
+    private synchronized ExecutionResult getBaseline(TestCase testCase) {
+        ExecutionResult baseline = this.executionResultSetForLookups.get(testCase, "baseLineMatcher");
+        if (baseline == null) {
+            baseline = Executor.runSingle(testCase, baselineMatcher, "baseLineMatcher");
+            this.executionResultSetForLookups.add(baseline);
+        }
+        return baseline;
+    }
+
+
     @Override
     public int hashCode() {
         int hash = 8;
@@ -2,6 +2,8 @@ package de.uni_mannheim.informatik.dws.melt.matching_eval.visualization;
 
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning.ConfidenceCurve;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning.ConfidenceFinder;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.PrintWriter;
@@ -179,6 +181,31 @@ public class LatexPrecisionRecall {
                 value);
     }
     
+    /**
+     * Writes the precision recall curve of a matcher (one point per confidence threshold) together with the name
+     * of the matcher at the point without any threshold.
+     * @param value the name of the matcher
+     * @param curve the confidence curve of the matcher
+     * @return the latex string
+     */
+    public static String writeMatcherCurve(String value, ConfidenceCurve curve){
+        if(curve.size() == 0)
+            return "";
+        List<PrecRecPoint> points = new ArrayList<>(curve.size());
+        for(int i = 0; i < curve.size(); i++){
+            PrecRecPoint point = getPolarCoord(curve.getPrecision(i), curve.getRecall(i));
+            if(points.isEmpty() || !points.get(points.size() - 1).equals(point)){
+                points.add(point);
+            }
+        }
+        String formattedPoints = points.stream()
+                .map(point -> point.formatFMeasureLine())
+                .collect( Collectors.joining( " " ) );
+        return String.format("\\draw[thin] plot coordinates { %s };%n%s",
+                formattedPoints,
+                writeMatcher(value, curve.getPrecision(0), curve.getRecall(0)));
+    }
+    
     public static List<Double> range(double start, double end, double step){
         List<Double> list = new ArrayList<>();
         for(double d = start; d <= end; d += step){
@@ -202,7 +229,42 @@ public class LatexPrecisionRecall {
 
     
     public static void write(Map<ExecutionResult, ConfusionMatrix> results, PrintWriter writer, List<Double> precisonLineValues, List<Double> recallLineValues, List<Double> fMeasureLineValues){
-
+        writeHeader(writer, precisonLineValues, recallLineValues, fMeasureLineValues);
+        for(Map.Entry<ExecutionResult, ConfusionMatrix> result : results.entrySet()){
+            double precision = result.getValue().getPrecision();
+	    double recall = result.getValue().getRecall();
+            String matcher = result.getKey().getMatcherName();
+            writer.println(writeMatcher(matcher, precision, recall));
+        }
+        writeFooter(writer);
+    }
+    
+    /**
+     * Writes the precision recall curves of the given matchers (see {@link ConfidenceFinder#getConfidenceCurve(ExecutionResult)}).
+     * @param curves the curves of the matchers
+     * @param f the latex file
+     */
+    public static void writeCurves(Map<ExecutionResult, ConfidenceCurve> curves, File f){
+        try(PrintWriter w = new PrintWriter(f)){
+            LatexPrecisionRecall.writeCurves(curves, w);
+        } catch (FileNotFoundException ex) {
+            LOGGER.error("File to write latex precision recall plot not found.", ex);
+        }
+    }
+    
+    public static void writeCurves(Map<ExecutionResult, ConfidenceCurve> curves, PrintWriter writer){
+        writeCurves(curves, writer, range(0.1, 1.0, 0.1), range(0.1, 1.0, 0.1), range(0.5, 0.9, 0.1));
+    }
+    
+    public static void writeCurves(Map<ExecutionResult, ConfidenceCurve> curves, PrintWriter writer, List<Double> precisonLineValues, List<Double> recallLineValues, List<Double> fMeasureLineValues){
+        writeHeader(writer, precisonLineValues, recallLineValues, fMeasureLineValues);
+        for(Map.Entry<ExecutionResult, ConfidenceCurve> curve : curves.entrySet()){
+            writer.println(writeMatcherCurve(curve.getKey().getMatcherName(), curve.getValue()));
+        }
+        writeFooter(writer);
+    }
+    
+    private static void writeHeader(PrintWriter writer, List<Double> precisonLineValues, List<Double> recallLineValues, List<Double> fMeasureLineValues){
         writer.println("\\documentclass[11pt]{book}");
 	writer.println();
 	writer.println("\\usepackage{pgf}");
@@ -236,13 +298,9 @@ public class LatexPrecisionRecall {
         }
         
         writer.println("% Plots");
-        for(Map.Entry<ExecutionResult, ConfusionMatrix> result : results.entrySet()){
-            double precision = result.getValue().getPrecision();
-	    double recall = result.getValue().getRecall();
-            String matcher = result.getKey().getMatcherName();
-            writer.println(writeMatcher(matcher, precision, recall));
-        }
-        
+    }
+    
+    private static void writeFooter(PrintWriter writer){
 	writer.println("\\end{tikzpicture}");
 	writer.println();
 	writer.println("\\end{document}");
@@ -0,0 +1,131 @@
+//loads the columnar data chunks written by the DashboardDataWriter
+//only the chunks which are needed for the selected values of the index columns (track, test case, matcher) are loaded
+var meltLoadedChunks = {};
+var meltSelectionDimensions = {};
+
+function meltDecodeChunk(chunk){
+    var rows = new Array(chunk.rows);
+    var i, c;
+    for(i = 0; i < chunk.rows; i++){
+        rows[i] = {};
+    }
+    for(c = 0; c < meltChunkManifest.columns.length; c++){
+        var name = meltChunkManifest.columns[c].name;
+        var values = chunk.columns[c].values;
+        var dictionary = chunk.columns[c].dictionary;
+        for(i = 0; i < chunk.rows; i++){
+            rows[i][name] = dictionary ? dictionary[values[i]] : values[i];
+        }
+    }
+    return rows;
+}
+
+function meltFetchChunk(index){
+    if(meltChunkLocation === null){
+        return Promise.resolve(JSON.parse(document.getElementById('meltChunk_' + index).textContent));
+    }
+    return d3.json(meltChunkLocation + '/' + meltChunkManifest.chunks[index].file);
+}
+
+function meltChunkIsNeeded(chunk, selection){
+    return meltChunkManifest.index.every(function(column){
+        var selected = selection[column];
+        if(!selected || selected.length === 0){
+            return true;
+        }
+        return chunk.index[column].some(function(value){ return selected.indexOf(value) >= 0; });
+    });
+}
+
+//returns a promise with the decoded rows of all needed chunks which are not loaded yet
+function meltLoadChunks(selection){
+    var indices = [];
+    meltChunkManifest.chunks.forEach(function(chunk, i){
+        if(!meltLoadedChunks[i] && meltChunkIsNeeded(chunk, selection)){
+            meltLoadedChunks[i] = true;
+            indices.push(i);
+        }
+    });
+    return Promise.all(indices.map(meltFetchChunk)).then(function(chunks){
+        var rows = [];
+        chunks.forEach(function(chunk){
+            meltDecodeChunk(chunk).forEach(function(row){ rows.push(row); });
+        });
+        return rows;
+    });
+}
+
+//all data if it is small enough, otherwise only the first value of the first index column (usually the first track)
+function meltInitialSelection(){
+    var selection = {};
+    if(meltChunkManifest.rows > meltInitialRowLimit && meltChunkManifest.index.length > 0 && meltChunkManifest.chunks.length > 0){
+        var column = meltChunkManifest.index[0];
+        selection[column] = [meltChunkManifest.chunks[0].index[column][0]];
+    }
+    return selection;
+}
+
+function meltRenderDataSelection(selection){
+    var container = d3.select('#meltDataSelection');
+    meltChunkManifest.index.forEach(function(column){
+        var values = d3.set([].concat.apply([], meltChunkManifest.chunks.map(function(chunk){ return chunk.index[column]; }))).values().sort();
+        var select = container.append('select')
+            .attr('multiple', true)
+            .attr('class', 'custom-select')
+            .attr('style', 'width:190px; margin-right:10px;')
+            .attr('title', column)
+            .attr('data-column', column);
+        select.selectAll('option').data(values).enter().append('option')
+            .attr('value', function(d){ return d; })
+            .property('selected', function(d){ return (selection[column] || []).indexOf(d) >= 0; })
+            .text(function(d){ return d; });
+    });
+    container.append('button')
+        .attr('type', 'button')
+        .attr('class', 'btn btn-sm btn-outline-secondary')
+        .text('Load selection')
+        .on('click', function(){ meltUpdateSelection(meltReadSelection()); });
+}
+
+function meltReadSelection(){
+    var selection = {};
+    d3.selectAll('#meltDataSelection select').each(function(){
+        selection[this.getAttribute('data-column')] = Array.prototype.filter.call(this.options, function(option){ return option.selected; })
+            .map(function(option){ return option.value; });
+    });
+    return selection;
+}
+
+//filters the crossfilter to the selection (chunks can contain rows of other tracks, test cases or matchers)
+function meltApplySelection(selection){
+    meltChunkManifest.index.forEach(function(column){
+        if(!meltSelectionDimensions[column]){
+            meltSelectionDimensions[column] = ndx.dimension(function(d) {return d[column] === undefined || d[column] === null ? "" : d[column];});
+        }
+        var selected = selection[column] || [];
+        if(selected.length === 0){
+            meltSelectionDimensions[column].filterAll();
+        }else{
+            meltSelectionDimensions[column].filterFunction(function(value){ return selected.indexOf(value) >= 0; });
+        }
+    });
+    dc.redrawAll();
+}
+
+function meltUpdateSelection(selection){
+    meltLoadChunks(selection).then(function(rows){
+        if(rows.length > 0){
+            ndx.add(rows);
+        }
+        meltApplySelection(selection);
+    });
+}
+
+function meltStartChunkedDashboard(initDashboard){
+    var selection = meltInitialSelection();
+    meltRenderDataSelection(selection);
+    meltLoadChunks(selection).then(function(rows){
+        initDashboard(rows);
+        meltApplySelection(selection);
+    });
+}
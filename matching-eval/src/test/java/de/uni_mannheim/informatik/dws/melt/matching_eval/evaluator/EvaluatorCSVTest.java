@@ -8,12 +8,17 @@ import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.Executor;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.BaselineStringMatcher;
+import eu.sealsproject.platform.res.domain.omt.IOntologyMatchingToolBridge;
 import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -230,6 +235,42 @@ class EvaluatorCSVTest {
         }
     }
 
+    /**
+     * The files written with multiple threads have to be identical to the ones written with one thread
+     * and no temporary files may remain in the base directory.
+     */
+    @Test
+    void testEvaluatorMultipleThreads() throws IOException {
+        Track testTrack = new SealsTrack("http://oaei.webdatacommons.org/tdrs/", "conference", "conference-v1", false, GoldStandardCompleteness.COMPLETE);
+        Map<String, IOntologyMatchingToolBridge> matchers = new HashMap<>();
+        matchers.put("BaselineOne", new BaselineStringMatcher());
+        matchers.put("BaselineTwo", new BaselineStringMatcher());
+        ExecutionResultSet resultSet = Executor.run(testTrack.getFirstTestCase(), matchers);
+
+        File sequentialDirectory = new File("./testBaseDirectorySequential");
+        File parallelDirectory = new File("./testBaseDirectoryParallel");
+        try {
+            EvaluatorCSV sequential = new EvaluatorCSV(resultSet);
+            sequential.writeToDirectory(sequentialDirectory);
+
+            EvaluatorCSV parallel = new EvaluatorCSV(resultSet);
+            parallel.setNumberOfThreads(4);
+            parallel.writeToDirectory(parallelDirectory);
+
+            for(String fileName : Arrays.asList("alignmentCube.csv", "testCasePerformanceCube.csv", "trackPerformanceCube.csv")){
+                File sequentialFile = new File(sequentialDirectory, fileName);
+                File parallelFile = new File(parallelDirectory, fileName);
+                assertTrue(sequentialFile.exists());
+                assertEquals(FileUtils.readFileToString(sequentialFile, StandardCharsets.UTF_8),
+                        FileUtils.readFileToString(parallelFile, StandardCharsets.UTF_8), "Files differ: " + fileName);
+            }
+            assertEquals(sequentialDirectory.list().length, parallelDirectory.list().length);
+        } finally {
+            FileUtils.deleteDirectory(sequentialDirectory);
+            FileUtils.deleteDirectory(parallelDirectory);
+        }
+    }
+
     /**
      * Just asserting that the track performance cube file name is set.
      */
@@ -0,0 +1,41 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric;
+
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+
+class MetricCacheTest {
+
+
+    @Test
+    void weightBoundAndIdentityKeys() {
+        MetricCache<String> cache = new MetricCache<>(10, String::length);
+        ExecutionResult one = new ExecutionResult(null, "matcher", new Alignment(), new Alignment());
+        ExecutionResult equalToOne = new ExecutionResult(null, "matcher", new Alignment(), new Alignment());
+        ExecutionResult two = new ExecutionResult(null, "other", new Alignment(), new Alignment());
+
+        assertEquals("aaaa", cache.putIfAbsent(one, "aaaa"));
+        assertEquals("aaaa", cache.putIfAbsent(one, "bbbb"));
+        //equal but not the same execution result
+        assertNull(cache.get(equalToOne));
+        assertEquals("cccc", cache.putIfAbsent(equalToOne, "cccc"));
+        assertEquals(8, cache.getTotalWeight());
+
+        //one is accessed and thus equalToOne is the least recently used entry
+        assertEquals("aaaa", cache.get(one));
+        cache.putIfAbsent(two, "dddd");
+        assertEquals(2, cache.size());
+        assertEquals(8, cache.getTotalWeight());
+        assertNull(cache.get(equalToOne));
+        assertEquals("aaaa", cache.get(one));
+        assertEquals("dddd", cache.get(two));
+
+        cache.setMaximumWeight(0);
+        assertEquals(0, cache.size());
+        assertNull(cache.putIfAbsent(one, null));
+        assertEquals(0, cache.getTotalWeight());
+    }
+}
@@ -1,14 +1,26 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm;
 
+import de.uni_mannheim.informatik.dws.melt.matching_data.GoldStandardCompleteness;
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TrackRepository;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.Executor;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
 
+import java.net.URI;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -242,4 +254,87 @@ class ConfusionMatrixMetricTest {
         assertEquals(0.615, confusionMatrix1Dome.getRecall(), 0.001);
     }
 
-}
\ No newline at end of file
+
+    @ParameterizedTest
+    @EnumSource(GoldStandardCompleteness.class)
+    void lightweightConfusionMatrix(GoldStandardCompleteness completeness) {
+        TestCase testCase = new TestCase("testCase", URI.create("http://source"), URI.create("http://target"),
+                URI.create("http://reference"), new LocalTrack("track", "1.0", "./none"), null, completeness, null);
+        Random random = new Random(1234);
+        Alignment referenceAlignment = new Alignment();
+        Alignment systemAlignment = new Alignment();
+        for (int i = 0; i < 200; i++) {
+            String source = "http://one.com/" + random.nextInt(50);
+            String target = "http://two.com/" + random.nextInt(50);
+            int relation = random.nextInt(10);
+            if (relation == 0) {
+                referenceAlignment.add(new Correspondence(source, target, CorrespondenceRelation.UNKNOWN));
+            } else if (relation == 1) {
+                referenceAlignment.add(new Correspondence(source, "null", CorrespondenceRelation.INCOMPAT));
+            } else if (relation == 2) {
+                referenceAlignment.add(new Correspondence(source, target, CorrespondenceRelation.INCOMPAT));
+            } else {
+                referenceAlignment.add(new Correspondence(source, target));
+            }
+            systemAlignment.add(new Correspondence("http://one.com/" + random.nextInt(50), "http://two.com/" + random.nextInt(50), random.nextInt(10) / 10.0));
+        }
+        ExecutionResult executionResult = new ExecutionResult(testCase, "myTestMatcher", systemAlignment, referenceAlignment);
+
+        ConfusionMatrixMetric metric = new ConfusionMatrixMetric();
+        ConfusionMatrix lightweight = metric.get(executionResult);
+        assertSame(lightweight, metric.get(executionResult));
+        assertFalse(lightweight.hasCorrespondences());
+
+        ConfusionMatrix full = metric.computeWithCorrespondences(executionResult);
+        assertTrue(full.hasCorrespondences());
+        assertEquals(full.getTruePositiveSize(), lightweight.getTruePositiveSize());
+        assertEquals(full.getFalsePositiveSize(), lightweight.getFalsePositiveSize());
+        assertEquals(full.getFalseNegativeSize(), lightweight.getFalseNegativeSize());
+        assertEquals(full.getNumberOfCorrespondences(), lightweight.getNumberOfCorrespondences());
+        assertEquals(full.getPrecision(), lightweight.getPrecision());
+        assertEquals(full.getRecall(), lightweight.getRecall());
+        assertArrayEquals(full.getTruePositiveConfidences(), lightweight.getTruePositiveConfidences());
+        assertArrayEquals(full.getFalsePositiveConfidences(), lightweight.getFalsePositiveConfidences());
+        assertFalse(lightweight.hasCorrespondences());
+
+        assertEquals(new HashSet<>(full.getTruePositive()), new HashSet<>(lightweight.getTruePositive()));
+        assertTrue(lightweight.hasCorrespondences());
+        assertEquals(new HashSet<>(full.getFalsePositive()), new HashSet<>(lightweight.getFalsePositive()));
+        assertEquals(new HashSet<>(full.getFalseNegative()), new HashSet<>(lightweight.getFalseNegative()));
+    }
+
+
+    @Test
+    void aggregationDoesNotStoreCorrespondencesInLightweightConfusionMatrices() {
+        AtomicInteger computations = new AtomicInteger();
+        Alignment truePositive = new Alignment(Arrays.asList(new Correspondence("http://one.com/a", "http://two.com/a", 0.8)));
+        Alignment falsePositive = new Alignment(Arrays.asList(new Correspondence("http://one.com/b", "http://two.com/c", 0.4)));
+        Alignment falseNegative = new Alignment(Arrays.asList(new Correspondence("http://one.com/d", "http://two.com/d")));
+        ConfusionMatrix lightweight = new ConfusionMatrix(new double[]{0.8}, new double[]{0.4}, 1, 2, 0.5, 0.5, () -> {
+            computations.incrementAndGet();
+            return new ConfusionMatrix(truePositive, falsePositive, falseNegative, 0.5, 0.5);
+        });
+        ConfusionMatrix full = new ConfusionMatrix(
+                new Alignment(Arrays.asList(new Correspondence("http://one.com/e", "http://two.com/e", 1.0))),
+                new Alignment(), new Alignment(), 1.0, 1.0);
+        List<ConfusionMatrix> matrices = Arrays.asList(lightweight, full);
+
+        ConfusionMatrixMetric metric = new ConfusionMatrixMetric();
+        ConfusionMatrix micro = metric.getMicroAverages(matrices);
+        assertEquals(2, micro.getTruePositiveSize());
+        assertEquals(1, micro.getFalsePositiveSize());
+        assertEquals(1, micro.getFalseNegativeSize());
+        assertEquals(3, micro.getNumberOfCorrespondences());
+        assertEquals(2.0 / 3.0, micro.getPrecision(), 0.0001);
+
+        ConfusionMatrix macro = metric.getMacroAverages(matrices);
+        assertEquals(2, macro.getTruePositiveSize());
+        assertEquals(0.75, macro.getPrecision(), 0.0001);
+
+        assertEquals(2, computations.get());
+        assertFalse(lightweight.hasCorrespondences());
+
+        assertEquals(1, full.subtract(lightweight).getTruePositiveSize());
+        assertFalse(lightweight.hasCorrespondences());
+    }
+}
@@ -1,8 +1,13 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.significance;
 
+import de.uni_mannheim.informatik.dws.melt.matching_data.LocalTrack;
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
+import de.uni_mannheim.informatik.dws.melt.matching_data.Track;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.Executor;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.stringOperations.StringOperations;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.math3.distribution.ChiSquaredDistribution;
 import org.junit.jupiter.api.AfterAll;
@@ -12,9 +17,12 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.net.URI;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
+import java.util.Random;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -378,6 +386,80 @@ class EvaluatorMcNemarSignificanceTest {
     void nCr() {
         assertEquals(2, EvaluatorMcNemarSignificance.nCr(2, 1));
         assertEquals(3, EvaluatorMcNemarSignificance.nCr(3, 2));
+        // the factorial of 21 does not fit into a long anymore
+        assertEquals(EvaluatorMcNemarSignificance.nCrBigInt(30, 12).longValue(), EvaluatorMcNemarSignificance.nCr(30, 12));
+        assertEquals(EvaluatorMcNemarSignificance.nCrBigInt(60, 30).longValue(), EvaluatorMcNemarSignificance.nCr(60, 30));
+        assertThrows(ArithmeticException.class, () -> EvaluatorMcNemarSignificance.nCr(100, 50));
+    }
+
+    @Test
+    void exactPvalue() {
+        assertEquals(1.0, EvaluatorMcNemarSignificance.exactPvalue(0, 0));
+        assertEquals(2.0 / 32.0, EvaluatorMcNemarSignificance.exactPvalue(0, 5), 1e-12);
+        assertEquals(2.0 * (1 + 10 + 45 + 120) / 1024.0, EvaluatorMcNemarSignificance.exactPvalue(3, 7), 1e-12);
+        assertEquals(EvaluatorMcNemarSignificance.exactPvalue(3, 7), EvaluatorMcNemarSignificance.exactPvalue(7, 3), 1e-12);
+        assertEquals(1.0, EvaluatorMcNemarSignificance.exactPvalue(5, 5), 1e-12);
+
+        // large n does not overflow
+        double p = EvaluatorMcNemarSignificance.exactPvalue(900, 1100);
+        assertTrue(p > 0.0 && p < 0.001);
+        assertEquals(1.0, EvaluatorMcNemarSignificance.exactPvalue(1000, 1000), 1e-12);
+    }
+
+    @Test
+    void computeCountsForTestCase() {
+        Track track = new LocalTrack("track", "1.0", "./none");
+        TestCase testCase = new TestCase("testCase", URI.create("http://source"), URI.create("http://target"),
+                URI.create("http://reference"), track);
+        Random random = new Random(42);
+        Alignment reference = new Alignment();
+        for (int i = 0; i < 100; i++) {
+            reference.add("http://one.com/" + i, "http://two.com/" + i);
+        }
+        List<ExecutionResult> results = new ArrayList<>();
+        for (int m = 0; m < 4; m++) {
+            Alignment system = new Alignment();
+            for (int i = 0; i < 150; i++) {
+                int x = random.nextInt(200);
+                system.add("http://one.com/" + x, "http://two.com/" + (random.nextBoolean() ? x : x + 1));
+            }
+            results.add(new ExecutionResult(testCase, "matcher" + m, system, reference));
+        }
+
+        List<EvaluatorMcNemarSignificance.McNemarCounts> counts = EvaluatorMcNemarSignificance.computeCountsForTestCase(results);
+        assertEquals(16, counts.size());
+        for (EvaluatorMcNemarSignificance.McNemarCounts c : counts) {
+            Alignment a1 = c.executionResult1.getSystemAlignment();
+            Alignment a2 = c.executionResult2.getSystemAlignment();
+            int n01 = Alignment.subtraction(Alignment.intersection(a2, reference), a1).size() +
+                    Alignment.subtraction(Alignment.subtraction(a1, a2), reference).size();
+            int n10 = Alignment.subtraction(Alignment.intersection(a1, reference), a2).size() +
+                    Alignment.subtraction(Alignment.subtraction(a2, a1), reference).size();
+            assertEquals(n01, c.n01);
+            assertEquals(n10, c.n10);
+            if (c.executionResult1 == c.executionResult2) {
+                assertEquals(0, c.n01);
+                assertEquals(0, c.n10);
+            }
+        }
+
+        // parallel computation over test cases yields the same counts in the same order
+        List<ExecutionResult> twoTestCases = new ArrayList<>(results);
+        TestCase otherTestCase = new TestCase("otherTestCase", URI.create("http://source"), URI.create("http://target"),
+                URI.create("http://reference"), track);
+        for (ExecutionResult r : results) {
+            twoTestCases.add(new ExecutionResult(otherTestCase, r.getMatcherName(), r.getSystemAlignment(), reference));
+        }
+        List<EvaluatorMcNemarSignificance.McNemarCounts> sequential = EvaluatorMcNemarSignificance.computeCounts(twoTestCases, 1);
+        List<EvaluatorMcNemarSignificance.McNemarCounts> parallel = EvaluatorMcNemarSignificance.computeCounts(twoTestCases, 4);
+        assertEquals(32, sequential.size());
+        assertEquals(sequential.size(), parallel.size());
+        for (int i = 0; i < sequential.size(); i++) {
+            assertSame(sequential.get(i).executionResult1, parallel.get(i).executionResult1);
+            assertSame(sequential.get(i).executionResult2, parallel.get(i).executionResult2);
+            assertEquals(sequential.get(i).n01, parallel.get(i).n01);
+            assertEquals(sequential.get(i).n10, parallel.get(i).n10);
+        }
     }
 
     @Test
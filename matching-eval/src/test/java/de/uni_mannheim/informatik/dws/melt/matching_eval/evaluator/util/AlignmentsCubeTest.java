@@ -1,8 +1,20 @@
 package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.util;
 
+import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TrackRepository;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVRecord;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class AlignmentsCubeTest {
@@ -22,6 +34,31 @@ class AlignmentsCubeTest {
         assertNotNull(cube.getAnalyticalMappingInformation(TrackRepository.Conference.V1.getTestCases().get(0), "myMatcher"));
     }
 
+    @Test
+    void writeRecordsWithFeaturesOfAllCubes() throws IOException {
+        TestCase testCase = new TestCase("testCase", URI.create("http://source"), URI.create("http://target"),
+                URI.create("http://reference"), TrackRepository.Conference.V1);
+        AlignmentsCube cube = new AlignmentsCube();
+        cube.setResourceExplainers(new ArrayList<>());
+        AnalyticalAlignmentInformation information = new AnalyticalAlignmentInformation();
+        information.add(new Correspondence("http://source#a", "http://target#a"), "zFeature", "z");
+        cube.putAnalyticalMappingInformation(testCase, "myMatcher", information);
+
+        // the feature "aFeature" only exists in another cube which is written to the same file
+        List<String> featureNames = Arrays.asList("zFeature", "aFeature");
+        List<String> header = cube.getHeader(featureNames);
+        StringWriter writer = new StringWriter();
+        cube.writeRecords(writer, featureNames, false);
+
+        List<CSVRecord> records = CSVFormat.DEFAULT.parse(new StringReader(writer.toString())).getRecords();
+        assertEquals(1, records.size());
+        CSVRecord record = records.get(0);
+        assertEquals(header.size(), record.size());
+        assertEquals("", record.get(header.indexOf("aFeature")));
+        assertEquals("z", record.get(header.indexOf("zFeature")));
+        assertEquals("http://source#a", record.get(header.indexOf("URI Left")));
+    }
+
     @Test
     void cutStringAfterThirtyTwoThousandCharacters(){
         StringBuffer sb = new StringBuffer();
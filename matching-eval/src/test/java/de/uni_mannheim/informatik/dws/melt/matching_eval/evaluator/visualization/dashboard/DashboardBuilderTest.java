@@ -4,9 +4,12 @@ import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResult;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.ExecutionResultSet;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.Executor;
 import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.EvaluatorCSV;
+import org.apache.commons.io.FileUtils;
 import org.junit.jupiter.api.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,4 +33,25 @@ class DashboardBuilderTest {
         // clean up
         resultFile.delete();
     }
-}
\ No newline at end of file
+
+    @Test
+    void writeToChunkedFiles() throws IOException {
+        String conferencePath = this.getClass().getClassLoader().getResource("2019_conference_shortened").getPath();
+        ExecutionResultSet conferenceResults = Executor.loadFromConferenceResultsFolder(conferencePath);
+
+        DashboardBuilder builder = new DashboardBuilder(new EvaluatorCSV(conferenceResults));
+        builder.setChunkSize(100);
+        File htmlFile = new File("./dashboardChunked.html");
+        File dataDirectory = new File("./dashboardChunkedData");
+        try {
+            builder.writeToChunkedFiles(htmlFile, dataDirectory);
+            assertTrue(htmlFile.exists(), "No file was written.");
+            assertTrue(DashboardDataWriter.getManifestFile(dataDirectory).exists(), "No manifest was written.");
+            assertTrue(FileUtils.readFileToString(htmlFile, StandardCharsets.UTF_8).contains(dataDirectory.getName()),
+                    "The data directory is not referenced.");
+        } finally {
+            htmlFile.delete();
+            FileUtils.deleteDirectory(dataDirectory);
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.visualization.dashboard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.commons.io.FileUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DashboardDataWriterTest {
+
+    private static final List<String[]> ROWS = Arrays.asList(
+            new String[]{"conference", "cmt-conference", "AML", "http://cmt#Paper", "1.0", "true positive"},
+            new String[]{"conference", "cmt-conference", "AML", "http://cmt#Review", "0.75", "false positive"},
+            new String[]{"conference", "cmt-conference", "LogMap", "http://cmt#Paper", "0.9", "true positive"},
+            new String[]{"anatomy", "mouse-human-suite", "AML", "http://mouse#<a>&\"b\"", "1", "false negative"},
+            new String[]{"anatomy", "mouse-human-suite", "LogMap", "http://mouse#Paper", "-2.5E-3", ""}
+    );
+
+    @Test
+    void write() throws IOException {
+        File directory = new File("./dashboardDataWriterTest");
+        try {
+            writeAndDecode(directory);
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    @Test
+    void writeNumericIndexValuesAsStrings() throws IOException {
+        File directory = new File("./dashboardDataWriterNumericTest");
+        try {
+            File csvFile = new File(directory, "cube.csv");
+            FileUtils.writeStringToFile(csvFile, "Track,TestCase,Matcher,Confidence (Matcher)\n" +
+                    "benchmark,101,0,1.0\n" +
+                    "benchmark,201,1,0.5\n", StandardCharsets.UTF_8);
+            File dataDirectory = new File(directory, "data");
+            List<File> chunkFiles = new DashboardDataWriter().write(csvFile, dataDirectory);
+            assertEquals(1, chunkFiles.size());
+
+            ObjectMapper mapper = new ObjectMapper();
+            JsonNode manifest = mapper.readTree(DashboardDataWriter.getManifestFile(dataDirectory));
+            for(int i = 0; i < 3; i++){
+                assertEquals("string", manifest.get("columns").get(i).get("type").asText());
+            }
+            assertEquals("number", manifest.get("columns").get(3).get("type").asText());
+            JsonNode index = manifest.get("chunks").get(0).get("index");
+            assertEquals("[\"101\",\"201\"]", index.get("TestCase").toString());
+            assertEquals("[\"0\",\"1\"]", index.get("Matcher").toString());
+
+            JsonNode chunk = mapper.readTree(chunkFiles.get(0));
+            JsonNode testCaseColumn = chunk.get("columns").get(1);
+            assertTrue(testCaseColumn.has("dictionary"));
+            assertEquals("[\"101\",\"201\"]", testCaseColumn.get("dictionary").toString());
+            assertTrue(chunk.get("columns").get(2).get("dictionary").get(0).isTextual());
+            assertFalse(chunk.get("columns").get(3).has("dictionary"));
+        } finally {
+            FileUtils.deleteDirectory(directory);
+        }
+    }
+
+    private void writeAndDecode(File directory) throws IOException {
+        File csvFile = new File(directory, "cube.csv");
+        StringBuilder csv = new StringBuilder("Track,TestCase,Matcher,URI Left,Confidence (Matcher),Evaluation Result\n");
+        for(String[] row : ROWS){
+            for(int i = 0; i < row.length; i++){
+                if(i > 0) csv.append(",");
+                csv.append("\"").append(row[i].replace("\"", "\"\"")).append("\"");
+            }
+            csv.append("\n");
+        }
+        FileUtils.writeStringToFile(csvFile, csv.toString(), StandardCharsets.UTF_8);
+
+        File dataDirectory = new File(directory, "data");
+        DashboardDataWriter writer = new DashboardDataWriter(2, Arrays.asList("Track", "Matcher", "NotExisting"));
+        List<File> chunkFiles = writer.write(csvFile, dataDirectory);
+        assertEquals(3, chunkFiles.size());
+
+        ObjectMapper mapper = new ObjectMapper();
+        File manifestFile = DashboardDataWriter.getManifestFile(dataDirectory);
+        assertFalse(FileUtils.readFileToString(manifestFile, StandardCharsets.UTF_8).contains("<"));
+        JsonNode manifest = mapper.readTree(manifestFile);
+        assertEquals(5, manifest.get("rows").asInt());
+        assertEquals("[\"Track\",\"Matcher\"]", manifest.get("index").toString());
+        assertEquals(6, manifest.get("columns").size());
+        assertEquals("number", manifest.get("columns").get(4).get("type").asText());
+        for(int i : new int[]{0, 1, 2, 3, 5}){
+            assertEquals("string", manifest.get("columns").get(i).get("type").asText());
+        }
+        JsonNode secondChunk = manifest.get("chunks").get(1);
+        assertEquals(chunkFiles.get(1).getName(), secondChunk.get("file").asText());
+        assertEquals("[\"anatomy\",\"conference\"]", secondChunk.get("index").get("Track").toString());
+        assertEquals("[\"AML\",\"LogMap\"]", secondChunk.get("index").get("Matcher").toString());
+
+        //decode all chunks and compare with the csv rows
+        List<String[]> decoded = new ArrayList<>();
+        for(File chunkFile : chunkFiles){
+            assertFalse(FileUtils.readFileToString(chunkFile, StandardCharsets.UTF_8).contains("<"));
+            JsonNode chunk = mapper.readTree(chunkFile);
+            int rows = chunk.get("rows").asInt();
+            for(int r = 0; r < rows; r++){
+                String[] row = new String[6];
+                for(int c = 0; c < 6; c++){
+                    JsonNode column = chunk.get("columns").get(c);
+                    JsonNode value = column.get("values").get(r);
+                    if(column.has("dictionary")){
+                        row[c] = column.get("dictionary").get(value.asInt()).asText();
+                    }else{
+                        assertTrue(value.isNumber());
+                        row[c] = value.toString();
+                    }
+                }
+                decoded.add(row);
+            }
+        }
+        assertEquals(ROWS.size(), decoded.size());
+        for(int i = 0; i < ROWS.size(); i++){
+            String[] expected = ROWS.get(i);
+            String[] actual = decoded.get(i);
+            for(int c = 0; c < expected.length; c++){
+                if(c == 4){
+                    assertEquals(Double.parseDouble(expected[c]), Double.parseDouble(actual[c]));
+                }else{
+                    assertEquals(expected[c], actual[c]);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package de.uni_mannheim.informatik.dws.melt.matching_eval.paramtuning;
+
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrix;
+import de.uni_mannheim.informatik.dws.melt.matching_eval.evaluator.metric.cm.ConfusionMatrixMetric;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ConfidenceCurveTest {
+
+    @Test
+    public void testSmallExample(){
+        Alignment tp = new Alignment();
+        tp.add("http://one.com/a", "http://two.com/a", 0.9);
+        tp.add("http://one.com/b", "http://two.com/b", 0.5);
+        Alignment fp = new Alignment();
+        fp.add("http://one.com/c", "http://two.com/d", 0.5);
+        fp.add("http://one.com/d", "http://two.com/c", 0.2);
+        Alignment fn = new Alignment();
+        fn.add("http://one.com/e", "http://two.com/e", 0.0);
+
+        ConfidenceCurve curve = new ConfidenceCurve(ConfusionMatrixMetric.calculateConfusionMatrixFromMappings(tp, fp, fn, 4));
+        assertEquals(3, curve.size());
+        assertArrayEquals(new double[]{0.2, 0.5, 0.9}, curve.getThresholds());
+
+        // threshold 0.2: everything
+        assertEquals(2, curve.getTruePositiveSize(0));
+        assertEquals(2, curve.getFalsePositiveSize(0));
+        assertEquals(1, curve.getFalseNegativeSize(0));
+        assertEquals(0.5, curve.getPrecision(0), 0.0001);
+        assertEquals(2.0 / 3.0, curve.getRecall(0), 0.0001);
+
+        // threshold 0.9: only one true positive, the cut true positive is a false negative now
+        assertEquals(1, curve.getTruePositiveSize(2));
+        assertEquals(0, curve.getFalsePositiveSize(2));
+        assertEquals(2, curve.getFalseNegativeSize(2));
+        assertEquals(1.0, curve.getPrecision(2), 0.0001);
+        assertEquals(1.0 / 3.0, curve.getRecall(2), 0.0001);
+
+        // best F1: threshold 0.5 (P=2/3, R=2/3)
+        assertEquals(0.5, curve.getBestThresholdForFbetaMeasure(1.0));
+        assertEquals(2.0 / 3.0, curve.getF1measure(1), 0.0001);
+
+        // thresholds which do not occur
+        assertEquals(0, curve.getTruePositiveSizeForThreshold(0.95));
+        assertEquals(2, curve.getTruePositiveSizeForThreshold(0.3));
+        assertEquals(1, curve.getFalsePositiveSizeForThreshold(0.3));
+        assertEquals(curve.getF1measure(1), curve.getFbetaMeasureForThreshold(0.3, 1.0), 0.0001);
+    }
+
+    @Test
+    public void testSameAsCuttingAlignments(){
+        Random random = new Random(1234);
+        Alignment tp = new Alignment();
+        Alignment fp = new Alignment();
+        Alignment fn = new Alignment();
+        for(int i = 0; i < 300; i++){
+            double confidence = Math.round(random.nextDouble() * 50) / 50.0;
+            int kind = random.nextInt(3);
+            Correspondence c = new Correspondence("http://one.com/" + i, "http://two.com/" + i, kind == 2 ? 0.0 : confidence);
+            if(kind == 0) tp.add(c);
+            else if(kind == 1) fp.add(c);
+            else fn.add(c);
+        }
+        int referenceSize = tp.size() + fn.size();
+        ConfidenceCurve curve = new ConfidenceCurve(ConfusionMatrixMetric.calculateConfusionMatrixFromMappings(tp, fp, fn, tp.size() + fp.size()));
+        for(int i = 0; i < curve.size(); i++){
+            double threshold = curve.getThreshold(i);
+            Alignment tpCut = tp.cut(threshold);
+            Alignment fpCut = fp.cut(threshold);
+            Alignment fnCut = new Alignment(fn);
+            fnCut.addAll(tp);
+            fnCut.removeAll(tpCut);
+            ConfusionMatrix expected = ConfusionMatrixMetric.calculateConfusionMatrixFromMappings(tpCut, fpCut, fnCut, tpCut.size() + fpCut.size());
+            assertEquals(expected.getTruePositiveSize(), curve.getTruePositiveSize(i));
+            assertEquals(expected.getFalsePositiveSize(), curve.getFalsePositiveSize(i));
+            assertEquals(expected.getFalseNegativeSize(), curve.getFalseNegativeSize(i));
+            assertEquals(referenceSize, curve.getTruePositiveSize(i) + curve.getFalseNegativeSize(i));
+            assertEquals(expected.getPrecision(), curve.getPrecision(i), 0.000001);
+            assertEquals(expected.getRecall(), curve.getRecall(i), 0.000001);
+            assertEquals(expected.getFbetaMeasure(2.0), curve.getFbetaMeasure(i, 2.0), 0.000001);
+        }
+    }
+}
@@ -0,0 +1,393 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.scale;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.BoundedCache;
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.function.ObjIntConsumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A fuzzy lookup index which returns all texts of a dictionary within a maximum edit distance together with their distance.
+ * The distance is the Levenshtein distance where additionally the transposition of two adjacent characters counts as one edit
+ * (optimal string alignment distance - the same as the TRANSPOSITION algorithm of liblevenshtein).
+ * <p>
+ * The dictionary is stored as a trie in a few primitive arrays. Thus the index is fast to build (linear in the size of the sorted dictionary)
+ * and can be written to disk ({@link #save(java.io.File) }) and loaded again ({@link #load(java.io.File) }) without any rebuild.
+ * When the same dictionary with the same maximum distance is requested again via
+ * {@link #getOrBuild(java.util.Collection, int, java.io.File) }, the stored index is reused. An index is identified by an order independent
+ * 128 bit fingerprint of the dictionary and the maximum distance (see {@link #computeKey(java.util.Collection, int) }) which is computed
+ * in one pass over the texts without sorting or copying them.
+ * Recently used indices are additionally kept in memory (softly referenced).
+ * <p>
+ * Instances are immutable and can be queried by multiple threads.
+ */
+public class LevenshteinIndex {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(LevenshteinIndex.class);
+
+    private static final String FILE_SUFFIX = ".lvi";
+    private static final byte[] MAGIC = {'M', 'L', 'V', 'I'};
+    private static final int VERSION = 1;
+
+    private static final BoundedCache<String, LevenshteinIndex> MEMORY_CACHE =
+            new BoundedCache<>(20, BoundedCache.EvictionPolicy.LRU, BoundedCache.Retention.SOFT);
+
+    private final int maxDistance;
+    private final String key;
+
+    /**
+     * All texts of the dictionary (sorted).
+     */
+    private final String[] terms;
+    /**
+     * The character of the edge which leads to the node (the root has none).
+     */
+    private final char[] nodeChar;
+    /**
+     * The id of the first child of a node. All children of a node have consecutive ids.
+     */
+    private final int[] nodeFirstChild;
+    private final int[] nodeChildCount;
+    /**
+     * The index of the term which ends at the node (or -1 if no term ends there).
+     */
+    private final int[] nodeTerm;
+
+    /**
+     * Builds a new index.
+     * @param dictionary the texts which can be found
+     * @param maxDistance the maximum edit distance for lookups
+     */
+    public LevenshteinIndex(Collection<String> dictionary, int maxDistance) {
+        this(sortedCopy(dictionary), maxDistance, computeKey(dictionary, maxDistance));
+    }
+
+    private LevenshteinIndex(String[] sortedDictionary, int maxDistance, String key) {
+        this.maxDistance = maxDistance;
+        this.key = key;
+        this.terms = sortedDictionary;
+
+        int capacity = 1;
+        for(String term : sortedDictionary){
+            capacity += term.length();
+        }
+        char[] chars = new char[capacity];
+        int[] firstChild = new int[capacity];
+        int[] childCount = new int[capacity];
+        int[] term = new int[capacity];
+        int numberOfNodes = 1;
+
+        //breadth first construction such that all children of a node get consecutive ids
+        //each task is {node, depth, from, to} which means that the node represents the common prefix (of length depth) of terms[from..to)
+        Deque<int[]> tasks = new ArrayDeque<>();
+        tasks.add(new int[]{0, 0, 0, sortedDictionary.length});
+        while(!tasks.isEmpty()){
+            int[] task = tasks.poll();
+            int node = task[0], depth = task[1], from = task[2], to = task[3];
+            term[node] = -1;
+            if(from < to && sortedDictionary[from].length() == depth){
+                term[node] = from;
+                from++;
+            }
+            firstChild[node] = numberOfNodes;
+            int start = from;
+            while(start < to){
+                char c = sortedDictionary[start].charAt(depth);
+                int end = start + 1;
+                while(end < to && sortedDictionary[end].charAt(depth) == c){
+                    end++;
+                }
+                int child = numberOfNodes++;
+                chars[child] = c;
+                childCount[node]++;
+                tasks.add(new int[]{child, depth + 1, start, end});
+                start = end;
+            }
+        }
+        this.nodeChar = Arrays.copyOf(chars, numberOfNodes);
+        this.nodeFirstChild = Arrays.copyOf(firstChild, numberOfNodes);
+        this.nodeChildCount = Arrays.copyOf(childCount, numberOfNodes);
+        this.nodeTerm = Arrays.copyOf(term, numberOfNodes);
+    }
+
+    private LevenshteinIndex(int maxDistance, String key, String[] terms, char[] nodeChar, int[] nodeFirstChild, int[] nodeChildCount, int[] nodeTerm) {
+        this.maxDistance = maxDistance;
+        this.key = key;
+        this.terms = terms;
+        this.nodeChar = nodeChar;
+        this.nodeFirstChild = nodeFirstChild;
+        this.nodeChildCount = nodeChildCount;
+        this.nodeTerm = nodeTerm;
+    }
+
+    /**
+     * Returns the index for the given dictionary and max distance. If it is in the memory cache or in the given folder,
+     * the stored index is used. Otherwise it is built and stored in the folder.
+     * Only the fingerprint of the dictionary is computed for a lookup; the dictionary is sorted only if the index needs to be built.
+     * @param dictionary the texts which can be found
+     * @param maxDistance the maximum edit distance for lookups
+     * @param folder the folder where indices are stored (can be null to only use the memory cache).
+     * @return the index
+     */
+    public static LevenshteinIndex getOrBuild(Collection<String> dictionary, int maxDistance, File folder) {
+        String key = computeKey(dictionary, maxDistance);
+        return MEMORY_CACHE.get(key, k -> {
+            if(folder != null){
+                File file = new File(folder, k + FILE_SUFFIX);
+                if(file.isFile()){
+                    try {
+                        LevenshteinIndex index = load(file);
+                        LOGGER.debug("Loaded levenshtein index with {} texts from {}", index.terms.length, file);
+                        return index;
+                    } catch (IOException ex) {
+                        LOGGER.warn("Could not load levenshtein index {} - rebuild it.", file, ex);
+                    }
+                }
+                LevenshteinIndex index = new LevenshteinIndex(sortedCopy(dictionary), maxDistance, k);
+                try {
+                    index.save(file);
+                } catch (IOException ex) {
+                    LOGGER.warn("Could not write levenshtein index {}.", file, ex);
+                }
+                return index;
+            }
+            return new LevenshteinIndex(sortedCopy(dictionary), maxDistance, k);
+        });
+    }
+
+    /**
+     * Searches all texts in the dictionary which are within the max distance of the query.
+     * @param query the query text
+     * @param consumer gets each found text together with its edit distance to the query
+     */
+    public void search(String query, ObjIntConsumer<String> consumer) {
+        int n = query.length();
+        //one row of the dynamic programming matrix per depth in the trie
+        int[][] rows = new int[n + maxDistance + 1][];
+        rows[0] = new int[n + 1];
+        for(int i = 0; i <= n; i++){
+            rows[0][i] = i;
+        }
+        if(nodeTerm[0] >= 0 && n <= maxDistance){
+            consumer.accept(terms[nodeTerm[0]], n);
+        }
+        searchChildren(0, 1, query, rows, consumer);
+    }
+
+    private void searchChildren(int node, int depth, String query, int[][] rows, ObjIntConsumer<String> consumer) {
+        if(depth >= rows.length)
+            return;
+        int n = query.length();
+        int[] previous = rows[depth - 1];
+        int[] previousPrevious = depth >= 2 ? rows[depth - 2] : null;
+        char parentChar = nodeChar[node];
+        int[] row = rows[depth];
+        if(row == null){
+            row = new int[n + 1];
+            rows[depth] = row;
+        }
+        int firstChild = nodeFirstChild[node];
+        int lastChild = firstChild + nodeChildCount[node];
+        for(int child = firstChild; child < lastChild; child++){
+            char c = nodeChar[child];
+            row[0] = depth;
+            int rowMin = depth;
+            for(int i = 1; i <= n; i++){
+                char q = query.charAt(i - 1);
+                int value = Math.min(Math.min(previous[i] + 1, row[i - 1] + 1), previous[i - 1] + (q == c ? 0 : 1));
+                if(previousPrevious != null && i > 1 && q == parentChar && query.charAt(i - 2) == c){
+                    value = Math.min(value, previousPrevious[i - 2] + 1);
+                }
+                row[i] = value;
+                if(value < rowMin)
+                    rowMin = value;
+            }
+            if(nodeTerm[child] >= 0 && row[n] <= maxDistance){
+                consumer.accept(terms[nodeTerm[child]], row[n]);
+            }
+            if(rowMin <= maxDistance){
+                searchChildren(child, depth + 1, query, rows, consumer);
+            }
+        }
+    }
+
+    /**
+     * Searches all texts in the dictionary which are within the max distance of the query.
+     * @param query the query text
+     * @return map of found text to edit distance
+     */
+    public Map<String, Integer> search(String query) {
+        Map<String, Integer> result = new HashMap<>();
+        search(query, result::put);
+        return result;
+    }
+
+    public int getMaxDistance() {
+        return maxDistance;
+    }
+
+    /**
+     * Returns the number of texts in the dictionary.
+     * @return number of texts
+     */
+    public int size() {
+        return terms.length;
+    }
+
+    /**
+     * Returns the key of this index which is the fingerprint of the dictionary and the max distance.
+     * @return the key
+     */
+    public String getKey() {
+        return key;
+    }
+
+    /**
+     * Writes the index to the given file. The file is written to a temporary file first and moved afterwards,
+     * such that other processes never read an incomplete index.
+     * @param file the file to write to
+     * @throws IOException in case of an io error
+     */
+    public void save(File file) throws IOException {
+        File parent = file.getAbsoluteFile().getParentFile();
+        Files.createDirectories(parent.toPath());
+        Path tmp = Files.createTempFile(parent.toPath(), "levenshtein", ".tmp");
+        try{
+            try(DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024))){
+                out.write(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(maxDistance);
+                writeString(out, key);
+                out.writeInt(terms.length);
+                for(String term : terms){
+                    writeString(out, term);
+                }
+                out.writeInt(nodeChar.length);
+                for(char c : nodeChar){
+                    out.writeChar(c);
+                }
+                for(int[] array : new int[][]{nodeFirstChild, nodeChildCount, nodeTerm}){
+                    for(int i : array){
+                        out.writeInt(i);
+                    }
+                }
+            }
+            try{
+                Files.move(tmp, file.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }catch(AtomicMoveNotSupportedException ex){
+                Files.move(tmp, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }finally{
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Loads an index which was written by {@link #save(java.io.File) }.
+     * The file is read sequentially into the (heap) arrays of the index; only the rebuild of the trie is avoided.
+     * @param file the file to read
+     * @return the index
+     * @throws IOException in case of an io error or if the file is not a levenshtein index
+     */
+    public static LevenshteinIndex load(File file) throws IOException {
+        try(DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file.toPath()), 64 * 1024))){
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if(!Arrays.equals(magic, MAGIC))
+                throw new IOException("The file " + file + " is not a levenshtein index.");
+            int version = in.readInt();
+            if(version != VERSION)
+                throw new IOException("The levenshtein index version " + version + " is not supported.");
+            int maxDistance = in.readInt();
+            String key = readString(in);
+            String[] terms = new String[in.readInt()];
+            for(int i = 0; i < terms.length; i++){
+                terms[i] = readString(in);
+            }
+            int numberOfNodes = in.readInt();
+            char[] nodeChar = new char[numberOfNodes];
+            for(int i = 0; i < numberOfNodes; i++){
+                nodeChar[i] = in.readChar();
+            }
+            int[][] arrays = new int[3][numberOfNodes];
+            for(int[] array : arrays){
+                for(int i = 0; i < numberOfNodes; i++){
+                    array[i] = in.readInt();
+                }
+            }
+            return new LevenshteinIndex(maxDistance, key, terms, nodeChar, arrays[0], arrays[1], arrays[2]);
+        }catch(EOFException | NegativeArraySizeException ex){
+            throw new IOException("The levenshtein index " + file + " is truncated or corrupt.", ex);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String s) throws IOException {
+        byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Computes the key of an index which is a fingerprint of the dictionary and the max distance.
+     * Two independent 64 bit hashes are computed for each text and summed up, thus the key does not depend on the order of the texts
+     * and no sorting or copying is necessary. Duplicate texts change the key (which only leads to a cache miss).
+     * @param dictionary the texts
+     * @param maxDistance the max distance
+     * @return the key (hex encoded fingerprint)
+     */
+    public static String computeKey(Collection<String> dictionary, int maxDistance) {
+        long first = 0;
+        long second = 0;
+        long size = 0;
+        for(String text : dictionary){
+            long h1 = 0xcbf29ce484222325L;
+            long h2 = text.length();
+            for(int i = 0; i < text.length(); i++){
+                char c = text.charAt(i);
+                h1 = (h1 ^ c) * 0x100000001b3L;
+                h2 = h2 * 31 + c;
+            }
+            first += mix(h1);
+            second += mix(h2 ^ 0x9e3779b97f4a7c15L);
+            size++;
+        }
+        return String.format("%016x%016x%x-%d", first, second, size, maxDistance);
+    }
+
+    /**
+     * Finalizer of the SplitMix64 generator which spreads the bits of the hash.
+     */
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static String[] sortedCopy(Collection<String> dictionary) {
+        return new TreeSet<>(dictionary).toArray(new String[0]);
+    }
+}
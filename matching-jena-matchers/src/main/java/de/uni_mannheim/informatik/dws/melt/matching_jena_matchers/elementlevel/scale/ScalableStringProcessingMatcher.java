@@ -1,13 +1,12 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.scale;
 
-import com.github.liblevenshtein.transducer.Algorithm;
-import com.github.liblevenshtein.transducer.ITransducer;
-import com.github.liblevenshtein.transducer.factory.TransducerBuilder;
 import de.uni_mannheim.informatik.dws.melt.matching_base.OaeiOptions;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.MatcherYAAAJena;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.io.File;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -16,7 +15,15 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
 import java.util.function.Function;
+import java.util.function.ObjDoubleConsumer;
+import java.util.stream.Collectors;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Resource;
@@ -36,6 +43,8 @@ import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
  *              new PropertySpecificStringProcessing(equality, 0.7, SKOS.altLabel),
  *              new PropertySpecificStringProcessing(lowercase, 0.6, SKOS.altLabel)
  * ));}</pre>
+ * By default everything runs in the calling thread. Parallel matching is opt-in via {@link #setNumberOfThreads(int)}
+ * and requires that all processing functions and {@link TextExtractor}s are thread safe (see there).
  */
 public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
 
@@ -52,6 +61,28 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     protected boolean earlyStopping = true;
     protected boolean crossIndexMatch = false;
     
+    /**
+     * Number of threads used for matching. If it is one (the default), everything is executed in the calling thread.
+     * More threads require thread safe processing functions and text extractors.
+     */
+    protected int numberOfThreads = 1;
+    
+    /**
+     * Number of target resources which are probed in parallel before the matches are merged into the alignment.
+     */
+    protected static final int MERGE_BATCH_SIZE = 10000;
+    
+    /**
+     * If true, the confidence of matches found via the levenshtein index is scaled by the edit distance (see {@link #scaleConfidence }).
+     * Otherwise all matches get the confidence of the processing.
+     */
+    protected boolean scaleConfidenceByDistance = false;
+    
+    /**
+     * Folder where the levenshtein indices are stored to reuse them in later runs (null if they should not be stored).
+     */
+    protected File levenshteinIndexFolder = null;
+    
     /**
      * A list of fucntions which gets an ontModel and returns an iterator over elements which should be matched like classes, instances, proeprties etc.
      */
@@ -102,97 +133,195 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
     
     
     public void matchResources(Iterator<? extends Resource> sourceResources, Iterator<? extends Resource> targetResources, Alignment alignment) {
+        if(this.numberOfThreads > 1){
+            matchResourcesParallel(sourceResources, targetResources, alignment);
+            return;
+        }
         //processing -> tokens/ids -> (list of resources)
         Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> index = new HashMap<>();
         
-
         //source
         while (sourceResources.hasNext()) {
             Resource source = sourceResources.next();
             if(source.isURIResource() == false)
                 continue;
-            String sourceURI = source.getURI();            
-            Map<TextExtractor, Set<String>> valueMap = extractAllValues(source);
-            for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
-                Map<Object, Set<String>> tokenIndex = index.computeIfAbsent(processing, k->new HashMap<>());
-                for(String sourceLabels : getLiterals(processing, valueMap)){
-                    if(StringUtils.isBlank(sourceLabels))
-                        continue;
-                    for(Object o : processing.getProcessing().apply(sourceLabels)){
-                        if(isObjectEmpty(o) == false)
-                            tokenIndex.computeIfAbsent(o, k-> new HashSet<>()).add(sourceURI);
-                    }
-                }
-            }
+            addToIndex(source, index, false);
         }
         
-        Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> levenshteinIndex = buildLevenshteinIndex(index);
+        Map<PropertySpecificStringProcessingMultipleReturn, LevenshteinIndex> levenshteinIndex = buildLevenshteinIndex(index);
         
         while (targetResources.hasNext()) {
             Resource target = targetResources.next();
             if(target.isURIResource() == false)
                 continue;
             String targetURI = target.getURI();
+            probe(target, index, levenshteinIndex, (sourceURI, confidence) -> {
+                Correspondence c = alignment.addOrUseHighestConfidence(sourceURI, targetURI, confidence);
+                c.addAdditionalConfidenceIfHigher(this.getClass(), confidence);
+            });
+        }
+    }
+    
+    /**
+     * Parallel version of {@link #matchResources(Iterator, Iterator, Alignment)}.
+     * The text extraction and the index build for the source resources as well as the probing of the target resources
+     * is executed in a fork join pool with {@link #numberOfThreads} threads. The index consists of concurrent maps.
+     * The matches of each target are collected in a sorted map and the targets are processed in batches
+     * of {@link #MERGE_BATCH_SIZE}. Each batch is merged into the alignment by the calling thread in the order of the target resources.
+     * Thus the resulting alignment does not depend on the number of threads.
+     * The processing functions and text extractors are called concurrently and need to be thread safe (see {@link #setNumberOfThreads(int)}).
+     * @param sourceResources the source resources
+     * @param targetResources the target resources
+     * @param alignment the alignment to which the correspondences are added
+     */
+    protected void matchResourcesParallel(Iterator<? extends Resource> sourceResources, Iterator<? extends Resource> targetResources, Alignment alignment) {
+        List<Resource> sources = getURIResources(sourceResources);
+        List<Resource> targets = getURIResources(targetResources);
+        LOGGER.debug("Match {} source and {} target resources with {} threads.", sources.size(), targets.size(), this.numberOfThreads);
+        
+        ForkJoinPool pool = new ForkJoinPool(this.numberOfThreads);
+        try{
+            Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> index = new ConcurrentHashMap<>();
+            runInPool(pool, () -> {
+                sources.parallelStream().forEach(source -> addToIndex(source, index, true));
+                return null;
+            });
+            
+            Map<PropertySpecificStringProcessingMultipleReturn, LevenshteinIndex> levenshteinIndex = buildLevenshteinIndex(index);
             
-            Map<TextExtractor, Set<String>> valueMap = extractAllValues(target);
-            for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
-                Map<Object, Set<String>> tokenIndex = index.get(processing);
-                if(tokenIndex == null)
+            for(int batchStart = 0; batchStart < targets.size(); batchStart += MERGE_BATCH_SIZE){
+                List<Resource> batch = targets.subList(batchStart, Math.min(batchStart + MERGE_BATCH_SIZE, targets.size()));
+                List<SortedMap<String, Double>> batchMatches = runInPool(pool, () -> 
+                    batch.parallelStream().map(target -> {
+                        SortedMap<String, Double> matches = new TreeMap<>();
+                        probe(target, index, levenshteinIndex, (sourceURI, confidence) -> matches.merge(sourceURI, confidence, Math::max));
+                        return matches;
+                    }).collect(Collectors.toList())
+                );
+                for(int i = 0; i < batch.size(); i++){
+                    String targetURI = batch.get(i).getURI();
+                    for(Entry<String, Double> match : batchMatches.get(i).entrySet()){
+                        Correspondence c = alignment.addOrUseHighestConfidence(match.getKey(), targetURI, match.getValue());
+                        c.addAdditionalConfidenceIfHigher(this.getClass(), match.getValue());
+                    }
+                }
+            }
+        }finally{
+            pool.shutdown();
+        }
+    }
+    
+    private static List<Resource> getURIResources(Iterator<? extends Resource> resources){
+        List<Resource> list = new ArrayList<>();
+        while (resources.hasNext()) {
+            Resource r = resources.next();
+            if(r.isURIResource())
+                list.add(r);
+        }
+        return list;
+    }
+    
+    private static <T> T runInPool(ForkJoinPool pool, Callable<T> task){
+        try {
+            return pool.submit(task).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during parallel string matching.", ex);
+        } catch (ExecutionException ex) {
+            if(ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException("Error during parallel string matching.", ex.getCause());
+        }
+    }
+    
+    /**
+     * Extracts all texts of the given source resource, applies all processings and adds the resulting objects to the index.
+     * @param source the source resource (has to be an URI resource)
+     * @param index the index: processing -&gt; tokens/ids -&gt; (set of resources)
+     * @param concurrent if true, the index can be modified by multiple threads (the index itself has to be a concurrent map in this case).
+     */
+    protected void addToIndex(Resource source, Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> index, boolean concurrent){
+        String sourceURI = source.getURI();
+        Map<TextExtractor, Set<String>> valueMap = extractAllValues(source);
+        for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
+            Map<Object, Set<String>> tokenIndex = index.computeIfAbsent(processing, k-> concurrent ? new ConcurrentHashMap<>() : new HashMap<>());
+            for(String sourceLabels : getLiterals(processing, valueMap)){
+                if(StringUtils.isBlank(sourceLabels))
                     continue;
-                boolean findMatch = false;
-                for(String targetLabel : getLiterals(processing, valueMap)){
-                    if(StringUtils.isBlank(targetLabel))
+                for(Object o : processing.getProcessing().apply(sourceLabels)){
+                    if(isObjectEmpty(o) == false)
+                        tokenIndex.computeIfAbsent(o, k-> concurrent ? ConcurrentHashMap.newKeySet() : new HashSet<>()).add(sourceURI);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Searches the index for all source resources which match the given target resource.
+     * @param target the target resource (has to be an URI resource)
+     * @param index the index of the source resources
+     * @param levenshteinIndex the levenshtein index for processings with a max levenshtein distance
+     * @param matchConsumer gets the URI of each matching source resource together with the confidence
+     */
+    protected void probe(Resource target, Map<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> index,
+            Map<PropertySpecificStringProcessingMultipleReturn, LevenshteinIndex> levenshteinIndex, ObjDoubleConsumer<String> matchConsumer){
+        Map<TextExtractor, Set<String>> valueMap = extractAllValues(target);
+        for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
+            Map<Object, Set<String>> tokenIndex = index.get(processing);
+            if(tokenIndex == null)
+                continue;
+            boolean findMatch = false;
+            for(String targetLabel : getLiterals(processing, valueMap)){
+                if(StringUtils.isBlank(targetLabel))
+                    continue;
+                for(Object o : processing.getProcessing().apply(targetLabel)){
+                    //search object -> edit distance
+                    Map<Object, Integer> searchObjects = new HashMap<>();
+                    if(o == null)
                         continue;
-                    for(Object o : processing.getProcessing().apply(targetLabel)){
-                        Set<Object> searchObjects = new HashSet<>();
-                        if(o == null)
+                    if(o instanceof String){
+                        String oString = (String)o;
+                        if(StringUtils.isBlank(oString))
                             continue;
-                        if(o instanceof String){
-                            String oString = (String)o;
-                            if(StringUtils.isBlank(oString))
-                                continue;
-                            searchObjects.add(o);
-                            ITransducer transducer = levenshteinIndex.get(processing);
-                            if(transducer != null){
-                                for(Object s : transducer.transduce(oString)){
-                                    searchObjects.add(s);
-                                }
-                            }
-                        }else{
-                            searchObjects.add(o);
+                        searchObjects.put(o, 0);
+                        LevenshteinIndex levenshtein = levenshteinIndex.get(processing);
+                        if(levenshtein != null){
+                            levenshtein.search(oString, (text, distance) -> searchObjects.merge(text, distance, Math::min));
                         }
+                    }else{
+                        searchObjects.put(o, 0);
+                    }
 
-                        if(crossIndexMatch){
-                            for(Entry<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> entry: index.entrySet()){
-                                tokenIndex = entry.getValue();
-                                //use min confidence of index processing and query processing
-                                double confidence = Math.min(processing.getConfidence(), entry.getKey().getConfidence());
-                                for(Object object : searchObjects){
-                                    for(String sourceURI : tokenIndex.getOrDefault(object, new HashSet<>())){
-                                        findMatch = true;
-                                        Correspondence c = alignment.addOrUseHighestConfidence(sourceURI, targetURI, confidence);
-                                        c.addAdditionalConfidenceIfHigher(this.getClass(), confidence);
-                                    }
-                                }
-                            }
-                        }else{
-                            for(Object object : searchObjects){
-                                for(String sourceURI : tokenIndex.getOrDefault(object, new HashSet<>())){
+                    if(crossIndexMatch){
+                        for(Entry<PropertySpecificStringProcessingMultipleReturn, Map<Object, Set<String>>> entry: index.entrySet()){
+                            tokenIndex = entry.getValue();
+                            //use min confidence of index processing and query processing
+                            double confidence = Math.min(processing.getConfidence(), entry.getKey().getConfidence());
+                            for(Entry<Object, Integer> object : searchObjects.entrySet()){
+                                double scaledConfidence = scaleConfidence(confidence, object.getValue(), processing);
+                                for(String sourceURI : tokenIndex.getOrDefault(object.getKey(), Collections.emptySet())){
                                     findMatch = true;
-                                    Correspondence c = alignment.addOrUseHighestConfidence(sourceURI, targetURI, processing.getConfidence());
-                                    c.addAdditionalConfidenceIfHigher(this.getClass(), processing.getConfidence());
+                                    matchConsumer.accept(sourceURI, scaledConfidence);
                                 }
                             }
                         }
+                    }else{
+                        for(Entry<Object, Integer> object : searchObjects.entrySet()){
+                            double scaledConfidence = scaleConfidence(processing.getConfidence(), object.getValue(), processing);
+                            for(String sourceURI : tokenIndex.getOrDefault(object.getKey(), Collections.emptySet())){
+                                findMatch = true;
+                                matchConsumer.accept(sourceURI, scaledConfidence);
+                            }
+                        }
                     }
                 }
-                if(findMatch && earlyStopping)
-                    break;
             }
+            if(findMatch && earlyStopping)
+                break;
         }
     }
     
-    private Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> buildLevenshteinIndex(Map<PropertySpecificStringProcessingMultipleReturn,Map<Object, Set<String>>> index){
+    private Map<PropertySpecificStringProcessingMultipleReturn, LevenshteinIndex> buildLevenshteinIndex(Map<PropertySpecificStringProcessingMultipleReturn,Map<Object, Set<String>>> index){
         //choose all processing with levenshtein
         Set<PropertySpecificStringProcessingMultipleReturn> levenshteinProcessings = new HashSet();
         for(PropertySpecificStringProcessingMultipleReturn processing : this.processingElements){
@@ -201,7 +330,7 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
             }
         }
         
-        Map<PropertySpecificStringProcessingMultipleReturn, ITransducer> levenshteinIndex = new HashMap<>();
+        Map<PropertySpecificStringProcessingMultipleReturn, LevenshteinIndex> levenshteinIndex = new HashMap<>();
         for(PropertySpecificStringProcessingMultipleReturn processsing : levenshteinProcessings){
             List<String> texts = new ArrayList<>();
             int minLength = processsing.getMinLengthForLevenshtein();
@@ -213,19 +342,27 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
                     }
                 }
             }
-            ITransducer transducer = new TransducerBuilder()
-                .dictionary(texts)
-                .isSorted(false)
-                .algorithm(Algorithm.TRANSPOSITION)
-                .defaultMaxDistance(processsing.getMaxLevenshteinDistance())
-                .includeDistance(false)
-                .build();
-            levenshteinIndex.put(processsing, transducer);
+            levenshteinIndex.put(processsing, LevenshteinIndex.getOrBuild(texts, processsing.getMaxLevenshteinDistance(), this.levenshteinIndexFolder));
         }
         return levenshteinIndex;
     }
     
     
+    /**
+     * Scales the confidence of a match by the edit distance (if {@link #scaleConfidenceByDistance} is true).
+     * The confidence is multiplied by 1 - distance / (max distance + 1) such that exact matches keep their confidence
+     * and matches with the maximum distance get the lowest confidence.
+     * @param confidence the confidence of the processing
+     * @param distance the edit distance between the target text and the found source text
+     * @param processing the processing which defines the max distance
+     * @return the (scaled) confidence
+     */
+    protected double scaleConfidence(double confidence, int distance, PropertySpecificStringProcessingMultipleReturn processing){
+        if(this.scaleConfidenceByDistance == false || distance <= 0)
+            return confidence;
+        return confidence * (1.0 - ((double) distance / (processing.getMaxLevenshteinDistance() + 1)));
+    }
+    
     protected Set<String> getLiterals(PropertySpecificStringProcessingMultipleReturn processing, Map<TextExtractor, Set<String>> valueMap){
         Set<String> values = new HashSet<>();
         for(TextExtractor extractor : processing.getValueExtractors()){
@@ -285,6 +422,51 @@ public class ScalableStringProcessingMatcher extends MatcherYAAAJena {
         this.earlyStopping = earlyStopping;
     }
 
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to build the index and to probe the target resources.
+     * The resulting alignment is the same for any number of threads.
+     * The models are read concurrently in case more than one thread is used. This is safe for in memory models
+     * but models with an attached reasoner should not be used in parallel mode.
+     * <p>
+     * With more than one thread, the processing functions of all {@link PropertySpecificStringProcessingMultipleReturn}s
+     * and all their {@link TextExtractor}s are called concurrently from different threads. They have to be thread safe,
+     * e.g. they must not use shared mutable state like an unsynchronized cache, a non thread safe stemmer or tokenizer instance
+     * or a shared StringBuilder. The default (one thread) has no such requirement.
+     * @param numberOfThreads number of threads (one or less means everything is executed in the calling thread).
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    public boolean isScaleConfidenceByDistance() {
+        return scaleConfidenceByDistance;
+    }
+
+    /**
+     * If set to true, the confidence of matches found via the levenshtein index is scaled by the edit distance.
+     * @param scaleConfidenceByDistance true if the confidence should be scaled
+     */
+    public void setScaleConfidenceByDistance(boolean scaleConfidenceByDistance) {
+        this.scaleConfidenceByDistance = scaleConfidenceByDistance;
+    }
+
+    public File getLevenshteinIndexFolder() {
+        return levenshteinIndexFolder;
+    }
+
+    /**
+     * Sets the folder where the levenshtein indices are stored. They are reused whenever the same texts are indexed again
+     * (e.g. when the same ontology is matched multiple times).
+     * @param levenshteinIndexFolder the folder or null if the indices should not be stored on disk
+     */
+    public void setLevenshteinIndexFolder(File levenshteinIndexFolder) {
+        this.levenshteinIndexFolder = levenshteinIndexFolder;
+    }
+
     public boolean isCrossIndexMatch() {
         return crossIndexMatch;
     }
@@ -58,12 +58,9 @@ public abstract class SemanticWordRelationDictionary implements ExternalResource
 			// only if both are null b/c one concept might not have synonyms but still be a synonym of the other concept
 			return false;
 		}
-		if(synonyms1 == null) {
-			synonyms1 = new HashSet<>();
-		}
-		if(synonyms2 == null) {
-			synonyms2 = new HashSet<>();
-		}
+		// copy the sets because the returned sets might be shared (e.g. by an in-memory cache)
+		synonyms1 = synonyms1 == null ? new HashSet<>() : new HashSet<>(synonyms1);
+		synonyms2 = synonyms2 == null ? new HashSet<>() : new HashSet<>(synonyms2);
 		
 		// add the words themselves
 		synonyms1.add(link1);
@@ -142,12 +139,9 @@ public abstract class SemanticWordRelationDictionary implements ExternalResource
 			// only if both are null b/c one concept might not have synonyms but still be a synonym of the other concept
 			return false;
 		}
-		if(synonyms1 == null) {
-			synonyms1 = new HashSet<>();
-		}
-		if(synonyms2 == null) {
-			synonyms2 = new HashSet<>();
-		}
+		// copy the sets because the returned sets might be shared (e.g. by an in-memory cache)
+		synonyms1 = synonyms1 == null ? new HashSet<>() : new HashSet<>(synonyms1);
+		synonyms2 = synonyms2 == null ? new HashSet<>() : new HashSet<>(synonyms2);
 
 		// add the words themselves
 		synonyms1.add(link1);
@@ -204,6 +198,56 @@ public abstract class SemanticWordRelationDictionary implements ExternalResource
 		return false;
 	}
 
+	/**
+	 * Returns the keys which are used to generate candidate pairs (blocking) for this dictionary: two linked concepts
+	 * can only be strong-form synonymous (and hypernymous if {@code includeHypernyms} is true) if their key sets overlap.
+	 * Thus it is sufficient to compare only concepts which share at least one key instead of all pairs.
+	 * The default implementation returns the concept itself, its lexical synonyms and (optionally) its hypernyms
+	 * which is consistent with {@link #isStrongFormSynonymous(String, String)} and {@link #isHypernymous(String, String)}.
+	 * If one of those methods is overridden by a subclass, null is returned unless the subclass also overrides this method.
+	 * @param linkedConcept The linked concept.
+	 * @param includeHypernyms True if the keys should also cover the hypernymy relation.
+	 * @return The set of keys or null if no keys can be determined (then the concept needs to be compared with all other concepts).
+	 */
+	public Set<String> getBlockingKeys(String linkedConcept, boolean includeHypernyms) {
+		if(isOverridden("isStrongFormSynonymous")) {
+			return null;
+		}
+		if(includeHypernyms && (isOverridden("isHypernymous") || isOverridden("isSynonymousOrHypernymous"))) {
+			return null;
+		}
+		Set<String> keys = new HashSet<>();
+		if(linkedConcept == null) {
+			return keys;
+		}
+		keys.add(linkedConcept);
+		Set<String> synonyms = getSynonymsLexical(linkedConcept);
+		if(synonyms != null) {
+			keys.addAll(synonyms);
+		}
+		if(includeHypernyms) {
+			Set<String> hypernyms = getHypernyms(linkedConcept);
+			if(hypernyms != null) {
+				keys.addAll(hypernyms);
+			}
+		}
+		keys.remove("");
+		return keys;
+	}
+
+	/**
+	 * Checks whether a comparison method (with two string parameters) is overridden by the actual class.
+	 * @param methodName The name of the method.
+	 * @return True if the method is overridden.
+	 */
+	private boolean isOverridden(String methodName) {
+		try {
+			return getClass().getMethod(methodName, String.class, String.class).getDeclaringClass() != SemanticWordRelationDictionary.class;
+		} catch (NoSuchMethodException e) {
+			return true;
+		}
+	}
+
 	public abstract LabelToConceptLinker getLinker();
 
 	public abstract String getName();
@@ -104,7 +104,7 @@ public class BabelNetKnowledgeSource extends SemanticWordRelationDictionary {
     public Set<String> getSynonymsLexical(String linkedConcept) {
         String key = linkedConcept + "_EN";
         if(synonymBuffer.containsKey(key)){
-            return synonymBuffer.get(key);
+            return new HashSet<>(synonymBuffer.get(key));
         }
         HashSet<String> result = new HashSet<>();
         BabelNetQuery query = new BabelNetQuery.Builder(linkedConcept)
@@ -125,7 +125,7 @@ public class BabelNetKnowledgeSource extends SemanticWordRelationDictionary {
     public HashSet<String> getHypernyms(String linkedConcept) {
         String key = linkedConcept + "_EN";
         if(hypernymyBuffer.containsKey(key)){
-            return hypernymyBuffer.get(key);
+            return new HashSet<>(hypernymyBuffer.get(key));
         }
         HashSet<String> result = new HashSet<>();
         BabelNetQuery query = new BabelNetQuery.Builder(linkedConcept)
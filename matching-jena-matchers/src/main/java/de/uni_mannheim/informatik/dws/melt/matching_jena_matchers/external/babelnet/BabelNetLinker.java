@@ -114,7 +114,7 @@ public class BabelNetLinker implements LabelToConceptLinker {
             Set<String> links =  multipleConceptBuffer.get(labelToBeLinked);
             if(links.size() == 0){
                 return null;
-            } else return links;
+            } else return new HashSet<>(links);
         }
 
         Set<String> result = linkLabelToTokensLeftToRight(labelToBeLinked);
@@ -254,7 +254,7 @@ public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary {
         }
         String key = linkedConcept + "_syns_lexical";
         if (synonymyBuffer.containsKey(key)) {
-            return synonymyBuffer.get(key);
+            return new HashSet<>(synonymyBuffer.get(key));
         }
         String queryString = getSynonymsLexicalQuery(linkedConcept);
         QueryExecution queryExecution;
@@ -317,6 +317,30 @@ public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary {
         return false;
     }
 
+    /**
+     * Two links are synonymous if they share a URI (see {@link #isStrongFormSynonymous(String, String)}), thus the
+     * URIs are the blocking keys.
+     * @param linkedConcept The linked concept.
+     * @param includeHypernyms True if the keys should also cover the hypernymy relation.
+     * @return The URIs of the link or null if hypernyms shall be included.
+     */
+    @Override
+    public Set<String> getBlockingKeys(String linkedConcept, boolean includeHypernyms) {
+        if(includeHypernyms) {
+            return null;
+        }
+        Set<String> keys = new HashSet<>();
+        if(linkedConcept == null) {
+            return keys;
+        }
+        if(this.linker.isMultiConceptLink(linkedConcept)){
+            keys.addAll(this.linker.getUris(linkedConcept));
+        } else {
+            keys.add(linkedConcept);
+        }
+        return keys;
+    }
+
     /**
      * Builds a String query to obtain synonyms. The synonyms are represented by normal words/labels (not URIs).
      * @param link The link for which synonymous words shall be obtained.
@@ -400,12 +424,13 @@ public class DBpediaKnowledgeSource extends SemanticWordRelationDictionary {
             tdbModel.leaveCriticalSection();
         }
 
-        // we add to the buffer before excluding hypernyms
+        // we add to the buffer before excluding hypernyms (the exclusion is applied to a copy)
         hypernymyBuffer.put(key, result);
         commitAll();
 
-        result.removeAll(getExcludedHypernyms());
-        return result;
+        Set<String> filtered = new HashSet<>(result);
+        filtered.removeAll(getExcludedHypernyms());
+        return filtered;
     }
 
     /**
@@ -114,7 +114,7 @@ public class DBpediaLinker implements LabelToConceptLinker, MultiConceptLinker {
             return result;
         }
         if (multiLinkStore.containsKey(multiConceptLink)) {
-            return multiLinkStore.get(multiConceptLink);
+            return new HashSet<>(multiLinkStore.get(multiConceptLink));
         }
         return result;
     }
@@ -10,6 +10,8 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Set;
 
 /**
@@ -131,11 +133,13 @@ public class GensimEmbeddingModel extends SemanticWordRelationDictionary impleme
      * @return Best average.
      */
     public double getBestCrossAverage(Set<String> links1, Set<String> links2) {
+        double[] similarities = getCrossSimilarities(links1, links2);
         double totalSimilarity = 0.0;
-        for (String link1 : links1) {
+        int i = 0;
+        for (int row = 0; row < links1.size(); row++) {
             double similarity = 0.0;
-            for (String link2 : links2) {
-                double checkSimilarity = gensim.getSimilarity(link1, link2, this.modelFilePath);
+            for (int column = 0; column < links2.size(); column++) {
+                double checkSimilarity = similarities[i++];
                 if (checkSimilarity > similarity) {
                     similarity = checkSimilarity;
                 }
@@ -145,6 +149,24 @@ public class GensimEmbeddingModel extends SemanticWordRelationDictionary impleme
         return totalSimilarity / links1.size();
     }
 
+    /**
+     * Computes the similarities of all combinations of the two sets with one batch call.
+     * @param links1 Set of links 1.
+     * @param links2 Set of links 2.
+     * @return The similarities in row-major order (for each link in links1 all links in links2).
+     */
+    private double[] getCrossSimilarities(Set<String> links1, Set<String> links2) {
+        List<String> concepts1 = new ArrayList<>(links1.size() * links2.size());
+        List<String> concepts2 = new ArrayList<>(links1.size() * links2.size());
+        for (String link1 : links1) {
+            for (String link2 : links2) {
+                concepts1.add(link1);
+                concepts2.add(link2);
+            }
+        }
+        return gensim.getSimilarities(concepts1, concepts2, this.modelFilePath);
+    }
+
     /**
      * Note that the concepts have to be linked.
      *
@@ -202,13 +224,9 @@ public class GensimEmbeddingModel extends SemanticWordRelationDictionary impleme
             Set<String> uris1 = ((MultiConceptLinker) linker).getUris(linkedConcept1);
             Set<String> uris2 = ((MultiConceptLinker) linker).getUris(linkedConcept2);
             double bestScore = 0.0;
-
-            for (String uri1 : uris1) {
-                for (String uri2 : uris2) {
-                    double score = gensim.getSimilarity(uri1, uri2, this.modelFilePath);
-                    if (score > bestScore) {
-                        bestScore = score;
-                    }
+            for (double score : getCrossSimilarities(uris1, uris2)) {
+                if (score > bestScore) {
+                    bestScore = score;
                 }
             }
             return bestScore;
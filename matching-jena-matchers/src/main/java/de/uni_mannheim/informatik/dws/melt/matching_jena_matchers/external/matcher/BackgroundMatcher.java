@@ -15,10 +15,19 @@ import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntResource;
 import org.apache.jena.util.iterator.ExtendedIterator;
 import org.javatuples.Pair;
+import org.javatuples.Triplet;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.matcher.BackgroundMatcherTools.getURIlabelMap;
 import de.uni_mannheim.informatik.dws.melt.matching_jena.TextExtractor;
@@ -100,6 +109,29 @@ public class BackgroundMatcher extends MatcherYAAAJena {
      */
     private final boolean isSynonymyConfidenceAvailable;
 
+    /**
+     * If true, only resources which share at least one blocking key are compared instead of all pairs
+     * (see {@link SemanticWordRelationDictionary#getBlockingKeys(String, boolean)}).
+     * Default: true.
+     */
+    private boolean isBlocking = true;
+
+    /**
+     * The number of threads which are used to compare the candidate pairs.
+     * Default: 1.
+     */
+    private int numberOfThreads = 1;
+
+    /**
+     * Marker in the cache of blocking keys for links which can not be blocked.
+     */
+    private static final Set<String> NOT_BLOCKABLE = Collections.unmodifiableSet(new HashSet<>());
+
+    /**
+     * Blocking key for empty token sets and empty link sets (two empty sets are treated as synonymous).
+     */
+    private static final String EMPTY_SET_KEY = "\u0000";
+
     /**
      * Main Constructor
      *
@@ -229,24 +261,207 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         Map<String, Set<String>> uris2linksTarget_2 = convertToUriLinkMap(uri2labelMap_2, false);
         LOGGER.info("BuildingMap finished: Uri -> Link Map");
 
-        for (Map.Entry<String, Set<String>> uri2linksSource_1 : uris2linksSource_1.entrySet()) {
-            for (Map.Entry<String, Set<String>> uri2linksTarget_2 : uris2linksTarget_2.entrySet()) {
-                Pair<Boolean, Double> isMatchConfidencePair =
-                        fullMatchUsingDictionaryWithLinks(uri2linksSource_1.getValue(), uri2linksTarget_2.getValue());
+        Map<String, Set<String>> linkKeyCache = new ConcurrentHashMap<>();
+        List<Triplet<String, String, Double>> matches = matchCandidates(uris2linksSource_1, uris2linksTarget_2,
+                links -> getBlockingKeysOfLinks(links, linkKeyCache), this::fullMatchUsingDictionaryWithLinks);
+        for (Triplet<String, String, Double> match : matches) {
+            Map<String, Object> extensions = new HashMap<>();
+            extensions.put("http://custom#addedInStep", "performFullStringSynonymyMatching()");
+            alignment.add(match.getValue0(), match.getValue1(), match.getValue2(),
+                    CorrespondenceRelation.EQUIVALENCE, extensions);
+            if (isVerboseLoggingOutput) {
+                LOGGER.info(match.getValue0() + " " + match.getValue1() + " (full word synonymy match)");
+                LOGGER.info(match.getValue0() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(match.getValue0())) + ")");
+                LOGGER.info(match.getValue1() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(match.getValue1())) + ")");
+            }
+        }
+    }
+
+    /**
+     * Compares the values of the source and target map and returns all matches.
+     * If blocking is enabled, a value of the source map is only compared with the values of the target map which
+     * share at least one blocking key (found via an inverted index from key to target).
+     * The source values are processed in parallel if {@link #numberOfThreads} is larger than one.
+     *
+     * @param sourceMap     Map from source URI to value (links, link sets or tokens).
+     * @param targetMap     Map from target URI to value.
+     * @param keyFunction   Returns the blocking keys of a value or null if it has to be compared with all other values.
+     * @param matchFunction Determines whether two values match and the confidence.
+     * @param <V>           The type of the values.
+     * @return List of matches (source URI, target URI, confidence) in the iteration order of the source and target map.
+     */
+    private <V> List<Triplet<String, String, Double>> matchCandidates(Map<String, V> sourceMap, Map<String, V> targetMap,
+                                                                     Function<V, Set<String>> keyFunction,
+                                                                     BiFunction<V, V, Pair<Boolean, Double>> matchFunction) {
+        List<Map.Entry<String, V>> sources = new ArrayList<>(sourceMap.entrySet());
+        List<Map.Entry<String, V>> targets = new ArrayList<>(targetMap.entrySet());
+
+        // inverted index: blocking key -> indices of targets
+        Map<String, List<Integer>> index = null;
+        BitSet notBlockableTargets = new BitSet();
+        if (isBlocking && knowledgeSource instanceof SemanticWordRelationDictionary) {
+            index = new HashMap<>();
+            for (int i = 0; i < targets.size(); i++) {
+                Set<String> keys = keyFunction.apply(targets.get(i).getValue());
+                if (keys == null) {
+                    notBlockableTargets.set(i);
+                } else {
+                    for (String key : keys) {
+                        index.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+                    }
+                }
+            }
+            LOGGER.info("Blocking index built with {} keys for {} targets ({} targets can not be blocked).",
+                    index.size(), targets.size(), notBlockableTargets.cardinality());
+        }
+
+        final Map<String, List<Integer>> finalIndex = index;
+        IntFunction<List<Triplet<String, String, Double>>> matchSource = sourcePosition -> {
+            Map.Entry<String, V> source = sources.get(sourcePosition);
+            Set<String> keys = finalIndex == null ? null : keyFunction.apply(source.getValue());
+            BitSet candidates;
+            if (keys == null) {
+                candidates = new BitSet(targets.size());
+                candidates.set(0, targets.size());
+            } else {
+                candidates = (BitSet) notBlockableTargets.clone();
+                for (String key : keys) {
+                    List<Integer> targetPositions = finalIndex.get(key);
+                    if (targetPositions != null) {
+                        for (int targetPosition : targetPositions) {
+                            candidates.set(targetPosition);
+                        }
+                    }
+                }
+            }
+            List<Triplet<String, String, Double>> matches = new ArrayList<>();
+            for (int t = candidates.nextSetBit(0); t >= 0; t = candidates.nextSetBit(t + 1)) {
+                Map.Entry<String, V> target = targets.get(t);
+                Pair<Boolean, Double> isMatchConfidencePair = matchFunction.apply(source.getValue(), target.getValue());
                 if (isMatchConfidencePair.getValue0()) {
-                    Map<String, Object> extensions = new HashMap<>();
-                    extensions.put("http://custom#addedInStep", "performFullStringSynonymyMatching()");
-                    double confidence = isMatchConfidencePair.getValue1();
-                    alignment.add(uri2linksSource_1.getKey(), uri2linksTarget_2.getKey(), confidence,
-                            CorrespondenceRelation.EQUIVALENCE, extensions);
-                    if (isVerboseLoggingOutput) {
-                        LOGGER.info(uri2linksSource_1.getKey() + " " + uri2linksTarget_2.getKey() + " (full word synonymy match)");
-                        LOGGER.info(uri2linksSource_1.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri2linksSource_1.getKey())) + ")");
-                        LOGGER.info(uri2linksTarget_2.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2linksTarget_2.getKey())) + ")");
+                    matches.add(new Triplet<>(source.getKey(), target.getKey(), isMatchConfidencePair.getValue1()));
+                }
+            }
+            return matches;
+        };
+
+        List<List<Triplet<String, String, Double>>> matchesPerSource;
+        if (numberOfThreads > 1) {
+            ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+            try {
+                matchesPerSource = pool.submit(() -> IntStream.range(0, sources.size()).parallel()
+                        .mapToObj(matchSource).collect(Collectors.toList())).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during parallel background matching.", ex);
+            } catch (ExecutionException ex) {
+                if (ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new IllegalStateException("Error during parallel background matching.", ex.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        } else {
+            matchesPerSource = IntStream.range(0, sources.size()).mapToObj(matchSource).collect(Collectors.toList());
+        }
+        List<Triplet<String, String, Double>> result = new ArrayList<>();
+        for (List<Triplet<String, String, Double>> matches : matchesPerSource) {
+            result.addAll(matches);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the blocking keys of a link. The link is expanded only once (the keys are cached).
+     *
+     * @param link         The link.
+     * @param linkKeyCache Cache from link to blocking keys.
+     * @return The blocking keys (which include the link itself) or null if the link can not be blocked.
+     */
+    private Set<String> getBlockingKeysOfLink(String link, Map<String, Set<String>> linkKeyCache) {
+        Set<String> keys = linkKeyCache.get(link);
+        if (keys == null) {
+            Set<String> dictionaryKeys = ((SemanticWordRelationDictionary) knowledgeSource).getBlockingKeys(link,
+                    strategy == ImplementedBackgroundMatchingStrategies.SYNONYMY_OR_HYPERNYMY);
+            if (dictionaryKeys == null) {
+                keys = NOT_BLOCKABLE;
+            } else {
+                keys = new HashSet<>(dictionaryKeys);
+                keys.add(link);
+            }
+            linkKeyCache.put(link, keys);
+        }
+        return keys == NOT_BLOCKABLE ? null : keys;
+    }
+
+    /**
+     * Returns the union of the blocking keys of the given links.
+     *
+     * @param links        The links.
+     * @param linkKeyCache Cache from link to blocking keys.
+     * @return The blocking keys or null if one of the links can not be blocked.
+     */
+    private Set<String> getBlockingKeysOfLinks(Collection<String> links, Map<String, Set<String>> linkKeyCache) {
+        Set<String> result = new HashSet<>();
+        for (String link : links) {
+            Set<String> keys = getBlockingKeysOfLink(link, linkKeyCache);
+            if (keys == null) {
+                return null;
+            }
+            result.addAll(keys);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the union of the blocking keys of all link sets.
+     *
+     * @param linkSets     The list of link sets.
+     * @param linkKeyCache Cache from link to blocking keys.
+     * @return The blocking keys or null if one of the links can not be blocked.
+     */
+    private Set<String> getBlockingKeysOfLinkSets(List<Set<String>> linkSets, Map<String, Set<String>> linkKeyCache) {
+        Set<String> result = new HashSet<>();
+        for (Set<String> links : linkSets) {
+            if (links.isEmpty()) {
+                result.add(EMPTY_SET_KEY);
+            }
+            Set<String> keys = getBlockingKeysOfLinks(links, linkKeyCache);
+            if (keys == null) {
+                return null;
+            }
+            result.addAll(keys);
+        }
+        return result;
+    }
+
+    /**
+     * Returns the blocking keys of token sets: the tokens themselves (for equal tokens) and the blocking keys
+     * of the linked tokens.
+     *
+     * @param tokenSets    The list of token sets.
+     * @param linkKeyCache Cache from link to blocking keys.
+     * @return The blocking keys or null if one of the links can not be blocked.
+     */
+    private Set<String> getBlockingKeysOfTokenSets(List<Set<String>> tokenSets, Map<String, Set<String>> linkKeyCache) {
+        Set<String> result = new HashSet<>();
+        for (Set<String> tokens : tokenSets) {
+            if (tokens.isEmpty()) {
+                result.add(EMPTY_SET_KEY);
+            }
+            for (String token : tokens) {
+                result.add(token);
+                String link = linker.linkToSingleConcept(token);
+                if (link != null) {
+                    Set<String> keys = getBlockingKeysOfLink(link, linkKeyCache);
+                    if (keys == null) {
+                        return null;
                     }
+                    result.addAll(keys);
                 }
-            } // end of target ontology loop
-        } // end of source ontology loop
+            }
+        }
+        return result;
     }
 
     /**
@@ -291,22 +506,20 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         Map<String, List<Set<String>>> uri2tokensMap_2 = convertToUriTokenMap(uri2labelMap_2, false);
         LOGGER.info("Conversion completed to URI -> Tokens map.");
 
-        for (HashMap.Entry<String, List<Set<String>>> uri2tokenLists_1 : uri2tokensMap_1.entrySet()) {
-            for (HashMap.Entry<String, List<Set<String>>> uri2tokenLists_2 : uri2tokensMap_2.entrySet()) {
-                Pair<Boolean, Double> isSynonymousConfidencePair = isTokenSetSynonymous(uri2tokenLists_1.getValue(), uri2tokenLists_2.getValue());
-                if (isSynonymousConfidencePair.getValue0()) {
-                    String uri1 = uri2tokenLists_1.getKey();
-                    String uri2 = uri2tokenLists_2.getKey();
-                    HashMap<String, Object> extensions = new HashMap<>();
-                    extensions.put("http://custom#addedInStep", "performTokenBasedSynonymyMatching()");
-                    alignment.add(uri1, uri2, isSynonymousConfidencePair.getValue1(), CorrespondenceRelation.EQUIVALENCE,
-                            extensions);
-                    if (isVerboseLoggingOutput) {
-                        LOGGER.info(uri1 + " " + uri2 + " (token based synonymy match)");
-                        LOGGER.info(uri1 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri1)) + ")");
-                        LOGGER.info(uri2 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2)) + ")");
-                    }
-                }
+        Map<String, Set<String>> linkKeyCache = new ConcurrentHashMap<>();
+        List<Triplet<String, String, Double>> matches = matchCandidates(uri2tokensMap_1, uri2tokensMap_2,
+                tokenSets -> getBlockingKeysOfTokenSets(tokenSets, linkKeyCache), this::isTokenSetSynonymous);
+        for (Triplet<String, String, Double> match : matches) {
+            String uri1 = match.getValue0();
+            String uri2 = match.getValue1();
+            HashMap<String, Object> extensions = new HashMap<>();
+            extensions.put("http://custom#addedInStep", "performTokenBasedSynonymyMatching()");
+            alignment.add(uri1, uri2, match.getValue2(), CorrespondenceRelation.EQUIVALENCE,
+                    extensions);
+            if (isVerboseLoggingOutput) {
+                LOGGER.info(uri1 + " " + uri2 + " (token based synonymy match)");
+                LOGGER.info(uri1 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri1)) + ")");
+                LOGGER.info(uri2 + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2)) + ")");
             }
         }
     }
@@ -396,21 +609,18 @@ public class BackgroundMatcher extends MatcherYAAAJena {
         Map<String, List<Set<String>>> uri2linksMap_2 = convertToUriLinksMap(uri2labelMap_2, false);
         LOGGER.info("URI 2 n-links map built.");
 
-        for (HashMap.Entry<String, List<Set<String>>> uri2links_1 : uri2linksMap_1.entrySet()) {
-            for (HashMap.Entry<String, List<Set<String>>> uri2links_2 : uri2linksMap_2.entrySet()) {
-                Pair<Boolean, Double> isSynonymousConfidencePair = isLinkListSynonymous(uri2links_1.getValue(),
-                        uri2links_2.getValue());
-                if (isSynonymousConfidencePair.getValue0()) {
-                    HashMap<String, Object> extensions = new HashMap<>();
-                    extensions.put("http://custom#addedInStep", "longsestStringMatch");
-                    alignment.add(uri2links_1.getKey(), uri2links_2.getKey(), isSynonymousConfidencePair.getValue1(),
-                            CorrespondenceRelation.EQUIVALENCE, extensions);
-                    if (isVerboseLoggingOutput) {
-                        LOGGER.info(uri2links_1.getKey() + " " + uri2links_2.getKey() + " (longest string synonymy match)");
-                        LOGGER.info(uri2links_1.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(uri2links_1.getKey())) + ")");
-                        LOGGER.info(uri2links_2.getKey() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(uri2links_2.getKey())) + ")");
-                    }
-                }
+        Map<String, Set<String>> linkKeyCache = new ConcurrentHashMap<>();
+        List<Triplet<String, String, Double>> matches = matchCandidates(uri2linksMap_1, uri2linksMap_2,
+                linkSets -> getBlockingKeysOfLinkSets(linkSets, linkKeyCache), this::isLinkListSynonymous);
+        for (Triplet<String, String, Double> match : matches) {
+            HashMap<String, Object> extensions = new HashMap<>();
+            extensions.put("http://custom#addedInStep", "longsestStringMatch");
+            alignment.add(match.getValue0(), match.getValue1(), match.getValue2(),
+                    CorrespondenceRelation.EQUIVALENCE, extensions);
+            if (isVerboseLoggingOutput) {
+                LOGGER.info(match.getValue0() + " " + match.getValue1() + " (longest string synonymy match)");
+                LOGGER.info(match.getValue0() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_1.get(match.getValue0())) + ")");
+                LOGGER.info(match.getValue1() + ": (" + IOoperations.convertSetToStringPipeSeparated(uri2labelMap_2.get(match.getValue1())) + ")");
             }
         }
     }
@@ -759,4 +969,33 @@ public class BackgroundMatcher extends MatcherYAAAJena {
     public boolean isSynonymyConfidenceAvailable() {
         return isSynonymyConfidenceAvailable;
     }
+
+    public boolean isBlocking() {
+        return isBlocking;
+    }
+
+    /**
+     * If blocking is enabled, only resources which share at least one blocking key are compared. The keys are
+     * provided by the knowledge source (see {@link SemanticWordRelationDictionary#getBlockingKeys(String, boolean)})
+     * and are complete such that the alignment is the same as without blocking.
+     * Knowledge sources which do not provide keys are compared pairwise.
+     * @param blocking True if blocking shall be used.
+     */
+    public void setBlocking(boolean blocking) {
+        isBlocking = blocking;
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads which are used to compare the candidate pairs (partitioned by source resource).
+     * The resulting alignment is the same for any number of threads.
+     * If more than one thread is used, the knowledge source and its linker have to be thread safe.
+     * @param numberOfThreads number of threads (one or less means everything is executed in the calling thread).
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
 }
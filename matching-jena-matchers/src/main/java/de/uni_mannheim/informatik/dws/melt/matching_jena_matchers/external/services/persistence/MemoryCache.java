@@ -0,0 +1,316 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+
+/**
+ * A thread safe, bounded in-memory cache with least recently used (LRU) eviction, an optional time to live
+ * and hit/miss statistics.
+ * It is used by the {@link PersistenceService} as first level in front of the MapDB persistences.
+ * Absent keys can be cached as well (see {@link #putAbsent(Object)}) so that repeated lookups of unknown keys
+ * do not hit the disk.
+ * Values which are loaded concurrently to a write can be added with a version (see {@link #getVersion(Object)} and
+ * {@link #put(Object, Object, long)}): they are only stored if the key was not invalidated in the meantime.
+ *
+ * @param <K> Type of the key.
+ * @param <V> Type of the value.
+ */
+public class MemoryCache<K, V> {
+
+
+    /**
+     * Marker for keys which are known to be absent.
+     */
+    private static final Object ABSENT = new Object();
+
+    /**
+     * Number of version counters. Keys are mapped to the counters by their hash code.
+     */
+    private static final int VERSION_STRIPES = 64;
+
+    /**
+     * The entries in access order.
+     */
+    private final LinkedHashMap<K, Entry> entries;
+
+    /**
+     * The maximum number of entries.
+     */
+    private final int maximumSize;
+
+    /**
+     * Time to live of an entry in milliseconds (after it was written). Zero or less means no expiry.
+     */
+    private final long timeToLiveMillis;
+
+    /**
+     * Versions of the keys (striped by hash code). A version is increased whenever a key of the stripe is invalidated.
+     */
+    private final long[] versions;
+
+    private long hitCount;
+    private long missCount;
+    private long evictionCount;
+
+    /**
+     * Constructor
+     *
+     * @param maximumSize The maximum number of entries (the least recently used ones are removed first).
+     * @param timeToLiveMillis Time to live of an entry in milliseconds. Zero or less means that entries never expire.
+     */
+    public MemoryCache(int maximumSize, long timeToLiveMillis) {
+        this.maximumSize = maximumSize;
+        this.timeToLiveMillis = timeToLiveMillis;
+        this.versions = new long[VERSION_STRIPES];
+        this.entries = new LinkedHashMap<K, Entry>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry> eldest) {
+                if (size() > MemoryCache.this.maximumSize) {
+                    evictionCount++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Look up a key.
+     *
+     * @param key The key.
+     * @return A lookup result or null if the key is not cached (or expired).
+     */
+    public synchronized Lookup<V> get(Object key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            missCount++;
+            return null;
+        }
+        if (isExpired(entry)) {
+            entries.remove(key);
+            evictionCount++;
+            missCount++;
+            return null;
+        }
+        hitCount++;
+        return new Lookup<>(entry.value == ABSENT ? null : (V) entry.value, entry.value != ABSENT);
+    }
+
+    /**
+     * Add a value.
+     *
+     * @param key The key.
+     * @param value The value (not null).
+     */
+    public synchronized void put(K key, V value) {
+        entries.put(key, new Entry(value, System.currentTimeMillis()));
+    }
+
+    /**
+     * Add a value if the key was not invalidated since the given version was retrieved.
+     *
+     * @param key The key.
+     * @param value The value (not null).
+     * @param version The version of the key (see {@link #getVersion(Object)}) before the value was read.
+     * @return True if the value was added, false if the key was invalidated in the meantime.
+     */
+    public synchronized boolean put(K key, V value, long version) {
+        if (getVersion(key) != version) {
+            return false;
+        }
+        put(key, value);
+        return true;
+    }
+
+    /**
+     * Remember that the key is absent.
+     *
+     * @param key The key.
+     */
+    public synchronized void putAbsent(K key) {
+        entries.put(key, new Entry(ABSENT, System.currentTimeMillis()));
+    }
+
+    /**
+     * Remember that the key is absent if it was not invalidated since the given version was retrieved.
+     *
+     * @param key The key.
+     * @param version The version of the key (see {@link #getVersion(Object)}) before the absence was determined.
+     * @return True if the absence was added, false if the key was invalidated in the meantime.
+     */
+    public synchronized boolean putAbsent(K key, long version) {
+        if (getVersion(key) != version) {
+            return false;
+        }
+        putAbsent(key);
+        return true;
+    }
+
+    /**
+     * Get the current version of the key. It changes whenever the key is invalidated.
+     * Retrieve it before reading a value from the underlying store and pass it to {@link #put(Object, Object, long)}
+     * or {@link #putAbsent(Object, long)} such that a value which was read before a concurrent write is not cached.
+     *
+     * @param key The key.
+     * @return The version.
+     */
+    public synchronized long getVersion(Object key) {
+        return versions[stripe(key)];
+    }
+
+    /**
+     * Remove the key from the cache.
+     *
+     * @param key The key.
+     */
+    public synchronized void invalidate(Object key) {
+        entries.remove(key);
+        versions[stripe(key)]++;
+    }
+
+    /**
+     * Remove all entries.
+     */
+    public synchronized void invalidateAll() {
+        entries.clear();
+        for (int i = 0; i < versions.length; i++) {
+            versions[i]++;
+        }
+    }
+
+    /**
+     * Remove all expired entries.
+     */
+    public synchronized void cleanUp() {
+        if (timeToLiveMillis <= 0) {
+            return;
+        }
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            if (isExpired(iterator.next())) {
+                iterator.remove();
+                evictionCount++;
+            }
+        }
+    }
+
+    /**
+     * Get the number of cached entries (including absent markers).
+     *
+     * @return Number of entries.
+     */
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    public int getMaximumSize() {
+        return maximumSize;
+    }
+
+    public long getTimeToLiveMillis() {
+        return timeToLiveMillis;
+    }
+
+    /**
+     * Get a snapshot of the statistics.
+     *
+     * @return The statistics.
+     */
+    public synchronized Stats getStats() {
+        return new Stats(hitCount, missCount, evictionCount);
+    }
+
+    private static int stripe(Object key) {
+        return (key == null ? 0 : key.hashCode() & Integer.MAX_VALUE) % VERSION_STRIPES;
+    }
+
+    private boolean isExpired(Entry entry) {
+        return timeToLiveMillis > 0 && System.currentTimeMillis() - entry.writeTime > timeToLiveMillis;
+    }
+
+    private static class Entry {
+        private final Object value;
+        private final long writeTime;
+
+        Entry(Object value, long writeTime) {
+            this.value = value;
+            this.writeTime = writeTime;
+        }
+    }
+
+    /**
+     * The result of a cache lookup.
+     *
+     * @param <V> Type of the value.
+     */
+    public static class Lookup<V> {
+        private final V value;
+        private final boolean present;
+
+        Lookup(V value, boolean present) {
+            this.value = value;
+            this.present = present;
+        }
+
+        /**
+         * @return The value or null if the key is known to be absent.
+         */
+        public V getValue() {
+            return value;
+        }
+
+        /**
+         * @return True if the key is present in the underlying store, false if it is known to be absent.
+         */
+        public boolean isPresent() {
+            return present;
+        }
+    }
+
+    /**
+     * Hit and miss statistics of a {@link MemoryCache}.
+     */
+    public static class Stats {
+        private final long hitCount;
+        private final long missCount;
+        private final long evictionCount;
+
+        Stats(long hitCount, long missCount, long evictionCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.evictionCount = evictionCount;
+        }
+
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        public long getMissCount() {
+            return missCount;
+        }
+
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        public long getRequestCount() {
+            return hitCount + missCount;
+        }
+
+        /**
+         * @return The ratio of hits to requests (1.0 if there was no request).
+         */
+        public double getHitRate() {
+            long requests = getRequestCount();
+            return requests == 0 ? 1.0 : (double) hitCount / requests;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + ", misses=" + missCount + ", evictions=" + evictionCount
+                    + ", hitRate=" + String.format("%.4f", getHitRate()) + "}";
+        }
+    }
+}
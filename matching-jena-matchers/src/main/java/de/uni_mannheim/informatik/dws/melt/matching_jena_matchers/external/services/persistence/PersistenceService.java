@@ -10,8 +10,16 @@ import org.slf4j.LoggerFactory;
 
 import java.io.File;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
 
 
 /**
@@ -40,11 +48,60 @@ public class PersistenceService {
      */
     private Map<PreconfiguredPersistences, DB> activeDatabases;
 
+    /**
+     * In-memory caches in front of the databases. There is one cache per persistence which is shared by all
+     * users of the persistence (e.g. all linkers and knowledge sources of the same source).
+     */
+    private Map<PreconfiguredPersistences, MemoryCache> memoryCaches;
+
+    /**
+     * Maximum number of entries of the in-memory cache of each persistence. Zero or less disables the in-memory cache.
+     */
+    private int memoryCacheSize = 100000;
+
+    /**
+     * Time to live of the in-memory cache entries in milliseconds. Zero or less means that entries never expire.
+     */
+    private long memoryCacheTimeToLiveMillis = 0;
+
+    /**
+     * Requested commits are executed asynchronously at the latest after this number of milliseconds.
+     * Zero or less means that every commit is executed immediately.
+     */
+    private long commitIntervalMillis = 2000;
+
+    /**
+     * Requested commits are executed asynchronously as soon as this number of commits has been requested.
+     */
+    private int commitBatchSize = 500;
+
+    /**
+     * Persistences which have uncommitted changes.
+     */
+    private final Set<PreconfiguredPersistences> uncommittedPersistences = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Number of commit requests since the last executed commit.
+     */
+    private final AtomicInteger pendingCommits = new AtomicInteger();
+
+    /**
+     * True if a commit is scheduled.
+     */
+    private final AtomicBoolean isCommitScheduled = new AtomicBoolean(false);
+
+    /**
+     * Executor for the asynchronous commits.
+     */
+    private ScheduledExecutorService commitExecutor;
+
     /**
      * Private constructor, singleton pattern.
      */
     private PersistenceService() {
         activeDatabases = new HashMap<>();
+        memoryCaches = new HashMap<>();
+        Runtime.getRuntime().addShutdownHook(new Thread(this::closePersistenceService));
     }
 
     /**
@@ -52,7 +109,7 @@ public class PersistenceService {
      *
      * @return Persistence service instance.
      */
-    public static PersistenceService getService() {
+    public static synchronized PersistenceService getService() {
         if (service == null) {
             service = new PersistenceService();
         }
@@ -61,15 +118,17 @@ public class PersistenceService {
 
     /**
      * Obtain a pre-configured persistence.
+     * If the in-memory cache is enabled (see {@link #setMemoryCacheSize(int)}), the returned map answers repeated
+     * lookups from memory without deserializing the value from disk.
      *
      * @param desiredPersistence The persistence that shall be obtained.
      * @return Database
      */
-    public ConcurrentMap getMapDatabase(PreconfiguredPersistences desiredPersistence) {
+    public synchronized ConcurrentMap getMapDatabase(PreconfiguredPersistences desiredPersistence) {
         if(activeDatabases.containsKey(desiredPersistence)){
-            return activeDatabases.get(desiredPersistence)
+            return withMemoryCache(desiredPersistence, activeDatabases.get(desiredPersistence)
                     .hashMap("map", desiredPersistence.getKeySerializer(), desiredPersistence.getValueSerializer())
-                    .open();
+                    .open());
         }
 
         if (new File(desiredPersistence.getFilePath()).getParentFile().mkdir()) {
@@ -82,27 +141,92 @@ public class PersistenceService {
                 //.fileLockDisable() // ignore file lock
                 .transactionEnable()
                 //.checksumHeaderBypass() // ignore header checksum (should work in *most* cases in which writing was interrupted
-                .closeOnJvmShutdown()
+                // no closeOnJvmShutdown(): the shutdown hook of this service commits pending changes and closes the databases
                 .make();
         activeDatabases.put(desiredPersistence, db);
-        return db
+        return withMemoryCache(desiredPersistence, db
                 .hashMap("map", desiredPersistence.getKeySerializer(), desiredPersistence.getValueSerializer())
-                .createOrOpen();
+                .createOrOpen());
     }
 
+    /**
+     * Wrap the database map with the (shared) in-memory cache of the persistence.
+     * @param persistence The persistence.
+     * @param databaseMap The map of the database.
+     * @return The map with in-memory cache or the database map if the in-memory cache is disabled.
+     */
+    private ConcurrentMap withMemoryCache(PreconfiguredPersistences persistence, ConcurrentMap databaseMap){
+        if(memoryCacheSize <= 0){
+            return databaseMap;
+        }
+        MemoryCache memoryCache = memoryCaches.computeIfAbsent(persistence,
+                p -> new MemoryCache<>(memoryCacheSize, memoryCacheTimeToLiveMillis));
+        return new TwoLevelCacheMap<>(memoryCache, databaseMap);
+    }
+
+    /**
+     * Request a commit of the given persistence.
+     * The commit is executed asynchronously: Commits are batched and executed after {@link #getCommitIntervalMillis()}
+     * milliseconds or as soon as {@link #getCommitBatchSize()} commits have been requested, whatever comes first.
+     * Use {@link #flush()} to commit all pending changes immediately.
+     * @param persistence The persistence to be committed.
+     */
     public void commit(PreconfiguredPersistences persistence){
-        if(!activeDatabases.containsKey(persistence)){
-            LOGGER.warn("Cannot commit for " + persistence + " - DB not active.");
-            return;
+        synchronized (this) {
+            if (!activeDatabases.containsKey(persistence)) {
+                LOGGER.warn("Cannot commit for " + persistence + " - DB not active.");
+                return;
+            }
+            if (commitIntervalMillis <= 0) {
+                activeDatabases.get(persistence).commit();
+                return;
+            }
+        }
+        uncommittedPersistences.add(persistence);
+        if(pendingCommits.incrementAndGet() == commitBatchSize){
+            getCommitExecutor().execute(this::flush);
+        } else if(isCommitScheduled.compareAndSet(false, true)){
+            getCommitExecutor().schedule(this::flush, commitIntervalMillis, TimeUnit.MILLISECONDS);
         }
-        activeDatabases.get(persistence).commit();
+    }
+
+    /**
+     * Commit all pending changes immediately.
+     */
+    public synchronized void flush(){
+        isCommitScheduled.set(false);
+        pendingCommits.set(0);
+        Iterator<PreconfiguredPersistences> iterator = uncommittedPersistences.iterator();
+        while(iterator.hasNext()){
+            PreconfiguredPersistences persistence = iterator.next();
+            iterator.remove();
+            DB db = activeDatabases.get(persistence);
+            if(db != null && !db.isClosed()){
+                try {
+                    db.commit();
+                } catch (RuntimeException e){
+                    LOGGER.warn("Could not commit persistence " + persistence + ".", e);
+                }
+            }
+        }
+    }
+
+    private synchronized ScheduledExecutorService getCommitExecutor(){
+        if(commitExecutor == null){
+            commitExecutor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+                Thread thread = new Thread(runnable, "PersistenceServiceCommitter");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return commitExecutor;
     }
 
     /**
      * Close a single persistence.
      * @param persistence The persistence to be closed.
      */
-    public void closeDatabase(PreconfiguredPersistences persistence){
+    public synchronized void closeDatabase(PreconfiguredPersistences persistence){
 
         if(!activeDatabases.containsKey(persistence)){
             LOGGER.warn("Cannot close persistence " + persistence + " - not active.");
@@ -113,13 +237,19 @@ public class PersistenceService {
         }
         activeDatabases.get(persistence).close();
         activeDatabases.remove(persistence);
+        uncommittedPersistences.remove(persistence);
+        MemoryCache memoryCache = memoryCaches.remove(persistence);
+        if(memoryCache != null){
+            LOGGER.debug("In-memory cache of " + persistence + ": " + memoryCache.getStats());
+        }
     }
 
     /**
      * Close all opened databases and shut down service.
      * Make sure that dependent services are also closed.
      */
-    public void closePersistenceService() {
+    public synchronized void closePersistenceService() {
+        flush();
         // close all databases
         for (DB db : activeDatabases.values()) {
             if(!db.isClosed()){
@@ -129,6 +259,67 @@ public class PersistenceService {
         }
         // remove all active DBs
         activeDatabases = new HashMap<>();
+        memoryCaches = new HashMap<>();
+    }
+
+    /**
+     * Get the statistics of the in-memory cache of the given persistence.
+     * @param persistence The persistence.
+     * @return The statistics or null if the persistence has no in-memory cache.
+     */
+    public synchronized MemoryCache.Stats getMemoryCacheStats(PreconfiguredPersistences persistence){
+        MemoryCache memoryCache = memoryCaches.get(persistence);
+        return memoryCache == null ? null : memoryCache.getStats();
+    }
+
+    public int getMemoryCacheSize() {
+        return memoryCacheSize;
+    }
+
+    /**
+     * Set the maximum number of entries of the in-memory cache of each persistence.
+     * Only applies to persistences which are obtained afterwards (and have no in-memory cache yet).
+     * @param memoryCacheSize Maximum number of entries. Zero or less disables the in-memory cache.
+     */
+    public void setMemoryCacheSize(int memoryCacheSize) {
+        this.memoryCacheSize = memoryCacheSize;
+    }
+
+    public long getMemoryCacheTimeToLiveMillis() {
+        return memoryCacheTimeToLiveMillis;
+    }
+
+    /**
+     * Set the time to live of the in-memory cache entries.
+     * Only applies to persistences which are obtained afterwards (and have no in-memory cache yet).
+     * @param memoryCacheTimeToLiveMillis Time to live in milliseconds. Zero or less means that entries never expire.
+     */
+    public void setMemoryCacheTimeToLiveMillis(long memoryCacheTimeToLiveMillis) {
+        this.memoryCacheTimeToLiveMillis = memoryCacheTimeToLiveMillis;
+    }
+
+    public long getCommitIntervalMillis() {
+        return commitIntervalMillis;
+    }
+
+    /**
+     * Set the maximal delay of a requested commit.
+     * @param commitIntervalMillis Delay in milliseconds. Zero or less means that every commit is executed immediately.
+     */
+    public void setCommitIntervalMillis(long commitIntervalMillis) {
+        this.commitIntervalMillis = commitIntervalMillis;
+    }
+
+    public int getCommitBatchSize() {
+        return commitBatchSize;
+    }
+
+    /**
+     * Set the number of requested commits after which the changes are committed (without waiting for the interval).
+     * @param commitBatchSize Number of requested commits.
+     */
+    public void setCommitBatchSize(int commitBatchSize) {
+        this.commitBatchSize = commitBatchSize;
     }
 
     /**
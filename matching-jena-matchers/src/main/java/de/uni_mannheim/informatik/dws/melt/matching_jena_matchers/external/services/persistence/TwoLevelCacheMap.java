@@ -0,0 +1,136 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
+
+import java.util.AbstractMap;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentMap;
+
+
+/**
+ * A {@link ConcurrentMap} which answers lookups from an in-memory {@link MemoryCache} (first level) and only falls
+ * back to the persistent map (second level, e.g. MapDB) on a miss.
+ * All writes go to the second level and invalidate the first level, thus the first level only holds values read
+ * from the second level and never a (mutable) value of a caller. Several instances can share the same first level
+ * as long as they wrap the same second level.
+ * Values of the first level are shared by all readers: callers must not modify returned values (copy them instead).
+ *
+ * @param <K> Type of the key.
+ * @param <V> Type of the value.
+ */
+class TwoLevelCacheMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+
+    /**
+     * First level: in memory.
+     */
+    private final MemoryCache<K, V> memoryCache;
+
+    /**
+     * Second level: persistent.
+     */
+    private final ConcurrentMap<K, V> persistentMap;
+
+    TwoLevelCacheMap(MemoryCache<K, V> memoryCache, ConcurrentMap<K, V> persistentMap) {
+        this.memoryCache = memoryCache;
+        this.persistentMap = persistentMap;
+    }
+
+    @Override
+    public V get(Object key) {
+        MemoryCache.Lookup<V> lookup = memoryCache.get(key);
+        if (lookup != null) {
+            return lookup.getValue();
+        }
+        return load(key);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        MemoryCache.Lookup<V> lookup = memoryCache.get(key);
+        if (lookup != null) {
+            return lookup.isPresent();
+        }
+        return load(key) != null;
+    }
+
+    /**
+     * Read the value from the second level and store it (or its absence) in the first level.
+     * If the key is written concurrently, the (possibly outdated) value is not stored in the first level.
+     *
+     * @param key The key.
+     * @return The value or null if not present.
+     */
+    private V load(Object key) {
+        long version = memoryCache.getVersion(key);
+        V value = persistentMap.get(key);
+        K typedKey = (K) key;
+        if (value == null) {
+            memoryCache.putAbsent(typedKey, version);
+        } else {
+            memoryCache.put(typedKey, value, version);
+        }
+        return value;
+    }
+
+    @Override
+    public V put(K key, V value) {
+        V previous = persistentMap.put(key, value);
+        memoryCache.invalidate(key);
+        return previous;
+    }
+
+    @Override
+    public V remove(Object key) {
+        V previous = persistentMap.remove(key);
+        memoryCache.invalidate(key);
+        return previous;
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        V previous = persistentMap.putIfAbsent(key, value);
+        memoryCache.invalidate(key);
+        return previous;
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        boolean removed = persistentMap.remove(key, value);
+        memoryCache.invalidate(key);
+        return removed;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        boolean replaced = persistentMap.replace(key, oldValue, newValue);
+        memoryCache.invalidate(key);
+        return replaced;
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        V previous = persistentMap.replace(key, value);
+        memoryCache.invalidate(key);
+        return previous;
+    }
+
+    @Override
+    public void clear() {
+        persistentMap.clear();
+        memoryCache.invalidateAll();
+    }
+
+    @Override
+    public int size() {
+        return persistentMap.size();
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return Collections.unmodifiableSet(persistentMap.entrySet());
+    }
+
+    MemoryCache<K, V> getMemoryCache() {
+        return memoryCache;
+    }
+}
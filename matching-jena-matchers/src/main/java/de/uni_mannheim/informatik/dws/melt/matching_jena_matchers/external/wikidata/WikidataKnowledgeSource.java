@@ -158,6 +158,24 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
         return false;
     }
 
+    /**
+     * Two links are synonymous if they share a URI (see {@link #isStrongFormSynonymous(String, String)}), thus the
+     * URIs are the blocking keys.
+     * @param linkedConcept The linked concept.
+     * @param includeHypernyms True if the keys should also cover the hypernymy relation.
+     * @return The URIs of the link or null if hypernyms shall be included.
+     */
+    @Override
+    public Set<String> getBlockingKeys(String linkedConcept, boolean includeHypernyms) {
+        if(includeHypernyms) {
+            return null;
+        }
+        if(linkedConcept == null) {
+            return new HashSet<>();
+        }
+        return new HashSet<>(linker.getUris(linkedConcept));
+    }
+
     /**
      * Ask query with label.
      *
@@ -205,7 +223,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
     public HashSet<String> getSynonyms(String linkedConcept, Language language) {
         String key = linkedConcept + "_" + language.toSparqlChar2();
         if (synonymyBuffer.containsKey(key)) {
-            return synonymyBuffer.get(key);
+            return new HashSet<>(synonymyBuffer.get(key));
         }
 
         HashSet<String> result = new HashSet<>();
@@ -652,7 +670,7 @@ public class WikidataKnowledgeSource extends SemanticWordRelationDictionary {
         String key = linkedConcept + "_hypernym_uris";
 
         if(hypernymyBuffer.containsKey(key)){
-            return hypernymyBuffer.get(key);
+            return new HashSet<>(hypernymyBuffer.get(key));
         }
 
         if (linkedConcept.startsWith(WikidataLinker.MULTI_CONCEPT_PREFIX)) {
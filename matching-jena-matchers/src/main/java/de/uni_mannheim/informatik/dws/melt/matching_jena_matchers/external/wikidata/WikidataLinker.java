@@ -144,7 +144,7 @@ public class WikidataLinker implements LabelToConceptLinker, MultiConceptLinker
             return result;
         }
         if(multiLinkStore.containsKey(multiConceptLink)){
-            return multiLinkStore.get(multiConceptLink);
+            return new HashSet<>(multiLinkStore.get(multiConceptLink));
         }
         return result;
     }
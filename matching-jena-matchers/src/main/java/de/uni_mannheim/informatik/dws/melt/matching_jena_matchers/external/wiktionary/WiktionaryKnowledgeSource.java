@@ -238,6 +238,34 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
         return false;
     }
 
+    /**
+     * The synonyms are compared in encoded form (see {@link #isStrongFormSynonymous(String, String)}), thus the link
+     * and its encoded synonyms are the blocking keys.
+     * @param linkedConcept The linked concept.
+     * @param includeHypernyms True if the keys should also cover the hypernymy relation.
+     * @return The set of keys.
+     */
+    @Override
+    public Set<String> getBlockingKeys(String linkedConcept, boolean includeHypernyms) {
+        Set<String> keys = new HashSet<>();
+        if(linkedConcept == null) {
+            return keys;
+        }
+        keys.add(linkedConcept);
+        Set<String> synonyms = getSynonymsEncoded(linkedConcept);
+        if(synonyms != null) {
+            keys.addAll(synonyms);
+        }
+        if(includeHypernyms) {
+            Set<String> hypernyms = getHypernyms(linkedConcept);
+            if(hypernyms != null) {
+                keys.addAll(hypernyms);
+            }
+        }
+        keys.remove("");
+        return keys;
+    }
+
     public Set<String> getSynonymsEncoded(String linkedConcept){
         Set<String> result = getSynonymsLexical(linkedConcept);
         if(result == null){
@@ -268,7 +296,7 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
     public HashSet<String> getSynonyms(String word, Language language) {
         word = encodeWord(word);
         if (synonymyBuffer.containsKey(word + "_" + language.toWiktionaryChar3())) {
-            return synonymyBuffer.get(word + "_" + language.toWiktionaryChar3());
+            return new HashSet<>(synonymyBuffer.get(word + "_" + language.toWiktionaryChar3()));
         }
         HashSet<String> result = new HashSet<>();
         String queryString =
@@ -367,7 +395,7 @@ public class WiktionaryKnowledgeSource extends SemanticWordRelationDictionary {
         linkedConcept = encodeWord(linkedConcept);
         String key = linkedConcept + "_" + language.toSparqlChar2();
         if (hypernymyBuffer.containsKey(key)) {
-            return hypernymyBuffer.get(key);
+            return new HashSet<>(hypernymyBuffer.get(key));
         }
         String queryString = "PREFIX dbnary: <http://kaiko.getalp.org/dbnary#>\n" +
                 "PREFIX rdf: <http://www.w3.org/1999/02/22-rdf-syntax-ns#>\n" +
@@ -29,7 +29,8 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extrac
  */
 
 /**
- * Helper Class for {@link HungarianExtractor}.
+ * Dense implementation of the Hungarian algorithm (needs a matrix of size sources times targets).
+ * {@link HungarianExtractor} uses the sparse {@link SparseAssignmentSolver}. This class is kept as a reference implementation.
  */
 class HungarianAlgorithm {
 
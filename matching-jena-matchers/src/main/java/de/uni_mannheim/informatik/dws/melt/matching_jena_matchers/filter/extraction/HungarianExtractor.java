@@ -6,21 +6,26 @@ import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 import java.util.ArrayList;
-import java.util.Collections;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.IntStream;
 import org.apache.jena.ontology.OntModel;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * This implementation uses the Hungarian algorithm to find a one to one mapping.
- * The runtime highly depends on the lower number of concepts (source or target) of the alignment as well as the number of correspondences.
- * If a better runtime is needed, use {@link MaxWeightBipartiteExtractor}.
+ * This implementation solves the assignment problem (like the Hungarian algorithm) to find a one to one mapping with maximum total confidence.
+ * Only equivalence correspondences are considered.
+ * The correspondences are split into connected components which are solved in parallel with a sparse shortest augmenting path
+ * algorithm (see {@link SparseAssignmentSolver}). Thus the memory is linear in the number of correspondences and
+ * the runtime mainly depends on the size of the largest component.
  */
 public class HungarianExtractor extends MatcherYAAAJena implements Filter {
 
@@ -33,52 +38,139 @@ public class HungarianExtractor extends MatcherYAAAJena implements Filter {
     }
     
     public static Alignment filter(Alignment inputAlignment){
-        if(inputAlignment.getDistinctConfidencesAsSet().size() == 1){
-            // Alignment api says that hungarian algorithm runs in infinite loop when all correspondences have the same
-            // confidence.
-            // We use NaiveDescendingExtractor here to obtain deterministic results.
-            LOGGER.warn("The input alignment has only one confidence. Defaulting to make a random one to one alignment.");
-            return NaiveDescendingExtractor.filter(inputAlignment);
-        }
-    
-        List<String> sources = new ArrayList<>();
-        inputAlignment.getDistinctSources().forEach(sources::add);
-        Collections.sort(sources);//make deterministic
+        List<Correspondence> correspondences = new ArrayList<>();
+        inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE).forEach(correspondences::add);
+        //make deterministic
+        correspondences.sort(Comparator.comparing(Correspondence::getEntityOne).thenComparing(Correspondence::getEntityTwo));
         
-        List<String> targets = new ArrayList<>();
-        inputAlignment.getDistinctTargets().forEach(targets::add);
-        Collections.sort(targets);//make deterministic
+        Set<String> sourceSet = new TreeSet<>();
+        Set<String> targetSet = new TreeSet<>();
+        for(Correspondence c : correspondences){
+            sourceSet.add(c.getEntityOne());
+            targetSet.add(c.getEntityTwo());
+        }
+        Map<String, Integer> sourceMap = getPositionMap(new ArrayList<>(sourceSet));
+        Map<String, Integer> targetMap = getPositionMap(new ArrayList<>(targetSet));
+        int numberOfSources = sourceMap.size();
         
-        boolean switchSourceTarget = sources.size() > targets.size();
+        //nodes: sources have ids 0 to numberOfSources - 1 and targets numberOfSources + target position
+        int[] edgeSource = new int[correspondences.size()];
+        int[] edgeTarget = new int[correspondences.size()];
+        double[] edgeWeight = new double[correspondences.size()];
+        int[] parent = new int[numberOfSources + targetMap.size()];
+        for(int i = 0; i < parent.length; i++){
+            parent[i] = i;
+        }
+        for(int e = 0; e < correspondences.size(); e++){
+            Correspondence c = correspondences.get(e);
+            edgeSource[e] = sourceMap.get(c.getEntityOne());
+            edgeTarget[e] = numberOfSources + targetMap.get(c.getEntityTwo());
+            edgeWeight[e] = c.getConfidence();
+            union(parent, edgeSource[e], edgeTarget[e]);
+        }
         
-        //generate array
-        double[][] values = switchSourceTarget ? new double[targets.size()][sources.size()] : new double[sources.size()][targets.size()];
-        Map<String, Integer> sourceMap = getPositionMap(sources);
-        Map<String, Integer> targetMap = getPositionMap(targets);
-        for(Correspondence c : inputAlignment.getCorrespondencesRelation(CorrespondenceRelation.EQUIVALENCE)){
-            int sourcePostion = sourceMap.get(c.getEntityOne());
-            int targetPosition = targetMap.get(c.getEntityTwo());
-            if(switchSourceTarget)
-                values[targetPosition][sourcePostion] = c.getConfidence();
-            else
-                values[sourcePostion][targetPosition] = c.getConfidence();
+        //group the edges by connected component (counting sort)
+        int[] componentOfRoot = new int[parent.length];
+        Arrays.fill(componentOfRoot, -1);
+        int[] edgeComponent = new int[correspondences.size()];
+        int numberOfComponents = 0;
+        for(int e = 0; e < edgeSource.length; e++){
+            int root = find(parent, edgeSource[e]);
+            if(componentOfRoot[root] < 0)
+                componentOfRoot[root] = numberOfComponents++;
+            edgeComponent[e] = componentOfRoot[root];
         }
+        int[] componentStart = new int[numberOfComponents + 1];
+        for(int component : edgeComponent){
+            componentStart[component + 1]++;
+        }
+        for(int i = 0; i < numberOfComponents; i++){
+            componentStart[i + 1] += componentStart[i];
+        }
+        int[] componentEdges = new int[edgeSource.length];
+        int[] position = Arrays.copyOf(componentStart, numberOfComponents);
+        for(int e = 0; e < edgeSource.length; e++){
+            componentEdges[position[edgeComponent[e]]++] = e;
+        }
+        LOGGER.debug("Solve assignment problem for {} correspondences in {} connected components.", edgeSource.length, numberOfComponents);
         
-        int[][] assignment = HungarianAlgorithm.hgAlgorithm(values, "max");
+        //components are independent and can be solved in parallel (each writes only its own entries in selected and localId)
+        boolean[] selected = new boolean[edgeSource.length];
+        int[] localId = new int[parent.length];
+        IntStream.range(0, numberOfComponents).parallel().forEach(component -> solveComponent(
+                componentEdges, componentStart[component], componentStart[component + 1], 
+                edgeSource, edgeTarget, edgeWeight, localId, selected));
         
         Set<Correspondence> goodCorrespondences = new HashSet<>();
-        for (int i = 0; i < assignment.length; i++){
-            if(switchSourceTarget){
-                goodCorrespondences.add(inputAlignment.getCorrespondence(sources.get(assignment[i][1]), targets.get(assignment[i][0]), CorrespondenceRelation.EQUIVALENCE));
-            }else{
-                goodCorrespondences.add(inputAlignment.getCorrespondence(sources.get(assignment[i][0]), targets.get(assignment[i][1]), CorrespondenceRelation.EQUIVALENCE));
-            }
+        for(int e = 0; e < selected.length; e++){
+            if(selected[e])
+                goodCorrespondences.add(correspondences.get(e));
         }
         
         inputAlignment.retainAll(goodCorrespondences);
         return inputAlignment;
     }
     
+    private static void solveComponent(int[] componentEdges, int from, int to, int[] edgeSource, int[] edgeTarget, double[] edgeWeight, 
+            int[] localId, boolean[] selected){
+        int numberOfSources = 0;
+        int numberOfTargets = 0;
+        for(int k = from; k < to; k++){
+            int e = componentEdges[k];
+            localId[edgeSource[e]] = -1;
+            localId[edgeTarget[e]] = -1;
+        }
+        for(int k = from; k < to; k++){
+            int e = componentEdges[k];
+            if(localId[edgeSource[e]] < 0)
+                localId[edgeSource[e]] = numberOfSources++;
+            if(localId[edgeTarget[e]] < 0)
+                localId[edgeTarget[e]] = numberOfTargets++;
+        }
+        //the smaller side is the left side because the solver runs one augmentation per left node
+        boolean switchSourceTarget = numberOfSources > numberOfTargets;
+        int size = to - from;
+        int[] left = new int[size];
+        int[] right = new int[size];
+        double[] weight = new double[size];
+        for(int k = 0; k < size; k++){
+            int e = componentEdges[from + k];
+            int source = localId[edgeSource[e]];
+            int target = localId[edgeTarget[e]];
+            left[k] = switchSourceTarget ? target : source;
+            right[k] = switchSourceTarget ? source : target;
+            weight[k] = edgeWeight[e];
+        }
+        int[] assignment = new SparseAssignmentSolver(
+                switchSourceTarget ? numberOfTargets : numberOfSources, 
+                switchSourceTarget ? numberOfSources : numberOfTargets, 
+                left, right, weight).solve();
+        for(int k = 0; k < size; k++){
+            if(assignment[left[k]] == right[k])
+                selected[componentEdges[from + k]] = true;
+        }
+    }
+    
+    private static int find(int[] parent, int node){
+        int root = node;
+        while(parent[root] != root){
+            root = parent[root];
+        }
+        while(parent[node] != root){
+            int next = parent[node];
+            parent[node] = root;
+            node = next;
+        }
+        return root;
+    }
+    
+    private static void union(int[] parent, int a, int b){
+        int rootA = find(parent, a);
+        int rootB = find(parent, b);
+        if(rootA != rootB)
+            parent[rootB] = rootA;
+    }
+    
     private static Map<String, Integer> getPositionMap(List<String> list){
         Map<String, Integer> map = new HashMap<>();
         for(int i=0; i < list.size(); i++){
@@ -0,0 +1,198 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extraction;
+
+import java.util.Arrays;
+import java.util.PriorityQueue;
+
+/**
+ * Helper Class for {@link HungarianExtractor}.
+ * Solves the maximum weight bipartite matching problem on a sparse graph with the shortest augmenting path method
+ * (the augmentation phase of the Jonker-Volgenant algorithm) using Dijkstra and dual potentials.
+ * Memory is linear in the number of edges (no dense matrix is created).
+ * <p>
+ * Each left node gets an additional dummy right node (weight zero) which represents "not assigned".
+ * Thus every left node can always be assigned and the minimum cost assignment is a maximum weight matching.
+ * Edges with a negative weight are never chosen. If an edge with weight zero and the dummy node are equally good,
+ * the edge is chosen (same as a dense matrix where missing edges have a value of zero).
+ */
+class SparseAssignmentSolver {
+
+    private final int numberOfLeft;
+    private final int numberOfRight;
+    /**
+     * Compressed sparse row representation: the edges of left node i are at positions edgeStart[i] to edgeStart[i+1] (exclusive).
+     */
+    private final int[] edgeStart;
+    private final int[] edgeRight;
+    private final double[] edgeCost;
+    private final double dummyCost;
+
+    private final double[] leftPotential;
+    private final double[] rightPotential;
+    private final int[] leftMatch;
+    private final int[] rightMatch;
+
+    private final double[] distance;
+    private final int[] predecessor;
+    private final boolean[] finalized;
+    private final int[] touched;
+    private int touchedCount;
+
+    /**
+     * Creates a new solver.
+     * @param numberOfLeft the number of left nodes (ids from 0 to numberOfLeft - 1)
+     * @param numberOfRight the number of right nodes (ids from 0 to numberOfRight - 1)
+     * @param left the left node of each edge
+     * @param right the right node of each edge
+     * @param weight the weight of each edge
+     */
+    SparseAssignmentSolver(int numberOfLeft, int numberOfRight, int[] left, int[] right, double[] weight) {
+        this.numberOfLeft = numberOfLeft;
+        this.numberOfRight = numberOfRight;
+
+        double maxWeight = 0;
+        for(double w : weight){
+            if(w > maxWeight)
+                maxWeight = w;
+        }
+        //minimize maxWeight - weight (non negative costs) - the shift does not change the optimal assignment
+        //because every left node is assigned exactly once (to a real or dummy node).
+        this.dummyCost = maxWeight;
+
+        this.edgeStart = new int[numberOfLeft + 1];
+        for(int l : left){
+            edgeStart[l + 1]++;
+        }
+        for(int i = 0; i < numberOfLeft; i++){
+            edgeStart[i + 1] += edgeStart[i];
+        }
+        this.edgeRight = new int[left.length];
+        this.edgeCost = new double[left.length];
+        int[] position = Arrays.copyOf(edgeStart, numberOfLeft);
+        for(int e = 0; e < left.length; e++){
+            int p = position[left[e]]++;
+            edgeRight[p] = right[e];
+            edgeCost[p] = maxWeight - weight[e];
+        }
+
+        int allRight = numberOfRight + numberOfLeft;
+        this.leftPotential = new double[numberOfLeft];
+        this.rightPotential = new double[allRight];
+        this.leftMatch = new int[numberOfLeft];
+        this.rightMatch = new int[allRight];
+        Arrays.fill(leftMatch, -1);
+        Arrays.fill(rightMatch, -1);
+
+        this.distance = new double[allRight];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        this.predecessor = new int[allRight];
+        this.finalized = new boolean[allRight];
+        this.touched = new int[allRight];
+    }
+
+    /**
+     * Computes the maximum weight matching.
+     * @return for each left node the matched right node or -1 if it is not matched.
+     */
+    int[] solve() {
+        for(int i = 0; i < numberOfLeft; i++){
+            augment(i);
+        }
+        int[] result = new int[numberOfLeft];
+        for(int i = 0; i < numberOfLeft; i++){
+            result[i] = leftMatch[i] < numberOfRight ? leftMatch[i] : -1;
+        }
+        return result;
+    }
+
+    /**
+     * Finds the shortest augmenting path (with respect to the reduced costs) from the given free left node
+     * to a free right node, updates the potentials and augments the matching along the path.
+     * @param root the free left node
+     */
+    private void augment(int root) {
+        touchedCount = 0;
+        PriorityQueue<QueueEntry> queue = new PriorityQueue<>();
+        relax(root, 0.0, queue);
+        int sink = -1;
+        double sinkDistance = 0;
+        while(!queue.isEmpty()){
+            QueueEntry entry = queue.poll();
+            int j = entry.right;
+            if(finalized[j] || entry.distance > distance[j])
+                continue;
+            finalized[j] = true;
+            if(rightMatch[j] < 0){
+                sink = j;
+                sinkDistance = entry.distance;
+                break;
+            }
+            relax(rightMatch[j], entry.distance, queue);
+        }
+        //there is always a path because the dummy node of the root is free
+
+        //update the potentials such that all reduced costs stay non negative and the matched edges have a reduced cost of zero
+        leftPotential[root] += sinkDistance;
+        for(int t = 0; t < touchedCount; t++){
+            int k = touched[t];
+            if(finalized[k] && k != sink){
+                double delta = sinkDistance - distance[k];
+                rightPotential[k] -= delta;
+                leftPotential[rightMatch[k]] += delta;
+            }
+        }
+
+        //augment
+        int j = sink;
+        while(true){
+            int i = predecessor[j];
+            int next = leftMatch[i];
+            leftMatch[i] = j;
+            rightMatch[j] = i;
+            if(i == root)
+                break;
+            j = next;
+        }
+
+        for(int t = 0; t < touchedCount; t++){
+            int k = touched[t];
+            distance[k] = Double.POSITIVE_INFINITY;
+            finalized[k] = false;
+        }
+    }
+
+    private void relax(int i, double base, PriorityQueue<QueueEntry> queue) {
+        double u = leftPotential[i];
+        for(int e = edgeStart[i]; e < edgeStart[i + 1]; e++){
+            relax(i, edgeRight[e], base + edgeCost[e] - u - rightPotential[edgeRight[e]], queue);
+        }
+        int dummy = numberOfRight + i;
+        relax(i, dummy, base + dummyCost - u - rightPotential[dummy], queue);
+    }
+
+    private void relax(int i, int j, double newDistance, PriorityQueue<QueueEntry> queue) {
+        if(finalized[j] || newDistance >= distance[j])
+            return;
+        if(distance[j] == Double.POSITIVE_INFINITY)
+            touched[touchedCount++] = j;
+        distance[j] = newDistance;
+        predecessor[j] = i;
+        queue.add(new QueueEntry(newDistance, j));
+    }
+
+    private static class QueueEntry implements Comparable<QueueEntry> {
+        private final double distance;
+        private final int right;
+
+        QueueEntry(double distance, int right) {
+            this.distance = distance;
+            this.right = right;
+        }
+
+        @Override
+        public int compareTo(QueueEntry o) {
+            int c = Double.compare(distance, o.distance);
+            //prefer real nodes (lower ids) over dummy nodes in case of ties
+            return c != 0 ? c : Integer.compare(right, o.right);
+        }
+    }
+}
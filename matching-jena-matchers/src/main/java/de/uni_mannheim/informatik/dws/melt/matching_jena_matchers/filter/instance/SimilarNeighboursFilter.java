@@ -1,17 +1,31 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance;
 
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.BaseFilterWithSetComparison;
-import com.googlecode.cqengine.query.QueryFactory;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Set;
 import java.util.StringJoiner;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Function;
+import java.util.function.IntConsumer;
 import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 import org.apache.jena.ontology.Individual;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Literal;
@@ -58,6 +72,12 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
     private boolean useLiteral;
     
     private boolean addNeighboursToCorrespondence = false;
+    
+    /**
+     * Number of threads used to compute the neighbours and to score the correspondences.
+     * If it is one (the default), everything is executed in the calling thread.
+     */
+    private int numberOfThreads = 1;
 
     /**
      * Constructor
@@ -127,46 +147,83 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
     
     @Override
     public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties properties) throws Exception {
-        Alignment filteredAlignment = new Alignment(inputAlignment, false);
-        for(Correspondence correspondence : inputAlignment){
-            Individual sourceIndividual = source.getIndividual(correspondence.getEntityOne());
-            Individual targetIndividual = target.getIndividual(correspondence.getEntityTwo());
-            if(sourceIndividual == null || targetIndividual == null){
-                filteredAlignment.add(correspondence);
+        List<Correspondence> correspondences = new ArrayList<>(inputAlignment);
+        
+        //compute the neighbours of each individual only once - literals and resources are represented by int ids
+        IdDictionary literalIds = new IdDictionary();
+        IdDictionary sourceIds = new IdDictionary();
+        IdDictionary targetIds = new IdDictionary();
+        Map<String, Neighbours> sourceNeighbourMap = computeNeighbours(source, 
+                correspondences.stream().map(Correspondence::getEntityOne), sourceIds, literalIds);
+        Map<String, Neighbours> targetNeighbourMap = computeNeighbours(target, 
+                correspondences.stream().map(Correspondence::getEntityTwo), targetIds, literalIds);
+        
+        //lookup from a source neighbour to all target neighbours which are mapped with at least minResourceConfidence
+        int[][] sourceToTargets = new int[sourceIds.size()][];
+        Map<Integer, List<Integer>> sourceToTargetLists = new HashMap<>();
+        for(Correspondence c : inputAlignment){
+            if(c.getConfidence() < minResourceConfidence)
                 continue;
+            int sourceId = sourceIds.getId(c.getEntityOne());
+            int targetId = targetIds.getId(c.getEntityTwo());
+            if(sourceId >= 0 && targetId >= 0)
+                sourceToTargetLists.computeIfAbsent(sourceId, k -> new ArrayList<>()).add(targetId);
+        }
+        for(Entry<Integer, List<Integer>> entry : sourceToTargetLists.entrySet()){
+            sourceToTargets[entry.getKey()] = entry.getValue().stream().mapToInt(Integer::intValue).toArray();
+        }
+        
+        //score all correspondences (in parallel) and modify the correspondences afterwards in the calling thread
+        double[] values = new double[correspondences.size()];
+        String[] explanations = new String[correspondences.size()];
+        IntStream indices = IntStream.range(0, correspondences.size());
+        runWithThreads(indices, i -> {
+            Correspondence correspondence = correspondences.get(i);
+            Neighbours sourceNeighbours = sourceNeighbourMap.get(correspondence.getEntityOne());
+            Neighbours targetNeighbours = targetNeighbourMap.get(correspondence.getEntityTwo());
+            if(sourceNeighbours == null || targetNeighbours == null){
+                values[i] = Double.NaN; // not an individual - keep it
+                return;
             }
+            int[] literalIntersection = intersect(sourceNeighbours.getLiterals(), targetNeighbours.getLiterals());
             
-            Neighbours sourceNeighbours = getNeighbours(source, sourceIndividual);
-            Neighbours targetNeighbours = getNeighbours(target, targetIndividual);
-            
-            Set<Object> literalIntersection = new HashSet(sourceNeighbours.getLiterals());
-            literalIntersection.retainAll(targetNeighbours.getLiterals());
-            
-            
-            Iterable<Correspondence> i = inputAlignment.retrieve(
-                QueryFactory.and(
-                    QueryFactory.in(Correspondence.SOURCE, sourceNeighbours.getUriResources()),
-                    QueryFactory.in(Correspondence.TARGET, targetNeighbours.getUriResources()),
-                    QueryFactory.greaterThanOrEqualTo(Correspondence.CONFIDENCE, minResourceConfidence)
-                ));
-            Set<String> mappedSources = new HashSet<>();
-            Set<String> mappedTargets = new HashSet<>();            
-            for(Correspondence c : i){
-                mappedSources.add(c.getEntityOne());
-                mappedTargets.add(c.getEntityTwo());
+            int[] mappedSources = new int[sourceNeighbours.getUriResources().length];
+            int mappedSourcesCount = 0;
+            int[] mappedTargets = new int[8];
+            int mappedTargetsCount = 0;
+            for(int sourceNeighbour : sourceNeighbours.getUriResources()){
+                int[] mappedTargetNeighbours = sourceToTargets[sourceNeighbour];
+                if(mappedTargetNeighbours == null)
+                    continue;
+                boolean mapped = false;
+                for(int targetNeighbour : mappedTargetNeighbours){
+                    if(Arrays.binarySearch(targetNeighbours.getUriResources(), targetNeighbour) >= 0){
+                        mapped = true;
+                        if(mappedTargetsCount == mappedTargets.length)
+                            mappedTargets = Arrays.copyOf(mappedTargets, mappedTargetsCount * 2);
+                        mappedTargets[mappedTargetsCount++] = targetNeighbour;
+                    }
+                }
+                if(mapped)
+                    mappedSources[mappedSourcesCount++] = sourceNeighbour;
             }
+            mappedTargets = distinct(mappedTargets, mappedTargetsCount);
             //in case of n:m mappings only the minimum amount of resource is the number of the intersection.
-            int resourceIntersection = Math.min(mappedSources.size(), mappedTargets.size());
+            int resourceIntersection = Math.min(mappedSourcesCount, mappedTargets.length);
             
             if(this.addNeighboursToCorrespondence){
-                Set<String> neighboursPrint = new HashSet();
-                if(mappedSources.size() < mappedTargets.size()){
-                    neighboursPrint.addAll(mappedSources);
+                Set<String> neighboursPrint = new LinkedHashSet<>();
+                if(mappedSourcesCount < mappedTargets.length){
+                    for(int j = 0; j < mappedSourcesCount; j++){
+                        neighboursPrint.add(sourceIds.getObject(mappedSources[j]).toString());
+                    }
                 }else{
-                    neighboursPrint.addAll(mappedTargets);
+                    for(int id : mappedTargets){
+                        neighboursPrint.add(targetIds.getObject(id).toString());
+                    }
                 }
-                for(Object o : literalIntersection){
-                    neighboursPrint.add(o.toString());
+                for(int id : literalIntersection){
+                    neighboursPrint.add(literalIds.getObject(id).toString());
                 }
                 //reduce to max 20
                 if(neighboursPrint.size() > 20){
@@ -175,30 +232,111 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
                     for (int j = 0; j < 20; j++) {
                         sj.add(iter.next());
                     }
-                    correspondence.addAdditionalExplanation(this.getClass(), "[" + sj.toString() + "] (reduced to max 20 neighbours)");
+                    explanations[i] = "[" + sj.toString() + "] (reduced to max 20 neighbours)";
                 }else{
-                    correspondence.addAdditionalExplanation(this.getClass(), "[" + String.join(",", neighboursPrint) + "]");
+                    explanations[i] = "[" + String.join(",", neighboursPrint) + "]";
                 }
-                
             }
             
             //sum up resource mappings and literal mappings
-            int countSourceNeighbours = sourceNeighbours.getUriResources().size() + sourceNeighbours.getLiterals().size();
-            int countTargetNeighbours = targetNeighbours.getUriResources().size() + targetNeighbours.getLiterals().size();
-            int countIntersection = resourceIntersection + literalIntersection.size();
+            int countSourceNeighbours = sourceNeighbours.getUriResources().length + sourceNeighbours.getLiterals().length;
+            int countTargetNeighbours = targetNeighbours.getUriResources().length + targetNeighbours.getLiterals().length;
+            int countIntersection = resourceIntersection + literalIntersection.length;
             
-            double value = setSimilarity.compute(countIntersection, countSourceNeighbours, countTargetNeighbours);
-            if(value >= this.threshold){
-                correspondence.addAdditionalConfidence(this.getClass(), value);
+            values[i] = setSimilarity.compute(countIntersection, countSourceNeighbours, countTargetNeighbours);
+        });
+        
+        Alignment filteredAlignment = new Alignment(inputAlignment, false);
+        for(int i = 0; i < correspondences.size(); i++){
+            Correspondence correspondence = correspondences.get(i);
+            if(Double.isNaN(values[i])){
+                filteredAlignment.add(correspondence);
+                continue;
+            }
+            if(explanations[i] != null)
+                correspondence.addAdditionalExplanation(this.getClass(), explanations[i]);
+            if(values[i] >= this.threshold){
+                correspondence.addAdditionalConfidence(this.getClass(), values[i]);
                 filteredAlignment.add(correspondence);
             }
         }
         return filteredAlignment;
     }
     
+    /**
+     * Computes the neighbours of all given individuals (each individual only once).
+     * @param model the model
+     * @param uris the uris of the individuals (can contain duplicates)
+     * @param resourceIds the dictionary for resource ids
+     * @param literalIds the dictionary for literal ids
+     * @return map from individual uri to neighbours (resources which are not an individual in the model are not contained)
+     */
+    private Map<String, Neighbours> computeNeighbours(OntModel model, Stream<String> uris, IdDictionary resourceIds, IdDictionary literalIds){
+        List<String> distinctUris = uris.distinct().collect(Collectors.toList());
+        Map<String, Neighbours> neighbours = new ConcurrentHashMap<>();
+        runWithThreads(IntStream.range(0, distinctUris.size()), i -> {
+            String uri = distinctUris.get(i);
+            Individual individual = model.getIndividual(uri);
+            if(individual != null)
+                neighbours.put(uri, getNeighbours(model, individual, resourceIds, literalIds));
+        });
+        return neighbours;
+    }
+    
+    private void runWithThreads(IntStream indices, IntConsumer action){
+        if(this.numberOfThreads <= 1){
+            indices.forEach(action);
+            return;
+        }
+        ForkJoinPool pool = new ForkJoinPool(this.numberOfThreads);
+        try {
+            pool.submit(() -> indices.parallel().forEach(action)).get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted during parallel neighbour comparison.", ex);
+        } catch (ExecutionException ex) {
+            if(ex.getCause() instanceof RuntimeException)
+                throw (RuntimeException) ex.getCause();
+            throw new IllegalStateException("Error during parallel neighbour comparison.", ex.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+    
+    /**
+     * Intersection of two sorted arrays without duplicates.
+     */
+    private static int[] intersect(int[] a, int[] b){
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0, j = 0;
+        while(i < a.length && j < b.length){
+            if(a[i] < b[j]){
+                i++;
+            }else if(a[i] > b[j]){
+                j++;
+            }else{
+                result[count++] = a[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+    
+    private static int[] distinct(int[] values, int length){
+        int[] sorted = Arrays.copyOf(values, length);
+        Arrays.sort(sorted);
+        int count = 0;
+        for(int i = 0; i < sorted.length; i++){
+            if(i == 0 || sorted[i] != sorted[i - 1])
+                sorted[count++] = sorted[i];
+        }
+        return Arrays.copyOf(sorted, count);
+    }
     
-    private Neighbours getNeighbours(OntModel model, Individual individual){
-        Neighbours neighbours = new Neighbours();
+    private Neighbours getNeighbours(OntModel model, Individual individual, IdDictionary resourceIds, IdDictionary literalIds){
+        NeighboursBuilder neighbours = new NeighboursBuilder(resourceIds, literalIds);
         Set<Object> ignoreNeighbours = this.excludeNeighbours.apply(individual);
         if(useOutgoing){
             StmtIterator outgoingStmts = model.listStatements(individual, null, (RDFNode) null );
@@ -235,7 +373,7 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
                 }//can not be a literal (no outgoing edges)
             }
         }
-        return neighbours;
+        return neighbours.build();
     }
 
     //getter and setter
@@ -304,6 +442,20 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
         this.addNeighboursToCorrespondence = addNeighboursToCorrespondence;
     }
     
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of threads used to compute the neighbours and to score the correspondences.
+     * In case of more than one thread, the models are read concurrently and the functions given in the constructor
+     * (e.g. the literal processing function) need to be thread safe.
+     * @param numberOfThreads the number of threads (one or less means everything is executed in the calling thread).
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+    
     public static Function<Resource, Set<Object>> createExcludeNeighboursFunction(Set<Property> excludeLiteralProeprties, Function<Literal, Object> literalProcessingFunction){
         return r->{
             Set<Object> exclude = new HashSet();
@@ -326,28 +478,91 @@ public class SimilarNeighboursFilter extends BaseFilterWithSetComparison {
     }
 }
 
+/**
+ * The neighbours of an individual. Resources and literals are represented by ids of an {@link IdDictionary} (sorted and without duplicates).
+ */
 class Neighbours{
-    private Set<String> uriResources;
-    private Set<Object> literals;
+    private final int[] uriResources;
+    private final int[] literals;
+    
+    public Neighbours(int[] uriResources, int[] literals){
+        this.uriResources = uriResources;
+        this.literals = literals;
+    }
+
+    public int[] getUriResources() {
+        return uriResources;
+    }
+
+    public int[] getLiterals() {
+        return literals;
+    }
+}
+
+class NeighboursBuilder{
+    private final IdDictionary resourceIds;
+    private final IdDictionary literalIds;
+    private final Set<Integer> uriResources;
+    private final Set<Integer> literals;
     
-    public Neighbours(){
+    public NeighboursBuilder(IdDictionary resourceIds, IdDictionary literalIds){
+        this.resourceIds = resourceIds;
+        this.literalIds = literalIds;
         this.uriResources = new HashSet<>();
         this.literals = new HashSet<>();
     }
     
     public void addResource(String resourceURI){
-        uriResources.add(resourceURI);
+        uriResources.add(resourceIds.getOrCreateId(resourceURI));
     }
     
     public void addLiteral(Object literal){
-        literals.add(literal);
+        literals.add(literalIds.getOrCreateId(literal));
     }
-
-    public Set<String> getUriResources() {
-        return uriResources;
+    
+    public Neighbours build(){
+        return new Neighbours(toSortedArray(uriResources), toSortedArray(literals));
+    }
+    
+    private static int[] toSortedArray(Set<Integer> set){
+        int[] array = set.stream().mapToInt(Integer::intValue).toArray();
+        Arrays.sort(array);
+        return array;
     }
+}
 
-    public Set<Object> getLiterals() {
-        return literals;
+/**
+ * Thread safe mapping from objects (uris or processed literals) to consecutive int ids.
+ * Equal objects get the same id, so comparing ids gives the same result as comparing the objects (no hash collisions).
+ */
+class IdDictionary{
+    private final Map<Object, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<Integer, Object> objects = new ConcurrentHashMap<>();
+    private final AtomicInteger nextId = new AtomicInteger();
+    
+    public int getOrCreateId(Object o){
+        return ids.computeIfAbsent(o, k -> {
+            int id = nextId.getAndIncrement();
+            objects.put(id, k);
+            return id;
+        });
     }
-}
\ No newline at end of file
+    
+    /**
+     * Returns the id of the object or -1 if the object has no id.
+     * @param o the object
+     * @return the id or -1
+     */
+    public int getId(Object o){
+        Integer id = ids.get(o);
+        return id == null ? -1 : id;
+    }
+    
+    public Object getObject(int id){
+        return objects.get(id);
+    }
+    
+    public int size(){
+        return nextId.get();
+    }
+}
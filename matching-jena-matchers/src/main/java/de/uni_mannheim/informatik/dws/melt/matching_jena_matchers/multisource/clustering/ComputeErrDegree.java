@@ -15,8 +15,9 @@ import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.NoSuchElementException;
 import java.util.Random;
-import java.util.TreeMap;
+import java.util.stream.IntStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -28,24 +29,32 @@ import org.slf4j.LoggerFactory;
  * 
  * This class represents a graph of sameas edges. The edges can be added by the addEdge method.
  * After adding some edges, you can call detectCommunities or computeLinkError.
+ * Internally, the nodes are represented as int ids and each undirected edge as a long which packs both ids.
+ * For large graphs use {@link #computeLinkErrors(int, double, long, int, int, ModularityAlgorithm) } which does not create
+ * an entry object for each edge.
  */
 public class ComputeErrDegree <T>{
     
     private static final Logger LOGGER = LoggerFactory.getLogger(ComputeErrDegree.class);
     
+    /**
+     * Number of edges which are aggregated in one (parallel) task.
+     * The partial sums are merged in the order of the chunks such that the result does not depend on the number of threads.
+     */
+    private static final int EDGES_PER_CHUNK = 1 << 16;
+    
     private final Map<T, Integer> elementToID;
-    private final Map<Integer, T> idToElement;
-    private final Map<Integer, Map<Integer,Double>> uniformDirectedEdges;
-    private int currentID;
-    private int countUndirectedEdges;
+    private final List<T> idToElement;
+    /**
+     * Undirected edges (packed ids with the smaller id first) to the (summed) edge weight.
+     */
+    private final LongDoubleHashMap uniformDirectedEdges;
     
     
     public ComputeErrDegree(){
-        this.elementToID = new TreeMap<>(); //TODO: change to hashmap
-        this.idToElement = new HashMap<>();
-        this.uniformDirectedEdges = new TreeMap<>();
-        this.currentID = 0;
-        this.countUndirectedEdges = 0;
+        this.elementToID = new HashMap<>();
+        this.idToElement = new ArrayList<>();
+        this.uniformDirectedEdges = new LongDoubleHashMap();
     }
     
     void addNodes(List<T> nodes){
@@ -68,38 +77,41 @@ public class ComputeErrDegree <T>{
         int idTarget = getNodeID(target);
 
         //make unique direction of edge because we want undirected graph
-        if(idSource > idTarget){
-            //three way switch of idSource and idTarget
-            int tmp = idSource;
-            idSource = idTarget;
-            idTarget = tmp;
-        }
-
-        //add edge to uniformDirectedEdges, possibly sum the edge weights from two directions
-        Map<Integer,Double> targetToWeight = uniformDirectedEdges.get(idSource);
-        if(targetToWeight == null){
-            targetToWeight = new TreeMap<>();
-            uniformDirectedEdges.put(idSource, targetToWeight);
-        }            
-        Double existingWeight = targetToWeight.get(idTarget);
-        if(existingWeight == null){
-            existingWeight = 0.0;
-            countUndirectedEdges++;
-        }            
-        targetToWeight.put(idTarget, existingWeight + weight);
+        //and possibly sum the edge weights from two directions
+        uniformDirectedEdges.add(pack(idSource, idTarget), weight);
     }
     
     private int getNodeID(T node){
         Integer id = elementToID.get(node);
         if(id == null){
-            id = currentID;
+            id = idToElement.size();
             elementToID.put(node, id);
-            idToElement.put(id, node);
-            currentID++;
+            idToElement.add(node);
         }
         return id;
     }
     
+    /**
+     * Packs two ids (or community numbers) into one long. The smaller one is in the upper 32 bits.
+     * @param one first id
+     * @param two second id
+     * @return the packed long
+     */
+    private static long pack(int one, int two){
+        if(one > two){
+            return ((long) two << 32) | one;
+        }
+        return ((long) one << 32) | two;
+    }
+    
+    private static int first(long packed){
+        return (int) (packed >>> 32);
+    }
+    
+    private static int second(long packed){
+        return (int) packed;
+    }
+    
     /**
      * Detect communities in this graph. Default values for the parameters are used.
      * @return a map from element to corresponding community number
@@ -128,7 +140,8 @@ public class ComputeErrDegree <T>{
      * @return a map from element to corresponding community number
      */
     public Map<T, Integer> detectCommunities(int modularityFunction, double resolution, long randomSeed, int nRandomStarts, int nIterations, ModularityAlgorithm algorithm){
-        Clustering clustering = computeClustering(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+        long[] edges = getSortedEdges();
+        Clustering clustering = computeClustering(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm, edges, getEdgeWeights(edges));
         if(clustering == null){
             LOGGER.warn("Return not communities because of clustering==null. Usually because graph is empty?");
             return new HashMap<>();
@@ -137,8 +150,8 @@ public class ComputeErrDegree <T>{
     }
     
     
-    private Clustering computeClustering(int modularityFunction, double resolution, long randomSeed, int nRandomStarts, int nIterations, ModularityAlgorithm algorithm){
-        Network network = getNetwork(modularityFunction);
+    private Clustering computeClustering(int modularityFunction, double resolution, long randomSeed, int nRandomStarts, int nIterations, ModularityAlgorithm algorithm, long[] edges, double[] edgeWeights){
+        Network network = getNetwork(modularityFunction, edges, edgeWeights);
         
         double resolution2 = ((modularityFunction == 1) ? (resolution / (2 * network.getTotalEdgeWeight() + network.totalEdgeWeightSelfLinks)) : resolution);
         Clustering clustering = null;
@@ -187,119 +200,121 @@ public class ComputeErrDegree <T>{
     }
     
     public Map<Entry<T,T>, Double> computeLinkError(int modularityFunction, double resolution, long randomSeed, int nRandomStarts, int nIterations, ModularityAlgorithm algorithm){
-        if(this.elementToID.size() == 2){
-            Map<Entry<T,T>, Double> res = new LinkedHashMap<>();
-            Iterator<T> it = this.elementToID.keySet().iterator();
-            res.put(new SimpleEntry<>(it.next(), it.next()), 0.5);
-            
-            
-            //use treemap to have same order as in original paper
-            //res.put(new SimpleEntry(this.elementToID.firstKey(), this.elementToID.lastKey()), 0.5); 
-            return res;
+        Map<Entry<T,T>, Double> resultMap = new LinkedHashMap<>(); //change to HashMap?
+        if(this.idToElement.size() == 2){
+            resultMap.put(new SimpleEntry<>(this.idToElement.get(0), this.idToElement.get(1)), 0.5);
+            return resultMap;
         }
-        
-        Clustering clustering = computeClustering(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+        for(LinkError<T> linkError : computeLinkErrors(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm)){
+            resultMap.put(new SimpleEntry<>(linkError.getSource(), linkError.getTarget()), linkError.getError());
+        }
+        return resultMap;
+    }
+    
+    /**
+     * Computes the error degree of all edges with default values for the parameters.
+     * @return the error degree of all edges
+     */
+    public LinkErrors<T> computeLinkErrors(){
+        return computeLinkErrors(1, 1.0, 0, 1, 5, ModularityAlgorithm.LOUVRAIN);
+    }
+    
+    /**
+     * Computes the error degree of all edges.
+     * In contrast to computeLinkError, the result is stored in primitive arrays and can be iterated (or queried for one edge)
+     * without creating a map entry for each edge.
+     * @param modularityFunction Modularity function (1 = standard; 2 = alternative)
+     * @param resolution Use a value of 1.0 for standard modularity-based community detection. Use a value above (below) 1.0 if you want to obtain a larger (smaller) number of communities.
+     * @param randomSeed Seed of the random number generator
+     * @param nRandomStarts Number of random starts
+     * @param nIterations Number of iterations per random start
+     * @param algorithm Algorithm for modularity optimization
+     * @return the error degree of all edges
+     */
+    public LinkErrors<T> computeLinkErrors(int modularityFunction, double resolution, long randomSeed, int nRandomStarts, int nIterations, ModularityAlgorithm algorithm){
+        long[] edges = getSortedEdges();
+        double[] errors = new double[edges.length];
+        if(this.idToElement.size() == 2){
+            Arrays.fill(errors, 0.5);
+            return new LinkErrors<>(this.elementToID, this.idToElement, edges, errors);
+        }
+        if(edges.length == 0){
+            return new LinkErrors<>(this.elementToID, this.idToElement, edges, errors);
+        }
+        double[] edgeWeights = getEdgeWeights(edges);
+        Clustering clustering = computeClustering(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm, edges, edgeWeights);
         if(clustering == null){
             LOGGER.warn("Return not link errors because of clustering==null. Usually because graph is empty?");
-            return new HashMap<>();
+            return new LinkErrors<>(this.elementToID, this.idToElement, new long[0], new double[0]);
         }
+        clustering.orderClustersByNNodes();
+        int[] cluster = clustering.getClusters();
+        int[] clusterSize = clustering.getNNodesPerCluster();
         
-        Map<Integer, List<Integer>> clusterToIDs = computeClusterToID(clustering);
-        Map<Integer, Integer> idToCluster = computeIDToCluster(clusterToIDs);
-                
-        Map<Integer, Double> intraCommEdges = new HashMap<>();
-	Map<String, Double> interCommEdges = new TreeMap<>();        
-        for(Map.Entry<Integer, Map<Integer,Double>> sourceToMultiTarget : uniformDirectedEdges.entrySet()){
-            int sourceCluster = idToCluster.get(sourceToMultiTarget.getKey());
-            for(Map.Entry<Integer,Double> targetToWeight : sourceToMultiTarget.getValue().entrySet()){
-                int targetCluster = idToCluster.get(targetToWeight.getKey());                
-                if(sourceCluster == targetCluster){
-                    intraCommEdges.put(sourceCluster, intraCommEdges.getOrDefault(sourceCluster, 0.0) + targetToWeight.getValue());
-                }else{
-                    String interCommunityKey = targetCluster < sourceCluster ? targetCluster + "-" + sourceCluster : sourceCluster + "-" + targetCluster;
-                    interCommEdges.put(interCommunityKey, interCommEdges.getOrDefault(interCommunityKey, 0.0) + targetToWeight.getValue());
-                }
+        //sum of edge weights between two communities (intra community edges have the same community twice)
+        int nChunks = (edges.length + EDGES_PER_CHUNK - 1) / EDGES_PER_CHUNK;
+        LongDoubleHashMap[] partialCommunityEdges = new LongDoubleHashMap[nChunks];
+        IntStream.range(0, nChunks).parallel().forEach(chunk -> {
+            LongDoubleHashMap communityEdges = new LongDoubleHashMap();
+            int end = Math.min(edges.length, (chunk + 1) * EDGES_PER_CHUNK);
+            for(int i = chunk * EDGES_PER_CHUNK; i < end; i++){
+                communityEdges.add(pack(cluster[first(edges[i])], cluster[second(edges[i])]), edgeWeights[i]);
             }
-        }
-        
-        // Intra-Links Ranking
-        Map<Integer, Double> measureValuesIntra = new TreeMap<>();
-        for(Entry<Integer, List<Integer>> cluster: clusterToIDs.entrySet()){
-            double E_in = 0;
-            int clusterID = cluster.getKey();
-            if(intraCommEdges.containsKey(clusterID)){
-                E_in = intraCommEdges.get(clusterID);
+            partialCommunityEdges[chunk] = communityEdges;
+        });
+        LongDoubleHashMap communityEdges = partialCommunityEdges[0];
+        for(int chunk = 1; chunk < nChunks; chunk++){
+            LongDoubleHashMap partial = partialCommunityEdges[chunk];
+            for(int i = 0; i < partial.size(); i++){
+                communityEdges.add(partial.getKey(i), partial.getValue(i));
             }
-            double C = cluster.getValue().size();
-            double err = 1 - (E_in /(C*(C-1)));
-            measureValuesIntra.put(clusterID, err);
-        }
-        
-        // Inter-Links Ranking
-        Map<String, Double> measureValuesInter = new TreeMap<>();
-        for(Entry<String, Double> interCommEdge: interCommEdges.entrySet()){
-            double E_ex = interCommEdge.getValue();
-            String[] linkedCommunities = interCommEdge.getKey().split("-");
-            double C1 = clusterToIDs.get(Integer.parseInt(linkedCommunities[0])).size();
-            double C2 = clusterToIDs.get(Integer.parseInt(linkedCommunities[1])).size();
-            double err = 1 - (E_ex /(2*C1*C2));
-            measureValuesInter.put(interCommEdge.getKey(), err);
         }
         
-        Map<Entry<T,T>, Double> resultMap = new LinkedHashMap<>(); //change to HashMap?
-        for(Map.Entry<Integer, Map<Integer,Double>> sourceToMultiTarget : uniformDirectedEdges.entrySet()){
-            int sourceCluster = idToCluster.get(sourceToMultiTarget.getKey());
-            T sourceElement = idToElement.get(sourceToMultiTarget.getKey());
-            for(Map.Entry<Integer,Double> targetToWeight : sourceToMultiTarget.getValue().entrySet()){
-                int targetCluster = idToCluster.get(targetToWeight.getKey()); 
-                T targetElement = idToElement.get(targetToWeight.getKey());
-                if(sourceCluster == targetCluster){
-                    double errValue = measureValuesIntra.get(sourceCluster);
-                    resultMap.put(new SimpleEntry<>(sourceElement, targetElement), errValue);
-                }else{
-                    String interCommunityKey = targetCluster < sourceCluster ? targetCluster + "-" + sourceCluster : sourceCluster + "-" + targetCluster;
-                    double errValue = measureValuesInter.get(interCommunityKey);
-                    resultMap.put(new SimpleEntry<>(sourceElement, targetElement), errValue);
-                }
+        double[] communityError = new double[communityEdges.size()];
+        for(int i = 0; i < communityEdges.size(); i++){
+            int firstCluster = first(communityEdges.getKey(i));
+            int secondCluster = second(communityEdges.getKey(i));
+            if(firstCluster == secondCluster){
+                // Intra-Links Ranking
+                double E_in = communityEdges.getValue(i);
+                double C = clusterSize[firstCluster];
+                communityError[i] = 1 - (E_in /(C*(C-1)));
+            }else{
+                // Inter-Links Ranking
+                double E_ex = communityEdges.getValue(i);
+                double C1 = clusterSize[firstCluster];
+                double C2 = clusterSize[secondCluster];
+                communityError[i] = 1 - (E_ex /(2*C1*C2));
             }
         }
-        return resultMap;
+        
+        IntStream.range(0, edges.length).parallel().forEach(i -> {
+            errors[i] = communityError[communityEdges.indexOf(pack(cluster[first(edges[i])], cluster[second(edges[i])]))];
+        });
+        return new LinkErrors<>(this.elementToID, this.idToElement, edges, errors);
     }
     
-    
-    private Map<Integer, List<Integer>> computeClusterToID(Clustering clustering){
-        int nNodes = clustering.getNNodes();
-        clustering.orderClustersByNNodes();
-        Map<Integer, List<Integer>> clusterToID = new HashMap<>();
-        for (int i = 0; i < nNodes; i++){
-            Integer clusterNumber = clustering.getCluster(i);
-            clusterToID.computeIfAbsent(clusterNumber, __->new ArrayList<>()).add(i);
+    /**
+     * Returns all edges (packed ids) sorted by source id and then target id.
+     * @return sorted edges
+     */
+    private long[] getSortedEdges(){
+        long[] edges = new long[uniformDirectedEdges.size()];
+        for(int i = 0; i < edges.length; i++){
+            edges[i] = uniformDirectedEdges.getKey(i);
         }
-        return clusterToID;
+        Arrays.parallelSort(edges);
+        return edges;
     }
     
-    private Map<Integer, Integer> computeIDToCluster(Map<Integer, List<Integer>> clusterToID){
-        Map<Integer, Integer> idToCluster = new HashMap<>();
-        for (Entry<Integer, List<Integer>> entry : clusterToID.entrySet()){
-            for(Integer id : entry.getValue()){
-                idToCluster.put(id, entry.getKey());
-            }
+    private double[] getEdgeWeights(long[] edges){
+        double[] weights = new double[edges.length];
+        for(int i = 0; i < edges.length; i++){
+            weights[i] = uniformDirectedEdges.getValue(uniformDirectedEdges.indexOf(edges[i]));
         }
-        return idToCluster;
+        return weights;
     }
     
-    
-//    private Map<Integer, Integer> computeIDToCluster(Clustering clustering) {
-//        int nNodes = clustering.getNNodes();
-//        clustering.orderClustersByNNodes();
-//        Map<Integer, Integer> idToCluster = new HashMap();
-//        for (int i = 0; i < nNodes; i++) {
-//            Integer clusterNumber = clustering.getCluster(i);
-//            idToCluster.put(i, clusterNumber);
-//        }
-//        return idToCluster;
-//    }
-    
     private Map<T, Integer> computeElementToCluster(Clustering clustering){
         int nNodes = clustering.getNNodes();
         clustering.orderClustersByNNodes();
@@ -312,33 +327,19 @@ public class ComputeErrDegree <T>{
     }
     
     /**
-     * Based on the uniformDirectedEdges attribute of the class, computes the internal representation (Network).
+     * Based on the (sorted) edges, computes the internal representation (Network) which stores the adjacency in CSR format.
      * @param modularityFunction the modularity Function
+     * @param edges the sorted edges
+     * @param edgeWeights the weight of each edge
      * @return the internal representation (Network)
      */
-    private Network getNetwork(int modularityFunction){
-        int[] node1 = new int[countUndirectedEdges];
-        int[] node2 = new int[countUndirectedEdges];
-        double[] edgeWeight1 = new double[countUndirectedEdges];
-        
-        int j=0;
-        for(Map.Entry<Integer, Map<Integer,Double>> sourceToMultiTarget : uniformDirectedEdges.entrySet()){
-            for(Map.Entry<Integer,Double> targetToWeight : sourceToMultiTarget.getValue().entrySet()){
-                node1[j] = sourceToMultiTarget.getKey();
-                node2[j] = targetToWeight.getKey();
-                edgeWeight1[j] = targetToWeight.getValue();
-                j++;
-            }
-        }
-        
+    private Network getNetwork(int modularityFunction, long[] edges, double[] edgeWeights){
         int numberOfNodes = idToElement.size();
         
         int[] nNeighbors = new int[numberOfNodes];
-        for (int i = 0; i < countUndirectedEdges; i++){
-            if (node1[i] < node2[i]){
-                nNeighbors[node1[i]]++;
-                nNeighbors[node2[i]]++;
-            }
+        for (long edge : edges){
+            nNeighbors[first(edge)]++;
+            nNeighbors[second(edge)]++;
         }
         
         int[] firstNeighborIndex = new int[numberOfNodes + 1];
@@ -353,17 +354,17 @@ public class ComputeErrDegree <T>{
         double[] edgeWeight2 = new double[nEdges];
         Arrays.fill(nNeighbors, 0);
 			
-        for (int i = 0; i < countUndirectedEdges; i++){
-            if (node1[i] < node2[i]){
-                j = firstNeighborIndex[node1[i]] + nNeighbors[node1[i]];
-                neighbor[j] = node2[i];
-                edgeWeight2[j] = edgeWeight1[i];
-                nNeighbors[node1[i]]++;
-                j = firstNeighborIndex[node2[i]] + nNeighbors[node2[i]];
-                neighbor[j] = node1[i];
-                edgeWeight2[j] = edgeWeight1[i];
-                nNeighbors[node2[i]]++;
-	    }
+        for (int i = 0; i < edges.length; i++){
+            int node1 = first(edges[i]);
+            int node2 = second(edges[i]);
+            int j = firstNeighborIndex[node1] + nNeighbors[node1];
+            neighbor[j] = node2;
+            edgeWeight2[j] = edgeWeights[i];
+            nNeighbors[node1]++;
+            j = firstNeighborIndex[node2] + nNeighbors[node2];
+            neighbor[j] = node1;
+            edgeWeight2[j] = edgeWeights[i];
+            nNeighbors[node2]++;
         }
         
         if (modularityFunction == 1){
@@ -374,6 +375,183 @@ public class ComputeErrDegree <T>{
             return new Network(numberOfNodes, nodeWeight, firstNeighborIndex, neighbor, edgeWeight2);
         }
     }
+    
+    /**
+     * The error degree of one edge.
+     * @param <T> the type of the nodes
+     */
+    public static class LinkError<T>{
+        private final T source;
+        private final T target;
+        private final double error;
+
+        public LinkError(T source, T target, double error) {
+            this.source = source;
+            this.target = target;
+            this.error = error;
+        }
+
+        public T getSource() {
+            return source;
+        }
+
+        public T getTarget() {
+            return target;
+        }
+
+        public double getError() {
+            return error;
+        }
+    }
+    
+    /**
+     * The error degree of all edges stored in primitive arrays.
+     * The iterator returns the edges in the order of the ids (which corresponds to the order in which the nodes were added).
+     * @param <T> the type of the nodes
+     */
+    public static class LinkErrors<T> implements Iterable<LinkError<T>>{
+        private final Map<T, Integer> elementToID;
+        private final List<T> idToElement;
+        private final long[] edges;
+        private final double[] errors;
+
+        LinkErrors(Map<T, Integer> elementToID, List<T> idToElement, long[] edges, double[] errors) {
+            this.elementToID = elementToID;
+            this.idToElement = idToElement;
+            this.edges = edges;
+            this.errors = errors;
+        }
+        
+        /**
+         * Returns the error degree of the edge between source and target (the direction does not matter).
+         * @param source the source
+         * @param target the target
+         * @return the error degree or NaN if there is no such edge
+         */
+        public double getError(T source, T target){
+            Integer sourceID = elementToID.get(source);
+            Integer targetID = elementToID.get(target);
+            if(sourceID == null || targetID == null)
+                return Double.NaN;
+            int position = Arrays.binarySearch(edges, pack(sourceID, targetID));
+            if(position < 0)
+                return Double.NaN;
+            return errors[position];
+        }
+        
+        /**
+         * Returns the number of edges.
+         * @return number of edges
+         */
+        public int size(){
+            return edges.length;
+        }
+
+        @Override
+        public Iterator<LinkError<T>> iterator() {
+            return new Iterator<LinkError<T>>() {
+                private int position = 0;
+                @Override
+                public boolean hasNext() {
+                    return position < edges.length;
+                }
+
+                @Override
+                public LinkError<T> next() {
+                    if(position >= edges.length)
+                        throw new NoSuchElementException();
+                    long edge = edges[position];
+                    LinkError<T> linkError = new LinkError<>(idToElement.get(first(edge)), idToElement.get(second(edge)), errors[position]);
+                    position++;
+                    return linkError;
+                }
+            };
+        }
+    }
+}
+
+/**
+ * Map from long keys to double values with open addressing (no boxing).
+ * The entries are stored in insertion order and can be accessed by their index.
+ */
+class LongDoubleHashMap {
+    private long[] keys;
+    private double[] values;
+    /**
+     * hash table which contains the index of the entry plus one (zero means empty).
+     */
+    private int[] table;
+    private int size;
+
+    LongDoubleHashMap() {
+        this.keys = new long[16];
+        this.values = new double[16];
+        this.table = new int[32];
+        this.size = 0;
+    }
+
+    /**
+     * Adds the value to the value of the key (starting from zero if the key does not exist).
+     * @param key the key
+     * @param value the value to add
+     */
+    void add(long key, double value){
+        int slot = findSlot(table, keys, key);
+        int index = table[slot] - 1;
+        if(index < 0){
+            index = size;
+            if(size == keys.length){
+                keys = Arrays.copyOf(keys, size * 2);
+                values = Arrays.copyOf(values, size * 2);
+            }
+            keys[index] = key;
+            size++;
+            table[slot] = size;
+            if(size * 2 > table.length){
+                rehash();
+            }
+        }
+        values[index] += value;
+    }
+
+    /**
+     * Returns the index of the given key.
+     * @param key the key
+     * @return the index or -1 if the key does not exist
+     */
+    int indexOf(long key){
+        return table[findSlot(table, keys, key)] - 1;
+    }
+
+    long getKey(int index){
+        return keys[index];
+    }
+
+    double getValue(int index){
+        return values[index];
+    }
+
+    int size(){
+        return size;
+    }
+
+    private void rehash(){
+        int[] newTable = new int[table.length * 2];
+        for(int i = 0; i < size; i++){
+            newTable[findSlot(newTable, keys, keys[i])] = i + 1;
+        }
+        table = newTable;
+    }
+
+    private static int findSlot(int[] table, long[] keys, long key){
+        int mask = table.length - 1;
+        long h = key * 0x9E3779B97F4A7C15L;
+        int slot = (int) (h ^ (h >>> 32)) & mask;
+        while(table[slot] != 0 && keys[table[slot] - 1] != key){
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
 }
 
 //in case one would like to reproduce results from the paper use the following:
@@ -9,10 +9,8 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
-import java.util.AbstractMap.SimpleEntry;
 import java.util.Comparator;
 import java.util.List;
-import java.util.Map;
 import java.util.Map.Entry;
 import org.slf4j.LoggerFactory;
 
@@ -96,9 +94,9 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
         for(Correspondence c : alignment){
             errDegree.addEdge(c.getEntityOne(), c.getEntityTwo(), c.getConfidence());
         }
-        Map<Entry<String,String>, Double> map = errDegree.computeLinkError(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+        ComputeErrDegree.LinkErrors<String> linkErrors = errDegree.computeLinkErrors(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
         for(Correspondence correspondence : alignment){
-            Double err = getErrorValue(map, correspondence);
+            double err = getErrorValue(linkErrors, correspondence);
             if(err <= threshold){
                 correspondence.addAdditionalConfidence(FilterByErrorDegree.class, err);
                 newAlignment.add(correspondence);
@@ -112,21 +110,18 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
         for(Correspondence c : alignment){
             errDegree.addEdge(c.getEntityOne(), c.getEntityTwo(), c.getConfidence());
         }
-        Map<Entry<String,String>, Double> map = errDegree.computeLinkError(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
+        ComputeErrDegree.LinkErrors<String> linkErrors = errDegree.computeLinkErrors(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
         for(Correspondence correspondence : alignment){
-            correspondence.addAdditionalConfidence(FilterByErrorDegree.class, getErrorValue(map, correspondence));
+            correspondence.addAdditionalConfidence(FilterByErrorDegree.class, getErrorValue(linkErrors, correspondence));
         }
         return alignment;
     }
     
-    private static Double getErrorValue(Map<Entry<String,String>, Double> map, Correspondence correspondence){
-        Double d = map.get(new SimpleEntry<>(correspondence.getEntityOne(), correspondence.getEntityTwo()));
-        if(d != null)
-            return d;
-        d = map.get(new SimpleEntry<>(correspondence.getEntityTwo(), correspondence.getEntityOne()));
-        if(d != null)
-            return d;
-        return 0.0d;
+    private static double getErrorValue(ComputeErrDegree.LinkErrors<String> linkErrors, Correspondence correspondence){
+        double d = linkErrors.getError(correspondence.getEntityOne(), correspondence.getEntityTwo());
+        if(Double.isNaN(d))
+            return 0.0d;
+        return d;
     }
     
     /**
@@ -140,8 +135,10 @@ public class FilterByErrorDegree implements IMatcherMultiSource<Object, Alignmen
         for(Correspondence c : alignment){
             errDegree.addEdge(c.getEntityOne(), c.getEntityTwo(), c.getConfidence());
         }
-        Map<Entry<String,String>, Double> map = errDegree.computeLinkError(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm);
-        Counter<Double> counter = new Counter<>(map.values());
+        Counter<Double> counter = new Counter<>();
+        for(ComputeErrDegree.LinkError<String> linkError : errDegree.computeLinkErrors(modularityFunction, resolution, randomSeed, nRandomStarts, nIterations, algorithm)){
+            counter.add(linkError.getError());
+        }
         
         try(BufferedWriter bw = new BufferedWriter(new FileWriter(file))){
             bw.write("ErrValue\tCountCorrespondences"); bw.newLine();
@@ -4,6 +4,13 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.io.File;
+import java.net.URI;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Properties;
 import java.util.logging.Level;
@@ -42,6 +49,40 @@ public class DispatcherHelper {
         }
     }
     
+    /**
+     * Makes a cheap structural copy of the given object such that a matcher can modify it without affecting other matchers.
+     * Immutable objects (like URLs, URIs, files, strings, numbers) are not copied but shared.
+     * Alignments are copied correspondence by correspondence (including a copy of the extensions map) and
+     * properties / maps are copied by a shallow copy. All other objects are copied with {@link #deepCopy(java.lang.Object) }.
+     * @param o the object to copy
+     * @return the copy (or the same object, if it is immutable)
+     */
+    public static Object structuralCopy(Object o){
+        if(o == null || o instanceof URL || o instanceof URI || o instanceof File || o instanceof String || o instanceof Number || o instanceof Boolean)
+            return o;
+        if(o instanceof Alignment){
+            Alignment alignment = (Alignment) o;
+            Alignment copy = new Alignment(alignment, false);
+            for(Correspondence c : alignment){
+                copy.add(new Correspondence(c.getEntityOne(), c.getEntityTwo(), c.getConfidence(), c.getRelation(), 
+                        c.getExtensions() == null ? null : new HashMap<>(c.getExtensions()), c.getIdentifier()));
+            }
+            return copy;
+        }
+        if(o instanceof Properties){
+            Properties p = new Properties();
+            p.putAll((Properties) o);
+            return p;
+        }
+        if(o.getClass() == HashMap.class){
+            return new HashMap<>((Map<?,?>) o);
+        }
+        if(o.getClass() == LinkedHashMap.class){
+            return new LinkedHashMap<>((Map<?,?>) o);
+        }
+        return deepCopy(o);
+    }
+    
     /*
     within jackson TypeFactory.java line 1481, they directly set properties to map<string,string> which is not true
     thus we fix it above
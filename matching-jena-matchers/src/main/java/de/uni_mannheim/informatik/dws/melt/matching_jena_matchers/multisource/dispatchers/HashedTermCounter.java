@@ -0,0 +1,115 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers;
+
+import java.util.Arrays;
+
+/**
+ * Counts non negative int keys (hashed terms) with open addressing (no boxing, no strings).
+ * Used for the streaming bag of words in {@link MultiSourceDispatcherIncrementalMergeByClusterText}.
+ */
+class HashedTermCounter {
+    private static final int EMPTY = -1;
+
+    private int[] keys;
+    private int[] counts;
+    private int size;
+    private long sum;
+
+    HashedTermCounter() {
+        this.keys = new int[64];
+        this.counts = new int[64];
+        Arrays.fill(this.keys, EMPTY);
+    }
+
+    /**
+     * Increments the count of the given key by one.
+     * @param key the key (needs to be non negative)
+     */
+    void increment(int key){
+        int slot = findSlot(keys, key);
+        if(keys[slot] == EMPTY){
+            keys[slot] = key;
+            size++;
+            if(size * 2 > keys.length){
+                resize();
+            }
+            slot = findSlot(keys, key);
+        }
+        counts[slot]++;
+        sum++;
+    }
+
+    /**
+     * Returns the count of the given key.
+     * @param key the key
+     * @return the count or zero if the key was never incremented
+     */
+    int getCount(int key){
+        int slot = findSlot(keys, key);
+        return keys[slot] == EMPTY ? 0 : counts[slot];
+    }
+
+    /**
+     * Returns all keys with a count greater than zero (in no specific order).
+     * @return the keys
+     */
+    int[] getKeys(){
+        int[] result = new int[size];
+        int position = 0;
+        for(int key : keys){
+            if(key != EMPTY)
+                result[position++] = key;
+        }
+        return result;
+    }
+
+    int size(){
+        return size;
+    }
+
+    /**
+     * Returns the sum of all counts.
+     * @return the sum of all counts
+     */
+    long getSum(){
+        return sum;
+    }
+
+    private void resize(){
+        int[] oldKeys = keys;
+        int[] oldCounts = counts;
+        keys = new int[oldKeys.length * 2];
+        counts = new int[oldKeys.length * 2];
+        Arrays.fill(keys, EMPTY);
+        for(int i = 0; i < oldKeys.length; i++){
+            if(oldKeys[i] != EMPTY){
+                int slot = findSlot(keys, oldKeys[i]);
+                keys[slot] = oldKeys[i];
+                counts[slot] = oldCounts[i];
+            }
+        }
+    }
+
+    private static int findSlot(int[] keys, int key){
+        int mask = keys.length - 1;
+        int slot = mix(key) & mask;
+        while(keys[slot] != EMPTY && keys[slot] != key){
+            slot = (slot + 1) & mask;
+        }
+        return slot;
+    }
+
+    /**
+     * Finalization step of the 32 bit murmur3 hash which distributes the bits of the key.
+     * @param key the key
+     * @return the mixed key
+     */
+    static int mix(int key){
+        int h = key;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+}
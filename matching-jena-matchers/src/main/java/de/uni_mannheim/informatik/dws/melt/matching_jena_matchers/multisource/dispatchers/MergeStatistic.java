@@ -0,0 +1,69 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers;
+
+/**
+ * Statistics of one merge executed by {@link MultiSourceDispatcherIncrementalMerge}.
+ */
+public class MergeStatistic {
+    private final int mergeIndex;
+    private final long matchTimeMs;
+    private final long mergeTimeMs;
+    private final long sourceTriples;
+    private final long targetTriples;
+    private final long mergedTriples;
+    private final int alignmentSize;
+
+    /**
+     * Constructor
+     * @param mergeIndex the index of the merge in the merge tree
+     * @param matchTimeMs the time in milliseconds used by the one to one matcher
+     * @param mergeTimeMs the time in milliseconds used for merging the source into the target
+     * @param sourceTriples the number of triples in the source
+     * @param targetTriples the number of triples in the target (before merging)
+     * @param mergedTriples the number of triples in the target (after merging)
+     * @param alignmentSize the number of correspondences found by the one to one matcher
+     */
+    public MergeStatistic(int mergeIndex, long matchTimeMs, long mergeTimeMs, long sourceTriples, long targetTriples, long mergedTriples, int alignmentSize) {
+        this.mergeIndex = mergeIndex;
+        this.matchTimeMs = matchTimeMs;
+        this.mergeTimeMs = mergeTimeMs;
+        this.sourceTriples = sourceTriples;
+        this.targetTriples = targetTriples;
+        this.mergedTriples = mergedTriples;
+        this.alignmentSize = alignmentSize;
+    }
+
+    public int getMergeIndex() {
+        return mergeIndex;
+    }
+
+    public long getMatchTimeMs() {
+        return matchTimeMs;
+    }
+
+    public long getMergeTimeMs() {
+        return mergeTimeMs;
+    }
+
+    public long getSourceTriples() {
+        return sourceTriples;
+    }
+
+    public long getTargetTriples() {
+        return targetTriples;
+    }
+
+    public long getMergedTriples() {
+        return mergedTriples;
+    }
+
+    public int getAlignmentSize() {
+        return alignmentSize;
+    }
+
+    @Override
+    public String toString() {
+        return "MergeStatistic{" + "mergeIndex=" + mergeIndex + ", matchTimeMs=" + matchTimeMs + ", mergeTimeMs=" + mergeTimeMs + 
+                ", sourceTriples=" + sourceTriples + ", targetTriples=" + targetTriples + ", mergedTriples=" + mergedTriples + 
+                ", alignmentSize=" + alignmentSize + '}';
+    }
+}
@@ -0,0 +1,182 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.IntStream;
+
+/**
+ * Approximate single linkage clustering for a large number of (sparse) vectors.
+ * Candidate pairs are found with MinHash signatures and locality sensitive hashing (banding).
+ * Only the distances of candidate pairs are computed and they are merged in ascending order of their distance.
+ * Clusters which are not connected by any candidate pair are merged at the end (in the order of their cluster id).
+ * Thus the memory is linear in the number of vectors and candidate pairs (instead of quadratic in the number of vectors).
+ */
+class MinHashClustering {
+
+    /**
+     * If a bucket contains more vectors, only consecutive vectors of the bucket are used as candidate pairs
+     * (to avoid a quadratic number of pairs).
+     */
+    private static final int MAX_BUCKET_SIZE = 100;
+
+    private final int numberOfHashFunctions;
+    private final int numberOfBands;
+    private final long seed;
+
+    /**
+     * Constructor
+     * @param numberOfHashFunctions the number of MinHash functions (length of the signature)
+     * @param numberOfBands the number of LSH bands (the signature is split in this number of bands)
+     * @param seed the seed for the hash functions
+     */
+    MinHashClustering(int numberOfHashFunctions, int numberOfBands, long seed) {
+        if(numberOfBands <= 0 || numberOfHashFunctions < numberOfBands)
+            throw new IllegalArgumentException("The number of hash functions needs to be greater or equal to the number of bands (which needs to be positive).");
+        this.numberOfHashFunctions = numberOfHashFunctions;
+        this.numberOfBands = numberOfBands;
+        this.seed = seed;
+    }
+
+    /**
+     * Computes the merge tree in the format of {@link MultiSourceDispatcherIncrementalMerge#getMergeTree(java.util.List, java.lang.Object) }.
+     * @param vectors the vectors
+     * @return the merge tree (n-1 by 2 matrix)
+     */
+    int[][] getMergeTree(SparseVector[] vectors){
+        int n = vectors.length;
+        int[][] signatures = computeSignatures(vectors);
+        long[] candidates = getCandidatePairs(signatures);
+
+        double[] distances = new double[candidates.length];
+        IntStream.range(0, candidates.length).parallel().forEach(c -> {
+            distances[c] = vectors[(int) (candidates[c] / n)].euclideanDistance(vectors[(int) (candidates[c] % n)]);
+        });
+        Integer[] order = new Integer[candidates.length];
+        for(int i = 0; i < order.length; i++){
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> {
+            int c = Double.compare(distances[a], distances[b]);
+            return c != 0 ? c : Long.compare(candidates[a], candidates[b]);
+        });
+
+        //Kruskal: merge the closest clusters first
+        int[] parent = new int[n];
+        int[] clusterId = new int[n];
+        for(int i = 0; i < n; i++){
+            parent[i] = i;
+            clusterId[i] = i;
+        }
+        int[][] tree = new int[Math.max(0, n - 1)][];
+        int merges = 0;
+        for(Integer c : order){
+            int a = find(parent, (int) (candidates[c] / n));
+            int b = find(parent, (int) (candidates[c] % n));
+            if(a == b)
+                continue;
+            tree[merges] = new int[]{clusterId[a], clusterId[b]};
+            parent[b] = a;
+            clusterId[a] = n + merges;
+            merges++;
+        }
+
+        //connect the remaining clusters
+        List<Integer> remaining = new ArrayList<>();
+        for(int i = 0; i < n; i++){
+            if(find(parent, i) == i)
+                remaining.add(i);
+        }
+        remaining.sort((a, b) -> Integer.compare(clusterId[a], clusterId[b]));
+        for(int i = 1; i < remaining.size(); i++){
+            int a = find(parent, remaining.get(0));
+            int b = remaining.get(i);
+            tree[merges] = new int[]{clusterId[a], clusterId[b]};
+            parent[b] = a;
+            clusterId[a] = n + merges;
+            merges++;
+        }
+        return tree;
+    }
+
+    /**
+     * Computes the MinHash signature of each vector based on the set of its non zero indices.
+     * @param vectors the vectors
+     * @return signature for each vector
+     */
+    int[][] computeSignatures(SparseVector[] vectors){
+        Random random = new Random(seed);
+        int[] a = new int[numberOfHashFunctions];
+        int[] b = new int[numberOfHashFunctions];
+        for(int h = 0; h < numberOfHashFunctions; h++){
+            a[h] = random.nextInt() | 1;
+            b[h] = random.nextInt();
+        }
+        int[][] signatures = new int[vectors.length][];
+        IntStream.range(0, vectors.length).parallel().forEach(v -> {
+            int[] signature = new int[numberOfHashFunctions];
+            Arrays.fill(signature, Integer.MAX_VALUE);
+            int[] indices = vectors[v].getIndices();
+            double[] values = vectors[v].getValues();
+            for(int i = 0; i < indices.length; i++){
+                if(values[i] == 0.0)
+                    continue;
+                for(int h = 0; h < numberOfHashFunctions; h++){
+                    int hash = HashedTermCounter.mix(indices[i] * a[h] + b[h]);
+                    if(hash < signature[h])
+                        signature[h] = hash;
+                }
+            }
+            signatures[v] = signature;
+        });
+        return signatures;
+    }
+
+    /**
+     * Returns all pairs of vectors which have the same signature in at least one band.
+     * @param signatures the signatures
+     * @return the pairs encoded as i * n + j with i &lt; j (sorted)
+     */
+    private long[] getCandidatePairs(int[][] signatures){
+        int n = signatures.length;
+        int rows = numberOfHashFunctions / numberOfBands;
+        Set<Long> pairs = new HashSet<>();
+        for(int band = 0; band < numberOfBands; band++){
+            Map<List<Integer>, List<Integer>> buckets = new HashMap<>();
+            for(int v = 0; v < n; v++){
+                List<Integer> key = new ArrayList<>(rows);
+                for(int r = band * rows; r < (band + 1) * rows; r++){
+                    key.add(signatures[v][r]);
+                }
+                buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(v);
+            }
+            for(List<Integer> bucket : buckets.values()){
+                if(bucket.size() > MAX_BUCKET_SIZE){
+                    for(int i = 1; i < bucket.size(); i++){
+                        pairs.add((long) bucket.get(i - 1) * n + bucket.get(i));
+                    }
+                }else{
+                    for(int i = 0; i < bucket.size(); i++){
+                        for(int j = i + 1; j < bucket.size(); j++){
+                            pairs.add((long) bucket.get(i) * n + bucket.get(j));
+                        }
+                    }
+                }
+            }
+        }
+        return pairs.stream().mapToLong(Long::longValue).sorted().toArray();
+    }
+
+    private static int find(int[] parent, int x){
+        while(parent[x] != x){
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+}
@@ -1,31 +1,61 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys;
 import de.uni_mannheim.informatik.dws.melt.matching_base.multisource.IMatcherMultiSourceCaller;
 import de.uni_mannheim.informatik.dws.melt.matching_base.multisource.MatcherMultiSourceURL;
 import de.uni_mannheim.informatik.dws.melt.matching_base.multisource.MultiSourceDispatcher;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AlignmentAndParameters;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.GenericMatcherCaller;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
 import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.rdf.model.Model;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Matches all pairs of ontologies / knowledge graphs with the given one to one matcher and returns the union of all alignments.
+ * <p>
+ * The pairs can be matched in parallel (see {@link #setNumberOfThreads(int) }). In this case the one to one matcher is called
+ * from multiple threads at the same time and needs to be thread safe.
+ * The number of ontologies which are parsed and held in memory at the same time can be bounded (see {@link #setMaxResidentModels(int) }).
+ */
 public class MultiSourceDispatcherAllPairs extends MatcherMultiSourceURL implements MultiSourceDispatcher, IMatcherMultiSourceCaller{
     
     private static final Logger LOGGER = LoggerFactory.getLogger(MultiSourceDispatcherAllPairs.class);
     
-    private static final ObjectMapper objectMapper = new ObjectMapper();
     private final Object oneToOneMatcher;
+    
+    /**
+     * Number of pairs which are matched in parallel.
+     */
+    private int numberOfThreads;
+    
+    /**
+     * Maximum number of ontologies which are parsed and held in memory at the same time (zero or less means no bound).
+     */
+    private int maxResidentModels;
 
     public MultiSourceDispatcherAllPairs(Object oneToOneMatcher) {
         this.oneToOneMatcher = oneToOneMatcher;
+        this.numberOfThreads = 1;
+        this.maxResidentModels = 0;
     }
     
     @Override
@@ -40,35 +70,197 @@ public class MultiSourceDispatcherAllPairs extends MatcherMultiSourceURL impleme
     
     @Override
     public AlignmentAndParameters match(List<Set<Object>> models, Object inputAlignment, Object parameters) throws Exception{
-        int combinations = (models.size() * (models.size() - 1)) / 2;
+        int n = models.size();
+        int combinations = (n * (n - 1)) / 2;
         LOGGER.info("Match {} one to one matches", combinations);
-        Alignment finalAlignment = new Alignment();
-        int counter = 1;
-        for(int i = 0; i < models.size() - 1; i++){
-            Set<Object> left = models.get(i);
-            for(int j = i + 1; j < models.size(); j++){
-                Set<Object> right = models.get(j);
-                LOGGER.info("Match combination {} out of {}", counter++, combinations);
-                //to make sure that all matchers gets the same input alignment and proeprties we make a deep copy of them.
-                Object copiedInputAlignment = objectMapper.readValue(objectMapper.writeValueAsString(inputAlignment), inputAlignment.getClass());
-                Object copiedParameters = objectMapper.readValue(objectMapper.writeValueAsString(parameters), parameters.getClass());
-                AlignmentAndParameters alignmentAndPrameters = GenericMatcherCaller.runMatcherMultipleRepresentations(this.oneToOneMatcher, left, right, copiedInputAlignment, copiedParameters);
-                Alignment a = TypeTransformerRegistry.getTransformedObject(alignmentAndPrameters.getAlignment(), Alignment.class);
-                if(a == null){
-                    LOGGER.warn("Tranformation of the alignment was not succesfull. One matching alignment will not be in the result.");
-                }else{
-                    finalAlignment.addAll(a);
+        
+        //the models are processed in blocks such that at most maxResidentModels models are needed at the same time.
+        //without a bound, there is only one block containing all models.
+        int blockSize = this.maxResidentModels > 0 && this.maxResidentModels < n ? Math.max(1, this.maxResidentModels / 2) : Math.max(1, n);
+        int numberOfBlocks = (n + blockSize - 1) / blockSize;
+        
+        Properties parsingProperties = null;
+        if(this.maxResidentModels > 0){
+            //parse the models without the global cache - they are only referenced as long as they are needed.
+            parsingProperties = new Properties();
+            parsingProperties.putAll(TypeTransformerRegistry.getTransformedPropertiesOrNewInstance(parameters));
+            parsingProperties.put(ParameterConfigKeys.USE_ONTOLOGY_CACHE, false);
+        }
+        
+        //each pair alignment is merged as soon as it (and all pairs before it) are finished - only out of order results are kept.
+        OrderedAlignmentMerger merger = new OrderedAlignmentMerger();
+        AtomicInteger counter = new AtomicInteger(1);
+        Map<Integer, Set<Object>> residentModels = new HashMap<>();
+        ExecutorService executor = this.numberOfThreads > 1 ? Executors.newFixedThreadPool(this.numberOfThreads) : null;
+        try{
+            for(int leftBlock = 0; leftBlock < numberOfBlocks; leftBlock++){
+                for(int rightBlock = leftBlock; rightBlock < numberOfBlocks; rightBlock++){
+                    List<int[]> pairs = new ArrayList<>();
+                    for(int i = leftBlock * blockSize; i < Math.min(n, (leftBlock + 1) * blockSize); i++){
+                        for(int j = Math.max(i + 1, rightBlock * blockSize); j < Math.min(n, (rightBlock + 1) * blockSize); j++){
+                            pairs.add(new int[]{i, j});
+                        }
+                    }
+                    if(pairs.isEmpty())
+                        continue;
+                    Map<Integer, Set<Object>> blockModels = getBlockModels(models, pairs, residentModels, parsingProperties);
+                    
+                    List<Callable<Void>> tasks = new ArrayList<>(pairs.size());
+                    for(int[] pair : pairs){
+                        int sequence = merger.nextSequence();
+                        tasks.add(() -> {
+                            LOGGER.info("Match combination {} out of {}", counter.getAndIncrement(), combinations);
+                            Set<Object> left = blockModels.get(pair[0]);
+                            Set<Object> right = blockModels.get(pair[1]);
+                            if(executor != null){
+                                //transformed representations are added to the set - thus each thread gets its own set (the representations itself are shared).
+                                left = new HashSet<>(left);
+                                right = new HashSet<>(right);
+                            }
+                            merger.merge(sequence, matchPair(left, right, inputAlignment, parameters));
+                            return null;
+                        });
+                    }
+                    runTasks(executor, tasks);
                 }
-                //finalAlignment.addAll(oneToOneMatcherJena.match(left, right, inputAlignment, new Properties()));
+            }
+        }finally{
+            if(executor != null)
+                executor.shutdown();
+            residentModels.clear();
+        }
+        
+        return new AlignmentAndParameters(merger.getAlignment(), parameters);
+    }
+    
+    private Alignment matchPair(Set<Object> left, Set<Object> right, Object inputAlignment, Object parameters) throws Exception{
+        //to make sure that all matchers gets the same input alignment and properties we make a copy of them.
+        //immutable representations (like URLs) are shared and not copied.
+        Object copiedInputAlignment = DispatcherHelper.structuralCopy(inputAlignment);
+        Object copiedParameters = DispatcherHelper.structuralCopy(parameters);
+        AlignmentAndParameters alignmentAndPrameters = GenericMatcherCaller.runMatcherMultipleRepresentations(this.oneToOneMatcher, left, right, copiedInputAlignment, copiedParameters);
+        Alignment a = TypeTransformerRegistry.getTransformedObject(alignmentAndPrameters.getAlignment(), Alignment.class);
+        if(a == null){
+            LOGGER.warn("Tranformation of the alignment was not succesfull. One matching alignment will not be in the result.");
+        }
+        return a;
+    }
+    
+    /**
+     * Returns the representations of all models which are used in the given pairs.
+     * If the number of resident models is bounded, models which are not needed anymore are released and 
+     * new models are parsed once (and then shared by all pairs of the block).
+     */
+    private Map<Integer, Set<Object>> getBlockModels(List<Set<Object>> models, List<int[]> pairs, Map<Integer, Set<Object>> residentModels, Properties parsingProperties) throws TypeTransformationException{
+        Set<Integer> needed = new HashSet<>();
+        for(int[] pair : pairs){
+            needed.add(pair[0]);
+            needed.add(pair[1]);
+        }
+        if(parsingProperties == null){
+            Map<Integer, Set<Object>> blockModels = new HashMap<>();
+            for(Integer i : needed){
+                blockModels.put(i, models.get(i));
+            }
+            return blockModels;
+        }
+        residentModels.keySet().retainAll(needed);
+        for(Integer i : needed){
+            if(residentModels.containsKey(i))
+                continue;
+            Set<Object> representations = new HashSet<>(models.get(i));
+            if(representations.stream().noneMatch(o -> o instanceof Model)){
+                LOGGER.info("Parse model {} (resident models: {})", i, residentModels.size() + 1);
+                //the parsed model is added to the set of representations (the original set is not modified)
+                TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(representations, OntModel.class, parsingProperties);
+            }
+            residentModels.put(i, representations);
+        }
+        return new HashMap<>(residentModels);
+    }
+    
+    private static void runTasks(ExecutorService executor, List<Callable<Void>> tasks) throws Exception{
+        if(executor == null){
+            for(Callable<Void> task : tasks){
+                task.call();
+            }
+            return;
+        }
+        List<Future<Void>> futures = executor.invokeAll(tasks);
+        for(Future<Void> future : futures){
+            try{
+                future.get();
+            }catch(ExecutionException ex){
+                if(ex.getCause() instanceof Exception)
+                    throw (Exception) ex.getCause();
+                throw ex;
             }
         }
-        //return finalAlignment;
-        return new AlignmentAndParameters(finalAlignment, parameters);
+    }
+    
+    /**
+     * Merges the pair alignments into one alignment in the order in which the pairs are scheduled (sequence number),
+     * thus the result is independent of the thread scheduling (e.g. which confidence is kept for duplicate correspondences).
+     * An alignment is merged and released as soon as all alignments with a lower sequence number are merged.
+     * Only alignments which finish out of order are kept until then.
+     */
+    private static class OrderedAlignmentMerger {
+        private final Alignment alignment = new Alignment();
+        private final Map<Integer, Alignment> pending = new HashMap<>();
+        private int scheduled = 0;
+        private int nextToMerge = 0;
+
+        int nextSequence(){
+            return scheduled++;
+        }
+
+        synchronized void merge(int sequence, Alignment pairAlignment){
+            //null is also stored such that the following alignments are not blocked.
+            pending.put(sequence, pairAlignment);
+            while(pending.containsKey(nextToMerge)){
+                Alignment a = pending.remove(nextToMerge);
+                if(a != null)
+                    alignment.addAll(a);
+                nextToMerge++;
+            }
+        }
+
+        synchronized Alignment getAlignment(){
+            return alignment;
+        }
     }
     
     @Override
     public boolean needsTransitiveClosureForEvaluation(){
         return false;
     }
-    
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of pairs which are matched in parallel.
+     * If greater than one, the one to one matcher is called concurrently and needs to be thread safe.
+     * @param numberOfThreads number of threads (one or less means sequential execution)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    public int getMaxResidentModels() {
+        return maxResidentModels;
+    }
+
+    /**
+     * Sets the maximum number of ontologies which are parsed and held in memory at the same time.
+     * If set to a value greater than zero, each ontology is parsed once per block of pairs (without the global ontology cache)
+     * and the parsed model is shared by all pairs of the block. The pairs are ordered such that at most this number of models is
+     * needed at the same time (the value should be at least two).
+     * If zero or less (the default), the models are given to the matcher as they are.
+     * @param maxResidentModels the maximum number of resident models
+     */
+    public void setMaxResidentModels(int maxResidentModels) {
+        this.maxResidentModels = maxResidentModels;
+    }
 }
@@ -21,6 +21,7 @@ import java.net.MalformedURLException;
 import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -28,6 +29,14 @@ import java.util.List;
 import java.util.Map;
 import java.util.Properties;
 import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
 import java.util.logging.Level;
 import org.apache.jena.graph.Graph;
 import org.apache.jena.graph.Node;
@@ -55,6 +64,11 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
     private boolean addInformationToUnion;
     private boolean lowMemoryOverhead;
     private List<Alignment> intermediateAlignments;
+    private List<MergeStatistic> mergeStatistics;
+    
+    private int numberOfThreads;
+    private Supplier<Object> oneToOneMatcherFactory;
+    private long maxTriplesInProgress;
 
     /**
      * Constructor which expects the actual one to one matcher and a boolean if the cache should be used.
@@ -69,6 +83,10 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
         this.addInformationToUnion = addInformationToUnion;
         this.intermediateAlignments = null; // default is not to save intermediate alignments
         this.lowMemoryOverhead = false;
+        this.mergeStatistics = new ArrayList<>();
+        this.numberOfThreads = 1;
+        this.oneToOneMatcherFactory = null;
+        this.maxTriplesInProgress = 0;
     }
     
     public MultiSourceDispatcherIncrementalMerge(Object oneToOneMatcher) {
@@ -114,128 +132,282 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
             }
         }
         
-        List<Set<Object>> mergedOntologies = new ArrayList<>();
-        
         Properties p = TypeTransformerRegistry.getTransformedPropertiesOrNewInstance(parameters);
-        
         int n = models.size();
         if(mergingTree.length != n-1){
             throw new IllegalArgumentException("Merging tree has not enough entries. There are " + n + "model but only " + mergingTree.length + " entries in tree (expected " + (n-1) + " ). Stopping merging.");
         }
-        callClearIndex(); // clear index if some index already exists.
+        for(int[] merges : mergingTree){
+            if(merges.length != 2){
+                LOGGER.warn("mergingTree contains less or more than 2 entries. Returning input alignment.");
+                return new AlignmentAndParameters(inputAlignment, parameters);
+            }
+        }
+        this.mergeStatistics = Collections.synchronizedList(new ArrayList<>());
+        if(this.numberOfThreads > 1){
+            if(this.oneToOneMatcher instanceof IndexBasedJenaMatcher && this.oneToOneMatcherFactory == null){
+                LOGGER.warn("The one to one matcher is index based but no matcher factory is set (setOneToOneMatcherFactory). "
+                        + "Each concurrent branch needs its own index - thus the merges are executed sequentially.");
+            }else{
+                return matchParallel(models, mergingTree, inputAlignment, parameters, p);
+            }
+        }
+        
+        callClearIndex(this.oneToOneMatcher); // clear index if some index already exists.
         int mergeCount = mergingTree.length;
         LOGGER.info("Now performing {} merges.", mergeCount);
         Alignment finalAlignment = new Alignment();
+        List<Set<Object>> mergedOntologies = new ArrayList<>();
         for (int i = 0; i < mergeCount; i++) {
             LOGGER.info("Prepare merge {} / {}", i + 1, mergeCount);
-            int[] merges = mergingTree[i];
-            if(merges.length != 2){
-                LOGGER.warn("mergingTree contains less or more than 2 entries. Returning input alignment.");
+            MergeStep step = prepareMerge(i, mergingTree[i], models, mergedOntologies, p);
+            if(step.isClearIndex())
+                callClearIndex(this.oneToOneMatcher);
+            Alignment alignment = executeMerge(step, this.oneToOneMatcher, inputAlignment, parameters, p);
+            if(alignment == null){
                 return new AlignmentAndParameters(inputAlignment, parameters);
             }
-            int left = merges[0];
-            int right = merges[1];
-            
-            
-            Set<Object> source;
-            Set<Object> target;
-            //source is merged to target
-            //goal is to always merge into the already merged element
-            //in case both are merged, then the preference has if something appears previously
-            //otherwise choose the one with less triples as source.
-            if(left >= n){
-                Set<Object> leftOntology = mergedOntologies.get(left - n);
-                if(right >= n){
-                    //merge two already merged elements
-                    Set<Object> rightOntology = mergedOntologies.get(right - n);
-                    //is one element previously merged?
-                    if(left - n == i - 1){
-                        //no clear index necessary
-                        source = rightOntology; //TODO: check
-                        target = leftOntology;
-                    }else if(right - n == i - 1){
-                        //no clear index necessary
-                        source = leftOntology;//TODO: check
-                        target = rightOntology;
-                    }else{
-                        //otherwise choose the one with less triples as source
-                        callClearIndex();// clear index because previously no match of already merged elements.
-                        if(isLeftModelGreater(leftOntology, rightOntology, p)){
-                            source = rightOntology;
-                            target = leftOntology;
+            finalAlignment.addAll(alignment);
+            if(this.intermediateAlignments != null)
+                this.intermediateAlignments.add(alignment);
+            mergedOntologies.add(step.getResult());
+        }
+        
+        return new AlignmentAndParameters(finalAlignment, parameters);
+    }
+    
+    /**
+     * Executes the merge tree as a DAG: every merge whose two inputs are available is executed in parallel (bounded by the number of threads
+     * and optionally by the number of triples which are processed at the same time).
+     * The decision which ontology is source and target as well as when the index is cleared is the same as in the sequential execution.
+     * Each concurrent branch has its own matcher instance (and thus its own index) which is handed over to the merge which continues the branch.
+     * If a merge throws an exception, no further merges are started and the first exception is thrown once the running merges are finished.
+     */
+    private AlignmentAndParameters matchParallel(List<Set<Object>> models, int[][] mergingTree, Object inputAlignment, Object parameters, Properties p) throws Exception{
+        int n = models.size();
+        int mergeCount = mergingTree.length;
+        LOGGER.info("Now performing {} merges with {} threads.", mergeCount, this.numberOfThreads);
+        
+        //dependencies between the merges
+        int[] openInputs = new int[mergeCount];
+        int[] parentMerge = new int[mergeCount];
+        Arrays.fill(parentMerge, -1);
+        for(int i = 0; i < mergeCount; i++){
+            for(int input : mergingTree[i]){
+                if(input >= n){
+                    openInputs[i]++;
+                    parentMerge[input - n] = i;
+                }
+            }
+        }
+        
+        List<Set<Object>> mergedOntologies = new CopyOnWriteArrayList<>(Collections.nCopies(mergeCount, (Set<Object>) null));
+        Object[] matchers = new Object[mergeCount];
+        Alignment[] alignments = new Alignment[mergeCount];
+        MergeStep[] steps = new MergeStep[mergeCount];
+        long[] estimatedTriples = new long[mergeCount];
+        
+        //merges are ordered by their position in the tree such that the execution is similar to the sequential one.
+        TreeSet<Integer> ready = new TreeSet<>();
+        for(int i = 0; i < mergeCount; i++){
+            if(openInputs[i] == 0)
+                ready.add(i);
+        }
+        
+        ExecutorService executor = Executors.newFixedThreadPool(this.numberOfThreads);
+        CompletionService<Integer> completionService = new ExecutorCompletionService<>(executor);
+        int running = 0;
+        long runningTriples = 0;
+        boolean failed = false;
+        Throwable failure = null;
+        try{
+            int finished = 0;
+            while(finished < mergeCount){
+                while(!failed && !ready.isEmpty() && running < this.numberOfThreads){
+                    int i = ready.first();
+                    long triples = this.maxTriplesInProgress > 0 ? estimateTriples(mergingTree[i], models, mergedOntologies, p) : 0;
+                    if(running > 0 && runningTriples + triples > this.maxTriplesInProgress && this.maxTriplesInProgress > 0)
+                        break; // wait until some memory is available - at least one merge is always executed
+                    ready.remove(i);
+                    estimatedTriples[i] = triples;
+                    runningTriples += triples;
+                    running++;
+                    
+                    final int index = i;
+                    completionService.submit(() -> {
+                        LOGGER.info("Prepare merge {} / {}", index + 1, mergeCount);
+                        //the inputs of this merge are finished and not used by any other merge
+                        MergeStep step = prepareMerge(index, mergingTree[index], models, mergedOntologies, p);
+                        steps[index] = step;
+                        Object matcher;
+                        if(step.getTargetMerge() >= 0){
+                            matcher = matchers[step.getTargetMerge()]; // continue the branch (and its index)
+                            matchers[step.getTargetMerge()] = null;
                         }else{
-                            source = leftOntology;
-                            target = rightOntology;
+                            matcher = this.oneToOneMatcherFactory == null ? this.oneToOneMatcher : this.oneToOneMatcherFactory.get();
                         }
-                    }
-                    
-                }else{
-                    //left is merged and right is leaf node (unmerged element)
-                    Set<Object> rightOntology = models.get(right);
-                    source = rightOntology;
-                    target = leftOntology;
-                    if(left - n != i - 1){
-                        callClearIndex();
-                    }
+                        if(step.getSourceMerge() >= 0){
+                            matchers[step.getSourceMerge()] = null; //branch ends here
+                        }
+                        if(step.isClearIndex())
+                            callClearIndex(matcher);
+                        alignments[index] = executeMerge(step, matcher, inputAlignment, parameters, p);
+                        matchers[index] = matcher;
+                        return index;
+                    });
                 }
-            }else{
-                Set<Object> leftOntology = models.get(left);
-                if(right >= n){
-                    //right is merged and left is leaf node (unmerged element)
-                    Set<Object> rightOntology = mergedOntologies.get(right - n);
-                    source = leftOntology;
-                    target = rightOntology;
-                    if(right - n != i - 1){
-                        callClearIndex();
-                    }
-                }else{
-                    //merge two leaf nodes (unmerged elements)
-                    callClearIndex();
-                    Set<Object> rightOntology = models.get(right);                     
-                    if(isLeftModelGreater(leftOntology, rightOntology, p)){
-                        //copy target because otherwise the original model will be modified. Which can be persisted on disk.
-                        source = rightOntology;
-                        target = getCopiedModel(leftOntology, p);
-                    }else{
-                        //copy target because otherwise the original model will be modified. Which can be persisted on disk.
-                        source = leftOntology;
-                        target = getCopiedModel(rightOntology, p);
-                    }
+                if(running == 0)
+                    break; // failed and nothing is running anymore
+                int i;
+                try{
+                    i = completionService.take().get();
+                }catch(ExecutionException ex){
+                    //same as in the sequential execution: the exception is thrown (after all running merges are finished).
+                    if(failure == null)
+                        failure = ex.getCause();
+                    failed = true;
+                    running--;
+                    finished++;
+                    continue;
+                }
+                running--;
+                finished++;
+                runningTriples -= estimatedTriples[i];
+                if(alignments[i] == null){
+                    failed = true;
+                    continue;
+                }
+                mergedOntologies.set(i, steps[i].getResult());
+                if(parentMerge[i] >= 0 && --openInputs[parentMerge[i]] == 0){
+                    ready.add(parentMerge[i]);
                 }
             }
-            
-            LOGGER.info("Run one to one match");
-            AlignmentAndParameters alignmentAndPrameters = GenericMatcherCaller.runMatcherMultipleRepresentations(this.oneToOneMatcher, source, target, 
-                    DispatcherHelper.deepCopy(inputAlignment), DispatcherHelper.deepCopy(parameters));
-            Alignment alignment = TypeTransformerRegistry.getTransformedObject(alignmentAndPrameters.getAlignment(), Alignment.class);
-            if(alignment == null){
-                LOGGER.error("Could not transform result of matcher to alignment. Return input alignment.");
-                return new AlignmentAndParameters(inputAlignment, parameters);
-            }
+        }finally{
+            executor.shutdown();
+        }
+        if(failure instanceof Exception){
+            throw (Exception) failure;
+        }else if(failure instanceof Error){
+            throw (Error) failure;
+        }
+        if(failed){
+            return new AlignmentAndParameters(inputAlignment, parameters);
+        }
+        
+        Alignment finalAlignment = new Alignment();
+        for(Alignment alignment : alignments){
             finalAlignment.addAll(alignment);
             if(this.intermediateAlignments != null)
                 this.intermediateAlignments.add(alignment);
-            
-            LOGGER.info("Merge source ontology with alignment into target ontology.");
-            //need to transform the model in something known like jena model.
-            Model sourceModel = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(source, Model.class, p);
-            Model targetModel = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(target, Model.class, p);
-            if(sourceModel == null || targetModel == null){
-                LOGGER.error("Could not transform source or target to Model");
-                return new AlignmentAndParameters(inputAlignment, parameters);
+        }
+        return new AlignmentAndParameters(finalAlignment, parameters);
+    }
+    
+    /**
+     * Decides which ontology is the source and which is the target of the merge and if the index of the matcher needs to be cleared.
+     * The source is merged into the target. The goal is to always merge into the already merged element.
+     * In case both are merged, then the preference has the one which is merged in the previous step.
+     * Otherwise choose the one with less triples as source.
+     * @param i the index of the merge in the merge tree
+     * @param merges the row of the merge tree
+     * @param models the initial models
+     * @param mergedOntologies the results of the previous merges
+     * @param p the parameters
+     * @return the merge step
+     */
+    private MergeStep prepareMerge(int i, int[] merges, List<Set<Object>> models, List<Set<Object>> mergedOntologies, Properties p) throws TypeTransformationException{
+        int n = models.size();
+        int left = merges[0];
+        int right = merges[1];
+        if(left >= n){
+            Set<Object> leftOntology = mergedOntologies.get(left - n);
+            if(right >= n){
+                //merge two already merged elements
+                Set<Object> rightOntology = mergedOntologies.get(right - n);
+                //is one element previously merged?
+                if(left - n == i - 1){
+                    //no clear index necessary
+                    return new MergeStep(i, rightOntology, right - n, leftOntology, left - n, false);
+                }else if(right - n == i - 1){
+                    //no clear index necessary
+                    return new MergeStep(i, leftOntology, left - n, rightOntology, right - n, false);
+                }else{
+                    //otherwise choose the one with less triples as source
+                    // clear index because previously no match of already merged elements.
+                    if(isLeftModelGreater(leftOntology, rightOntology, p)){
+                        return new MergeStep(i, rightOntology, right - n, leftOntology, left - n, true);
+                    }else{
+                        return new MergeStep(i, leftOntology, left - n, rightOntology, right - n, true);
+                    }
+                }
+            }else{
+                //left is merged and right is leaf node (unmerged element)
+                return new MergeStep(i, models.get(right), -1, leftOntology, left - n, left - n != i - 1);
             }
-            mergeSourceIntoTarget(sourceModel, targetModel, alignment, addInformationToUnion);
-            
-            if(this.lowMemoryOverhead){
-                //in low memory overhead the target is tdb and doesn't need to be removed.
-                removeOntModelFromSet(source);
+        }else{
+            Set<Object> leftOntology = models.get(left);
+            if(right >= n){
+                //right is merged and left is leaf node (unmerged element)
+                return new MergeStep(i, leftOntology, -1, mergedOntologies.get(right - n), right - n, right - n != i - 1);
+            }else{
+                //merge two leaf nodes (unmerged elements)
+                Set<Object> rightOntology = models.get(right);
+                //copy target because otherwise the original model will be modified. Which can be persisted on disk.
+                if(isLeftModelGreater(leftOntology, rightOntology, p)){
+                    return new MergeStep(i, rightOntology, -1, getCopiedModel(leftOntology, p), -1, true);
+                }else{
+                    return new MergeStep(i, leftOntology, -1, getCopiedModel(rightOntology, p), -1, true);
+                }
             }
-            mergedOntologies.add(new HashSet<>(Arrays.asList(targetModel)));
         }
-        
-        return new AlignmentAndParameters(finalAlignment, parameters);
     }
     
+    /**
+     * Runs the one to one matcher and merges the source into the target.
+     * @param step the merge step
+     * @param matcher the one to one matcher which should be used.
+     * @param inputAlignment the input alignment
+     * @param parameters the parameters
+     * @param p the parameters as properties
+     * @return the alignment of the one to one matcher or null if something went wrong.
+     */
+    private Alignment executeMerge(MergeStep step, Object matcher, Object inputAlignment, Object parameters, Properties p) throws Exception{
+        long start = System.nanoTime();
+        LOGGER.info("Run one to one match");
+        AlignmentAndParameters alignmentAndPrameters = GenericMatcherCaller.runMatcherMultipleRepresentations(matcher, step.getSource(), step.getTarget(), 
+                DispatcherHelper.deepCopy(inputAlignment), DispatcherHelper.deepCopy(parameters));
+        Alignment alignment = TypeTransformerRegistry.getTransformedObject(alignmentAndPrameters.getAlignment(), Alignment.class);
+        if(alignment == null){
+            LOGGER.error("Could not transform result of matcher to alignment. Return input alignment.");
+            return null;
+        }
+        long matchEnd = System.nanoTime();
+        
+        LOGGER.info("Merge source ontology with alignment into target ontology.");
+        //need to transform the model in something known like jena model.
+        Model sourceModel = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(step.getSource(), Model.class, p);
+        Model targetModel = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(step.getTarget(), Model.class, p);
+        if(sourceModel == null || targetModel == null){
+            LOGGER.error("Could not transform source or target to Model");
+            return null;
+        }
+        long sourceTriples = sourceModel.size();
+        long targetTriples = targetModel.size();
+        mergeSourceIntoTarget(sourceModel, targetModel, alignment, addInformationToUnion);
+        
+        if(this.lowMemoryOverhead){
+            //in low memory overhead the target is tdb and doesn't need to be removed.
+            removeOntModelFromSet(step.getSource());
+        }
+        step.setResult(new HashSet<>(Arrays.asList(targetModel)));
+        long end = System.nanoTime();
+        
+        MergeStatistic statistic = new MergeStatistic(step.getIndex(), (matchEnd - start) / 1_000_000, (end - matchEnd) / 1_000_000,
+                sourceTriples, targetTriples, targetModel.size(), alignment.size());
+        LOGGER.info("Merge {} finished: {}", step.getIndex() + 1, statistic);
+        this.mergeStatistics.add(statistic);
+        return alignment;
+    }
     private void removeOntModelFromSet(Set<Object> set){
         for (Iterator<Object> i = set.iterator(); i.hasNext();) {
             Object element = i.next();
@@ -266,6 +438,52 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
         this.addInformationToUnion = addInformationToUnion;
     }
 
+    /**
+     * Returns the statistics (timing and number of triples) of each merge of the last call to the match method.
+     * @return list of statistics (in the order in which the merges finished)
+     */
+    public List<MergeStatistic> getMergeStatistics() {
+        return new ArrayList<>(mergeStatistics);
+    }
+
+    public int getNumberOfThreads() {
+        return numberOfThreads;
+    }
+
+    /**
+     * Sets the number of merges which are executed at the same time.
+     * Merges in disjoint subtrees of the merge tree do not depend on each other and can be executed in parallel.
+     * If the one to one matcher is an {@link IndexBasedJenaMatcher}, a matcher factory needs to be set
+     * (see {@link #setOneToOneMatcherFactory(java.util.function.Supplier) }) because each branch needs its own index.
+     * Otherwise the one to one matcher is called concurrently and needs to be thread safe.
+     * @param numberOfThreads the number of threads (one or less means sequential execution which is the default)
+     */
+    public void setNumberOfThreads(int numberOfThreads) {
+        this.numberOfThreads = numberOfThreads;
+    }
+
+    /**
+     * Sets a factory which creates a new one to one matcher for each branch of the merge tree which is executed concurrently.
+     * This is only used if the number of threads is greater than one.
+     * @param oneToOneMatcherFactory the factory which creates a new one to one matcher (should be of the same type and configuration as the matcher given in the constructor)
+     */
+    public void setOneToOneMatcherFactory(Supplier<Object> oneToOneMatcherFactory) {
+        this.oneToOneMatcherFactory = oneToOneMatcherFactory;
+    }
+
+    public long getMaxTriplesInProgress() {
+        return maxTriplesInProgress;
+    }
+
+    /**
+     * Sets the maximum number of triples (sum of the triples of both inputs of all running merges) which are processed at the same time
+     * in case of parallel execution. A merge is always executed if no other merge is running.
+     * @param maxTriplesInProgress the maximum number of triples (zero or less means no bound which is the default)
+     */
+    public void setMaxTriplesInProgress(long maxTriplesInProgress) {
+        this.maxTriplesInProgress = maxTriplesInProgress;
+    }
+    
     /**
      * If set to true, the memory overhead is reduced by two facts:
      * 1) intermediate KG are stored in TDB 2) Jena model are deleted when not needed.
@@ -301,10 +519,25 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
         return leftModel.size() > rightModel.size();
     }
     
-    private void callClearIndex(){
-        if(this.oneToOneMatcher instanceof IndexBasedJenaMatcher){
-            ((IndexBasedJenaMatcher)this.oneToOneMatcher).clearIndex();
+    private static void callClearIndex(Object matcher){
+        if(matcher instanceof IndexBasedJenaMatcher){
+            ((IndexBasedJenaMatcher)matcher).clearIndex();
+        }
+    }
+    
+    /**
+     * Estimates the number of triples which are processed by the merge (sum of the triples of both inputs).
+     */
+    private long estimateTriples(int[] merges, List<Set<Object>> models, List<Set<Object>> mergedOntologies, Properties p) throws TypeTransformationException{
+        int n = models.size();
+        long triples = 0;
+        for(int input : merges){
+            Set<Object> ontology = input >= n ? mergedOntologies.get(input - n) : models.get(input);
+            Model model = TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(ontology, Model.class, p);
+            if(model != null)
+                triples += model.size();
         }
+        return triples;
     }
     
     private Set<Object> getCopiedModel(Set<Object> modelRepresentations, Properties parameters) throws TypeTransformationException{
@@ -433,6 +666,69 @@ public abstract class MultiSourceDispatcherIncrementalMerge extends MatcherMulti
     }    
 }
 
+/**
+ * One merge of the merge tree: the source is merged into the target.
+ */
+class MergeStep {
+    private final int index;
+    private final Set<Object> source;
+    private final int sourceMerge;
+    private final Set<Object> target;
+    private final int targetMerge;
+    private final boolean clearIndex;
+    private Set<Object> result;
+
+    /**
+     * Constructor
+     * @param index the index of the merge in the merge tree
+     * @param source the source ontology
+     * @param sourceMerge the index of the merge which created the source or -1 if it is an initial model
+     * @param target the target ontology
+     * @param targetMerge the index of the merge which created the target or -1 if it is an initial model
+     * @param clearIndex true if the index of the matcher needs to be cleared before matching
+     */
+    public MergeStep(int index, Set<Object> source, int sourceMerge, Set<Object> target, int targetMerge, boolean clearIndex) {
+        this.index = index;
+        this.source = source;
+        this.sourceMerge = sourceMerge;
+        this.target = target;
+        this.targetMerge = targetMerge;
+        this.clearIndex = clearIndex;
+    }
+
+    public int getIndex() {
+        return index;
+    }
+
+    public Set<Object> getSource() {
+        return source;
+    }
+
+    public int getSourceMerge() {
+        return sourceMerge;
+    }
+
+    public Set<Object> getTarget() {
+        return target;
+    }
+
+    public int getTargetMerge() {
+        return targetMerge;
+    }
+
+    public boolean isClearIndex() {
+        return clearIndex;
+    }
+
+    public Set<Object> getResult() {
+        return result;
+    }
+
+    public void setResult(Set<Object> result) {
+        this.result = result;
+    }
+}
+
 class NodeAndReplaced {
     private final Node node;
     private final boolean replaced;
@@ -37,9 +37,12 @@ public abstract class MultiSourceDispatcherIncrementalMergeByCluster extends Mul
     public int[][] getMergeTree(List<Set<Object>> models, Object parameters){
         //CSVFormat format = CSVFormat.DEFAULT.withDelimiter('\t').withIgnoreSurroundingSpaces(true);
         //double[][] data = Read.csv("", format).toArray(false, CategoricalEncoder.ONE_HOT);        
-        double[][] data = getClusterFeatures(models, parameters);
-        
-        HierarchicalClustering clusters = HierarchicalClustering.fit(getLinkage(data));
+        float[] proximity = getClusterProximity(models, parameters);
+        if(proximity == null){
+            LOGGER.warn("Could not compute the proximity matrix of the ontologies/knowledge graphs. Returning no merge tree.");
+            return null;
+        }
+        HierarchicalClustering clusters = HierarchicalClustering.fit(getLinkage(models.size(), proximity));
         int[][] tree = clusters.getTree();
         //double[] height = clusters.getHeight();
         
@@ -54,25 +57,41 @@ public abstract class MultiSourceDispatcherIncrementalMergeByCluster extends Mul
     
     public abstract double[][] getClusterFeatures(List<Set<Object>> models, Object parameters);
     
-    private Linkage getLinkage(double[][] data){
+    /**
+     * Returns the pairwise (euclidean) distances of the models as lower triangular matrix in the packed format of smile
+     * (see {@link Linkage#proximity(double[][]) }). The default implementation computes it based on the dense
+     * feature vectors of {@link #getClusterFeatures(java.util.List, java.lang.Object) }.
+     * Subclasses can override it to compute the distances directly (e.g. from sparse vectors) without materializing the features.
+     * @param models the models
+     * @param parameters the parameters
+     * @return the proximity matrix or null if it could not be computed
+     */
+    protected float[] getClusterProximity(List<Set<Object>> models, Object parameters){
+        double[][] data = getClusterFeatures(models, parameters);
+        if(data == null || data.length != models.size())
+            return null;
+        return Linkage.proximity(data);
+    }
+    
+    private Linkage getLinkage(int size, float[] proximity){
         switch(this.linkage){
             case SINGLE:
-                return SingleLinkage.of(data);
+                return new SingleLinkage(size, proximity);
             case AVERAGE:
-                return UPGMALinkage.of(data);
+                return new UPGMALinkage(size, proximity);
             case COMPLETE:
-                return CompleteLinkage.of(data);
+                return new CompleteLinkage(size, proximity);
             case CENTROID:
-                return UPGMCLinkage.of(data);
+                return new UPGMCLinkage(size, proximity);
             case MEDIAN:
-                return WPGMCLinkage.of(data);
+                return new WPGMCLinkage(size, proximity);
             case WARD:
-                return WardLinkage.of(data);
+                return new WardLinkage(size, proximity);
             case WPGMA:
-                return WPGMALinkage.of(data);
+                return new WPGMALinkage(size, proximity);
             default:{
                 LOGGER.warn("Linkage was not found. Defaulting to single link.");
-                return SingleLinkage.of(data);
+                return new SingleLinkage(size, proximity);
             }
         }
     }
@@ -9,11 +9,11 @@ import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Arrays;
-import java.util.Iterator;
 import java.util.List;
 import java.util.Properties;
 import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.IntPredicate;
 import java.util.regex.Pattern;
 import org.apache.commons.lang.StringUtils;
 import org.apache.jena.datatypes.xsd.XSDDatatype;
@@ -27,7 +27,6 @@ import org.apache.jena.rdf.model.StmtIterator;
 import org.apache.jena.vocabulary.RDF;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import smile.math.MathEx;
 import smile.nlp.dictionary.EnglishPunctuations;
 import smile.nlp.dictionary.EnglishStopWords;
 import smile.nlp.normalizer.SimpleNormalizer;
@@ -44,13 +43,52 @@ public class MultiSourceDispatcherIncrementalMergeByClusterText extends MultiSou
     private static final Logger LOGGER = LoggerFactory.getLogger(MultiSourceDispatcherIncrementalMergeByClusterText.class);
     
     
+    /**
+     * The number of MinHash functions used for the approximate clustering.
+     */
+    private static final int NUMBER_OF_HASH_FUNCTIONS = 128;
+    /**
+     * The number of LSH bands used for the approximate clustering.
+     */
+    private static final int NUMBER_OF_BANDS = 32;
+    
     private double mindf;
     private double maxdf;
     
-    public MultiSourceDispatcherIncrementalMergeByClusterText(Object oneToOneMatcher, ClusterLinkage linkage, double mindf, double maxdf) {
+    /**
+     * The number of bits used for feature hashing (the number of features is two to the power of this value).
+     * Final because it should not change to be able to use the cache.
+     */
+    private final int numberOfFeatureBits;
+    
+    /**
+     * If true, the merge tree is computed with a MinHash / LSH seeded single linkage clustering
+     * which does not compute all pairwise distances. The linkage is then ignored.
+     * Final because it should not change to be able to use the cache.
+     */
+    private final boolean approximateClustering;
+    
+    /**
+     * Constructor.
+     * @param oneToOneMatcher the one to one matcher
+     * @param linkage the linkage (not used in case of approximate clustering)
+     * @param mindf the minimum document frequency of a feature
+     * @param maxdf the maximum document frequency of a feature
+     * @param numberOfFeatureBits the number of bits for feature hashing (between 1 and 30) - the number of features is two to the power of this value.
+     * @param approximateClustering if true, the merge tree is computed with a MinHash / LSH seeded single linkage clustering (for a large number of models).
+     */
+    public MultiSourceDispatcherIncrementalMergeByClusterText(Object oneToOneMatcher, ClusterLinkage linkage, double mindf, double maxdf, int numberOfFeatureBits, boolean approximateClustering) {
         super(oneToOneMatcher, linkage);
+        if(numberOfFeatureBits < 1 || numberOfFeatureBits > 30)
+            throw new IllegalArgumentException("The number of feature bits needs to be between 1 and 30.");
         this.mindf = mindf;
         this.maxdf = maxdf;
+        this.numberOfFeatureBits = numberOfFeatureBits;
+        this.approximateClustering = approximateClustering;
+    }
+    
+    public MultiSourceDispatcherIncrementalMergeByClusterText(Object oneToOneMatcher, ClusterLinkage linkage, double mindf, double maxdf) {
+        this(oneToOneMatcher, linkage, mindf, maxdf, 20, false);
     }
     
     public MultiSourceDispatcherIncrementalMergeByClusterText(Object oneToOneMatcher, ClusterLinkage linkage) {
@@ -61,67 +99,132 @@ public class MultiSourceDispatcherIncrementalMergeByClusterText extends MultiSou
         this(oneToOneMatcher, ClusterLinkage.SINGLE, 0.0, 1.0);
     }
     
+    @Override
+    public int[][] getMergeTree(List<Set<Object>> models, Object parameters){
+        if(this.approximateClustering == false)
+            return super.getMergeTree(models, parameters);
+        SparseVector[] vectors = getSparseFeatures(models, parameters);
+        if(vectors == null)
+            return null;
+        return new MinHashClustering(NUMBER_OF_HASH_FUNCTIONS, NUMBER_OF_BANDS, 1234).getMergeTree(vectors);
+    }
+    
+    @Override
+    protected float[] getClusterProximity(List<Set<Object>> models, Object parameters){
+        SparseVector[] vectors = getSparseFeatures(models, parameters);
+        if(vectors == null)
+            return null;
+        return SparseVector.euclideanProximity(vectors);
+    }
+    
     @Override
     public double[][] getClusterFeatures(List<Set<Object>> models, Object parameters){
+        SparseVector[] vectors = getSparseFeatures(models, parameters);
+        if(vectors == null)
+            return new double[0][0];
+        return SparseVector.toDense(vectors);
+    }
+    
+    /**
+     * Computes the tf-idf vectors (unit length) of the models. The words are hashed to features
+     * (see {@link #numberOfFeatureBits}) and counted while the model is traversed such that no bag of words with strings is needed.
+     * @param models the models
+     * @param parameters the parameters
+     * @return sparse tf-idf vector for each model or null if a model could not be transformed.
+     */
+    SparseVector[] getSparseFeatures(List<Set<Object>> models, Object parameters){
         Properties p = TypeTransformerRegistry.getTransformedPropertiesOrNewInstance(parameters);
+        int mask = (1 << this.numberOfFeatureBits) - 1;
         
-        Counter<String> documentFrequency = new Counter<>();
-        List<Counter<String>> documents = new ArrayList<>(models.size());
+        HashedTermCounter documentFrequency = new HashedTermCounter();
+        List<HashedTermCounter> documents = new ArrayList<>(models.size());
         for(int i=0; i < models.size(); i++){
             try{
-            Model m = (Model)TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(models.get(i), OntModel.class, p);
-            if(m == null){
-                LOGGER.warn("Initial model is null. Can't compute the similarities between the ontologies/knowledge graphs.");
-                return new double[0][0];
-            }
-            Counter<String> bow = getBagOfWords(m);
-            
-            documents.add(bow);
-            documentFrequency.addAll(bow.getDistinctElements());
+                Model m = (Model)TypeTransformerRegistry.getTransformedObjectMultipleRepresentations(models.get(i), OntModel.class, p);
+                if(m == null){
+                    LOGGER.warn("Initial model is null. Can't compute the similarities between the ontologies/knowledge graphs.");
+                    return null;
+                }
+                HashedTermCounter bow = new HashedTermCounter();
+                forEachWord(m, word -> bow.increment(HashedTermCounter.mix(word.hashCode()) & mask));
+                documents.add(bow);
+                for(int feature : bow.getKeys()){
+                    documentFrequency.increment(feature);
+                }
             }catch(TypeTransformationException ex){
                 LOGGER.warn("Conversion to OntModel/Model did not work. Can't compute the similarities between the ontologies/knowledge graphs.", ex);
-                return new double[0][0];
+                return null;
             }
         }
-        //create features
         
-        Set<String> selectedWords;
-        if(this.mindf == 0.0 && this.maxdf == 1.0){
-            //use all
-            selectedWords = documentFrequency.getDistinctElements();
-        }else{
-            selectedWords = documentFrequency.betweenFrequencyReturningElements(this.mindf, this.maxdf);
-        }
-        if(selectedWords.isEmpty()){
-            selectedWords = documentFrequency.getDistinctElements();
-        }
-        
-        String[] features = selectedWords.toArray(new String[0]);
         //tf-idf
+        IntPredicate selectedFeatures = getSelectedFeatures(documentFrequency);
         long n = documents.size();
-        int[] featuresDocumentFrequency = Arrays.stream(features).mapToInt(f->documentFrequency.getCount(f)).toArray();
-        double[][] data = documents.stream().map(bag -> {
-                double[] featureVector = new double[features.length];
-                for (int i = 0; i < featureVector.length; i++)
-                    featureVector[i] = bag.getCount(features[i]);
-                double maxtf = MathEx.max(featureVector);
-                double[] x = new double[featureVector.length];
-                if(maxtf != 0){
-                    for (int i = 0; i < x.length; i++) {
-                        x[i] = (featureVector[i] / maxtf) * Math.log((1.0 + n) / (1.0 + featuresDocumentFrequency[i]));
-                    }
-                    MathEx.unitize(x);
+        SparseVector[] vectors = new SparseVector[documents.size()];
+        for(int d = 0; d < vectors.length; d++){
+            HashedTermCounter bag = documents.get(d);
+            int[] features = bag.getKeys();
+            double[] values = new double[features.length];
+            int length = 0;
+            double maxtf = 0;
+            for(int feature : features){
+                if(selectedFeatures.test(feature)){
+                    features[length] = feature;
+                    values[length] = bag.getCount(feature);
+                    maxtf = Math.max(maxtf, values[length]);
+                    length++;
                 }
-                return x;
-        }).toArray(double[][]::new);
-        return data;
+            }
+            for(int i = 0; i < length; i++){
+                values[i] = (values[i] / maxtf) * Math.log((1.0 + n) / (1.0 + documentFrequency.getCount(features[i])));
+            }
+            vectors[d] = SparseVector.fromUnsorted(features, values, length).unitize();
+            documents.set(d, null); // bag of words is not needed anymore
+        }
+        return vectors;
     }
     
+    /**
+     * Returns the features which have a document frequency between mindf and maxdf (same semantics as {@link Counter#betweenFrequencyReturningElements(double, double) }).
+     * If no feature is selected, all features are used.
+     * @param documentFrequency the document frequency of each feature
+     * @return predicate which is true for selected features
+     */
+    private IntPredicate getSelectedFeatures(HashedTermCounter documentFrequency){
+        if(this.mindf == 0.0 && this.maxdf == 1.0){
+            //use all
+            return feature -> true;
+        }
+        if (this.mindf < 0.0 || this.mindf > 1.0)
+            throw new IllegalArgumentException("mindf argument not between zero and one: " + this.mindf);
+        if (this.maxdf < 0.0 || this.maxdf > 1.0)
+            throw new IllegalArgumentException("maxdf argument not between zero and one: " + this.maxdf);
+        double overallCount = documentFrequency.getSum();
+        IntPredicate between = feature -> {
+            double frequency = documentFrequency.getCount(feature) / overallCount;
+            return this.mindf <= frequency && frequency <= this.maxdf;
+        };
+        for(int feature : documentFrequency.getKeys()){
+            if(between.test(feature))
+                return between;
+        }
+        return feature -> true;
+    }
     
     public Counter<String> getBagOfWords(Model m){
+        Counter<String> bow = new Counter<>();
+        forEachWord(m, bow::add);
+        return bow;
+    }
+    
+    /**
+     * Iterates over all words (tokenized, stemmed and lowercased) of string literals and URI fragments of subjects in the given model.
+     * @param m the model
+     * @param consumer the consumer which is called for each word (multiple times if the word occurs multiple times)
+     */
+    public void forEachWord(Model m, Consumer<String> consumer){
         SimpleTokenizer tokenizer = new SimpleTokenizer(true);
         PorterStemmer porter = new PorterStemmer();
-        Counter<String> bow = new Counter<>();
         StmtIterator i = m.listStatements();
         while(i.hasNext()){
             RDFNode n = i.next().getObject();
@@ -131,13 +234,11 @@ public class MultiSourceDispatcherIncrementalMergeByClusterText extends MultiSou
                     String text = lit.getLexicalForm();
                     
                     String[] sentences = SimpleSentenceSplitter.getInstance().split(SimpleNormalizer.getInstance().normalize(text));
-                    Iterator<String> words = Arrays.stream(sentences)
-                            .flatMap(s -> Arrays.stream(tokenizer.split(s)))
-                            .filter(w -> !(EnglishStopWords.DEFAULT.contains(w.toLowerCase()) || EnglishPunctuations.getInstance().contains(w)))
-                            .map(porter::stem)
-                            .map(String::toLowerCase)
-                            .iterator();
-                    bow.addAll(words);
+                    for(String sentence : sentences){
+                        for(String word : tokenizer.split(sentence)){
+                            acceptWord(word, porter, consumer);
+                        }
+                    }
                 }
             }
         }
@@ -155,15 +256,16 @@ public class MultiSourceDispatcherIncrementalMergeByClusterText extends MultiSou
                 continue;
             }
             fragment = splitFragment(fragment);
-            Iterator<String> words = Arrays.stream(tokenizer.split(fragment))
-                    .filter(w -> !(EnglishStopWords.DEFAULT.contains(w.toLowerCase()) || EnglishPunctuations.getInstance().contains(w)))
-                    .map(porter::stem)
-                    .map(String::toLowerCase)
-                    .iterator();
-            bow.addAll(words);
+            for(String word : tokenizer.split(fragment)){
+                acceptWord(word, porter, consumer);
+            }
         }
-        
-        return bow;
+    }
+    
+    private static void acceptWord(String word, PorterStemmer porter, Consumer<String> consumer){
+        if(EnglishStopWords.DEFAULT.contains(word.toLowerCase()) || EnglishPunctuations.getInstance().contains(word))
+            return;
+        consumer.accept(porter.stem(word).toLowerCase());
     }
     private static final Pattern URI_SEPARATOR = Pattern.compile("[-_~|]");
     private static final Pattern CAMEL_CASE_SPLIT = Pattern.compile("(?<!^)(?<!\\s)(?=[A-Z][a-z])");
@@ -0,0 +1,150 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * A sparse vector of doubles (only the non zero entries are stored, sorted by index).
+ * Used for the text features of {@link MultiSourceDispatcherIncrementalMergeByClusterText}.
+ */
+class SparseVector {
+    private final int[] indices;
+    private final double[] values;
+    private final double squaredNorm;
+
+    /**
+     * Constructor
+     * @param indices the indices (sorted ascending without duplicates)
+     * @param values the values for each index
+     */
+    SparseVector(int[] indices, double[] values) {
+        this.indices = indices;
+        this.values = values;
+        double sum = 0;
+        for(double v : values){
+            sum += v * v;
+        }
+        this.squaredNorm = sum;
+    }
+
+    /**
+     * Creates a sparse vector from unsorted indices (without duplicates).
+     * @param indices the indices
+     * @param values the values
+     * @param length the number of valid entries in the arrays
+     * @return the sparse vector
+     */
+    static SparseVector fromUnsorted(int[] indices, double[] values, int length){
+        Integer[] order = new Integer[length];
+        for(int i = 0; i < length; i++){
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Integer.compare(indices[a], indices[b]));
+        int[] sortedIndices = new int[length];
+        double[] sortedValues = new double[length];
+        for(int i = 0; i < length; i++){
+            sortedIndices[i] = indices[order[i]];
+            sortedValues[i] = values[order[i]];
+        }
+        return new SparseVector(sortedIndices, sortedValues);
+    }
+
+    int[] getIndices() {
+        return indices;
+    }
+
+    double[] getValues() {
+        return values;
+    }
+
+    double getSquaredNorm() {
+        return squaredNorm;
+    }
+
+    /**
+     * Returns a new vector with unit length (or the same vector if it has no non zero entries).
+     * @return the unit vector
+     */
+    SparseVector unitize(){
+        if(squaredNorm == 0)
+            return this;
+        double norm = Math.sqrt(squaredNorm);
+        double[] normalized = new double[values.length];
+        for(int i = 0; i < values.length; i++){
+            normalized[i] = values[i] / norm;
+        }
+        return new SparseVector(indices, normalized);
+    }
+
+    /**
+     * Computes the dot product by merging the sorted indices.
+     * @param other the other vector
+     * @return the dot product
+     */
+    double dot(SparseVector other){
+        int i = 0, j = 0;
+        double sum = 0;
+        while(i < indices.length && j < other.indices.length){
+            if(indices[i] < other.indices[j]){
+                i++;
+            }else if(indices[i] > other.indices[j]){
+                j++;
+            }else{
+                sum += values[i] * other.values[j];
+                i++;
+                j++;
+            }
+        }
+        return sum;
+    }
+
+    /**
+     * Computes the euclidean distance. For unit vectors, this is sqrt(2 - 2 * cosine).
+     * @param other the other vector
+     * @return the euclidean distance
+     */
+    double euclideanDistance(SparseVector other){
+        return Math.sqrt(Math.max(0.0, squaredNorm + other.squaredNorm - 2 * dot(other)));
+    }
+
+    /**
+     * Computes the pairwise euclidean distances of all vectors (in parallel) in the packed format of {@link smile.clustering.linkage.Linkage}
+     * (the same result as {@link smile.clustering.linkage.Linkage#proximity(double[][]) } on the dense vectors).
+     * @param vectors the vectors
+     * @return the proximity matrix as lower triangle
+     * @throws IllegalArgumentException if there are too many vectors for one array (more than about 65,000) - use the approximate clustering then
+     */
+    static float[] euclideanProximity(SparseVector[] vectors){
+        int n = vectors.length;
+        //computed as long because n * (n + 1) overflows an int for n above 46,340
+        long length = (long) n * (n + 1) / 2;
+        if(length > Integer.MAX_VALUE - 8)
+            throw new IllegalArgumentException("The proximity matrix of " + n + " vectors has " + length +
+                    " entries which is too large for an array. Use the approximate clustering instead.");
+        float[] proximity = new float[(int) length];
+        IntStream.range(0, n).parallel().forEach(j -> {
+            int offset = (int) (length - (long) (n - j) * (n - j + 1) / 2 - j);
+            for(int i = j + 1; i < n; i++){
+                proximity[offset + i] = (float) vectors[i].euclideanDistance(vectors[j]);
+            }
+        });
+        return proximity;
+    }
+
+    /**
+     * Converts the vectors to dense vectors. Only the indices which are used by at least one vector are columns in the result.
+     * @param vectors the sparse vectors
+     * @return dense vectors
+     */
+    static double[][] toDense(SparseVector[] vectors){
+        int[] columns = Arrays.stream(vectors).flatMapToInt(v -> Arrays.stream(v.indices)).distinct().sorted().toArray();
+        double[][] dense = new double[vectors.length][columns.length];
+        for(int d = 0; d < vectors.length; d++){
+            SparseVector v = vectors[d];
+            for(int i = 0; i < v.indices.length; i++){
+                dense[d][Arrays.binarySearch(columns, v.indices[i])] = v.values[i];
+            }
+        }
+        return dense;
+    }
+}
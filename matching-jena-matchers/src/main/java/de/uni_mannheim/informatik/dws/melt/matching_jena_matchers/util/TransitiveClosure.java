@@ -1,120 +1,242 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util;
 
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.stream.IntStream;
 
 /**
  * Computes a transitive closure in RAM.
+ * It is implemented as a union find data structure (with path compression and union by rank) over int ids of the elements.
+ * The closure (set of elements for each cluster) is only materialized when calling {@link #getClosure() }.
  */
 public class TransitiveClosure <T> {
-    
+
+    /**
+     * Map from object to its id.
+     */
+    private final Map<T, Integer> objectToId;
+
     /**
-     * Map from object to synset ID
+     * Map from id to the object.
      */
-    private Map<T, Integer> objectToId;
-    
+    private final List<T> idToObject;
+
     /**
-     * Map from synset ID to actual closure (set of objects)
+     * The parent id of each id in the union find forest (roots point to themselves).
      */
-    private Map<Integer, Set<T>> idToClosure;
-    
+    private int[] parent;
+
     /**
-     * id counter to be used when generating new synset ids.
+     * Upper bound of the height of the tree of each root.
      */
-    private int idCounter;
-    
+    private byte[] rank;
+
+    /**
+     * The materialized closure or null if it needs to be recomputed.
+     */
+    private List<Set<T>> closure;
+
     public TransitiveClosure(){
         this.objectToId = new HashMap<>();
-        this.idToClosure = new HashMap<>();
-        this.idCounter = 0;
+        this.idToObject = new ArrayList<>();
+        this.parent = new int[16];
+        this.rank = new byte[16];
+        this.closure = null;
     }
-    
+
     public void add(T... elements){
         add(Arrays.asList(elements));
     }
-    
+
     public void add(Iterable<T> elements){
-        Set<T> elementsNoClosureID = new HashSet<>();
-        Set<Integer> foundClosureIDs = new HashSet<>();
-        
-        for(T element : elements){
-            Integer closureID = this.objectToId.get(element);
-            if(closureID == null){
-                elementsNoClosureID.add(element);
-            }else{
-                foundClosureIDs.add(closureID);
-            }
-        }
-        
-        if(foundClosureIDs.isEmpty()){
-            //create new closure id, add all elements with no closure id
-            this.idToClosure.put(this.idCounter, elementsNoClosureID);
-            for(T element : elementsNoClosureID){
-                this.objectToId.put(element, this.idCounter);
-            }
-            this.idCounter++;
-        }else{
-            //get largest closure and merge all smaller ones into that
-            Set<T> largestClosure = null;
-            int largetClosureSize = 0;
-            int largestClosureID = 0;
-            Set<T> elementsToAdd = new HashSet<>();
-            for(Integer closureID : foundClosureIDs){
-                Set<T> closure = this.idToClosure.get(closureID);
-                if(closure.size() > largetClosureSize){
-                    if(largestClosure != null){
-                        this.idToClosure.remove(largestClosureID);
-                        elementsToAdd.addAll(largestClosure);                        
-                    }
-                    largestClosure = closure;
-                    largetClosureSize = closure.size();
-                    largestClosureID = closureID;                    
-                }else{
-                    this.idToClosure.remove(closureID);
-                    elementsToAdd.addAll(closure);        
-                }
-            }
-            
-            for(T element : elementsToAdd){
-                largestClosure.add(element);
-                this.objectToId.put(element, largestClosureID);
-            }
-            
-            for(T element : elementsNoClosureID){
-                largestClosure.add(element);
-                this.objectToId.put(element, largestClosureID);
-            }
+        Iterator<T> iterator = elements.iterator();
+        if(iterator.hasNext() == false)
+            return;
+        this.closure = null;
+        int first = getId(iterator.next());
+        while(iterator.hasNext()){
+            union(first, getId(iterator.next()));
         }
     }
-    
+
     /**
      * Returns the transitive closure.
+     * The clusters are ordered by the first element which was added and the collection is cached until the next call to add.
      * @return transitive closure
      */
     public Collection<Set<T>> getClosure(){
-        return this.idToClosure.values();
+        if(this.closure == null){
+            int size = this.idToObject.size();
+            int[] rootToCluster = new int[size];
+            Arrays.fill(rootToCluster, -1);
+            List<Set<T>> clusters = new ArrayList<>();
+            for(int id = 0; id < size; id++){
+                int root = find(id);
+                if(rootToCluster[root] < 0){
+                    rootToCluster[root] = clusters.size();
+                    clusters.add(new HashSet<>());
+                }
+                clusters.get(rootToCluster[root]).add(this.idToObject.get(id));
+            }
+            this.closure = clusters;
+        }
+        return Collections.unmodifiableList(this.closure);
     }
-    
-    
+
+
     public boolean belongToTheSameCluster(T... elements){
         return belongToTheSameCluster(Arrays.asList(elements));
     }
-    
+
     public boolean belongToTheSameCluster(Iterable<T> elements){
-        Set<Integer> foundClosureIDs = new HashSet<>();        
+        int root = -1;
         for(T element : elements){
-            Integer closureID = this.objectToId.get(element);
-            if(closureID == null){
+            Integer id = this.objectToId.get(element);
+            if(id == null){
+                return false;
+            }
+            int elementRoot = find(id);
+            if(root < 0){
+                root = elementRoot;
+            }else if(root != elementRoot){
                 return false;
-            }else{
-                foundClosureIDs.add(closureID);
             }
-        }            
-        return foundClosureIDs.size() <= 1;        
+        }
+        return true;
+    }
+
+    /**
+     * Computes the transitive closure of all correspondences (source and target are in the same cluster).
+     * The ids of the entities are assigned in the order of the alignment but the
+     * union of the ids is executed concurrently (lock free) if the number of threads is greater than one.
+     * @param alignment the alignment
+     * @param numberOfThreads the number of threads to use
+     * @return the transitive closure
+     */
+    public static TransitiveClosure<String> fromAlignment(Alignment alignment, int numberOfThreads){
+        TransitiveClosure<String> closure = new TransitiveClosure<>();
+        int[] edges = new int[alignment.size() * 2];
+        int position = 0;
+        for(Correspondence c : alignment){
+            edges[position++] = closure.getId(c.getEntityOne());
+            edges[position++] = closure.getId(c.getEntityTwo());
+        }
+        int size = closure.idToObject.size();
+        AtomicIntegerArray parent = new AtomicIntegerArray(size);
+        for(int i = 0; i < size; i++){
+            parent.set(i, i);
+        }
+        IntStream pairs = IntStream.range(0, position / 2);
+        if(numberOfThreads <= 1){
+            pairs.forEach(i -> concurrentUnion(parent, edges[2 * i], edges[2 * i + 1]));
+        }else{
+            ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+            try {
+                pool.submit(() -> pairs.parallel().forEach(i -> concurrentUnion(parent, edges[2 * i], edges[2 * i + 1]))).get();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted during computation of the transitive closure.", ex);
+            } catch (ExecutionException ex) {
+                if(ex.getCause() instanceof RuntimeException)
+                    throw (RuntimeException) ex.getCause();
+                throw new IllegalStateException("Error during computation of the transitive closure.", ex.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+        //all trees are flattened (height of at most one)
+        for(int i = 0; i < size; i++){
+            int root = concurrentFind(parent, i);
+            closure.parent[i] = root;
+            if(root != i)
+                closure.rank[root] = 1;
+        }
+        return closure;
+    }
+
+    private int getId(T element){
+        Integer id = this.objectToId.get(element);
+        if(id == null){
+            id = this.idToObject.size();
+            this.objectToId.put(element, id);
+            this.idToObject.add(element);
+            if(id == this.parent.length){
+                this.parent = Arrays.copyOf(this.parent, id * 2);
+                this.rank = Arrays.copyOf(this.rank, id * 2);
+            }
+            this.parent[id] = id;
+        }
+        return id;
+    }
+
+    private int find(int id){
+        int root = id;
+        while(this.parent[root] != root){
+            root = this.parent[root];
+        }
+        //path compression
+        while(this.parent[id] != root){
+            int next = this.parent[id];
+            this.parent[id] = root;
+            id = next;
+        }
+        return root;
+    }
+
+    private void union(int one, int two){
+        int rootOne = find(one);
+        int rootTwo = find(two);
+        if(rootOne == rootTwo)
+            return;
+        if(this.rank[rootOne] < this.rank[rootTwo]){
+            this.parent[rootOne] = rootTwo;
+        }else if(this.rank[rootOne] > this.rank[rootTwo]){
+            this.parent[rootTwo] = rootOne;
+        }else{
+            this.parent[rootTwo] = rootOne;
+            this.rank[rootOne]++;
+        }
+    }
+
+    private static int concurrentFind(AtomicIntegerArray parent, int id){
+        while(true){
+            int p = parent.get(id);
+            if(p == id)
+                return id;
+            int grandParent = parent.get(p);
+            //path halving (it does not matter if this fails)
+            parent.compareAndSet(id, p, grandParent);
+            id = grandParent;
+        }
+    }
+
+    private static void concurrentUnion(AtomicIntegerArray parent, int one, int two){
+        while(true){
+            one = concurrentFind(parent, one);
+            two = concurrentFind(parent, two);
+            if(one == two)
+                return;
+            //always link the larger root below the smaller one to avoid cycles
+            if(one < two){
+                int tmp = one;
+                one = two;
+                two = tmp;
+            }
+            if(parent.compareAndSet(one, one, two))
+                return;
+        }
     }
 }
@@ -0,0 +1,141 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.scale;
+
+import com.github.liblevenshtein.transducer.Algorithm;
+import com.github.liblevenshtein.transducer.Candidate;
+import com.github.liblevenshtein.transducer.ITransducer;
+import com.github.liblevenshtein.transducer.factory.TransducerBuilder;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH comparison of building the levenshtein transducer on every call (as done before in {@link ScalableStringProcessingMatcher})
+ * and reusing a {@link LevenshteinIndex} (from memory or from disk).
+ * This is not a unit test. Run the main method (or the JMH runner) to execute it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class LevenshteinIndexBenchmark {
+
+    @Param({"10000", "100000"})
+    private int numberOfTexts;
+
+    private List<String> texts;
+    private List<String> queries;
+    private ITransducer<Candidate> transducer;
+    private LevenshteinIndex index;
+    private File folder;
+    private File indexFile;
+
+    @Setup
+    public void setup() throws IOException{
+        Random random = new Random(1234);
+        texts = new ArrayList<>();
+        for(int i = 0; i < numberOfTexts; i++){
+            StringBuilder sb = new StringBuilder();
+            int length = 5 + random.nextInt(20);
+            for(int j = 0; j < length; j++){
+                sb.append((char)('a' + random.nextInt(26)));
+            }
+            texts.add(sb.toString());
+        }
+        queries = new ArrayList<>();
+        for(int i = 0; i < 1000; i++){
+            StringBuilder sb = new StringBuilder(texts.get(random.nextInt(texts.size())));
+            sb.setCharAt(random.nextInt(sb.length()), 'x');
+            queries.add(sb.toString());
+        }
+        transducer = buildPerCall();
+        index = new LevenshteinIndex(texts, 2);
+        folder = Files.createTempDirectory("levenshtein").toFile();
+        indexFile = new File(folder, "index.lvi");
+        new LevenshteinIndex(texts, 2).save(indexFile);
+        LevenshteinIndex.getOrBuild(texts, 2, folder);
+    }
+
+    @TearDown
+    public void tearDown(){
+        for(File f : folder.listFiles()){
+            f.delete();
+        }
+        folder.delete();
+    }
+
+    @Benchmark
+    public ITransducer<Candidate> buildPerCall(){
+        return new TransducerBuilder()
+                .dictionary(texts)
+                .isSorted(false)
+                .algorithm(Algorithm.TRANSPOSITION)
+                .defaultMaxDistance(2)
+                .includeDistance(true)
+                .build();
+    }
+
+    @Benchmark
+    public LevenshteinIndex buildIndex(){
+        return new LevenshteinIndex(texts, 2);
+    }
+
+    @Benchmark
+    public LevenshteinIndex loadIndexFromDisk() throws IOException{
+        return LevenshteinIndex.load(indexFile);
+    }
+
+    @Benchmark
+    public LevenshteinIndex reuseIndexFromMemory(){
+        return LevenshteinIndex.getOrBuild(texts, 2, folder);
+    }
+
+    @Benchmark
+    public int searchTransducer(){
+        int found = 0;
+        for(String query : queries){
+            for(Candidate c : transducer.transduce(query)){
+                found += c.distance();
+            }
+        }
+        return found;
+    }
+
+    @Benchmark
+    public int searchIndex(){
+        int[] found = new int[1];
+        for(String query : queries){
+            index.search(query, (text, distance) -> found[0] += distance);
+        }
+        return found[0];
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(LevenshteinIndexBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(opt).run();
+    }
+}
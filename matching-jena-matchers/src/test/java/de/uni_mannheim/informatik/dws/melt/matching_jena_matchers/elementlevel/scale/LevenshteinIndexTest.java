@@ -0,0 +1,55 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.scale;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class LevenshteinIndexTest {
+    
+    @TempDir
+    File tempDir;
+    
+    @Test
+    void testSearch() {
+        LevenshteinIndex index = new LevenshteinIndex(Arrays.asList("hello", "help", "world", "hello"), 2);
+        Map<String, Integer> result = index.search("helo");
+        assertEquals(2, result.size());
+        assertEquals(1, result.get("hello"));
+        assertEquals(1, result.get("help"));
+        
+        result = index.search("hello");
+        assertEquals(0, result.get("hello"));
+        assertEquals(2, result.get("help"));
+        assertFalse(result.containsKey("world"));
+    }
+    
+    @Test
+    void testSaveAndLoad() throws Exception {
+        LevenshteinIndex index = new LevenshteinIndex(Arrays.asList("hello", "help", "world"), 1);
+        File file = new File(tempDir, "index.lvi");
+        index.save(file);
+        
+        LevenshteinIndex loaded = LevenshteinIndex.load(file);
+        assertEquals(index.getKey(), loaded.getKey());
+        assertEquals(1, loaded.getMaxDistance());
+        assertEquals(index.search("word"), loaded.search("word"));
+        assertEquals(index.search("helo"), loaded.search("helo"));
+    }
+    
+    @Test
+    void testGetOrBuild() throws Exception {
+        //different order - same key
+        assertEquals(LevenshteinIndex.computeKey(Arrays.asList("a", "b"), 1), LevenshteinIndex.computeKey(Arrays.asList("b", "a"), 1));
+        assertNotEquals(LevenshteinIndex.computeKey(Arrays.asList("a", "b"), 1), LevenshteinIndex.computeKey(Arrays.asList("a", "b"), 2));
+        assertNotEquals(LevenshteinIndex.computeKey(Arrays.asList("ab", "c"), 1), LevenshteinIndex.computeKey(Arrays.asList("a", "bc"), 1));
+        assertNotEquals(LevenshteinIndex.computeKey(Arrays.asList("a", "b"), 1), LevenshteinIndex.computeKey(Arrays.asList("a", "c"), 1));
+        
+        LevenshteinIndex index = LevenshteinIndex.getOrBuild(Arrays.asList("summer", "winter"), 1, tempDir);
+        assertTrue(new File(tempDir, index.getKey() + ".lvi").isFile());
+        assertSame(index, LevenshteinIndex.getOrBuild(Arrays.asList("winter", "summer"), 1, tempDir));
+        assertEquals(1, index.search("sumer").get("summer"));
+    }
+}
@@ -1,6 +1,7 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.scale;
 
 
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.textExtractors.TextExtractorProperty;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
@@ -147,4 +148,61 @@ public class ScalableStringProcessingMatcherTest {
         assertEquals(1, a.size());
         
     }
+    
+    @Test
+    void testParallelIsDeterministic() throws Exception {
+        OntModel source = ModelFactory.createOntologyModel();
+        OntModel target = ModelFactory.createOntologyModel();
+        for(int i = 0; i < 500; i++){
+            source.createIndividual("http://source.de/" + i, OWL.Thing)
+                .addLiteral(RDFS.label, "Label " + (i % 100))
+                .addLiteral(SKOS.altLabel, "alternative label " + i);
+            target.createIndividual("http://target.de/" + i, OWL.Thing)
+                .addLiteral(RDFS.label, "label " + (i % 50))
+                .addLiteral(SKOS.altLabel, "alternative label " + (i * 7 % 500));
+        }
+        
+        ScalableStringProcessingMatcher matcher = new ScalableStringProcessingMatcher(Arrays.asList(
+                new PropertySpecificStringProcessing(text -> text, 1.0, RDFS.label),
+                new PropertySpecificStringProcessing(text -> text.toLowerCase(), 0.9, RDFS.label),
+                new PropertySpecificStringProcessing(text -> text, 0.8, SKOS.altLabel)
+        ), false);
+        for(boolean crossIndexMatch : new boolean[]{false, true}){
+            matcher.setCrossIndexMatch(crossIndexMatch);
+            matcher.setNumberOfThreads(1);
+            Alignment expected = matcher.match(source, target, new Alignment(), new Properties());
+            assertTrue(expected.size() > 0);
+            for(int threads : new int[]{2, 4, 8}){
+                matcher.setNumberOfThreads(threads);
+                Alignment actual = matcher.match(source, target, new Alignment(), new Properties());
+                assertEquals(expected, actual);
+                for(Correspondence c : expected){
+                    assertEquals(c.getConfidence(), actual.getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation()).getConfidence());
+                }
+            }
+        }
+    }
+    
+    @Test
+    void testScaleConfidenceByDistance() throws Exception {
+        OntModel source = ModelFactory.createOntologyModel();
+        source.createIndividual("http://source.de/one", OWL.Thing).addLiteral(RDFS.label, "everything");
+        source.createIndividual("http://source.de/two", OWL.Thing).addLiteral(RDFS.label, "something");
+        OntModel target = ModelFactory.createOntologyModel();
+        target.createIndividual("http://target.de/one", OWL.Thing).addLiteral(RDFS.label, "everythin");
+        target.createIndividual("http://target.de/two", OWL.Thing).addLiteral(RDFS.label, "something");
+        
+        ScalableStringProcessingMatcher matcher = new ScalableStringProcessingMatcher(Arrays.asList(
+                new PropertySpecificStringProcessing(text -> text, 1.0, TextExtractorProperty.wrapExtractor(RDFS.label), 1, 3)
+        ));
+        Alignment a = matcher.match(source, target, new Alignment(), new Properties());
+        assertEquals(1.0, a.getCorrespondence("http://source.de/one", "http://target.de/one", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+        
+        matcher.setScaleConfidenceByDistance(true);
+        a = matcher.match(source, target, new Alignment(), new Properties());
+        Correspondence fuzzy = a.getCorrespondence("http://source.de/one", "http://target.de/one", CorrespondenceRelation.EQUIVALENCE);
+        assertEquals(0.5, fuzzy.getConfidence(), 0.0001);
+        assertEquals(1.0, a.getCorrespondence("http://source.de/two", "http://target.de/two", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+        assertEquals(2, a.size());
+    }
 }
@@ -2,18 +2,26 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.matc
 
 import de.uni_mannheim.informatik.dws.melt.matching_data.TestCase;
 import de.uni_mannheim.informatik.dws.melt.matching_data.TrackRepository;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.LabelToConceptLinker;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.SemanticWordRelationDictionary;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.embeddings.GensimEmbeddingModel;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.embeddings.GensimEmbeddingModelTest;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.wordNet.WordNetKnowledgeSource;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
 import org.apache.jena.ontology.OntModel;
+import org.apache.jena.rdf.model.ModelFactory;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Random;
 import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -196,4 +204,150 @@ class BackgroundMatcherTest {
         matcher.setStrategy(ImplementedBackgroundMatchingStrategies.SYNONYMY);
         assertEquals("SYNONYMY", matcher.getStrategy().toString());
     }
+
+    @ParameterizedTest
+    @ValueSource(strings = {"SYNONYMY", "SYNONYMY_OR_HYPERNYMY"})
+    void blockingAndParallelMatchingYieldSameAlignment(String strategyName) throws Exception {
+        ImplementedBackgroundMatchingStrategies strategy = ImplementedBackgroundMatchingStrategies.valueOf(strategyName);
+        OntModel source = createRandomOntology("http://source.com/", 1);
+        OntModel target = createRandomOntology("http://target.com/", 2);
+
+        BackgroundMatcher fullMatcher = new BackgroundMatcher(new DummyDictionary(), strategy, 0.0);
+        fullMatcher.setVerboseLoggingOutput(false);
+        fullMatcher.setBlocking(false);
+        Alignment expected = fullMatcher.match(source, target, null, null);
+        assertTrue(expected.size() > 0);
+
+        BackgroundMatcher blockingMatcher = new BackgroundMatcher(new DummyDictionary(), strategy, 0.0);
+        blockingMatcher.setVerboseLoggingOutput(false);
+        assertTrue(blockingMatcher.isBlocking());
+        assertEquals(expected, blockingMatcher.match(source, target, null, null));
+
+        blockingMatcher.setNumberOfThreads(4);
+        assertEquals(expected, blockingMatcher.match(source, target, null, null));
+    }
+
+    @Test
+    void blockingMatchesEmptyLinkSets() throws Exception {
+        //the dummy linker ignores the stop word "the", thus the label is linked to an empty set of concepts
+        OntModel source = createRandomOntology("http://source.com/", 1);
+        source.createClass("http://source.com/stopword").addLabel("the", "en");
+        OntModel target = createRandomOntology("http://target.com/", 2);
+        target.createClass("http://target.com/stopword").addLabel("the", "en");
+
+        BackgroundMatcher fullMatcher = new BackgroundMatcher(new DummyDictionary(), ImplementedBackgroundMatchingStrategies.SYNONYMY, 0.0);
+        fullMatcher.setVerboseLoggingOutput(false);
+        fullMatcher.setBlocking(false);
+        Alignment expected = fullMatcher.match(source, target, null, null);
+        Correspondence expectedStopword = expected.getCorrespondence("http://source.com/stopword", "http://target.com/stopword", CorrespondenceRelation.EQUIVALENCE);
+        assertNotNull(expectedStopword);
+
+        BackgroundMatcher blockingMatcher = new BackgroundMatcher(new DummyDictionary(), ImplementedBackgroundMatchingStrategies.SYNONYMY, 0.0);
+        blockingMatcher.setVerboseLoggingOutput(false);
+        Alignment actual = blockingMatcher.match(source, target, null, null);
+        assertEquals(expected, actual);
+        //same matching step (not only found by a later step)
+        assertEquals(expectedStopword.getExtensions(), actual.getCorrespondence("http://source.com/stopword", "http://target.com/stopword", CorrespondenceRelation.EQUIVALENCE).getExtensions());
+    }
+
+    private static final String[] VOCABULARY = {"car", "automobile", "auto", "dog", "hound", "animal", "glasses",
+            "specs", "house", "home", "building", "big", "large", "red", "blue", "small", "little"};
+
+    private static OntModel createRandomOntology(String namespace, long seed) {
+        Random random = new Random(seed);
+        OntModel model = ModelFactory.createOntologyModel();
+        for (int i = 0; i < 60; i++) {
+            int numberOfWords = 1 + random.nextInt(3);
+            StringBuilder label = new StringBuilder();
+            for (int w = 0; w < numberOfWords; w++) {
+                if (w > 0) label.append(" ");
+                label.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+            }
+            if (random.nextInt(10) == 0) label.append(" unknownword");
+            model.createClass(namespace + "class" + i).addLabel(label.toString(), "en");
+        }
+        return model;
+    }
+
+    /**
+     * In memory dictionary with a few synonym and hypernym relations.
+     */
+    private static class DummyDictionary extends SemanticWordRelationDictionary {
+
+        private static final List<Set<String>> SYNONYM_GROUPS = Arrays.asList(
+                new HashSet<>(Arrays.asList("car", "automobile", "auto")),
+                new HashSet<>(Arrays.asList("dog", "hound")),
+                new HashSet<>(Arrays.asList("glasses", "specs")),
+                new HashSet<>(Arrays.asList("house", "home")),
+                new HashSet<>(Arrays.asList("big", "large")),
+                new HashSet<>(Arrays.asList("small", "little")));
+
+        private final LabelToConceptLinker linker = new LabelToConceptLinker() {
+            private String name = "DummyLinker";
+
+            @Override
+            public String linkToSingleConcept(String labelToBeLinked) {
+                String normalized = labelToBeLinked.trim().toLowerCase().replace(' ', '_');
+                return Arrays.asList(VOCABULARY).contains(normalized) ? normalized : null;
+            }
+
+            @Override
+            public Set<String> linkToPotentiallyMultipleConcepts(String labelToBeLinked) {
+                Set<String> result = new HashSet<>();
+                for (String token : labelToBeLinked.split(" ")) {
+                    if (token.equals("the")) continue;
+                    String link = linkToSingleConcept(token);
+                    if (link == null) return null;
+                    result.add(link);
+                }
+                return result;
+            }
+
+            @Override
+            public String getNameOfLinker() {
+                return name;
+            }
+
+            @Override
+            public void setNameOfLinker(String nameOfLinker) {
+                this.name = nameOfLinker;
+            }
+        };
+
+        @Override
+        public Set<String> getSynonymsLexical(String linkedConcept) {
+            for (Set<String> group : SYNONYM_GROUPS) {
+                if (group.contains(linkedConcept)) return new HashSet<>(group);
+            }
+            return null;
+        }
+
+        @Override
+        public Set<String> getHypernyms(String linkedConcept) {
+            switch (linkedConcept) {
+                case "dog":
+                case "hound":
+                    return new HashSet<>(Collections.singletonList("animal"));
+                case "house":
+                case "home":
+                    return new HashSet<>(Collections.singletonList("building"));
+                default:
+                    return new HashSet<>();
+            }
+        }
+
+        @Override
+        public void close() {
+        }
+
+        @Override
+        public LabelToConceptLinker getLinker() {
+            return linker;
+        }
+
+        @Override
+        public String getName() {
+            return "DummyDictionary";
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,56 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MemoryCacheTest {
+
+
+    @Test
+    void leastRecentlyUsedEviction() {
+        MemoryCache<String, Integer> cache = new MemoryCache<>(2, 0);
+        cache.put("a", 1);
+        cache.put("b", 2);
+        assertEquals(1, cache.get("a").getValue());
+        cache.put("c", 3);
+
+        // b is the least recently used entry
+        assertNull(cache.get("b"));
+        assertEquals(1, cache.get("a").getValue());
+        assertEquals(3, cache.get("c").getValue());
+        assertEquals(2, cache.size());
+
+        MemoryCache.Stats stats = cache.getStats();
+        assertEquals(3, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(0.75, stats.getHitRate(), 0.0001);
+    }
+
+    @Test
+    void absentKeys() {
+        MemoryCache<String, Integer> cache = new MemoryCache<>(10, 0);
+        cache.putAbsent("a");
+        MemoryCache.Lookup<Integer> lookup = cache.get("a");
+        assertNotNull(lookup);
+        assertFalse(lookup.isPresent());
+        assertNull(lookup.getValue());
+
+        cache.put("a", 1);
+        assertTrue(cache.get("a").isPresent());
+
+        cache.invalidate("a");
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void timeToLive() throws Exception {
+        MemoryCache<String, Integer> cache = new MemoryCache<>(10, 50);
+        cache.put("a", 1);
+        assertEquals(1, cache.get("a").getValue());
+        Thread.sleep(100);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+    }
+}
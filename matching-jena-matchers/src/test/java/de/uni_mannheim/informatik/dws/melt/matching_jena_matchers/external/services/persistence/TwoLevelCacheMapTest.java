@@ -0,0 +1,130 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.external.services.persistence;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TwoLevelCacheMapTest {
+
+
+    @Test
+    void lookupsAreAnsweredFromMemory() {
+        CountingMap persistentMap = new CountingMap();
+        persistentMap.put("europe", "continent");
+        MemoryCache<String, String> memoryCache = new MemoryCache<>(100, 0);
+        TwoLevelCacheMap<String, String> map = new TwoLevelCacheMap<>(memoryCache, persistentMap);
+
+        assertTrue(map.containsKey("europe"));
+        assertEquals("continent", map.get("europe"));
+        assertFalse(map.containsKey("unknown"));
+        assertNull(map.get("unknown"));
+        assertEquals(2, persistentMap.reads.get());
+
+        // a second map over the same persistence shares the memory cache
+        TwoLevelCacheMap<String, String> otherMap = new TwoLevelCacheMap<>(memoryCache, persistentMap);
+        assertEquals("continent", otherMap.get("europe"));
+        assertEquals(2, persistentMap.reads.get());
+
+        // writes go to the second level and invalidate the first level
+        otherMap.put("unknown", "known now");
+        assertEquals("known now", map.get("unknown"));
+        assertEquals("known now", persistentMap.get("unknown"));
+
+        map.remove("europe");
+        assertFalse(otherMap.containsKey("europe"));
+        assertEquals(1, map.size());
+    }
+
+    @Test
+    void modificationsAfterPutDoNotChangeTheCache() {
+        MemoryCache<String, Set<String>> memoryCache = new MemoryCache<>(100, 0);
+        TwoLevelCacheMap<String, Set<String>> map = new TwoLevelCacheMap<>(memoryCache, new CopyingMap());
+
+        Set<String> hypernyms = new HashSet<>(Arrays.asList("animal", "thing"));
+        map.put("dog", hypernyms);
+        // e.g. excluding hypernyms after writing them to the cache
+        hypernyms.remove("thing");
+        assertEquals(new HashSet<>(Arrays.asList("animal", "thing")), map.get("dog"));
+    }
+
+    @Test
+    void loadConcurrentToPutDoesNotCacheOutdatedValue() throws Exception {
+        SlowReadMap persistentMap = new SlowReadMap();
+        persistentMap.put("changing", "old");
+        MemoryCache<String, String> memoryCache = new MemoryCache<>(100, 0);
+        TwoLevelCacheMap<String, String> map = new TwoLevelCacheMap<>(memoryCache, persistentMap);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // the first reader misses the memory cache and reads the old value / no value from the second level,
+            // then the key is written before the reader stores what it read in the first level
+            Future<String> staleRead = executor.submit(() -> map.get("changing"));
+            Future<Boolean> staleContains = executor.submit(() -> map.containsKey("unknown"));
+            assertTrue(persistentMap.readsStarted.await(10, TimeUnit.SECONDS));
+            map.put("changing", "new");
+            map.put("unknown", "known now");
+            persistentMap.continueReads.countDown();
+            assertEquals("old", staleRead.get(10, TimeUnit.SECONDS));
+            assertFalse(staleContains.get(10, TimeUnit.SECONDS));
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals("new", map.get("changing"));
+        assertTrue(map.containsKey("unknown"));
+        assertEquals("known now", map.get("unknown"));
+    }
+
+    /**
+     * Blocks the first two reads after the value is read until {@link #continueReads} is released.
+     */
+    private static class SlowReadMap extends ConcurrentHashMap<String, String> {
+        final CountDownLatch readsStarted = new CountDownLatch(2);
+        final CountDownLatch continueReads = new CountDownLatch(1);
+
+        @Override
+        public String get(Object key) {
+            String value = super.get(key);
+            if (readsStarted.getCount() > 0) {
+                readsStarted.countDown();
+                try {
+                    continueReads.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return value;
+        }
+    }
+
+    /**
+     * Stores copies of the values like a serializing persistence (e.g. MapDB).
+     */
+    private static class CopyingMap extends ConcurrentHashMap<String, Set<String>> {
+        @Override
+        public Set<String> put(String key, Set<String> value) {
+            return super.put(key, new HashSet<>(value));
+        }
+    }
+
+    private static class CountingMap extends ConcurrentHashMap<String, String> {
+        final AtomicInteger reads = new AtomicInteger();
+
+        @Override
+        public String get(Object key) {
+            reads.incrementAndGet();
+            return super.get(key);
+        }
+    }
+}
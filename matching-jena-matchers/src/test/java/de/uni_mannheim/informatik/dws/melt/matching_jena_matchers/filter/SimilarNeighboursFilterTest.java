@@ -0,0 +1,106 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.instance.SimilarNeighboursFilter;
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.SetSimilarity;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.CorrespondenceRelation;
+import java.util.Properties;
+import java.util.Random;
+import org.apache.jena.ontology.Individual;
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.rdf.model.Property;
+import org.apache.jena.vocabulary.RDF;
+
+import static org.junit.jupiter.api.Assertions.*;
+import org.junit.jupiter.api.Test;
+
+
+public class SimilarNeighboursFilterTest {
+    private static final String namespaceSource = "http://melt.dws.informatik.uni-mannheim.de/source/";
+    private static final String namespaceTarget = "http://melt.dws.informatik.uni-mannheim.de/target/";
+
+    @Test
+    void testFilter() throws Exception {
+        OntModel source = generate(namespaceSource, "c");
+        OntModel target = generate(namespaceTarget, "d");
+
+        Alignment m = new Alignment();
+        m.add(namespaceSource + "a", namespaceTarget + "a", 0.9);
+        m.add(namespaceSource + "b", namespaceTarget + "b", 0.9);
+        m.add(namespaceSource + "c", namespaceTarget + "d", 0.9);
+        m.add(namespaceSource + "Person", namespaceTarget + "Person", 0.9); // not an individual
+
+        SimilarNeighboursFilter filter = new SimilarNeighboursFilter(0.0, p -> !p.equals(RDF.type), 2.0, SetSimilarity.ABSOLUTE);
+        filter.setAddNeighboursToCorrespondence(true);
+        Alignment filtered = filter.match(source, target, m, new Properties());
+
+        // a-a: b and c are mapped and the literal "alice" is the same; b-b and c-d: only a is mapped
+        assertEquals(2, filtered.size());
+        Correspondence a = filtered.getCorrespondence(namespaceSource + "a", namespaceTarget + "a", CorrespondenceRelation.EQUIVALENCE);
+        assertNotNull(a);
+        assertEquals(3.0, a.getAdditionalConfidence(SimilarNeighboursFilter.class), 0.0001);
+        assertTrue(a.getAdditionalExplanation(SimilarNeighboursFilter.class).contains("alice"));
+        assertNotNull(filtered.getCorrespondence(namespaceSource + "Person", namespaceTarget + "Person", CorrespondenceRelation.EQUIVALENCE));
+    }
+
+    @Test
+    void testParallelIsSameAsSequential() throws Exception {
+        OntModel source = generateRandom(namespaceSource, 42);
+        OntModel target = generateRandom(namespaceTarget, 42);
+        Random rnd = new Random(1234);
+        Alignment m = new Alignment();
+        for(int i = 0; i < 300; i++){
+            m.add(namespaceSource + "i" + i, namespaceTarget + "i" + rnd.nextInt(300), rnd.nextDouble());
+        }
+
+        SimilarNeighboursFilter sequential = new SimilarNeighboursFilter(0.5, p -> true, 0.3, SetSimilarity.JACCARD);
+        sequential.setAddNeighboursToCorrespondence(true);
+        Alignment expected = sequential.match(source, target, new Alignment(m, true), new Properties());
+        for(int threads : new int[]{2, 4}){
+            SimilarNeighboursFilter parallel = new SimilarNeighboursFilter(0.5, p -> true, 0.3, SetSimilarity.JACCARD);
+            parallel.setAddNeighboursToCorrespondence(true);
+            parallel.setNumberOfThreads(threads);
+            Alignment actual = parallel.match(source, target, new Alignment(m, true), new Properties());
+            assertEquals(expected, actual);
+            for(Correspondence c : expected){
+                Correspondence other = actual.getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+                assertEquals(c.getAdditionalConfidence(SimilarNeighboursFilter.class), other.getAdditionalConfidence(SimilarNeighboursFilter.class));
+                assertEquals(c.getAdditionalExplanation(SimilarNeighboursFilter.class), other.getAdditionalExplanation(SimilarNeighboursFilter.class));
+            }
+        }
+    }
+
+    private OntModel generate(String namespace, String other){
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntClass person = model.createClass(namespace + "Person");
+        Property knows = model.createObjectProperty(namespace + "knows");
+        Property name = model.createDatatypeProperty(namespace + "name");
+        Individual a = model.createIndividual(namespace + "a", person);
+        Individual b = model.createIndividual(namespace + "b", person);
+        Individual o = model.createIndividual(namespace + other, person);
+        a.addProperty(knows, b);
+        a.addProperty(knows, o);
+        a.addProperty(name, "alice");
+        return model;
+    }
+
+    private OntModel generateRandom(String namespace, long seed){
+        Random rnd = new Random(seed);
+        OntModel model = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        OntClass thing = model.createClass(namespace + "Thing");
+        Property link = model.createObjectProperty(namespace + "link");
+        Property label = model.createDatatypeProperty(namespace + "label");
+        for(int i = 0; i < 300; i++){
+            Individual individual = model.createIndividual(namespace + "i" + i, thing);
+            for(int j = 0; j < 5; j++){
+                individual.addProperty(link, model.getResource(namespace + "i" + rnd.nextInt(300)));
+            }
+            individual.addProperty(label, "label" + rnd.nextInt(50));
+        }
+        return model;
+    }
+}
@@ -2,6 +2,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.filter.extrac
 
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Correspondence;
+import java.util.Random;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.junit.jupiter.api.Test;
 
@@ -104,4 +105,67 @@ class HungarianExtractorTest {
         }
     }
 
-}
\ No newline at end of file
+    /**
+     * Compares the total confidence of the sparse solver with the dense Hungarian algorithm on random alignments.
+     */
+    @Test
+    void sameOptimumAsDenseHungarian() {
+        Random random = new Random(42);
+        for(int run = 0; run < 50; run++){
+            int numberOfSources = 1 + random.nextInt(15);
+            int numberOfTargets = 1 + random.nextInt(15);
+            Alignment alignment = new Alignment();
+            int numberOfCorrespondences = 1 + random.nextInt(40);
+            for(int i = 0; i < numberOfCorrespondences; i++){
+                alignment.add("http://source.com/" + random.nextInt(numberOfSources), "http://target.com/" + random.nextInt(numberOfTargets), 
+                        Math.round(random.nextDouble() * 100) / 100.0);
+            }
+            double[][] values = new double[numberOfSources][numberOfTargets];
+            for(Correspondence c : alignment){
+                values[Integer.parseInt(c.getEntityOne().substring(18))][Integer.parseInt(c.getEntityTwo().substring(18))] = c.getConfidence();
+            }
+            if(alignment.getDistinctConfidencesAsSet().size() == 1)
+                continue; // the dense implementation does not terminate in this case
+            double expected = 0;
+            double[][] matrix = numberOfSources > numberOfTargets ? transpose(values) : values;
+            for(int[] assignment : HungarianAlgorithm.hgAlgorithm(matrix, "max")){
+                expected += matrix[assignment[0]][assignment[1]];
+            }
+            
+            Alignment result = HungarianExtractor.filter(new Alignment(alignment));
+            assertEquals(expected, result.stream().mapToDouble(Correspondence::getConfidence).sum(), 0.00001);
+            assertEquals(result.size(), result.getDistinctSourcesAsSet().size());
+            assertEquals(result.size(), result.getDistinctTargetsAsSet().size());
+        }
+    }
+    
+    /**
+     * Components are solved independently.
+     */
+    @Test
+    void multipleComponents() {
+        Alignment alignment = new Alignment();
+        alignment.add("A1", "A2", 0.5);
+        alignment.add("A1", "B2", 0.8);
+        alignment.add("B1", "B2", 0.9);
+        alignment.add("C1", "C2", 0.3);
+        alignment.add("D1", "C2", 0.4);
+        alignment.add("E1", "E2", 0.0);
+        Alignment result = HungarianExtractor.filter(alignment);
+        assertEquals(4, result.size());
+        assertTrue(result.contains(new Correspondence("A1", "A2", 0.5)));
+        assertTrue(result.contains(new Correspondence("B1", "B2", 0.9)));
+        assertTrue(result.contains(new Correspondence("D1", "C2", 0.4)));
+        assertTrue(result.contains(new Correspondence("E1", "E2", 0.0)));
+    }
+    
+    private static double[][] transpose(double[][] values){
+        double[][] result = new double[values[0].length][values.length];
+        for(int i = 0; i < values.length; i++){
+            for(int j = 0; j < values[i].length; j++){
+                result[j][i] = values[i][j];
+            }
+        }
+        return result;
+    }
+}
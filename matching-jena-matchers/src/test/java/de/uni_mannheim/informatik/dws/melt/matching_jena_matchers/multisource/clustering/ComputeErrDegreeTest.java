@@ -0,0 +1,128 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.clustering;
+
+import java.util.AbstractMap.SimpleEntry;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class ComputeErrDegreeTest {
+
+    @Test
+    public void testLinkError(){
+        /*
+        A --- B ---wrong---- X ----Y
+         \   /                \   /
+          \ /                  \ /
+           C                    Z
+        */
+        ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
+        errDegree.addEdge("A", "B");
+        errDegree.addEdge("A", "C");
+        errDegree.addEdge("C", "B"); // other direction
+        errDegree.addEdge("X", "Y");
+        errDegree.addEdge("X", "Z");
+        errDegree.addEdge("Y", "Z");
+        errDegree.addEdge("B", "X");
+        errDegree.addEdge("A", "A"); // reflexive edges are ignored
+
+        ComputeErrDegree.LinkErrors<String> linkErrors = errDegree.computeLinkErrors();
+        assertEquals(7, linkErrors.size());
+        // intra community: 1 - 3 / (3 * 2)
+        assertEquals(0.5, linkErrors.getError("A", "B"), 0.00001);
+        assertEquals(0.5, linkErrors.getError("B", "C"), 0.00001);
+        assertEquals(0.5, linkErrors.getError("Z", "Y"), 0.00001);
+        // inter community: 1 - 1 / (2 * 3 * 3)
+        assertEquals(1 - 1.0 / 18.0, linkErrors.getError("X", "B"), 0.00001);
+        assertTrue(Double.isNaN(linkErrors.getError("A", "X")));
+        assertTrue(Double.isNaN(linkErrors.getError("A", "unknown")));
+
+        Map<Entry<String,String>, Double> map = errDegree.computeLinkError();
+        assertEquals(7, map.size());
+        assertEquals(1 - 1.0 / 18.0, map.get(new SimpleEntry<>("B", "X")), 0.00001);
+        assertEquals(0.5, map.get(new SimpleEntry<>("B", "C")), 0.00001);
+    }
+
+    @Test
+    public void testIteratorIsSameAsMap(){
+        Random random = new Random(42);
+        ComputeErrDegree<Integer> errDegree = new ComputeErrDegree<>();
+        for(int i = 0; i < 2000; i++){
+            errDegree.addEdge(random.nextInt(500), random.nextInt(500), random.nextDouble());
+        }
+        Map<Entry<Integer,Integer>, Double> map = errDegree.computeLinkError(ModularityAlgorithm.LOUVRAIN_MULTILEVEL);
+        ComputeErrDegree.LinkErrors<Integer> linkErrors = errDegree.computeLinkErrors(1, 1.0, 0, 1, 5, ModularityAlgorithm.LOUVRAIN_MULTILEVEL);
+        assertEquals(map.size(), linkErrors.size());
+        Iterator<Entry<Entry<Integer,Integer>, Double>> expected = map.entrySet().iterator();
+        for(ComputeErrDegree.LinkError<Integer> actual : linkErrors){
+            Entry<Entry<Integer,Integer>, Double> e = expected.next();
+            assertEquals(e.getKey().getKey(), actual.getSource());
+            assertEquals(e.getKey().getValue(), actual.getTarget());
+            assertEquals(e.getValue(), actual.getError());
+            assertEquals(e.getValue(), linkErrors.getError(actual.getTarget(), actual.getSource()));
+        }
+        assertFalse(expected.hasNext());
+    }
+
+    @Test
+    public void testSameAsReferenceComputation(){
+        //the error degrees are recomputed from the detected communities with the formulas of the paper (like the former map based implementation)
+        Random random = new Random(1234);
+        ComputeErrDegree<Integer> errDegree = new ComputeErrDegree<>();
+        Map<Entry<Integer,Integer>, Double> edges = new HashMap<>();
+        for(int i = 0; i < 2000; i++){
+            int source = random.nextInt(500);
+            int target = random.nextInt(500);
+            double weight = random.nextDouble();
+            errDegree.addEdge(source, target, weight);
+            if(source != target)
+                edges.merge(new SimpleEntry<>(Math.min(source, target), Math.max(source, target)), weight, Double::sum);
+        }
+        Map<Integer, Integer> communities = errDegree.detectCommunities(1, 1.0, 0, 1, 5, ModularityAlgorithm.LOUVRAIN_MULTILEVEL);
+        Map<Integer, Integer> communitySize = new HashMap<>();
+        for(Integer community : communities.values()){
+            communitySize.merge(community, 1, Integer::sum);
+        }
+        Map<Integer, Double> intraWeight = new HashMap<>();
+        Map<Entry<Integer,Integer>, Double> interWeight = new HashMap<>();
+        for(Entry<Entry<Integer,Integer>, Double> edge : edges.entrySet()){
+            int c1 = communities.get(edge.getKey().getKey());
+            int c2 = communities.get(edge.getKey().getValue());
+            if(c1 == c2)
+                intraWeight.merge(c1, edge.getValue(), Double::sum);
+            else
+                interWeight.merge(new SimpleEntry<>(Math.min(c1, c2), Math.max(c1, c2)), edge.getValue(), Double::sum);
+        }
+
+        ComputeErrDegree.LinkErrors<Integer> linkErrors = errDegree.computeLinkErrors(1, 1.0, 0, 1, 5, ModularityAlgorithm.LOUVRAIN_MULTILEVEL);
+        assertEquals(edges.size(), linkErrors.size());
+        for(Entry<Integer,Integer> edge : edges.keySet()){
+            int c1 = communities.get(edge.getKey());
+            int c2 = communities.get(edge.getValue());
+            double expected;
+            if(c1 == c2){
+                double size = communitySize.get(c1);
+                expected = 1 - (intraWeight.get(c1) / (size * (size - 1)));
+            }else{
+                double e = interWeight.get(new SimpleEntry<>(Math.min(c1, c2), Math.max(c1, c2)));
+                expected = 1 - (e / (2 * communitySize.get(c1) * communitySize.get(c2)));
+            }
+            assertEquals(expected, linkErrors.getError(edge.getKey(), edge.getValue()), 0.0000001);
+            assertEquals(expected, linkErrors.getError(edge.getValue(), edge.getKey()), 0.0000001);
+        }
+    }
+
+    @Test
+    public void testTwoNodes(){
+        ComputeErrDegree<String> errDegree = new ComputeErrDegree<>();
+        errDegree.addEdge("A", "B");
+        assertEquals(0.5, errDegree.computeLinkErrors().getError("B", "A"));
+        assertEquals(0.5, errDegree.computeLinkError().get(new SimpleEntry<>("A", "B")));
+
+        assertEquals(0, new ComputeErrDegree<String>().computeLinkErrors().size());
+    }
+}
@@ -0,0 +1,94 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.IMatcher;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.jena.ontology.OntClass;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.util.iterator.ExtendedIterator;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class MultiSourceDispatcherAllPairsTest {
+
+    @TempDir
+    File folder;
+
+    @Test
+    public void sameResultInParallelAndWithBoundedModels() throws Exception{
+        List<Set<Object>> models = new ArrayList<>();
+        for(int i = 0; i < 6; i++){
+            models.add(new HashSet<>(Arrays.asList(writeModel("domain" + i).toURI().toURL())));
+        }
+        Alignment inputAlignment = new Alignment();
+        inputAlignment.add("http://input/a", "http://input/b");
+
+        List<Alignment> results = new ArrayList<>();
+        results.add(match(models, inputAlignment, 4, 0));
+        results.add(match(models, inputAlignment, 1, 2));
+        results.add(match(models, inputAlignment, 3, 3));
+        results.add(match(models, inputAlignment, 4, 10));
+        //the representations of the models are not modified in parallel or bounded mode
+        for(Set<Object> model : models){
+            assertEquals(1, model.size());
+        }
+        assertEquals(1, inputAlignment.size());
+
+        Alignment expected = match(models, inputAlignment, 1, 0);
+        assertEquals(16, expected.size()); // 15 pairs plus the input correspondence
+        assertEquals(1, inputAlignment.size());
+        for(Alignment result : results){
+            assertEquals(expected, result);
+        }
+    }
+
+    private Alignment match(List<Set<Object>> models, Alignment inputAlignment, int threads, int maxResidentModels) throws Exception{
+        MultiSourceDispatcherAllPairs dispatcher = new MultiSourceDispatcherAllPairs(new SameLocalNameMatcher());
+        dispatcher.setNumberOfThreads(threads);
+        dispatcher.setMaxResidentModels(maxResidentModels);
+        return (Alignment) dispatcher.match(models, inputAlignment, new Properties()).getAlignment();
+    }
+
+    private File writeModel(String domain) throws Exception{
+        OntModel m = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+        m.createClass("http://" + domain + "/shared");
+        m.createClass("http://" + domain + "/only" + domain);
+        File file = new File(folder, domain + ".ttl");
+        try(OutputStream out = new FileOutputStream(file)){
+            m.write(out, "TTL");
+        }
+        return file;
+    }
+
+    /**
+     * Matches classes with the same local name and adds them to the input alignment (which is modified on purpose).
+     */
+    private static class SameLocalNameMatcher implements IMatcher<OntModel, Alignment, Properties> {
+        @Override
+        public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties parameters) throws Exception {
+            ExtendedIterator<OntClass> sourceClasses = source.listClasses();
+            while(sourceClasses.hasNext()){
+                OntClass sourceClass = sourceClasses.next();
+                ExtendedIterator<OntClass> targetClasses = target.listClasses();
+                while(targetClasses.hasNext()){
+                    OntClass targetClass = targetClasses.next();
+                    if(sourceClass.getLocalName().equals(targetClass.getLocalName()))
+                        inputAlignment.add(sourceClass.getURI(), targetClass.getURI());
+                }
+            }
+            return inputAlignment;
+        }
+    }
+}
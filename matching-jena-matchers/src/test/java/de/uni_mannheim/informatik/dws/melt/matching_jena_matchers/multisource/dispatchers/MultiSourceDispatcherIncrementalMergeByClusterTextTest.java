@@ -0,0 +1,133 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.dispatchers;
+
+import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.Counter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Properties;
+import java.util.Set;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.ontology.OntModelSpec;
+import org.apache.jena.rdf.model.ModelFactory;
+import org.apache.jena.vocabulary.RDFS;
+import org.junit.jupiter.api.Test;
+import smile.clustering.linkage.Linkage;
+import smile.math.MathEx;
+import static org.junit.jupiter.api.Assertions.*;
+
+
+public class MultiSourceDispatcherIncrementalMergeByClusterTextTest {
+
+    private static final String[][] TEXTS = new String[][]{
+        {"The heart pumps blood through the body", "A cardiac muscle"},
+        {"Blood is pumped by the heart", "cardiac arrest"},
+        {"A car has four wheels and an engine", "The engine burns fuel"},
+        {"The engine of the car", "wheels of a vehicle"},
+        {"Paintings and sculptures in a museum", "an art gallery"},
+        {"The museum shows paintings", "modern art"}
+    };
+
+    @Test
+    public void sparseProximityIsSameAsDense() {
+        List<Set<Object>> models = getModels();
+        MultiSourceDispatcherIncrementalMergeByClusterText dispatcher = new MultiSourceDispatcherIncrementalMergeByClusterText(null);
+        float[] expected = Linkage.proximity(getDenseFeatures(dispatcher, models));
+        float[] actual = dispatcher.getClusterProximity(models, new Properties());
+        assertEquals(expected.length, actual.length);
+        for(int i = 0; i < expected.length; i++){
+            assertEquals(expected[i], actual[i], 0.0001);
+        }
+
+        double[][] features = dispatcher.getClusterFeatures(models, new Properties());
+        assertArrayEquals(expected, Linkage.proximity(features), 0.0001f);
+    }
+
+    @Test
+    public void proximityOfTooManyVectors() {
+        //n * (n + 1) / 2 overflows an int for n above 46,340 - this should not lead to a negative array size
+        SparseVector[] vectors = new SparseVector[70000];
+        Arrays.fill(vectors, new SparseVector(new int[0], new double[0]));
+        assertThrows(IllegalArgumentException.class, () -> SparseVector.euclideanProximity(vectors));
+    }
+
+    @Test
+    public void mergeTree() {
+        List<Set<Object>> models = getModels();
+        for(boolean approximate : new boolean[]{false, true}){
+            MultiSourceDispatcherIncrementalMergeByClusterText dispatcher = new MultiSourceDispatcherIncrementalMergeByClusterText(
+                    null, ClusterLinkage.SINGLE, 0.0, 1.0, 20, approximate);
+            int[][] tree = dispatcher.getMergeTree(models, new Properties());
+            assertValidTree(tree, models.size());
+            //the first merges are the similar pairs
+            Set<Set<Integer>> firstMerges = new HashSet<>();
+            for(int i = 0; i < 3; i++){
+                firstMerges.add(new HashSet<>(Arrays.asList(tree[i][0], tree[i][1])));
+            }
+            assertTrue(firstMerges.contains(new HashSet<>(Arrays.asList(0, 1))));
+            assertTrue(firstMerges.contains(new HashSet<>(Arrays.asList(2, 3))));
+            assertTrue(firstMerges.contains(new HashSet<>(Arrays.asList(4, 5))));
+        }
+    }
+
+    @Test
+    public void approximateClusteringOfUnrelatedModels() {
+        SparseVector[] vectors = new SparseVector[50];
+        for(int i = 0; i < vectors.length; i++){
+            //half of the vectors share features, the other half is disjoint
+            int feature = i < 25 ? 7 : 100 + i;
+            vectors[i] = new SparseVector(new int[]{feature, 1000 + i}, new double[]{0.7, 0.7}).unitize();
+        }
+        int[][] tree = new MinHashClustering(128, 32, 42).getMergeTree(vectors);
+        assertValidTree(tree, vectors.length);
+    }
+
+    private static void assertValidTree(int[][] tree, int n){
+        assertEquals(n - 1, tree.length);
+        Set<Integer> used = new HashSet<>();
+        for(int i = 0; i < tree.length; i++){
+            for(int id : tree[i]){
+                assertTrue(id < n + i, "Cluster is used before it is created.");
+                assertTrue(used.add(id), "Cluster is merged twice.");
+            }
+        }
+        assertEquals(2 * n - 2, used.size());
+    }
+
+    /**
+     * The tf-idf features as they were computed with string based bag of words.
+     */
+    private static double[][] getDenseFeatures(MultiSourceDispatcherIncrementalMergeByClusterText dispatcher, List<Set<Object>> models){
+        Counter<String> documentFrequency = new Counter<>();
+        List<Counter<String>> documents = new ArrayList<>();
+        for(Set<Object> model : models){
+            Counter<String> bow = dispatcher.getBagOfWords((OntModel) model.iterator().next());
+            documents.add(bow);
+            documentFrequency.addAll(bow.getDistinctElements());
+        }
+        String[] features = documentFrequency.getDistinctElements().toArray(new String[0]);
+        long n = documents.size();
+        return documents.stream().map(bag -> {
+            double[] x = new double[features.length];
+            double maxtf = 0;
+            for (int i = 0; i < features.length; i++)
+                maxtf = Math.max(maxtf, bag.getCount(features[i]));
+            for (int i = 0; i < x.length; i++)
+                x[i] = (bag.getCount(features[i]) / maxtf) * Math.log((1.0 + n) / (1.0 + documentFrequency.getCount(features[i])));
+            MathEx.unitize(x);
+            return x;
+        }).toArray(double[][]::new);
+    }
+
+    private static List<Set<Object>> getModels(){
+        List<Set<Object>> models = new ArrayList<>();
+        for(int i = 0; i < TEXTS.length; i++){
+            OntModel m = ModelFactory.createOntologyModel(OntModelSpec.OWL_DL_MEM);
+            for(int j = 0; j < TEXTS[i].length; j++){
+                m.createClass("http://example.com/kg" + i + "/concept" + j).addProperty(RDFS.label, TEXTS[i][j], "en");
+            }
+            models.add(new HashSet<>(Arrays.asList(m)));
+        }
+        return models;
+    }
+}
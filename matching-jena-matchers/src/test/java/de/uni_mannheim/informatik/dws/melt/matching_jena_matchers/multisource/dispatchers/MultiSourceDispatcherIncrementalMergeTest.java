@@ -2,6 +2,7 @@ package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.multisource.d
 
 import de.uni_mannheim.informatik.dws.melt.matching_base.IMatcher;
 import de.uni_mannheim.informatik.dws.melt.matching_base.multisource.DatasetIDExtractor;
+import de.uni_mannheim.informatik.dws.melt.matching_jena.multisource.IndexBasedJenaMatcher;
 import de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util.Counter;
 import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
 import java.util.AbstractMap;
@@ -16,6 +17,8 @@ import java.util.Map.Entry;
 import java.util.Properties;
 import java.util.Random;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import org.apache.jena.graph.Triple;
 import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.rdf.model.Model;
@@ -98,6 +101,60 @@ public class MultiSourceDispatcherIncrementalMergeTest {
         ));
     }
     
+    @Test
+    public void parallelMergeIsSameAsSequential() throws Exception{
+        Alignment sequential = mergeBalanced(1, true, 0);
+        assertFalse(sequential.isEmpty());
+        assertEquals(sequential, mergeBalanced(4, true, 0));
+        assertEquals(sequential, mergeBalanced(4, true, 30)); // bounded by the number of triples
+        assertEquals(sequential, mergeBalanced(3, false, 0)); // no factory - executed sequentially
+    }
+    
+    @Test
+    public void parallelMergeThrowsExceptionLikeSequential() throws Exception{
+        for(int threads : new int[]{1, 4}){
+            List<Set<Object>> models = new ArrayList<>();
+            for(int i = 0; i < 4; i++){
+                models.add(new HashSet<>(Arrays.asList(generate("domain" + i, 3, 0))));
+            }
+            MultiSourceDispatcherIncrementalMerge merger = new MultiSourceDispatcherIncrementalMerge(new FailingMatcher()) {
+                @Override
+                public int[][] getMergeTree(List<Set<Object>> models, Object parameters) {
+                    return new int[][]{{0,1},{2,3},{4,5}};
+                }
+            };
+            merger.setNumberOfThreads(threads);
+            merger.setOneToOneMatcherFactory(() -> new FailingMatcher());
+            IllegalStateException ex = assertThrows(IllegalStateException.class, () -> merger.match(models, new Alignment(), new Properties()));
+            assertEquals("matcher failed", ex.getMessage());
+        }
+    }
+    
+    private Alignment mergeBalanced(int threads, boolean useFactory, long maxTriples) throws Exception{
+        List<Set<Object>> models = new ArrayList<>();
+        for(int i = 0; i < 8; i++){
+            OntModel m = generate("domain" + i, 3, 2);
+            m.add(m.createResource("http://domain" + i + "#shared"), RDF.type, OWL.Class);
+            models.add(new HashSet<>(Arrays.asList(m)));
+        }
+        MultiSourceDispatcherIncrementalMerge merger = new MultiSourceDispatcherIncrementalMerge(new LocalNameIndexMatcher()) {
+            @Override
+            public int[][] getMergeTree(List<Set<Object>> models, Object parameters) {
+                return new int[][]{{0,1},{2,3},{4,5},{6,7},{8,9},{10,11},{12,13}};
+            }
+        };
+        merger.setNumberOfThreads(threads);
+        merger.setMaxTriplesInProgress(maxTriples);
+        if(useFactory)
+            merger.setOneToOneMatcherFactory(() -> new LocalNameIndexMatcher());
+        Alignment alignment = (Alignment) merger.match(models, new Alignment(), new Properties()).getAlignment();
+        assertEquals(7, merger.getMergeStatistics().size());
+        for(MergeStatistic statistic : merger.getMergeStatistics()){
+            assertTrue(statistic.getMergedTriples() >= statistic.getTargetTriples());
+        }
+        return alignment;
+    }
+    
     private void assertAllOrders(SaveOrderMatcherForTest oneToOneMatcher, List<Entry<String, Integer>> counts){
         Counter<String> aggregated = new Counter<>();
         
@@ -157,4 +214,45 @@ class NoOp implements IMatcher<Object, Object, Object> {
     public Object match(Object source, Object target, Object inputAlignment, Object parameters) throws Exception {
         return new Alignment();
     }
-}
\ No newline at end of file
+}
+/**
+ * Matches classes with the same local name. It implements {@link IndexBasedJenaMatcher} to check that each branch gets its own instance.
+ */
+class LocalNameIndexMatcher implements IMatcher<OntModel, Alignment, Properties>, IndexBasedJenaMatcher {
+    private final AtomicBoolean inUse = new AtomicBoolean(false);
+    
+    @Override
+    public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties parameters) throws Exception {
+        assertTrue(inUse.compareAndSet(false, true), "The matcher is used concurrently");
+        try{
+            ExtendedIterator<OntClass> sourceClasses = source.listClasses();
+            while(sourceClasses.hasNext()){
+                OntClass sourceClass = sourceClasses.next();
+                if(sourceClass.getLocalName() == null || !sourceClass.getLocalName().equals("shared"))
+                    continue;
+                ExtendedIterator<OntClass> targetClasses = target.listClasses();
+                while(targetClasses.hasNext()){
+                    OntClass targetClass = targetClasses.next();
+                    if(sourceClass.getLocalName().equals(targetClass.getLocalName()))
+                        inputAlignment.add(sourceClass.getURI(), targetClass.getURI());
+                }
+            }
+            return inputAlignment;
+        }finally{
+            inUse.set(false);
+        }
+    }
+
+    @Override
+    public void clearIndex() { }
+
+    @Override
+    public void updateSourceIndex(Triple triple) { }
+}
+
+class FailingMatcher implements IMatcher<OntModel, Alignment, Properties> {
+    @Override
+    public Alignment match(OntModel source, OntModel target, Alignment inputAlignment, Properties parameters) throws Exception {
+        throw new IllegalStateException("matcher failed");
+    }
+}
@@ -1,7 +1,12 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.util;
 
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
 import java.util.Set;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,4 +37,48 @@ public class TransitiveClosureTest {
         assertTrue(tc.getClosure().iterator().next().containsAll(Arrays.asList("a", "b", "c", "d")));
     }
     
+    @Test
+    void testBelongToTheSameCluster() {
+        TransitiveClosure<Integer> tc = new TransitiveClosure<>();
+        tc.add(1, 2);
+        tc.add(3, 4);
+        assertTrue(tc.belongToTheSameCluster(1, 2));
+        assertFalse(tc.belongToTheSameCluster(1, 3));
+        assertFalse(tc.belongToTheSameCluster(1, 5));
+        tc.add(2, 3);
+        assertTrue(tc.belongToTheSameCluster(1, 4));
+        assertTrue(tc.belongToTheSameCluster(4, 3, 2, 1));
+        assertEquals(1, tc.getClosure().size());
+    }
+    
+    @Test
+    void testFromAlignment() {
+        Random random = new Random(42);
+        Alignment alignment = new Alignment();
+        TransitiveClosure<String> expected = new TransitiveClosure<>();
+        for(int i = 0; i < 5000; i++){
+            String source = "http://source.com/" + random.nextInt(4000);
+            String target = "http://target.com/" + random.nextInt(4000);
+            alignment.add(source, target);
+            expected.add(source, target);
+        }
+        for(int threads : new int[]{1, 4}){
+            TransitiveClosure<String> actual = TransitiveClosure.fromAlignment(alignment, threads);
+            assertEquals(asSet(expected.getClosure()), asSet(actual.getClosure()));
+            for(Set<String> cluster : actual.getClosure()){
+                assertTrue(actual.belongToTheSameCluster(cluster));
+            }
+            //closure can still be extended
+            List<String> representatives = new ArrayList<>();
+            for(Set<String> cluster : actual.getClosure()){
+                representatives.add(cluster.iterator().next());
+            }
+            actual.add(representatives);
+            assertEquals(1, actual.getClosure().size());
+        }
+    }
+    
+    private static Set<Set<String>> asSet(Collection<Set<String>> closure){
+        return new HashSet<>(closure);
+    }
 }
@@ -1,21 +1,17 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena;
 
-import de.uni_mannheim.informatik.dws.melt.matching_jena.typetransformation.JenaTransformerHelper;
+import de.uni_mannheim.informatik.dws.melt.matching_base.BoundedCache;
+import de.uni_mannheim.informatik.dws.melt.matching_base.BoundedCache.EvictionPolicy;
+import de.uni_mannheim.informatik.dws.melt.matching_base.BoundedCache.Retention;
 import java.io.File;
 import java.net.URI;
 import java.net.URL;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Properties;
-import org.apache.jena.graph.Graph;
 
+import org.apache.jena.graph.Graph;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntModelSpec;
-import org.apache.jena.rdf.model.Model;
 import org.apache.jena.rdf.model.ModelFactory;
 import org.apache.jena.riot.Lang;
-import org.apache.jena.riot.RDFDataMgr;
-import org.apache.jena.riot.RDFLanguages;
 import org.apache.jena.riot.RDFParser;
 import org.apache.jena.riot.system.ErrorHandlerFactory;
 import org.apache.jena.riot.system.StreamRDFLib;
@@ -24,6 +20,11 @@ import org.slf4j.LoggerFactory;
 
 /**
  * Cache and reader for Jena ontologies.
+ * The cache can be used by multiple threads: each ontology is only read once and different ontologies are read in parallel.
+ * By default the cache is unbounded. It can be bounded by the number of ontologies and/or the number of triples
+ * (see {@link #configureCache(long, long, EvictionPolicy, Retention)} or the system properties
+ * MELT_ONTOLOGY_CACHE_MAX_SIZE, MELT_ONTOLOGY_CACHE_MAX_TRIPLES, MELT_ONTOLOGY_CACHE_EVICTION (LRU or LFU)
+ * and MELT_ONTOLOGY_CACHE_RETENTION (STRONG, SOFT or WEAK)).
  * @author Sven Hertling
  * @author Jan Portisch
  */
@@ -43,7 +44,7 @@ public class OntologyCacheJena {
     /**
      * The internal cache for ontologies that is dependent on the OntModelSpec.
      */
-    private static Map<String, OntModel> ontologyCache = new HashMap<>();
+    private static volatile BoundedCache<String, OntModel> ontologyCache = createCacheFromSystemProperties();
 
     /**
      * This flag indicates whether the cache is to be used (i.e., ontologies are held in memory).
@@ -72,22 +73,14 @@ public class OntologyCacheJena {
      * no recognized file extension, no recognized HTTP Content-Type provided).
      * @return OntModel reference.
      */
-    public static synchronized OntModel get(String uri, OntModelSpec spec, boolean useCache, Lang hintlang) {
-        if (useCache) {
+    public static OntModel get(String uri, OntModelSpec spec, boolean useCache, Lang hintlang) {
+        if (useCache && !isDeactivatedCache) {
             String keyForCache = uri + "_" + spec.hashCode();
-            OntModel model = ontologyCache.get(keyForCache);            
-            if (model == null) {
+            return ontologyCache.get(keyForCache, key -> {
                 // model not found in cache → read, put it there and return
                 LOGGER.info("Reading model into cache (" + uri + ")");
-                model = readOntModel(uri, spec, hintlang);
-                if(!isDeactivatedCache){
-                    ontologyCache.put(keyForCache, model);
-                }
-                return model;
-            } else {
-                //LOGGER.info("Returning model from cache.");
-                return model;
-            }
+                return readOntModel(uri, spec, hintlang);
+            });
         } else {
             // → do not use cache
             // plain vanilla case: read ontology and return
@@ -109,19 +102,30 @@ public class OntologyCacheJena {
             return TdbUtil.getOntModelFromTDB(f.getAbsolutePath(), spec);
         }else{
             OntModel model = ModelFactory.createOntologyModel(spec);
-            //model.read(uri);
-            //RDFDataMgr.read(model, uri);
-            RDFParser.create()
-                .source(uri)
-                .base(uri)
-                .errorHandler(ErrorHandlerFactory.errorHandlerWarn)
-                .lang(hintLang)
-                .context(null)
-                .parse(StreamRDFLib.graph(model.getGraph()));
-            
+            if(!OntologySnapshotCacheJena.read(uri, hintLang, model.getBaseModel().getGraph())){
+                parse(uri, hintLang, model.getGraph());
+            }
             return model;
         }
     }
+    
+    /**
+     * Parses the given uri into the given graph.
+     * @param uri URI from which shall be read.
+     * @param hintLang the hint {@link Lang}.
+     * @param graph the graph to which the triples are added
+     */
+    static void parse(String uri, Lang hintLang, Graph graph){
+        //model.read(uri);
+        //RDFDataMgr.read(model, uri);
+        RDFParser.create()
+            .source(uri)
+            .base(uri)
+            .errorHandler(ErrorHandlerFactory.errorHandlerWarn)
+            .lang(hintLang)
+            .context(null)
+            .parse(StreamRDFLib.graph(graph));
+    }
 
     /**
      * Returns the OntModel for the given uri using a cache by default.
@@ -214,7 +218,53 @@ public class OntologyCacheJena {
      * Empties the cache.
      */
     public static void emptyCache() {
-        ontologyCache = new HashMap<>();
+        ontologyCache.clear();
+    }
+    
+    /**
+     * Replaces the cache with a new (empty) cache with the given configuration.
+     * @param maximumSize the maximum number of ontologies in the cache (zero or negative for no bound)
+     * @param maximumTriples the maximum number of triples of all ontologies in the cache (zero or negative for no bound).
+     *      The triples of the base model are counted (without inferred triples).
+     * @param evictionPolicy which ontology should be removed if the cache is full
+     * @param retention how the ontologies are referenced: soft or weak references allow the garbage collector to remove them
+     */
+    public static void configureCache(long maximumSize, long maximumTriples, EvictionPolicy evictionPolicy, Retention retention) {
+        BoundedCache<String, OntModel> old = ontologyCache;
+        ontologyCache = new BoundedCache<>(maximumSize, maximumTriples, (key, model) -> model.getBaseModel().size(), evictionPolicy, retention);
+        old.clear();
+    }
+    
+    /**
+     * Returns the statistics (hits, misses, load time, evictions) of the ontology cache.
+     * @return the cache statistics
+     */
+    public static BoundedCache.Statistics getCacheStatistics() {
+        return ontologyCache.getStatistics();
+    }
+    
+    private static BoundedCache<String, OntModel> createCacheFromSystemProperties(){
+        long maximumSize = getLongSystemProperty("MELT_ONTOLOGY_CACHE_MAX_SIZE");
+        long maximumTriples = getLongSystemProperty("MELT_ONTOLOGY_CACHE_MAX_TRIPLES");
+        EvictionPolicy evictionPolicy = EvictionPolicy.LRU;
+        Retention retention = Retention.STRONG;
+        try{
+            evictionPolicy = EvictionPolicy.valueOf(System.getProperty("MELT_ONTOLOGY_CACHE_EVICTION", "LRU").toUpperCase());
+            retention = Retention.valueOf(System.getProperty("MELT_ONTOLOGY_CACHE_RETENTION", "STRONG").toUpperCase());
+        }catch(IllegalArgumentException ex){
+            LOGGER.error("Could not parse MELT_ONTOLOGY_CACHE_EVICTION or MELT_ONTOLOGY_CACHE_RETENTION. Use default (LRU and STRONG).", ex);
+        }
+        return new BoundedCache<>(maximumSize, maximumTriples, (key, model) -> model.getBaseModel().size(), evictionPolicy, retention);
+    }
+    
+    private static long getLongSystemProperty(String key){
+        String value = System.getProperty(key, "0");
+        try{
+            return Long.parseLong(value);
+        }catch(NumberFormatException ex){
+            LOGGER.error("Could not parse the number given by {} which is {}. Use default (no bound).", key, value, ex);
+            return 0;
+        }
     }
 
     public static boolean isDeactivatedCache() {
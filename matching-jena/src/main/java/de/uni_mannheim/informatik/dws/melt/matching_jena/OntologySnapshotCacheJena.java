@@ -0,0 +1,250 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.riot.RDFDataMgr;
+import org.apache.jena.riot.RDFFormat;
+import org.apache.jena.riot.RDFParser;
+import org.apache.jena.riot.system.StreamRDFLib;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Persistent cache of parsed ontologies which survives JVM restarts.
+ * When a local ontology file is read for the first time, the parsed triples are additionally written as
+ * <a href="https://jena.apache.org/documentation/io/rdf-binary.html">RDF Thrift</a> snapshot into the snapshot folder.
+ * The name of the snapshot is the SHA-256 hash of the file content (and the base URI and language hint).
+ * Later reads of a file with the same content use the snapshot which is much faster than parsing RDF/XML.
+ * <p>
+ * The cache is disabled by default. It is enabled by setting a snapshot folder via {@link #setSnapshotFolder(java.io.File) }
+ * or the system property MELT_ONTOLOGY_SNAPSHOT_FOLDER. Snapshots are read memory mapped if
+ * {@link #setMemoryMapped(boolean) } or the system property MELT_ONTOLOGY_SNAPSHOT_MMAP is set to true, otherwise they are streamed.
+ * It is used by {@link OntologyCacheJena}.
+ */
+public class OntologySnapshotCacheJena {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(OntologySnapshotCacheJena.class);
+
+    private static final String SNAPSHOT_SUFFIX = ".rt";
+
+    private static volatile File snapshotFolder = getSnapshotFolderFromSystemProperty();
+
+    private static volatile boolean memoryMapped = Boolean.parseBoolean(System.getProperty("MELT_ONTOLOGY_SNAPSHOT_MMAP", "false"));
+
+    private static File getSnapshotFolderFromSystemProperty(){
+        String folder = System.getProperty("MELT_ONTOLOGY_SNAPSHOT_FOLDER");
+        if(folder == null || folder.trim().isEmpty())
+            return null;
+        return new File(folder);
+    }
+
+    /**
+     * Reads the ontology given by the uri into the graph. If the snapshot cache is enabled and the uri points to a local file,
+     * the snapshot is used (if available) or created after parsing the file.
+     * @param uri the uri of the ontology
+     * @param hintLang the hint {@link Lang} used when parsing the original file
+     * @param graph the graph to which the triples are added
+     * @return true if the graph was filled by this method and false if the snapshot cache is not applicable (disabled or not a local file).
+     *      In the latter case, the graph is not modified.
+     */
+    public static boolean read(String uri, Lang hintLang, Graph graph){
+        File folder = snapshotFolder;
+        if(folder == null)
+            return false;
+        File file = getLocalFile(uri);
+        if(file == null)
+            return false;
+
+        String key;
+        try {
+            key = computeKey(file, uri, hintLang);
+        } catch (IOException ex) {
+            LOGGER.warn("Could not compute the hash of {} for the ontology snapshot cache. Parse it without snapshot.", file, ex);
+            return false;
+        }
+        File snapshot = new File(folder, key + SNAPSHOT_SUFFIX);
+        if(snapshot.isFile()){
+            long start = System.currentTimeMillis();
+            try{
+                readSnapshot(snapshot, graph);
+                LOGGER.info("Ontology snapshot cache hit for {} (read {} triples in {} ms from {})",
+                        uri, graph.size(), System.currentTimeMillis() - start, snapshot);
+                return true;
+            }catch(IOException | RuntimeException ex){
+                LOGGER.warn("Ontology snapshot {} for {} could not be read - rebuild it.", snapshot, uri, ex);
+                graph.clear();
+                snapshot.delete();
+            }
+        }else{
+            LOGGER.info("Ontology snapshot cache miss for {} - parse it and create snapshot {}", uri, snapshot);
+        }
+
+        OntologyCacheJena.parse(uri, hintLang, graph);
+        try {
+            writeSnapshot(graph, snapshot);
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.warn("Could not write ontology snapshot {} for {}.", snapshot, uri, ex);
+        }
+        return true;
+    }
+
+    private static File getLocalFile(String uri){
+        File file = TdbUtil.getFileFromURL(uri);
+        if(file == null)
+            file = new File(uri);
+        if(file.isFile())
+            return file;
+        return null;
+    }
+
+    /**
+     * Computes the key of the snapshot which is the SHA-256 hash of the file content, the base uri and the language hint
+     * (because the parsed triples depend on all of them).
+     * @param file the file
+     * @param uri the base uri
+     * @param hintLang the language hint
+     * @return the hex encoded hash
+     * @throws IOException in case the file can not be read
+     */
+    static String computeKey(File file, String uri, Lang hintLang) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("SHA-256 is not available", ex);
+        }
+        byte[] buffer = new byte[64 * 1024];
+        try(InputStream in = Files.newInputStream(file.toPath())){
+            int read;
+            while((read = in.read(buffer)) != -1){
+                digest.update(buffer, 0, read);
+            }
+        }
+        digest.update(("\n" + uri + "\n" + (hintLang == null ? "" : hintLang.getName())).getBytes(StandardCharsets.UTF_8));
+        StringBuilder sb = new StringBuilder();
+        for(byte b : digest.digest()){
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    private static void readSnapshot(File snapshot, Graph graph) throws IOException{
+        if(memoryMapped && snapshot.length() <= Integer.MAX_VALUE){
+            try(FileChannel channel = FileChannel.open(snapshot.toPath(), StandardOpenOption.READ)){
+                parseSnapshot(new ByteBufferInputStream(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())), graph);
+            }
+        }else{
+            try(InputStream in = new BufferedInputStream(Files.newInputStream(snapshot.toPath()), 64 * 1024)){
+                parseSnapshot(in, graph);
+            }
+        }
+    }
+
+    private static void parseSnapshot(InputStream in, Graph graph){
+        RDFParser.create()
+            .source(in)
+            .lang(Lang.RDFTHRIFT)
+            .context(null)
+            .parse(StreamRDFLib.graph(graph));
+    }
+
+    /**
+     * Writes the snapshot to a temporary file first and moves it afterwards, such that other processes never read an incomplete snapshot.
+     * @param graph the graph to write
+     * @param snapshot the snapshot file
+     * @throws IOException in case of an io error
+     */
+    private static void writeSnapshot(Graph graph, File snapshot) throws IOException{
+        Path folder = snapshot.getParentFile().toPath();
+        Files.createDirectories(folder);
+        Path tmp = Files.createTempFile(folder, "snapshot", ".tmp");
+        try{
+            try(OutputStream out = new BufferedOutputStream(Files.newOutputStream(tmp), 64 * 1024)){
+                RDFDataMgr.write(out, graph, RDFFormat.RDF_THRIFT);
+            }
+            try{
+                Files.move(tmp, snapshot.toPath(), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            }catch(AtomicMoveNotSupportedException ex){
+                Files.move(tmp, snapshot.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }finally{
+            Files.deleteIfExists(tmp);
+        }
+    }
+
+    /**
+     * Returns the snapshot folder or null if the snapshot cache is disabled.
+     * @return the snapshot folder or null
+     */
+    public static File getSnapshotFolder() {
+        return snapshotFolder;
+    }
+
+    /**
+     * Sets the folder where the snapshots are stored. Null disables the snapshot cache.
+     * @param folder the snapshot folder or null
+     */
+    public static void setSnapshotFolder(File folder) {
+        snapshotFolder = folder;
+    }
+
+    public static boolean isMemoryMapped() {
+        return memoryMapped;
+    }
+
+    /**
+     * If true, the snapshots are read via a memory mapped file instead of a buffered stream.
+     * @param mapped true, if snapshots should be memory mapped
+     */
+    public static void setMemoryMapped(boolean mapped) {
+        memoryMapped = mapped;
+    }
+
+    /**
+     * Input stream which reads from a (memory mapped) byte buffer.
+     */
+    private static class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if(len == 0)
+                return 0;
+            if(!buffer.hasRemaining())
+                return -1;
+            int n = Math.min(len, buffer.remaining());
+            buffer.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public int available() {
+            return buffer.remaining();
+        }
+    }
+}
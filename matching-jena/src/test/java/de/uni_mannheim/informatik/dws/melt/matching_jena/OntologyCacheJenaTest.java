@@ -1,5 +1,6 @@
 package de.uni_mannheim.informatik.dws.melt.matching_jena;
 
+import de.uni_mannheim.informatik.dws.melt.matching_base.BoundedCache;
 import org.apache.jena.ontology.OntClass;
 import org.apache.jena.ontology.OntModel;
 import org.apache.jena.ontology.OntModelSpec;
@@ -102,6 +103,25 @@ class OntologyCacheJenaTest {
         assertEquals(NUMBER_MODEL_CLASSES, model.listClasses().toList().size());
     }
 
+    @Test
+    void cacheStatisticsAndBound() {
+        File ontologyFile = new File("./src/test/resources/cmt.owl");
+        OntologyCacheJena.configureCache(1, 0, BoundedCache.EvictionPolicy.LRU, BoundedCache.Retention.STRONG);
+        try{
+            OntModel model = OntologyCacheJena.get(ontologyFile);
+            assertSame(model, OntologyCacheJena.get(ontologyFile));
+            assertEquals(1, OntologyCacheJena.getCacheStatistics().getHitCount());
+            assertEquals(1, OntologyCacheJena.getCacheStatistics().getMissCount());
+
+            //different spec is another entry and evicts the first one
+            OntologyCacheJena.get(ontologyFile, OntModelSpec.OWL_MEM);
+            assertEquals(1, OntologyCacheJena.getCacheStatistics().getEvictionCount());
+            assertNotSame(model, OntologyCacheJena.get(ontologyFile));
+        }finally{
+            OntologyCacheJena.configureCache(0, 0, BoundedCache.EvictionPolicy.LRU, BoundedCache.Retention.STRONG);
+        }
+    }
+
     @AfterEach
     void teardown(){
         OntologyCacheJena.emptyCache();
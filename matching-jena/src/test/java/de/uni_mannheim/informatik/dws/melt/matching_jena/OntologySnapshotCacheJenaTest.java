@@ -0,0 +1,81 @@
+package de.uni_mannheim.informatik.dws.melt.matching_jena;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.apache.jena.graph.Graph;
+import org.apache.jena.ontology.OntModel;
+import org.apache.jena.riot.Lang;
+import org.apache.jena.sparql.graph.GraphFactory;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OntologySnapshotCacheJenaTest {
+
+    @TempDir
+    File snapshotFolder;
+
+    private final File ontologyFile = new File("./src/test/resources/cmt.owl");
+
+    @Test
+    void disabledByDefault() {
+        OntologySnapshotCacheJena.setSnapshotFolder(null);
+        Graph graph = GraphFactory.createDefaultGraph();
+        assertFalse(OntologySnapshotCacheJena.read(ontologyFile.toURI().toString(), Lang.RDFXML, graph));
+        assertTrue(graph.isEmpty());
+    }
+
+    @Test
+    void snapshotIsCreatedAndUsed() {
+        OntologySnapshotCacheJena.setSnapshotFolder(snapshotFolder);
+        String uri = ontologyFile.toURI().toString();
+
+        Graph parsed = GraphFactory.createDefaultGraph();
+        assertTrue(OntologySnapshotCacheJena.read(uri, Lang.RDFXML, parsed));
+        File[] snapshots = snapshotFolder.listFiles();
+        assertEquals(1, snapshots.length);
+
+        for(boolean mapped : new boolean[]{false, true}){
+            OntologySnapshotCacheJena.setMemoryMapped(mapped);
+            Graph fromSnapshot = GraphFactory.createDefaultGraph();
+            assertTrue(OntologySnapshotCacheJena.read(uri, Lang.RDFXML, fromSnapshot));
+            assertTrue(parsed.isIsomorphicWith(fromSnapshot));
+        }
+        OntologySnapshotCacheJena.setMemoryMapped(false);
+    }
+
+    @Test
+    void corruptSnapshotIsRebuilt() throws IOException {
+        OntologySnapshotCacheJena.setSnapshotFolder(snapshotFolder);
+        String uri = ontologyFile.toURI().toString();
+        Graph parsed = GraphFactory.createDefaultGraph();
+        OntologySnapshotCacheJena.read(uri, Lang.RDFXML, parsed);
+
+        File snapshot = snapshotFolder.listFiles()[0];
+        Files.write(snapshot.toPath(), "no thrift".getBytes(StandardCharsets.UTF_8));
+
+        Graph rebuilt = GraphFactory.createDefaultGraph();
+        assertTrue(OntologySnapshotCacheJena.read(uri, Lang.RDFXML, rebuilt));
+        assertTrue(parsed.isIsomorphicWith(rebuilt));
+        assertTrue(snapshot.length() > 100);
+    }
+
+    @Test
+    void usedByOntologyCache() {
+        OntologySnapshotCacheJena.setSnapshotFolder(snapshotFolder);
+        OntModel first = OntologyCacheJena.get(ontologyFile.toURI().toString(), OntologyCacheJena.DEFAULT_JENA_ONT_MODEL_SPEC, false);
+        OntModel second = OntologyCacheJena.get(ontologyFile.toURI().toString(), OntologyCacheJena.DEFAULT_JENA_ONT_MODEL_SPEC, false);
+        assertEquals(1, snapshotFolder.listFiles().length);
+        assertEquals(40, second.listClasses().toList().size());
+        assertTrue(first.getBaseModel().isIsomorphicWith(second.getBaseModel()));
+    }
+
+    @AfterEach
+    void teardown(){
+        OntologySnapshotCacheJena.setSnapshotFolder(null);
+    }
+}
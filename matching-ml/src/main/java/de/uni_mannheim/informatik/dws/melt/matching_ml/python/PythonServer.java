@@ -18,6 +18,9 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.FloatBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -82,9 +85,29 @@ public class PythonServer {
     private static boolean isShutDown = true;
 
     /**
-     * Local vector cache.
+     * Default maximum number of vectors in the local vector cache.
      */
-    private HashMap<String, Double[]> vectorCache;
+    private static final int DEFAULT_VECTOR_CACHE_SIZE = 100_000;
+
+    /**
+     * Maximum number of concepts (or concept pairs) which are sent to the server in one batch request.
+     */
+    private static final int BATCH_SIZE = 10_000;
+
+    /**
+     * Maximum number of vectors in the local vector cache.
+     */
+    private int vectorCacheSize = DEFAULT_VECTOR_CACHE_SIZE;
+
+    /**
+     * If true, the cached vectors are normalized to unit length such that the cosine similarity is just the dot product.
+     */
+    private boolean isVectorNormalization = false;
+
+    /**
+     * Local vector cache (least recently used vectors are removed first).
+     */
+    private VectorCache vectorCache = new VectorCache(DEFAULT_VECTOR_CACHE_SIZE);
 
     /**
      * Indicates whether the shutdown hook has been initialized.
@@ -614,10 +637,10 @@ public class PythonServer {
     public double getSimilarity(String concept1, String concept2, String modelOrVectorPath) {
         if (isVectorCaching) {
             // caching is enabled: do not use gensim library but cache vectors and calculate in java on demand
-            Double[] v1 = getVector(concept1, modelOrVectorPath);
-            Double[] v2 = getVector(concept2, modelOrVectorPath);
+            float[] v1 = getFloatVector(concept1, modelOrVectorPath);
+            float[] v2 = getFloatVector(concept2, modelOrVectorPath);
             if (v1 != null && v2 != null) {
-                return this.cosineSimilarity(v1, v2);
+                return isVectorNormalization ? dotProduct(v1, v2) : cosineSimilarity(v1, v2);
             }
         } else {
             HttpGet request = new HttpGet(serverUrl + "/get-similarity");
@@ -643,6 +666,65 @@ public class PythonServer {
         return -1.0;
     }
 
+    /**
+     * Returns the similarities of multiple concept pairs (concepts1[i], concepts2[i]) with one request to the server
+     * (or without any request if vector caching is enabled and all vectors are cached).
+     *
+     * @param concepts1         The first concept of each pair.
+     * @param concepts2         The second concept of each pair (same size as concepts1).
+     * @param modelOrVectorPath The path to the model or vector file. Note that the vector file MUST end with .kv in
+     *                          order to be recognized as vector file.
+     * @return The similarities in the same order as the pairs. -1.0 for a pair in case of failure (as in
+     * {@link #getSimilarity(String, String, String)}).
+     */
+    public double[] getSimilarities(List<String> concepts1, List<String> concepts2, String modelOrVectorPath) {
+        if (concepts1.size() != concepts2.size()) {
+            throw new IllegalArgumentException("The lists of concepts must have the same size.");
+        }
+        double[] result = new double[concepts1.size()];
+        Arrays.fill(result, -1.0);
+        if (isVectorCaching) {
+            Set<String> concepts = new LinkedHashSet<>(concepts1);
+            concepts.addAll(concepts2);
+            Map<String, float[]> vectors = getFloatVectors(concepts, modelOrVectorPath);
+            for (int i = 0; i < result.length; i++) {
+                float[] v1 = vectors.get(concepts1.get(i));
+                float[] v2 = vectors.get(concepts2.get(i));
+                if (v1 != null && v2 != null) {
+                    result[i] = isVectorNormalization ? dotProduct(v1, v2) : cosineSimilarity(v1, v2);
+                }
+            }
+            return result;
+        }
+        for (int from = 0; from < result.length; from += BATCH_SIZE) {
+            int to = Math.min(result.length, from + BATCH_SIZE);
+            ObjectNode root = JSON_MAPPER.createObjectNode();
+            addModelToJson(root, modelOrVectorPath);
+            ArrayNode pairs = root.putArray("pairs");
+            for (int i = from; i < to; i++) {
+                pairs.addArray().add(concepts1.get(i)).add(concepts2.get(i));
+            }
+            try {
+                ByteBuffer buffer = postBinary("/get-similarity-batch", root);
+                int size = buffer.getInt();
+                if (size != to - from) {
+                    LOGGER.error("The server returned {} similarities for {} pairs.", size, to - from);
+                    return result;
+                }
+                for (int i = from; i < to; i++) {
+                    float similarity = buffer.getFloat();
+                    if (!Float.isNaN(similarity)) {
+                        result[i] = similarity;
+                    }
+                }
+            } catch (IOException ioe) {
+                LOGGER.error("Problem with http request.", ioe);
+                return result;
+            }
+        }
+        return result;
+    }
+
     /**
      * Returns the vector of a concept.
      *
@@ -651,55 +733,113 @@ public class PythonServer {
      * @return The vector for the specified concept.
      */
     public Double[] getVector(String concept, String modelOrVectorPath) {
-
-        String v1key = concept + "-" + modelOrVectorPath;
-        if (isVectorCaching) {
-            if (vectorCache.containsKey(v1key)) {
-                return vectorCache.get(v1key);
-            }
+        float[] vector = getFloatVector(concept, modelOrVectorPath);
+        if (vector == null) {
+            return null;
+        }
+        Double[] result = new Double[vector.length];
+        for (int i = 0; i < vector.length; i++) {
+            result[i] = (double) vector[i];
         }
+        return result;
+    }
 
-        HttpGet request = new HttpGet(serverUrl + "/get-vector");
-        request.addHeader("concept", concept);
-        addModelToRequest(request, modelOrVectorPath);
+    /**
+     * Returns the vector of a concept as primitive float array.
+     * If vector caching is enabled, the returned array is shared with the cache and must not be modified.
+     *
+     * @param concept The concept for which the vector shall be obtained.
+     * @param modelOrVectorPath The model path or vector file path leading to the file to be used.
+     * @return The vector for the specified concept or null if it is not in the vocabulary (or in case of failure).
+     * The vector is normalized to unit length if vector normalization is enabled.
+     */
+    public float[] getFloatVector(String concept, String modelOrVectorPath) {
+        return getFloatVectors(Collections.singletonList(concept), modelOrVectorPath).get(concept);
+    }
 
-        try (CloseableHttpResponse response = httpClient.execute(request)) {
-            HttpEntity entity = response.getEntity();
-            if (entity == null) {
-                LOGGER.error("No server response.");
-                return null;
-            } else {
-                String resultString = EntityUtils.toString(entity);
-                if (resultString.startsWith("ERROR") || resultString.contains("500 Internal Server Error")) {
-                    LOGGER.error(resultString);
-                } else {
-                    String[] tokenizedResult = resultString.split(" ");
-                    Double[] result = new Double[tokenizedResult.length];
-                    for (int i = 0; i < result.length; i++) {
-                        try {
-                            result[i] = Double.parseDouble(tokenizedResult[i]);
-                        } catch (NumberFormatException nfe) {
-                            LOGGER.error("Number format exception occured on token: " + tokenizedResult[i], nfe);
-                            // cannot return vector
-                            if(isVectorCaching) {
-                                vectorCache.put(v1key, null);
-                            }
-                            return null;
+    /**
+     * Returns the vectors of multiple concepts. All concepts which are not cached are requested from the server
+     * in one binary batch request.
+     * If vector caching is enabled, the returned arrays are shared with the cache and must not be modified.
+     *
+     * @param concepts The concepts for which the vectors shall be obtained.
+     * @param modelOrVectorPath The model path or vector file path leading to the file to be used.
+     * @return A map from concept to vector. Concepts which are not in the vocabulary (or in case of failure) are
+     * not contained. The vectors are normalized to unit length if vector normalization is enabled.
+     */
+    public Map<String, float[]> getFloatVectors(Collection<String> concepts, String modelOrVectorPath) {
+        Map<String, float[]> result = new HashMap<>();
+        List<String> toBeRequested = new ArrayList<>();
+        for (String concept : new LinkedHashSet<>(concepts)) {
+            float[] cached = isVectorCaching ? vectorCache.get(modelOrVectorPath, concept) : null;
+            if (cached == null) {
+                toBeRequested.add(concept);
+            } else if (cached != VectorCache.MISSING) {
+                result.put(concept, cached);
+            }
+        }
+        for (int from = 0; from < toBeRequested.size(); from += BATCH_SIZE) {
+            List<String> batch = toBeRequested.subList(from, Math.min(toBeRequested.size(), from + BATCH_SIZE));
+            ObjectNode root = JSON_MAPPER.createObjectNode();
+            addModelToJson(root, modelOrVectorPath);
+            ArrayNode array = root.putArray("concepts");
+            for (String concept : batch) {
+                array.add(concept);
+            }
+            try {
+                ByteBuffer buffer = postBinary("/get-vectors-batch", root);
+                int size = buffer.getInt();
+                int dimension = buffer.getInt();
+                if (size != batch.size()) {
+                    LOGGER.error("The server returned {} vectors for {} concepts.", size, batch.size());
+                    return result;
+                }
+                byte[] inVocabulary = new byte[size];
+                buffer.get(inVocabulary);
+                FloatBuffer floats = buffer.asFloatBuffer();
+                for (int i = 0; i < size; i++) {
+                    float[] vector = VectorCache.MISSING;
+                    if (inVocabulary[i] != 0) {
+                        vector = new float[dimension];
+                        floats.get(vector);
+                        if (isVectorNormalization) {
+                            normalize(vector);
                         }
+                        result.put(batch.get(i), vector);
                     }
-                    if(isVectorCaching) {
-                        vectorCache.put(v1key, result);
+                    if (isVectorCaching) {
+                        vectorCache.put(modelOrVectorPath, batch.get(i), vector);
                     }
-                    return result;
                 }
+            } catch (IOException | BufferUnderflowException e) {
+                LOGGER.error("Problem with http request.", e);
+                return result;
             }
-        } catch (IOException ioe) {
-            LOGGER.error("Problem with http request.", ioe);
         }
-        if(isVectorCaching) {
-            vectorCache.put(v1key, null);
+        return result;
+    }
+
+    /**
+     * Sends the JSON content to the given endpoint and returns the binary response.
+     *
+     * @param endpoint The endpoint (starting with a slash).
+     * @param content The JSON content.
+     * @return The binary content of the response (big endian).
+     * @throws IOException If the request fails or the server returns an error.
+     */
+    private ByteBuffer postBinary(String endpoint, ObjectNode content) throws IOException {
+        HttpPost request = new HttpPost(serverUrl + endpoint);
+        request.setEntity(new StringEntity(JSON_MAPPER.writeValueAsString(content), ContentType.APPLICATION_JSON));
+        try (CloseableHttpResponse response = httpClient.execute(request)) {
+            HttpEntity entity = response.getEntity();
+            if (entity == null) {
+                throw new IOException("No server response.");
+            }
+            if (response.getStatusLine().getStatusCode() != 200) {
+                throw new IOException(EntityUtils.toString(entity));
+            }
+            return ByteBuffer.wrap(EntityUtils.toByteArray(entity));
         }
-        return null;
     }
 
     /**
@@ -724,7 +864,7 @@ public class PythonServer {
      */
     public boolean isInVocabulary(String concept, String modelOrVectorPath) {
         if (isVectorCaching) {
-            return getVector(concept, modelOrVectorPath) != null;
+            return getFloatVector(concept, modelOrVectorPath) != null;
         } else {
             HttpGet request = new HttpGet(serverUrl + "/is-in-vocabulary");
             request.addHeader("concept", concept);
@@ -855,6 +995,19 @@ public class PythonServer {
         } else request.addHeader("model_path", getCanonicalPath(modelOrVectorPath));
     }
 
+    /**
+     * Given a path to a model or vector file, this method determines whether it is a model or a vector file and
+     * adds the corresponding field to the JSON content.
+     *
+     * @param content           The JSON content to which the model/vector file shall be added to.
+     * @param modelOrVectorPath The path to the model/vector file.
+     */
+    private void addModelToJson(ObjectNode content, String modelOrVectorPath) {
+        if (modelOrVectorPath.endsWith(".kv")) {
+            content.put("vector_path", getCanonicalPath(modelOrVectorPath));
+        } else content.put("model_path", getCanonicalPath(modelOrVectorPath));
+    }
+
     /**
      * Obtain the canonical model path.
      *
@@ -932,6 +1085,20 @@ public class PythonServer {
         return instance;
     }
 
+    /**
+     * Get the instance without starting the python process. The server has to be already running on the
+     * configured port (e.g. a mock server for testing).
+     * @return The instance.
+     */
+    static PythonServer getInstanceForRunningServer() {
+        if (instance == null) instance = new PythonServer();
+        if (isShutDown) {
+            isShutDown = false;
+            httpClient = HttpClients.createDefault();
+        }
+        return instance;
+    }
+
     /**
      * Checks whether all Python requirements are installed and whether the server is functional.
      * @return True if the server is fully functional, else false.
@@ -1091,7 +1258,7 @@ public class PythonServer {
         } catch (InterruptedException e) {
             LOGGER.error("Could not wait for python server.", e);
         }
-        vectorCache = new HashMap<>();
+        vectorCache = new VectorCache(vectorCacheSize);
 
         // now: add shutdown hook in case the JVM is terminating
         if(!isHookStarted) {
@@ -1194,13 +1361,70 @@ public class PythonServer {
         double norm1 = 0.0;
         double norm2 = 0.0;
         for (int i = 0; i < vector1.length; i++) {
-            dotProduct += vector1[i] * vector2[i];
-            norm1 = norm1 + Math.pow(vector1[i], 2);
-            norm2 = norm2 + Math.pow(vector2[i], 2);
+            double v1 = vector1[i];
+            double v2 = vector2[i];
+            dotProduct += v1 * v2;
+            norm1 += v1 * v1;
+            norm2 += v2 * v2;
+        }
+        return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
+    }
+
+    /**
+     * Calculate The cosine similarity between two vectors (without any allocation).
+     *
+     * @param vector1 First vector.
+     * @param vector2 Second vector.
+     * @return Cosine similarity as double.
+     */
+    public static double cosineSimilarity(float[] vector1, float[] vector2) {
+        double dotProduct = 0.0;
+        double norm1 = 0.0;
+        double norm2 = 0.0;
+        for (int i = 0; i < vector1.length; i++) {
+            double v1 = vector1[i];
+            double v2 = vector2[i];
+            dotProduct += v1 * v2;
+            norm1 += v1 * v1;
+            norm2 += v2 * v2;
         }
         return dotProduct / (Math.sqrt(norm1) * Math.sqrt(norm2));
     }
 
+    /**
+     * Calculate the dot product of two vectors. For vectors with unit length, this is the cosine similarity.
+     *
+     * @param vector1 First vector.
+     * @param vector2 Second vector.
+     * @return Dot product as double.
+     */
+    public static double dotProduct(float[] vector1, float[] vector2) {
+        double dotProduct = 0.0;
+        for (int i = 0; i < vector1.length; i++) {
+            dotProduct += (double) vector1[i] * vector2[i];
+        }
+        return dotProduct;
+    }
+
+    /**
+     * Normalizes the vector (in place) to unit length.
+     *
+     * @param vector The vector to be normalized.
+     */
+    private static void normalize(float[] vector) {
+        double norm = 0.0;
+        for (float v : vector) {
+            norm += (double) v * v;
+        }
+        if (norm == 0.0) {
+            return;
+        }
+        norm = Math.sqrt(norm);
+        for (int i = 0; i < vector.length; i++) {
+            vector[i] = (float) (vector[i] / norm);
+        }
+    }
+
     /**
      * Writes the vectors to a human-readable text file.
      * @param modelOrVectorPath The path to the model or vector file. Note that the vector file MUST end with .kv in
@@ -1345,6 +1569,49 @@ public class PythonServer {
         isVectorCaching = vectorCaching;
     }
 
+    /**
+     * Get the maximum number of vectors in the local vector cache.
+     * @return The maximum number of cached vectors.
+     */
+    public int getVectorCacheSize() {
+        return vectorCacheSize;
+    }
+
+    /**
+     * Set the maximum number of vectors which are held in memory if vector caching is enabled.
+     * If the cache is full, the least recently used vectors are removed. Setting the size clears the cache.
+     * @param vectorCacheSize The maximum number of cached vectors (must be positive).
+     */
+    public void setVectorCacheSize(int vectorCacheSize) {
+        if (vectorCacheSize <= 0) {
+            LOGGER.error("The vector cache size has to be positive. Using default: " + DEFAULT_VECTOR_CACHE_SIZE);
+            vectorCacheSize = DEFAULT_VECTOR_CACHE_SIZE;
+        }
+        this.vectorCacheSize = vectorCacheSize;
+        this.vectorCache = new VectorCache(vectorCacheSize);
+    }
+
+    /**
+     * If true: vectors are normalized to unit length.
+     * @return True if enabled, else false.
+     */
+    public boolean isVectorNormalization() {
+        return isVectorNormalization;
+    }
+
+    /**
+     * If vector normalization is turned on, all vectors returned by this class are normalized to unit length when
+     * they are received from the server. The cosine similarity is then computed as a plain dot product.
+     * Changing this setting clears the vector cache.
+     * @param vectorNormalization True if the vectors shall be normalized, else false.
+     */
+    public void setVectorNormalization(boolean vectorNormalization) {
+        if (this.isVectorNormalization != vectorNormalization) {
+            this.vectorCache.clear();
+        }
+        isVectorNormalization = vectorNormalization;
+    }
+
     public static int getPort() {
         return port;
     }
@@ -0,0 +1,94 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A thread safe least recently used (LRU) cache of vectors which are stored as primitive float arrays.
+ * The key is the pair of model (or vector file) and concept.
+ * Concepts which are not in the vocabulary are cached as well (with the {@link #MISSING} marker).
+ */
+class VectorCache {
+
+    /**
+     * Marker for concepts which are not in the vocabulary.
+     */
+    static final float[] MISSING = new float[0];
+
+    private final LinkedHashMap<Key, float[]> cache;
+    private final int maximumSize;
+
+    /**
+     * Constructor
+     * @param maximumSize the maximum number of vectors (the least recently used ones are removed first)
+     */
+    VectorCache(int maximumSize) {
+        this.maximumSize = maximumSize;
+        this.cache = new LinkedHashMap<Key, float[]>(16, 0.75f, true){
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, float[]> eldest) {
+                return size() > VectorCache.this.maximumSize;
+            }
+        };
+    }
+
+    /**
+     * Returns the cached vector.
+     * @param model the model or vector path
+     * @param concept the concept
+     * @return the vector, {@link #MISSING} if the concept is not in the vocabulary or null if it is not cached
+     */
+    synchronized float[] get(String model, String concept){
+        return this.cache.get(new Key(model, concept));
+    }
+
+    /**
+     * Adds a vector to the cache.
+     * @param model the model or vector path
+     * @param concept the concept
+     * @param vector the vector or {@link #MISSING} if the concept is not in the vocabulary
+     */
+    synchronized void put(String model, String concept, float[] vector){
+        this.cache.put(new Key(model, concept), vector);
+    }
+
+    synchronized int size(){
+        return this.cache.size();
+    }
+
+    synchronized void clear(){
+        this.cache.clear();
+    }
+
+    int getMaximumSize() {
+        return maximumSize;
+    }
+
+    private static final class Key {
+        private final String model;
+        private final String concept;
+        private final int hash;
+
+        Key(String model, String concept) {
+            this.model = model;
+            this.concept = concept;
+            this.hash = 31 * model.hashCode() + concept.hashCode();
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj)
+                return true;
+            if (!(obj instanceof Key))
+                return false;
+            Key other = (Key) obj;
+            return this.hash == other.hash && Objects.equals(this.concept, other.concept) && Objects.equals(this.model, other.model);
+        }
+    }
+}
@@ -1,4 +1,4 @@
-from flask import Flask, request, jsonify
+from flask import Flask, request, jsonify, Response
 from gensim import corpora, models, similarities, matutils
 from scipy import linalg
 from scipy.special import softmax
@@ -336,6 +336,54 @@ def get_vector_given_model():
     return result[1:]
 
 
+@app.route("/get-vectors-batch", methods=["POST"])
+def get_vectors_batch():
+    """Returns the vectors of multiple concepts in one binary response.
+    The request is a JSON object with the list of concepts ("concepts") and either "model_path" or "vector_path".
+
+    Returns
+    -------
+        bytes
+        The number of concepts and the vector dimension (both big endian int32), followed by one byte per concept
+        (1 if the concept is in the vocabulary, else 0) and the vectors of all concepts in the vocabulary
+        (in the requested order, big endian float32).
+    """
+    content = request.get_json()
+    vectors = get_vectors(model_path=content.get("model_path"), vector_path=content.get("vector_path"))
+    concepts = content["concepts"]
+    mask = np.array([concept in vectors.vocab for concept in concepts], dtype=np.uint8)
+    found = [concept for concept, in_vocab in zip(concepts, mask) if in_vocab]
+    if len(found) > 0:
+        matrix = np.array([vectors.word_vec(concept) for concept in found], dtype=">f4")
+    else:
+        matrix = np.empty((0, vectors.vector_size), dtype=">f4")
+    header = np.array([len(concepts), vectors.vector_size], dtype=">i4")
+    return Response(header.tobytes() + mask.tobytes() + matrix.tobytes(), mimetype="application/octet-stream")
+
+
+@app.route("/get-similarity-batch", methods=["POST"])
+def get_similarity_batch():
+    """Returns the similarities of multiple concept pairs in one binary response.
+    The request is a JSON object with the list of pairs ("pairs", each a list of two concepts) and either
+    "model_path" or "vector_path".
+
+    Returns
+    -------
+        bytes
+        The number of pairs (big endian int32) followed by the similarities (big endian float32).
+        The similarity is NaN if one of the concepts is not in the vocabulary.
+    """
+    content = request.get_json()
+    vectors = get_vectors(model_path=content.get("model_path"), vector_path=content.get("vector_path"))
+    pairs = content["pairs"]
+    result = np.full(len(pairs), np.nan, dtype=">f4")
+    for i, (concept_1, concept_2) in enumerate(pairs):
+        if concept_1 in vectors.vocab and concept_2 in vectors.vocab:
+            result[i] = vectors.similarity(concept_1, concept_2)
+    header = np.array([len(pairs)], dtype=">i4")
+    return Response(header.tobytes() + result.tobytes(), mimetype="application/octet-stream")
+
+
 # Doc2vec models
 
 
@@ -0,0 +1,183 @@
+package de.uni_mannheim.informatik.dws.melt.matching_ml.python;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Tests the batch endpoints of the {@link PythonServer} with a mock server (which stands in for gensim) such that
+ * no python environment is required.
+ */
+class PythonServerBatchTest {
+
+    private static final ObjectMapper JSON_MAPPER = new ObjectMapper();
+    private static final String MODEL = "model.kv";
+
+    private static final Map<String, float[]> VOCABULARY = new HashMap<>();
+    static {
+        VOCABULARY.put("europe", new float[]{3.0f, 4.0f, 0.0f});
+        VOCABULARY.put("united", new float[]{4.0f, 3.0f, 0.0f});
+        VOCABULARY.put("kingdom", new float[]{0.0f, 0.0f, 2.0f});
+    }
+
+    private HttpServer server;
+    private int previousPort;
+    private final AtomicInteger vectorRequests = new AtomicInteger();
+    private final AtomicInteger requestedConcepts = new AtomicInteger();
+    private final AtomicInteger similarityRequests = new AtomicInteger();
+    private PythonServer pythonServer;
+
+    @BeforeEach
+    void setup() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/get-vectors-batch", exchange -> {
+            vectorRequests.incrementAndGet();
+            JsonNode concepts = JSON_MAPPER.readTree(exchange.getRequestBody()).get("concepts");
+            int found = 0;
+            for (JsonNode concept : concepts) {
+                if (VOCABULARY.containsKey(concept.asText()))
+                    found++;
+            }
+            requestedConcepts.addAndGet(concepts.size());
+            ByteBuffer buffer = ByteBuffer.allocate(8 + concepts.size() + found * 3 * 4);
+            buffer.putInt(concepts.size()).putInt(3);
+            for (JsonNode concept : concepts) {
+                buffer.put((byte) (VOCABULARY.containsKey(concept.asText()) ? 1 : 0));
+            }
+            for (JsonNode concept : concepts) {
+                float[] vector = VOCABULARY.get(concept.asText());
+                if (vector != null) {
+                    for (float f : vector)
+                        buffer.putFloat(f);
+                }
+            }
+            send(exchange, buffer.array());
+        });
+        server.createContext("/get-similarity-batch", exchange -> {
+            similarityRequests.incrementAndGet();
+            JsonNode pairs = JSON_MAPPER.readTree(exchange.getRequestBody()).get("pairs");
+            ByteBuffer buffer = ByteBuffer.allocate(4 + pairs.size() * 4);
+            buffer.putInt(pairs.size());
+            for (JsonNode pair : pairs) {
+                float[] v1 = VOCABULARY.get(pair.get(0).asText());
+                float[] v2 = VOCABULARY.get(pair.get(1).asText());
+                buffer.putFloat(v1 == null || v2 == null ? Float.NaN : (float) PythonServer.cosineSimilarity(v1, v2));
+            }
+            send(exchange, buffer.array());
+        });
+        server.start();
+
+        previousPort = PythonServer.getPort();
+        PythonServer.shutDown();
+        PythonServer.setPort(server.getAddress().getPort());
+        pythonServer = PythonServer.getInstanceForRunningServer();
+        pythonServer.setVectorCaching(true);
+        pythonServer.setVectorNormalization(false);
+        pythonServer.setVectorCacheSize(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        PythonServer.shutDown();
+        PythonServer.setPort(previousPort);
+        server.stop(0);
+    }
+
+    @Test
+    void getFloatVectorsInOneRequest() {
+        Map<String, float[]> vectors = pythonServer.getFloatVectors(Arrays.asList("europe", "unknown", "kingdom", "europe"), MODEL);
+        assertEquals(1, vectorRequests.get());
+        assertEquals(3, requestedConcepts.get());
+        assertEquals(2, vectors.size());
+        assertArrayEquals(new float[]{3.0f, 4.0f, 0.0f}, vectors.get("europe"));
+        assertArrayEquals(new float[]{0.0f, 0.0f, 2.0f}, vectors.get("kingdom"));
+        assertFalse(vectors.containsKey("unknown"));
+
+        //everything (including the unknown concept) is cached now
+        assertNull(pythonServer.getVector("unknown", MODEL));
+        assertArrayEquals(new Double[]{3.0, 4.0, 0.0}, pythonServer.getVector("europe", MODEL));
+        assertEquals(1, vectorRequests.get());
+    }
+
+    @Test
+    void getSimilaritiesWithCaching() {
+        double[] similarities = pythonServer.getSimilarities(
+                Arrays.asList("europe", "europe", "unknown"),
+                Arrays.asList("united", "kingdom", "europe"), MODEL);
+        assertEquals(1, vectorRequests.get());
+        assertEquals(0, similarityRequests.get());
+        assertEquals(0.96, similarities[0], 1e-6);
+        assertEquals(0.0, similarities[1], 1e-6);
+        assertEquals(-1.0, similarities[2], 1e-6);
+        assertEquals(0.96, pythonServer.getSimilarity("europe", "united", MODEL), 1e-6);
+        assertEquals(1, vectorRequests.get());
+    }
+
+    @Test
+    void getSimilaritiesWithoutCaching() {
+        pythonServer.setVectorCaching(false);
+        double[] similarities = pythonServer.getSimilarities(
+                Arrays.asList("europe", "unknown"),
+                Arrays.asList("united", "europe"), MODEL);
+        assertEquals(0, vectorRequests.get());
+        assertEquals(1, similarityRequests.get());
+        assertEquals(0.96, similarities[0], 1e-6);
+        assertEquals(-1.0, similarities[1], 1e-6);
+        assertThrows(IllegalArgumentException.class,
+                () -> pythonServer.getSimilarities(Arrays.asList("europe"), Arrays.asList(), MODEL));
+    }
+
+    @Test
+    void vectorNormalization() {
+        pythonServer.setVectorNormalization(true);
+        float[] europe = pythonServer.getFloatVector("europe", MODEL);
+        assertArrayEquals(new float[]{0.6f, 0.8f, 0.0f}, europe, 1e-6f);
+        assertEquals(0.96, pythonServer.getSimilarity("europe", "united", MODEL), 1e-6);
+    }
+
+    @Test
+    void vectorCacheIsBounded() {
+        pythonServer.setVectorCacheSize(2);
+        List<String> concepts = Arrays.asList("europe", "united", "kingdom");
+        pythonServer.getFloatVectors(concepts, MODEL);
+        assertEquals(1, vectorRequests.get());
+        //europe is the least recently used vector and was removed
+        pythonServer.getFloatVector("kingdom", MODEL);
+        assertEquals(1, vectorRequests.get());
+        pythonServer.getFloatVector("europe", MODEL);
+        assertEquals(2, vectorRequests.get());
+    }
+
+    @Test
+    void cosineSimilarity() {
+        float[] v1 = {1.0f, 2.0f, 3.0f};
+        float[] v2 = {4.0f, 5.0f, 6.0f};
+        Double[] b1 = {1.0, 2.0, 3.0};
+        Double[] b2 = {4.0, 5.0, 6.0};
+        assertEquals(32.0 / (Math.sqrt(14) * Math.sqrt(77)), PythonServer.cosineSimilarity(v1, v2), 1e-9);
+        assertEquals(PythonServer.cosineSimilarity(b1, b2), PythonServer.cosineSimilarity(v1, v2), 1e-9);
+        assertEquals(32.0, PythonServer.dotProduct(v1, v2), 1e-9);
+    }
+
+    private static void send(HttpExchange exchange, byte[] bytes) throws IOException {
+        exchange.getResponseHeaders().add("Content-Type", "application/octet-stream");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
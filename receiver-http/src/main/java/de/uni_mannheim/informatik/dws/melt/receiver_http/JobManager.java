@@ -0,0 +1,174 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.net.URL;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Executes matching jobs asynchronously with a fixed number of threads and a bounded queue.
+ * Each job acquires a permit of the given semaphore before the matcher runs. The same semaphore is used for
+ * synchronous requests such that asynchronous and synchronous matcher runs share one limit (MELT_MAX_REQUESTS).
+ * Finished jobs are kept for a retention time such that the client can fetch the result.
+ */
+class JobManager {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobManager.class);
+
+    /**
+     * What happens if a job is submitted and the queue is full.
+     */
+    enum RejectionPolicy {
+        /**
+         * The new job is rejected (the client receives a 503 status code).
+         */
+        ABORT,
+        /**
+         * The oldest job in the queue is discarded (it fails) and the new job is queued.
+         */
+        DISCARD_OLDEST
+    }
+
+    private final ThreadPoolExecutor executor;
+    private final Semaphore permits;
+    private final Map<String, MatchJob> jobs;
+    private final long retentionMillis;
+
+    /**
+     * Constructor
+     * @param numberOfThreads the number of jobs which are executed in parallel
+     * @param permits the permits for running a matcher (shared with synchronous requests)
+     * @param queueSize the number of jobs which can wait in the queue
+     * @param rejectionPolicy what happens if the queue is full
+     * @param retentionMillis how long (in milliseconds) the finished jobs are kept
+     */
+    JobManager(int numberOfThreads, Semaphore permits, int queueSize, RejectionPolicy rejectionPolicy, long retentionMillis) {
+        this.permits = permits;
+        this.jobs = new ConcurrentHashMap<>();
+        this.retentionMillis = retentionMillis;
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(numberOfThreads, numberOfThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)),
+                r -> {
+                    Thread t = new Thread(r, "melt-match-job-" + threadNumber.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                },
+                getRejectedExecutionHandler(rejectionPolicy));
+    }
+
+    /**
+     * Submits a new job.
+     * @param sendContent if true, the content of the resulting alignment is sent to the client, otherwise only the URL
+     * @param task the task which runs the matcher and returns the URL of the alignment (or null if the matcher failed)
+     * @param cleanup runnable which is executed when the job is done or discarded (e.g. to remove uploaded files)
+     * @return the job
+     * @throws RejectedExecutionException if the queue is full and the rejection policy is ABORT
+     */
+    MatchJob submit(boolean sendContent, Callable<URL> task, Runnable cleanup){
+        removeExpiredJobs();
+        MatchJob job = new MatchJob(UUID.randomUUID().toString(), sendContent);
+        this.jobs.put(job.getId(), job);
+        try{
+            this.executor.execute(new JobRunnable(job, task, cleanup, this.permits));
+        }catch(RejectedExecutionException ex){
+            this.jobs.remove(job.getId());
+            cleanup.run();
+            throw ex;
+        }
+        LOGGER.info("Queued job {} (jobs in queue: {})", job.getId(), this.executor.getQueue().size());
+        return job;
+    }
+
+    /**
+     * Returns the job with the given id.
+     * @param id the job id
+     * @return the job or null if it does not exist (or is already expired)
+     */
+    MatchJob getJob(String id){
+        removeExpiredJobs();
+        return this.jobs.get(id);
+    }
+
+    private void removeExpiredJobs(){
+        long expired = System.currentTimeMillis() - this.retentionMillis;
+        this.jobs.values().removeIf(job -> job.getStatus().isDone() && job.getFinishedTime() < expired);
+    }
+
+    private static RejectedExecutionHandler getRejectedExecutionHandler(RejectionPolicy rejectionPolicy){
+        switch(rejectionPolicy){
+            case DISCARD_OLDEST:
+                return (r, executor) -> {
+                    if(executor.isShutdown())
+                        throw new RejectedExecutionException("The job executor is shut down.");
+                    Runnable oldest = executor.getQueue().poll();
+                    if(oldest instanceof JobRunnable){
+                        ((JobRunnable) oldest).discard();
+                    }
+                    executor.execute(r);
+                };
+            case ABORT:
+            default:
+                return new ThreadPoolExecutor.AbortPolicy();
+        }
+    }
+
+    private static class JobRunnable implements Runnable {
+        private final MatchJob job;
+        private final Callable<URL> task;
+        private final Runnable cleanup;
+        private final Semaphore permits;
+
+        JobRunnable(MatchJob job, Callable<URL> task, Runnable cleanup, Semaphore permits) {
+            this.job = job;
+            this.task = task;
+            this.cleanup = cleanup;
+            this.permits = permits;
+        }
+
+        @Override
+        public void run() {
+            try{
+                this.permits.acquire();
+            }catch(InterruptedException ex){
+                Thread.currentThread().interrupt();
+                this.job.setFailed("The job was interrupted before the matcher started.");
+                this.cleanup.run();
+                return;
+            }
+            this.job.setRunning();
+            LOGGER.info("Start job {}", this.job.getId());
+            try{
+                URL result = this.task.call();
+                if(result == null){
+                    this.job.setFailed("The matcher did not return an alignment. See the server log for details.");
+                }else{
+                    this.job.setFinished(result);
+                }
+            }catch(Exception | Error ex){
+                LOGGER.error("Job {} failed.", this.job.getId(), ex);
+                this.job.setFailed("The matcher failed: " + ex.getMessage());
+            }finally{
+                this.permits.release();
+                this.cleanup.run();
+            }
+            LOGGER.info("Job {} is done with status {}", this.job.getId(), this.job.getStatus());
+        }
+
+        void discard(){
+            LOGGER.warn("Discard job {} because the queue is full.", this.job.getId());
+            this.job.setFailed("The job was discarded because the queue was full.");
+            this.cleanup.run();
+        }
+    }
+}
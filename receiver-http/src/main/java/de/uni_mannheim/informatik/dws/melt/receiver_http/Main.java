@@ -17,10 +17,15 @@ import java.nio.file.Files;
 import java.rmi.ServerException;
 import java.security.SecureRandom;
 import java.util.EnumSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
 import java.util.logging.Level;
 import javax.servlet.DispatcherType;
+import javax.servlet.FilterChain;
 import javax.servlet.MultipartConfigElement;
 import javax.servlet.ServletException;
+import javax.servlet.ServletRequest;
+import javax.servlet.ServletResponse;
 import javax.servlet.http.HttpServlet;
 import javax.servlet.http.HttpServletRequest;
 import javax.servlet.http.HttpServletResponse;
@@ -43,6 +48,22 @@ public class Main {
     
     private static final File LOCATION = getLocation();
     
+    private static final String JOBS_PATH = "/jobs/";
+    
+    /**
+     * Permits for running a matcher. Synchronous requests and asynchronous jobs share them
+     * such that at most MELT_MAX_REQUESTS matchers run at the same time.
+     */
+    private static Semaphore matchPermits;
+    
+    private static JobManager jobManager;
+    
+    private static String mainClass;
+    
+    private static MatcherPool matcherPool;
+    
+    private static ResultCache resultCache;
+    
     public static void main(String[] args) throws Exception {    
         //Thread.sleep(20000);
         //curl -F 'source=@cmt.rdf' -F 'target=@conference.rdf' -d "param1=value1" http://127.0.0.1:8080/match
@@ -50,7 +71,45 @@ public class Main {
         //parameters:
         int port = getPort();
         int maxParallelRequests = getMaxParallelRequests();
+        Semaphore permits = new Semaphore(Math.max(1, maxParallelRequests), true);
+        //resolve the main class, pre-warm the matcher instances and open the result cache once at startup
+        String matcherMainClass = getMainClass();
+        initialize(matcherMainClass, permits, createJobManager(maxParallelRequests, permits),
+                createMatcherPool(matcherMainClass, maxParallelRequests), createResultCache());
        
+        Server server = createServer(port, maxParallelRequests);
+        
+        LOGGER.info("Matching service runs at: http://localhost:{}/match (asynchronous jobs: http://localhost:{}/match?async=true)", port, port);
+        
+        server.start();
+        server.join();
+    }
+    
+    /**
+     * Sets the state which is shared by all requests.
+     * @param matcherMainClass the main class of the matcher (null to extract it on the first request)
+     * @param permits the permits for running a matcher (shared by synchronous requests and asynchronous jobs)
+     * @param manager the job manager for asynchronous requests
+     * @param pool the pool of matcher instances (null to create a new instance for each request)
+     * @param cache the result cache (null if no cache is used)
+     */
+    static synchronized void initialize(String matcherMainClass, Semaphore permits, JobManager manager, MatcherPool pool, ResultCache cache){
+        mainClass = matcherMainClass;
+        matchPermits = permits;
+        jobManager = manager;
+        matcherPool = pool;
+        resultCache = cache;
+    }
+    
+    /**
+     * Creates the server with the match servlet, the job servlet and the default servlet.
+     * Synchronous match requests are limited by a QoSFilter, asynchronous requests bypass it because they
+     * only submit a job and immediately return the job id.
+     * @param port the port (0 for any free port)
+     * @param maxParallelRequests the maximum number of synchronous requests which are processed in parallel
+     * @return the server (not started)
+     */
+    static Server createServer(int port, int maxParallelRequests){
         Server server = new Server(port);
         
         ServletContextHandler context = new ServletContextHandler();
@@ -74,15 +133,14 @@ public class Main {
         //the last number which is one means that all files are written on disk and that no in memory caching applies
         uploadHolder.getRegistration().setMultipartConfig(new MultipartConfigElement(LOCATION.getAbsolutePath(), -1, -1, 1));
 
+        //servlet which returns status and result of asynchronous jobs
+        context.addServlet(JobServlet.class, JOBS_PATH + "*");
+        
         //default servlet for mapping the index / welcome page
         ServletHolder holderPwd = new ServletHolder("default", DefaultServlet.class);
         holderPwd.setInitParameter("dirAllowed","false");
         context.addServlet(holderPwd,"/");
-        
-        LOGGER.info("Matching service runs at: http://localhost:{}/match", port);
-        
-        server.start();
-        server.join();
+        return server;
     }
     
     private static URI getRootDir(){
@@ -104,69 +162,202 @@ public class Main {
 
         @Override
         protected void doPost(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-            // we expect a source and a target
-            if(isMultipartContent(request)){
-                LOGGER.info("Got multipart request - start matching");
-                Part source = request.getPart("source");            
-                if(source == null){
-                    throw new ServerException("No multipart parameter source");
-                }
-                Part target = request.getPart("target");
-                if(target == null){
-                    throw new ServerException("No multipart parameter target");
+            MatchRequest matchRequest = getMatchRequest(request);
+            if(isAsyncRequest(request)){
+                MatchJob job;
+                try{
+                    job = getJobManager().submit(matchRequest.isSendContent(), matchRequest::run, matchRequest::deleteFiles);
+                }catch(RejectedExecutionException ex){
+                    LOGGER.warn("Reject job because the queue is full.");
+                    response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                    response.setHeader("Retry-After", "60");
+                    response.setContentType("text/plain");
+                    response.getWriter().write("The job queue is full. Please try again later.");
+                    return;
                 }
-                Part inputAlignment = request.getPart("inputAlignment");
-                Part parameters = request.getPart("parameters");
-                
-                File sourceFile = getFile(source, "source");
-                File targetFile = getFile(target, "target");
-                File inputAlignmentFile = getFile(inputAlignment, "inputAlignment");
-                File parametersFile = getFile(parameters, "parameters");
-                
-                URL inputAlignmentURL = null;
-                if(inputAlignmentFile != null)
-                    inputAlignmentURL = inputAlignmentFile.toURI().toURL();
-                
-                URL parametersURL = null;
-                if(parametersFile != null)
-                    parametersURL = parametersFile.toURI().toURL();
-                    
-                URL resultURL = runTool(sourceFile.toURI().toURL(), targetFile.toURI().toURL(), inputAlignmentURL, parametersURL);
-                
-                sourceFile.delete();
-                targetFile.delete();
-                if(inputAlignmentFile != null)
-                    inputAlignmentFile.delete();
-                if(parametersFile != null)
-                    parametersFile.delete();
-                
-                if(resultURL != null){
+                response.setStatus(HttpServletResponse.SC_ACCEPTED);
+                response.setHeader("Location", JOBS_PATH + job.getId());
+                response.setContentType("text/plain");
+                response.getWriter().write(job.getId());
+                return;
+            }
+            
+            URL resultURL;
+            Semaphore permits = getMatchPermits();
+            try{
+                permits.acquire();
+            }catch(InterruptedException ex){
+                Thread.currentThread().interrupt();
+                matchRequest.deleteFiles();
+                response.setStatus(HttpServletResponse.SC_SERVICE_UNAVAILABLE);
+                return;
+            }
+            try{
+                resultURL = matchRequest.run();
+            }finally{
+                permits.release();
+                matchRequest.deleteFiles();
+            }
+            if(resultURL != null){
+                if(matchRequest.isSendContent()){
                     sendFileContent(resultURL, response);
-                }
-            }else{
-                LOGGER.info("Got URL request - start matching");
-                String sourceParam = request.getParameter("source");
-                if(sourceParam == null ){
-                    throw new ServerException("No parameter source");
-                }
-                String targetParam = request.getParameter("target");
-                if(targetParam == null ){
-                    throw new ServerException("No parameter target");
-                }
-                URL inputAlignment = null;
-                String inputAlignmentStr = request.getParameter("inputAlignment");
-                if(inputAlignmentStr != null)
-                    inputAlignment = new URL(inputAlignmentStr);
-                
-                URL parameters = null;
-                String parametersStr = request.getParameter("parameters");
-                if(parametersStr != null)
-                    parameters = new URL(parametersStr);
-                        
-                URL resultURL = runTool(new URL(sourceParam), new URL(targetParam), inputAlignment, parameters);
-                
-                if(resultURL != null)
+                }else{
                     response.getWriter().write(resultURL.toString());
+                }
+            }
+        }
+    }
+    
+    /**
+     * Servlet which returns the status or result of an asynchronous job (GET /jobs/{id}).
+     * As long as the job is queued or running, the status code is 202 and the body contains the status.
+     * When the job is finished, the result is returned in the same way as for a synchronous request.
+     */
+    public static class JobServlet extends HttpServlet {
+
+        private static final long serialVersionUID = 1L;
+
+        @Override
+        protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+            String id = request.getPathInfo();
+            if(id != null && id.startsWith("/"))
+                id = id.substring(1);
+            MatchJob job = (id == null || id.isEmpty()) ? null : getJobManager().getJob(id);
+            response.setContentType("text/plain");
+            if(job == null){
+                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+                response.getWriter().write("Job not found (it might be expired).");
+                return;
+            }
+            switch(job.getStatus()){
+                case FINISHED:
+                    if(job.isSendContent()){
+                        sendFileContent(job.getResult(), response);
+                    }else{
+                        response.getWriter().write(job.getResult().toString());
+                    }
+                    return;
+                case FAILED:
+                    response.setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
+                    response.getWriter().write(job.getErrorMessage());
+                    return;
+                default:
+                    response.setStatus(HttpServletResponse.SC_ACCEPTED);
+                    response.getWriter().write(job.getStatus().toString());
+            }
+        }
+    }
+    
+    /**
+     * Parses the source, target, input alignment and parameters of a match request.
+     * In case of a multipart request, the uploaded files are stored in the upload location.
+     * @param request the request
+     * @return the match request
+     */
+    private static MatchRequest getMatchRequest(HttpServletRequest request) throws ServletException, IOException {
+        // we expect a source and a target
+        if(isMultipartContent(request)){
+            LOGGER.info("Got multipart request - start matching");
+            Part source = request.getPart("source");            
+            if(source == null){
+                throw new ServerException("No multipart parameter source");
+            }
+            Part target = request.getPart("target");
+            if(target == null){
+                throw new ServerException("No multipart parameter target");
+            }
+            Part inputAlignment = request.getPart("inputAlignment");
+            Part parameters = request.getPart("parameters");
+
+            File sourceFile = getFile(source, "source");
+            File targetFile = getFile(target, "target");
+            File inputAlignmentFile = getFile(inputAlignment, "inputAlignment");
+            File parametersFile = getFile(parameters, "parameters");
+
+            URL inputAlignmentURL = null;
+            if(inputAlignmentFile != null)
+                inputAlignmentURL = inputAlignmentFile.toURI().toURL();
+
+            URL parametersURL = null;
+            if(parametersFile != null)
+                parametersURL = parametersFile.toURI().toURL();
+            
+            return new MatchRequest(sourceFile.toURI().toURL(), targetFile.toURI().toURL(), inputAlignmentURL, parametersURL, true,
+                    sourceFile, targetFile, inputAlignmentFile, parametersFile);
+        }else{
+            LOGGER.info("Got URL request - start matching");
+            String sourceParam = request.getParameter("source");
+            if(sourceParam == null ){
+                throw new ServerException("No parameter source");
+            }
+            String targetParam = request.getParameter("target");
+            if(targetParam == null ){
+                throw new ServerException("No parameter target");
+            }
+            URL inputAlignment = null;
+            String inputAlignmentStr = request.getParameter("inputAlignment");
+            if(inputAlignmentStr != null)
+                inputAlignment = new URL(inputAlignmentStr);
+
+            URL parameters = null;
+            String parametersStr = request.getParameter("parameters");
+            if(parametersStr != null)
+                parameters = new URL(parametersStr);
+            
+            return new MatchRequest(new URL(sourceParam), new URL(targetParam), inputAlignment, parameters, false);
+        }
+    }
+    
+    /**
+     * Checks if the client wants an asynchronous execution: either the query parameter async=true
+     * or the header "Prefer: respond-async" (RFC 7240).
+     * @param request the request
+     * @return true if the job should be executed asynchronously
+     */
+    private static boolean isAsyncRequest(HttpServletRequest request){
+        String queryString = request.getQueryString();
+        if(queryString != null){
+            for(String parameter : queryString.split("&")){
+                if(parameter.equalsIgnoreCase("async=true") || parameter.equalsIgnoreCase("async"))
+                    return true;
+            }
+        }
+        String prefer = request.getHeader("Prefer");
+        return prefer != null && prefer.toLowerCase().contains("respond-async");
+    }
+    
+    /**
+     * The URLs of one match request and the uploaded files which should be removed after matching.
+     */
+    private static class MatchRequest {
+        private final URL source;
+        private final URL target;
+        private final URL inputAlignment;
+        private final URL parameters;
+        private final boolean sendContent;
+        private final File[] files;
+
+        MatchRequest(URL source, URL target, URL inputAlignment, URL parameters, boolean sendContent, File... files) {
+            this.source = source;
+            this.target = target;
+            this.inputAlignment = inputAlignment;
+            this.parameters = parameters;
+            this.sendContent = sendContent;
+            this.files = files;
+        }
+        
+        URL run(){
+            return runTool(source, target, inputAlignment, parameters);
+        }
+        
+        boolean isSendContent() {
+            return sendContent;
+        }
+        
+        void deleteFiles(){
+            for(File f : files){
+                if(f != null)
+                    f.delete();
             }
         }
     }
@@ -204,45 +395,147 @@ public class Main {
     
     
     private static URL runTool(URL source, URL target, URL inputAlignment, URL parameters){
-        String mainClass;
-        try {
-            mainClass = MainMatcherClassExtractor.extractMainClass();
-        } catch (IOException ex) {
-            LOGGER.error("Could not extract Main class name. Do nothing." + ex.getMessage());
+        String mainClass = getMainClass();
+        if(mainClass == null)
             return null;
-        }
         //mainClass = "de.uni_mannheim.informatik.dws.melt.matching_jena_matchers.elementlevel.BaselineStringMatcher";
         
+        ResultCache cache = getResultCache();
+        String cacheKey = null;
+        if(cache != null){
+            try {
+                cacheKey = cache.computeKey(mainClass, source, target, inputAlignment, parameters);
+                URL cachedResult = cache.get(cacheKey);
+                if(cachedResult != null){
+                    LOGGER.info("Return cached alignment {} for task:\nSource:{}\nTarget:{}\nInputAlignment:{}\nParameter:{}", 
+                            cachedResult, source, target, inputAlignment, parameters);
+                    return cachedResult;
+                }
+            } catch (IOException ex) {
+                LOGGER.warn("Could not compute the key for the result cache. The result is not cached.", ex);
+                cacheKey = null;
+            }
+        }
+        
         LOGGER.info("Server starts matcher class {} for task:\nSource:{}\nTarget:{}\nInputAlignment:{}\nParameter:{}", 
                 mainClass, source, target, inputAlignment, parameters);
         
+        MatcherPool pool = getMatcherPool();
+        Object matcher = mainClass;
         AlignmentAndParameters result = null;
+        boolean failed = true;
         try {
-            result = GenericMatcherCaller.runMatcher(mainClass, source, target, inputAlignment, parameters);
+            if(pool != null)
+                matcher = pool.borrow();
+            result = GenericMatcherCaller.runMatcher(matcher, source, target, inputAlignment, parameters);
+            failed = false;
         } catch (Exception ex) {
             LOGGER.error("Exception during matching.", ex);
             return null;
+        } finally {
+            if(pool != null && matcher != mainClass)
+                pool.release(matcher, failed);
         }
         if(result.getAlignment() == null){
             LOGGER.error("The resulting alignment of the matcher is null.");
             return null;
         }
+        URL resultURL;
         try {
-            return TypeTransformerRegistry.getTransformedObject(result.getAlignment(), URL.class);
+            resultURL = TypeTransformerRegistry.getTransformedObject(result.getAlignment(), URL.class);
         } catch (TypeTransformationException ex) {
             LOGGER.error("Cannot transform the alignment to a URL and then to a file.", ex);
             return null;
         }
+        if(cache != null && cacheKey != null && resultURL != null){
+            cache.put(cacheKey, resultURL);
+        }
+        return resultURL;
     }
     
+    /**
+     * Returns the main class of the matcher. It is extracted only once and then reused for all requests.
+     * @return the fully qualified name of the main class or null if it can not be extracted
+     */
+    private static synchronized String getMainClass(){
+        if(mainClass == null){
+            try {
+                mainClass = MainMatcherClassExtractor.extractMainClass();
+            } catch (IOException ex) {
+                LOGGER.error("Could not extract Main class name. Do nothing." + ex.getMessage());
+                return null;
+            }
+        }
+        return mainClass;
+    }
     
+    private static synchronized MatcherPool getMatcherPool(){
+        return matcherPool;
+    }
+    
+    private static synchronized ResultCache getResultCache(){
+        return resultCache;
+    }
+    
+    /**
+     * Creates the pool of pre-warmed matcher instances based on the environment variable MELT_MATCHER_POOL_SIZE.
+     * The default is zero which means that a new matcher instance is created for each request.
+     * Only enable it for matchers which can be reused (do not keep state between two match calls).
+     * A value of -1 uses MELT_MAX_REQUESTS instances.
+     * @param mainClass the main class of the matcher
+     * @param maxParallelRequests the maximum number of parallel requests
+     * @return the pool or null if not enabled or the matcher can not be instantiated
+     */
+    private static MatcherPool createMatcherPool(String mainClass, int maxParallelRequests){
+        int poolSize = getEnvironmentInt("MELT_MATCHER_POOL_SIZE", 0);
+        if(poolSize < 0)
+            poolSize = maxParallelRequests;
+        if(poolSize == 0 || mainClass == null)
+            return null;
+        try {
+            return new MatcherPool(Class.forName(mainClass), poolSize);
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            LOGGER.error("Could not create the matcher pool - create a new matcher instance for each request.", ex);
+            return null;
+        }
+    }
+    
+    /**
+     * Creates the result cache based on the environment variables MELT_RESULT_CACHE (directory of the cache, if not set, no cache is used)
+     * and MELT_RESULT_CACHE_SIZE (maximum number of cached alignments, default: 1000).
+     * @return the cache or null if not enabled
+     */
+    private static ResultCache createResultCache(){
+        String directory = System.getenv("MELT_RESULT_CACHE");
+        if(directory == null || directory.trim().isEmpty())
+            return null;
+        int size = getEnvironmentInt("MELT_RESULT_CACHE_SIZE", 1000);
+        LOGGER.info("Use result cache in directory {} with at most {} alignments.", directory, size);
+        return new ResultCache(new File(directory.trim()), size);
+    }
     
     private static FilterHolder getQoSFilter(int maxRequests){
-        FilterHolder holder = new FilterHolder(new QoSFilter());
+        FilterHolder holder = new FilterHolder(new SynchronousQoSFilter());
         holder.setInitParameter("maxRequests", String.valueOf(maxRequests));
         return holder;
     }
     
+    /**
+     * QoSFilter which only limits synchronous match requests.
+     * Asynchronous requests are passed through such that the client immediately receives the job id
+     * (the jobs themselves are limited by the match permits).
+     */
+    public static class SynchronousQoSFilter extends QoSFilter {
+        @Override
+        public void doFilter(ServletRequest request, ServletResponse response, FilterChain chain) throws IOException, ServletException {
+            if(request instanceof HttpServletRequest && isAsyncRequest((HttpServletRequest) request)){
+                chain.doFilter(request, response);
+            }else{
+                super.doFilter(request, response, chain);
+            }
+        }
+    }
+    
     private static final String MULTIPART = "multipart/";
     
     /**
@@ -316,6 +609,58 @@ public class Main {
         return maxRequests;
     }
     
+    private static synchronized Semaphore getMatchPermits(){
+        if(matchPermits == null){
+            matchPermits = new Semaphore(Math.max(1, getMaxParallelRequests()), true);
+        }
+        return matchPermits;
+    }
+    
+    private static synchronized JobManager getJobManager(){
+        if(jobManager == null){
+            jobManager = createJobManager(getMaxParallelRequests(), getMatchPermits());
+        }
+        return jobManager;
+    }
+    
+    /**
+     * Creates the job manager for asynchronous requests based on the environment variables
+     * MELT_ASYNC_QUEUE_SIZE (default: 100), MELT_ASYNC_REJECTION_POLICY (ABORT or DISCARD_OLDEST, default: ABORT)
+     * and MELT_JOB_RETENTION_MINUTES (default: 60).
+     * Asynchronous jobs count against MELT_MAX_REQUESTS: they use the same permits as synchronous requests,
+     * thus at most MELT_MAX_REQUESTS matchers run at the same time (synchronous and asynchronous together).
+     * Further jobs wait in the queue, further synchronous requests wait for a free permit.
+     * @param maxParallelRequests the maximum number of parallel requests
+     * @param permits the permits for running a matcher (shared with synchronous requests)
+     * @return the job manager
+     */
+    private static JobManager createJobManager(int maxParallelRequests, Semaphore permits){
+        int queueSize = getEnvironmentInt("MELT_ASYNC_QUEUE_SIZE", 100);
+        int retentionMinutes = getEnvironmentInt("MELT_JOB_RETENTION_MINUTES", 60);
+        JobManager.RejectionPolicy policy = JobManager.RejectionPolicy.ABORT;
+        String policyName = System.getenv("MELT_ASYNC_REJECTION_POLICY");
+        if(policyName != null){
+            try{
+                policy = JobManager.RejectionPolicy.valueOf(policyName.trim().toUpperCase());
+            }catch(IllegalArgumentException e){
+                LOGGER.warn("could not parse MELT_ASYNC_REJECTION_POLICY - using default value of ABORT");
+            }
+        }
+        return new JobManager(Math.max(1, maxParallelRequests), permits, queueSize, policy, retentionMinutes * 60_000L);
+    }
+    
+    private static int getEnvironmentInt(String name, int defaultValue){
+        String value = System.getenv(name);
+        if(value != null){
+            try{
+                return Integer.parseInt(value);
+            }catch(NumberFormatException e){
+                LOGGER.warn("could not parse {} - using default value of {}", name, defaultValue);
+            }
+        }
+        return defaultValue;
+    }
+    
     private static File getLocation(){
         String location = System.getenv("MELT_LOCATION");
         if(location == null){
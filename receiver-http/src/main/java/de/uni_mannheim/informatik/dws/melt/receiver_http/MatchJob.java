@@ -0,0 +1,96 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.net.URL;
+
+/**
+ * A matching job which is executed asynchronously by the {@link JobManager}.
+ */
+class MatchJob {
+
+    /**
+     * The status of a job.
+     */
+    enum Status {
+        /**
+         * The job waits in the queue.
+         */
+        QUEUED,
+        /**
+         * The matcher is running.
+         */
+        RUNNING,
+        /**
+         * The matcher finished and the result is available.
+         */
+        FINISHED,
+        /**
+         * The matcher failed or the job was discarded.
+         */
+        FAILED;
+
+        boolean isDone(){
+            return this == FINISHED || this == FAILED;
+        }
+    }
+
+    private final String id;
+
+    /**
+     * If true, the content of the resulting alignment is sent to the client, otherwise only the URL.
+     */
+    private final boolean sendContent;
+
+    private volatile Status status;
+    private volatile URL result;
+    private volatile String errorMessage;
+    private volatile long finishedTime;
+
+    MatchJob(String id, boolean sendContent) {
+        this.id = id;
+        this.sendContent = sendContent;
+        this.status = Status.QUEUED;
+        this.result = null;
+        this.errorMessage = null;
+        this.finishedTime = 0;
+    }
+
+    String getId() {
+        return id;
+    }
+
+    boolean isSendContent() {
+        return sendContent;
+    }
+
+    Status getStatus() {
+        return status;
+    }
+
+    URL getResult() {
+        return result;
+    }
+
+    String getErrorMessage() {
+        return errorMessage;
+    }
+
+    long getFinishedTime() {
+        return finishedTime;
+    }
+
+    void setRunning(){
+        this.status = Status.RUNNING;
+    }
+
+    void setFinished(URL result){
+        this.result = result;
+        this.finishedTime = System.currentTimeMillis();
+        this.status = Status.FINISHED;
+    }
+
+    void setFailed(String errorMessage){
+        this.errorMessage = errorMessage;
+        this.finishedTime = System.currentTimeMillis();
+        this.status = Status.FAILED;
+    }
+}
@@ -0,0 +1,115 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A pool of pre-warmed matcher instances.
+ * Each instance is used by at most one request at a time, thus the matcher does not need to be thread safe
+ * but it needs to be reusable (it should not keep state from one match call to the next one).
+ * Expensive initializations in the constructor (loading models, starting servers etc) are thus only executed once per instance.
+ */
+class MatcherPool {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MatcherPool.class);
+
+    private final Class<?> matcherClass;
+    private final int size;
+    
+    /**
+     * Guards idleInstances and createdInstances.
+     */
+    private final ReentrantLock lock;
+    
+    /**
+     * Signalled whenever an instance is returned or discarded (then a new one can be created).
+     */
+    private final Condition available;
+    private final Deque<Object> idleInstances;
+    private int createdInstances;
+
+    /**
+     * Creates the pool and instantiates all matchers.
+     * @param matcherClass the class of the matcher (needs a public no-arg constructor)
+     * @param size the number of instances
+     * @throws ReflectiveOperationException if the matcher can not be instantiated
+     */
+    MatcherPool(Class<?> matcherClass, int size) throws ReflectiveOperationException {
+        this.matcherClass = matcherClass;
+        this.size = size;
+        this.lock = new ReentrantLock();
+        this.available = this.lock.newCondition();
+        this.idleInstances = new ArrayDeque<>(size);
+        for(int i = 0; i < size; i++){
+            this.idleInstances.add(this.matcherClass.getDeclaredConstructor().newInstance());
+            this.createdInstances++;
+        }
+        LOGGER.info("Created a pool of {} pre-warmed instances of matcher {}", size, matcherClass.getName());
+    }
+
+    /**
+     * Returns an instance which is not used by any other request. Waits if all instances are in use.
+     * If an instance was discarded in the meantime, a new one is created.
+     * @return the matcher instance
+     * @throws ReflectiveOperationException if a new instance is needed (because an old one was discarded) and can not be created.
+     * @throws InterruptedException if interrupted while waiting
+     */
+    Object borrow() throws ReflectiveOperationException, InterruptedException {
+        this.lock.lockInterruptibly();
+        try{
+            while(true){
+                Object instance = this.idleInstances.poll();
+                if(instance != null)
+                    return instance;
+                if(this.createdInstances < this.size){
+                    //reserve the slot of a discarded instance - the instance itself is created outside of the lock
+                    this.createdInstances++;
+                    break;
+                }
+                this.available.await();
+            }
+        }finally{
+            this.lock.unlock();
+        }
+        try{
+            return this.matcherClass.getDeclaredConstructor().newInstance();
+        }catch(ReflectiveOperationException | RuntimeException ex){
+            freeSlot();
+            throw ex;
+        }
+    }
+
+    /**
+     * Returns the instance to the pool.
+     * @param instance the instance which was borrowed
+     * @param discard if true, the instance is not reused (e.g. because the matcher failed and might be in an inconsistent state).
+     */
+    void release(Object instance, boolean discard){
+        if(discard){
+            LOGGER.info("Discard matcher instance. A new one will be created when needed.");
+            freeSlot();
+        }else{
+            this.lock.lock();
+            try{
+                this.idleInstances.add(instance);
+                this.available.signal();
+            }finally{
+                this.lock.unlock();
+            }
+        }
+    }
+
+    private void freeSlot(){
+        this.lock.lock();
+        try{
+            this.createdInstances--;
+            this.available.signal();
+        }finally{
+            this.lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,191 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A cache of alignments stored in a directory.
+ * The key is the SHA-256 hash of the matcher class and source, target, input alignment and parameters.
+ * Local files (e.g. uploaded ones) are hashed by content, thus identical uploads return the cached alignment without running the matcher.
+ * Remote URLs are not downloaded for computing the key - they are hashed together with the ETag, Last-Modified and Content-Length headers.
+ * The cached alignment is copied to a new file when it is returned such that evicting it does not affect running requests.
+ */
+class ResultCache {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultCache.class);
+
+    private static final String SUFFIX = ".rdf";
+
+    private final File directory;
+    private final int maximumEntries;
+
+    /**
+     * Constructor
+     * @param directory the directory where the alignments are stored
+     * @param maximumEntries the maximum number of cached alignments (the oldest ones are removed first). Zero or less means unbounded.
+     */
+    ResultCache(File directory, int maximumEntries) {
+        this.directory = directory;
+        this.maximumEntries = maximumEntries;
+        this.directory.mkdirs();
+    }
+
+    /**
+     * Computes the key for a request.
+     * @param matcher the name of the matcher class
+     * @param source the source
+     * @param target the target
+     * @param inputAlignment the input alignment (can be null)
+     * @param parameters the parameters (can be null)
+     * @return the key (hex encoded SHA-256)
+     * @throws IOException if one of the files can not be read or a remote URL has no header which identifies its content
+     */
+    String computeKey(String matcher, URL source, URL target, URL inputAlignment, URL parameters) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IOException("SHA-256 is not available.", ex);
+        }
+        update(digest, matcher.getBytes(StandardCharsets.UTF_8));
+        for(URL url : Arrays.asList(source, target, inputAlignment, parameters)){
+            if(url == null){
+                update(digest, new byte[0]);
+            }else if("file".equals(url.getProtocol())){
+                updateWithContent(digest, url);
+            }else{
+                update(digest, getRemoteIdentifier(url).getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        StringBuilder sb = new StringBuilder();
+        for(byte b : digest.digest()){
+            sb.append(String.format("%02x", b));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Returns a copy of the cached alignment.
+     * @param key the key
+     * @return the URL of the copy or null if it is not cached
+     */
+    synchronized URL get(String key) {
+        File file = new File(this.directory, key + SUFFIX);
+        if(file.isFile() == false)
+            return null;
+        try {
+            file.setLastModified(System.currentTimeMillis());
+            File copy = File.createTempFile("alignment", SUFFIX);
+            copy.deleteOnExit();
+            Files.copy(file.toPath(), copy.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            return copy.toURI().toURL();
+        } catch (IOException ex) {
+            LOGGER.warn("Could not read the alignment from the result cache.", ex);
+            return null;
+        }
+    }
+
+    /**
+     * Stores a copy of the alignment in the cache.
+     * @param key the key
+     * @param alignment the URL of the alignment
+     */
+    void put(String key, URL alignment) {
+        File file = new File(this.directory, key + SUFFIX);
+        try {
+            File tmp = File.createTempFile(key, ".tmp", this.directory);
+            try(InputStream in = openStream(alignment)){
+                Files.copy(in, tmp.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+            synchronized(this){
+                Files.move(tmp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                removeOldEntries();
+            }
+        } catch (IOException ex) {
+            LOGGER.warn("Could not store the alignment in the result cache.", ex);
+        }
+    }
+
+    /**
+     * Removes the oldest entries. Needs to be called with the lock of this cache (same lock as for {@link #get(String)}).
+     */
+    private void removeOldEntries(){
+        if(this.maximumEntries <= 0)
+            return;
+        File[] files = this.directory.listFiles((dir, name) -> name.endsWith(SUFFIX));
+        if(files == null || files.length <= this.maximumEntries)
+            return;
+        Arrays.sort(files, Comparator.comparingLong(File::lastModified));
+        for(int i = 0; i < files.length - this.maximumEntries; i++){
+            files[i].delete();
+        }
+    }
+
+    private static InputStream openStream(URL url) throws IOException{
+        if("file".equals(url.getProtocol())){
+            try {
+                return Files.newInputStream(new File(url.toURI()).toPath());
+            } catch (URISyntaxException ex) {
+                return url.openStream();
+            }
+        }
+        return url.openStream();
+    }
+
+    private static void updateWithContent(MessageDigest digest, URL url) throws IOException {
+        //length prefix is not known for streams, thus add a separator after each part and hash its size
+        long length = 0;
+        byte[] buffer = new byte[8192];
+        try(InputStream in = openStream(url)){
+            int read;
+            while((read = in.read(buffer)) != -1){
+                digest.update(buffer, 0, read);
+                length += read;
+            }
+        }
+        update(digest, Long.toString(length).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Identifies the content of a remote URL without downloading it (HEAD request for HTTP).
+     * @param url the remote URL
+     * @return the URL together with the ETag, Last-Modified and Content-Length headers
+     * @throws IOException if the URL can not be reached or neither ETag nor Last-Modified is available
+     */
+    private static String getRemoteIdentifier(URL url) throws IOException {
+        URLConnection connection = url.openConnection();
+        try{
+            if(connection instanceof HttpURLConnection){
+                ((HttpURLConnection) connection).setRequestMethod("HEAD");
+            }
+            String eTag = connection.getHeaderField("ETag");
+            long lastModified = connection.getLastModified();
+            if(eTag == null && lastModified == 0)
+                throw new IOException("Neither ETag nor Last-Modified is available for " + url);
+            return url.toString() + "|" + eTag + "|" + lastModified + "|" + connection.getContentLengthLong();
+        }finally{
+            if(connection instanceof HttpURLConnection){
+                ((HttpURLConnection) connection).disconnect();
+            }
+        }
+    }
+
+    private static void update(MessageDigest digest, byte[] bytes){
+        digest.update(bytes);
+        digest.update((byte) 0);
+    }
+}
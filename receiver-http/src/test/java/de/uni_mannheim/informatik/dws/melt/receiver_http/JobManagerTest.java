@@ -0,0 +1,90 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.net.URL;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobManagerTest {
+
+    private static final URL RESULT = JobManagerTest.class.getResource("/");
+
+    @Test
+    public void testQueueFullIsRejected() throws Exception {
+        //no permit is available, thus the first job blocks the only thread and the second one waits in the queue
+        Semaphore permits = new Semaphore(0, true);
+        JobManager manager = new JobManager(1, permits, 1, JobManager.RejectionPolicy.ABORT, 60_000L);
+        AtomicInteger cleanups = new AtomicInteger();
+        MatchJob running = manager.submit(false, () -> RESULT, cleanups::incrementAndGet);
+        waitForWaitingJob(permits);
+        MatchJob queued = manager.submit(false, () -> RESULT, cleanups::incrementAndGet);
+
+        assertThrows(RejectedExecutionException.class, () -> manager.submit(false, () -> RESULT, cleanups::incrementAndGet));
+        assertEquals(1, cleanups.get());
+        assertEquals(MatchJob.Status.QUEUED, running.getStatus());
+        assertEquals(MatchJob.Status.QUEUED, queued.getStatus());
+
+        permits.release();
+        waitUntilDone(running);
+        waitUntilDone(queued);
+        assertEquals(MatchJob.Status.FINISHED, running.getStatus());
+        assertEquals(MatchJob.Status.FINISHED, queued.getStatus());
+        assertEquals(RESULT, queued.getResult());
+        assertEquals(3, cleanups.get());
+        assertEquals(1, permits.availablePermits());
+    }
+
+    @Test
+    public void testDiscardOldest() throws Exception {
+        Semaphore permits = new Semaphore(0, true);
+        JobManager manager = new JobManager(1, permits, 1, JobManager.RejectionPolicy.DISCARD_OLDEST, 60_000L);
+        AtomicInteger discardedCleanups = new AtomicInteger();
+        MatchJob running = manager.submit(false, () -> RESULT, () -> {});
+        waitForWaitingJob(permits);
+        MatchJob oldest = manager.submit(false, () -> RESULT, discardedCleanups::incrementAndGet);
+        MatchJob newest = manager.submit(false, () -> RESULT, () -> {});
+
+        assertEquals(MatchJob.Status.FAILED, oldest.getStatus());
+        assertTrue(oldest.getErrorMessage().contains("discarded"));
+        assertEquals(1, discardedCleanups.get());
+        assertSame(oldest, manager.getJob(oldest.getId()));
+        assertEquals(MatchJob.Status.QUEUED, newest.getStatus());
+
+        permits.release();
+        waitUntilDone(running);
+        waitUntilDone(newest);
+        assertEquals(MatchJob.Status.FINISHED, running.getStatus());
+        assertEquals(MatchJob.Status.FINISHED, newest.getStatus());
+        assertEquals(1, discardedCleanups.get());
+    }
+
+    @Test
+    public void testFailedAndExpiredJobs() throws Exception {
+        JobManager manager = new JobManager(1, new Semaphore(1), 10, JobManager.RejectionPolicy.ABORT, 0L);
+        MatchJob failed = manager.submit(false, () -> null, () -> {});
+        waitUntilDone(failed);
+        assertEquals(MatchJob.Status.FAILED, failed.getStatus());
+        assertNotNull(failed.getErrorMessage());
+        Thread.sleep(10);
+        assertNull(manager.getJob(failed.getId()));
+        assertNull(manager.getJob("unknown"));
+    }
+
+    private static void waitForWaitingJob(Semaphore permits) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10_000;
+        while(!permits.hasQueuedThreads()){
+            assertTrue(System.currentTimeMillis() < end, "The job did not start.");
+            Thread.sleep(10);
+        }
+    }
+
+    static void waitUntilDone(MatchJob job) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10_000;
+        while(!job.getStatus().isDone()){
+            assertTrue(System.currentTimeMillis() < end, "The job is not done.");
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.MatcherURL;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import org.eclipse.jetty.server.Server;
+import org.eclipse.jetty.server.ServerConnector;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MainTest {
+
+    @TempDir
+    File tempDir;
+
+    private Semaphore permits;
+    private Server server;
+    private String baseUrl;
+
+    @BeforeEach
+    public void startServer() throws Exception {
+        //MELT_MAX_REQUESTS = 1
+        permits = new Semaphore(1, true);
+        Main.initialize(BlockingMatcher.class.getName(), permits,
+                new JobManager(1, permits, 10, JobManager.RejectionPolicy.ABORT, 60_000L), null, null);
+        BlockingMatcher.started.drainPermits();
+        BlockingMatcher.proceed.drainPermits();
+        server = Main.createServer(0, 1);
+        server.start();
+        baseUrl = "http://localhost:" + ((ServerConnector) server.getConnectors()[0]).getLocalPort();
+    }
+
+    @AfterEach
+    public void stopServer() throws Exception {
+        BlockingMatcher.proceed.release(10);
+        server.stop();
+        Main.initialize(null, null, null, null, null);
+    }
+
+    @Test
+    public void testAsyncSubmissionWhileSynchronousMatchIsRunning() throws Exception {
+        String source = createFile("source.rdf");
+        String target = createFile("target.rdf");
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try{
+            Future<Response> synchronous = executor.submit(() -> post("/match", source, target));
+            assertTrue(BlockingMatcher.started.tryAcquire(10, TimeUnit.SECONDS));
+
+            //the synchronous match holds the only permit but the job id is returned immediately
+            Response submitted = post("/match?async=true", source, target);
+            assertEquals(HttpURLConnection.HTTP_ACCEPTED, submitted.status);
+            String jobPath = "/jobs/" + submitted.body;
+            assertEquals(jobPath, submitted.location);
+
+            Response polled = get(jobPath);
+            assertEquals(HttpURLConnection.HTTP_ACCEPTED, polled.status);
+            assertEquals(MatchJob.Status.QUEUED.toString(), polled.body);
+            assertFalse(BlockingMatcher.started.tryAcquire(200, TimeUnit.MILLISECONDS));
+
+            BlockingMatcher.proceed.release();
+            Response synchronousResponse = synchronous.get(10, TimeUnit.SECONDS);
+            assertEquals(HttpURLConnection.HTTP_OK, synchronousResponse.status);
+            assertEquals(source, synchronousResponse.body);
+
+            //now the job gets the permit
+            assertTrue(BlockingMatcher.started.tryAcquire(10, TimeUnit.SECONDS));
+            BlockingMatcher.proceed.release();
+            Response finished = pollUntilDone(jobPath);
+            assertEquals(HttpURLConnection.HTTP_OK, finished.status);
+            assertEquals(source, finished.body);
+            assertEquals(1, permits.availablePermits());
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testUnknownJob() throws Exception {
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND, get("/jobs/unknown").status);
+        assertEquals(HttpURLConnection.HTTP_NOT_FOUND, get("/jobs/").status);
+    }
+
+    private String createFile(String name) throws IOException {
+        File file = new File(tempDir, name);
+        assertTrue(file.createNewFile());
+        return file.toURI().toURL().toString();
+    }
+
+    private Response pollUntilDone(String jobPath) throws Exception {
+        long end = System.currentTimeMillis() + 10_000;
+        Response response = get(jobPath);
+        while(response.status == HttpURLConnection.HTTP_ACCEPTED){
+            assertTrue(System.currentTimeMillis() < end, "The job is not done.");
+            Thread.sleep(20);
+            response = get(jobPath);
+        }
+        return response;
+    }
+
+    private Response post(String path, String source, String target) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL(baseUrl + path).openConnection();
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("Content-Type", "application/x-www-form-urlencoded");
+        String form = "source=" + URLEncoder.encode(source, "UTF-8") + "&target=" + URLEncoder.encode(target, "UTF-8");
+        try(OutputStream out = connection.getOutputStream()){
+            out.write(form.getBytes(StandardCharsets.UTF_8));
+        }
+        return new Response(connection);
+    }
+
+    private Response get(String path) throws IOException {
+        return new Response((HttpURLConnection) new URL(baseUrl + path).openConnection());
+    }
+
+    private static class Response {
+        private final int status;
+        private final String body;
+        private final String location;
+
+        Response(HttpURLConnection connection) throws IOException {
+            this.status = connection.getResponseCode();
+            this.location = connection.getHeaderField("Location");
+            InputStream in = this.status < 400 ? connection.getInputStream() : connection.getErrorStream();
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            if(in != null){
+                try(InputStream stream = in){
+                    byte[] buffer = new byte[4096];
+                    int read;
+                    while((read = stream.read(buffer)) != -1){
+                        out.write(buffer, 0, read);
+                    }
+                }
+            }
+            this.body = new String(out.toByteArray(), StandardCharsets.UTF_8);
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Matcher which signals that it started and waits until it is allowed to proceed. It returns the source URL.
+     */
+    public static class BlockingMatcher extends MatcherURL {
+        static final Semaphore started = new Semaphore(0);
+        static final Semaphore proceed = new Semaphore(0);
+
+        @Override
+        public URL match(URL source, URL target, URL inputAlignment) throws Exception {
+            started.release();
+            if(!proceed.tryAcquire(30, TimeUnit.SECONDS))
+                throw new IllegalStateException("The test did not release the matcher.");
+            return source;
+        }
+    }
+}
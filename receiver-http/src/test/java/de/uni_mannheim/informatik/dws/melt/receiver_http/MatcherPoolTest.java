@@ -0,0 +1,44 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class MatcherPoolTest {
+
+    @Test
+    public void testReuse() throws Exception {
+        MatcherPool pool = new MatcherPool(PoolMatcher.class, 1);
+        Object instance = pool.borrow();
+        pool.release(instance, false);
+        assertSame(instance, pool.borrow());
+    }
+
+    @Test
+    public void testDiscardWakesWaitingBorrower() throws Exception {
+        MatcherPool pool = new MatcherPool(PoolMatcher.class, 1);
+        Object instance = pool.borrow();
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try{
+            //the pool is at its limit, thus the second borrower waits
+            Future<Object> waiting = executor.submit(pool::borrow);
+            assertThrows(TimeoutException.class, () -> waiting.get(200, TimeUnit.MILLISECONDS));
+
+            pool.release(instance, true);
+            Object newInstance = waiting.get(10, TimeUnit.SECONDS);
+            assertNotNull(newInstance);
+            assertNotSame(instance, newInstance);
+        }finally{
+            executor.shutdownNow();
+        }
+    }
+
+    public static class PoolMatcher {
+        public PoolMatcher() {
+        }
+    }
+}
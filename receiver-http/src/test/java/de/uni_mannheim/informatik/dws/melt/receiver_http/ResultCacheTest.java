@@ -0,0 +1,52 @@
+package de.uni_mannheim.informatik.dws.melt.receiver_http;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ResultCacheTest {
+
+    @TempDir
+    File tempDir;
+
+    private URL write(String name, String content) throws IOException {
+        File file = new File(tempDir, name);
+        Files.write(file.toPath(), content.getBytes(StandardCharsets.UTF_8));
+        return file.toURI().toURL();
+    }
+
+    private static String read(URL url) throws Exception {
+        return new String(Files.readAllBytes(new File(url.toURI()).toPath()), StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testKeyOfLocalFiles() throws IOException {
+        ResultCache cache = new ResultCache(new File(tempDir, "cache"), 10);
+        String key = cache.computeKey("matcher", write("s1.rdf", "source"), write("t1.rdf", "target"), null, null);
+        assertEquals(key, cache.computeKey("matcher", write("s2.rdf", "source"), write("t2.rdf", "target"), null, null));
+        assertNotEquals(key, cache.computeKey("matcher", write("s3.rdf", "source"), write("t3.rdf", "other"), null, null));
+        assertNotEquals(key, cache.computeKey("other", write("s4.rdf", "source"), write("t4.rdf", "target"), null, null));
+    }
+
+    @Test
+    public void testReturnedAlignmentSurvivesEviction() throws Exception {
+        File directory = new File(tempDir, "cache");
+        ResultCache cache = new ResultCache(directory, 1);
+        assertNull(cache.get("keyA"));
+        cache.put("keyA", write("a.rdf", "alignment a"));
+        URL cached = cache.get("keyA");
+        assertEquals("alignment a", read(cached));
+
+        //make sure that keyA is the oldest entry
+        new File(directory, "keyA.rdf").setLastModified(1000);
+        cache.put("keyB", write("b.rdf", "alignment b"));
+        assertNull(cache.get("keyA"));
+        assertEquals("alignment a", read(cached));
+        assertEquals("alignment b", read(cache.get("keyB")));
+    }
+}
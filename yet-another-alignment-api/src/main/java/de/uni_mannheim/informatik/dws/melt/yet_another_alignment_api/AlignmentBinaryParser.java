@@ -0,0 +1,254 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads alignments which are written by the {@link AlignmentBinarySerializer}.
+ * Files can be read via a memory mapped buffer: the records are decoded directly from the mapped file
+ * and the file content is not copied into an intermediate byte array (in contrast to streams which are read completely first).
+ * The resulting {@link Alignment} (strings and correspondences) is of course still created on the java heap.
+ * Gzip compressed files and streams are detected automatically (but cannot be memory mapped).
+ */
+public class AlignmentBinaryParser {
+
+    private static final CorrespondenceRelation[] RELATIONS = CorrespondenceRelation.values();
+
+    /**
+     * Parses the given file. The file is memory mapped if it is not gzip compressed.
+     * @param file the file to parse
+     * @return the parsed alignment
+     * @throws IOException in case of an io error or if the file is not in the binary alignment format
+     */
+    public static Alignment parse(File file) throws IOException {
+        return parse(file, true);
+    }
+
+    /**
+     * Parses the given file.
+     * @param file the file to parse
+     * @param memoryMapped if true, the file is memory mapped and decoded from the mapped buffer instead of reading it completely into a byte array.
+     *      Gzip compressed files and files larger than 2GB are never memory mapped.
+     * @return the parsed alignment
+     * @throws IOException in case of an io error or if the file is not in the binary alignment format
+     */
+    public static Alignment parse(File file, boolean memoryMapped) throws IOException {
+        Alignment alignment = new Alignment();
+        parse(file, memoryMapped, alignment);
+        return alignment;
+    }
+
+    /**
+     * Parses the given file and adds all correspondences to the given alignment.
+     * @param file the file to parse
+     * @param memoryMapped if true, the file is memory mapped and decoded from the mapped buffer instead of reading it completely into a byte array.
+     *      Gzip compressed files and files larger than 2GB are never memory mapped.
+     * @param alignment the alignment which is filled
+     * @throws IOException in case of an io error or if the file is not in the binary alignment format
+     */
+    public static void parse(File file, boolean memoryMapped, Alignment alignment) throws IOException {
+        if(memoryMapped && isBinaryAlignmentFile(file) && file.length() <= Integer.MAX_VALUE){
+            try(FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)){
+                decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), alignment);
+            }
+        }else{
+            parse(new FileInputStream(file), alignment);
+        }
+    }
+
+    /**
+     * Parses the content of the given URL. File URLs are memory mapped.
+     * @param url the url to parse
+     * @return the parsed alignment
+     * @throws IOException in case of an io error or if the content is not in the binary alignment format
+     */
+    public static Alignment parse(URL url) throws IOException {
+        if(url.getProtocol().equalsIgnoreCase("file")){
+            try {
+                return parse(Paths.get(url.toURI()).toFile());
+            } catch (URISyntaxException | IllegalArgumentException ex) {
+                //fall back to the stream
+            }
+        }
+        return parse(AlignmentParser.getInputStreamFromURL(url));
+    }
+
+    /**
+     * Parses the given stream (which can be gzip compressed). The stream is closed afterwards.
+     * @param stream the stream to parse
+     * @return the parsed alignment
+     * @throws IOException in case of an io error or if the content is not in the binary alignment format
+     */
+    public static Alignment parse(InputStream stream) throws IOException {
+        Alignment alignment = new Alignment();
+        parse(stream, alignment);
+        return alignment;
+    }
+
+    /**
+     * Parses the given stream (which can be gzip compressed) and adds all correspondences to the given alignment.
+     * The stream is closed afterwards.
+     * @param stream the stream to parse
+     * @param alignment the alignment which is filled
+     * @throws IOException in case of an io error or if the content is not in the binary alignment format
+     */
+    public static void parse(InputStream stream, Alignment alignment) throws IOException {
+        try(InputStream in = AlignmentParser.decompressIfGzipped(stream)){
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while((read = in.read(buffer)) != -1){
+                bytes.write(buffer, 0, read);
+            }
+            decode(ByteBuffer.wrap(bytes.toByteArray()), alignment);
+        }
+    }
+
+    /**
+     * Parses the given bytes.
+     * @param bytes the bytes to parse (as created by {@link AlignmentBinarySerializer#serialize(Alignment)})
+     * @return the parsed alignment
+     * @throws IOException if the content is not in the binary alignment format
+     */
+    public static Alignment parse(byte[] bytes) throws IOException {
+        Alignment alignment = new Alignment();
+        decode(ByteBuffer.wrap(bytes), alignment);
+        return alignment;
+    }
+
+    /**
+     * Checks if the given file starts with the magic number of the binary alignment format.
+     * Gzip compressed files return false.
+     * @param file the file to check
+     * @return true if the file is a (not compressed) binary alignment.
+     */
+    public static boolean isBinaryAlignmentFile(File file){
+        byte[] magic = new byte[AlignmentBinarySerializer.MAGIC.length];
+        try(InputStream in = new FileInputStream(file)){
+            int offset = 0;
+            while(offset < magic.length){
+                int read = in.read(magic, offset, magic.length - offset);
+                if(read < 0)
+                    return false;
+                offset += read;
+            }
+        } catch (IOException ex) {
+            return false;
+        }
+        return Arrays.equals(magic, AlignmentBinarySerializer.MAGIC);
+    }
+
+    private static void decode(ByteBuffer buffer, Alignment alignment) throws IOException {
+        try{
+            byte[] magic = new byte[AlignmentBinarySerializer.MAGIC.length];
+            buffer.get(magic);
+            if(!Arrays.equals(magic, AlignmentBinarySerializer.MAGIC))
+                throw new IOException("The content is not in the binary alignment format (magic number does not match).");
+            int version = buffer.getInt();
+            if(version != AlignmentBinarySerializer.VERSION)
+                throw new IOException("The binary alignment format version " + version + " is not supported.");
+
+            String[] strings = new String[buffer.getInt()];
+            for(int i = 0; i < strings.length; i++){
+                byte[] bytes = new byte[buffer.getInt()];
+                buffer.get(bytes);
+                strings[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            alignment.setMethod(string(strings, buffer.getInt()));
+            alignment.setType(string(strings, buffer.getInt()));
+            alignment.setLevel(string(strings, buffer.getInt()));
+            alignment.setOnto1(decodeOntoInfo(buffer, strings));
+            alignment.setOnto2(decodeOntoInfo(buffer, strings));
+            int numberOfAlignmentExtensions = buffer.getInt();
+            for(int i = 0; i < numberOfAlignmentExtensions; i++){
+                alignment.addExtensionValue(string(strings, buffer.getInt()), string(strings, buffer.getInt()));
+            }
+
+            int numberOfCorrespondences = buffer.getInt();
+            int recordStart = buffer.position();
+            //computed as long because the record block of a corrupt (or huge) count does not fit into an int
+            long recordEnd = recordStart + (long) numberOfCorrespondences * AlignmentBinarySerializer.RECORD_SIZE;
+            if(numberOfCorrespondences < 0 || recordEnd + 4 > buffer.limit())
+                throw new IOException("The binary alignment is truncated or corrupt (" + numberOfCorrespondences +
+                        " correspondences do not fit into " + buffer.limit() + " bytes).");
+            int extensionStart = (int) recordEnd + 4;
+            if(extensionStart + (long) buffer.getInt((int) recordEnd) > buffer.limit())
+                throw new IOException("The binary alignment is truncated or corrupt (extension block exceeds the content).");
+            for(int i = 0; i < numberOfCorrespondences; i++){
+                int position = recordStart + i * AlignmentBinarySerializer.RECORD_SIZE;
+                String source = strings[buffer.getInt(position)];
+                String target = strings[buffer.getInt(position + 4)];
+                double confidence = buffer.getDouble(position + 8);
+                CorrespondenceRelation relation = RELATIONS[buffer.get(position + 16)];
+                String identifier = string(strings, buffer.getInt(position + 17));
+                int extensionOffset = buffer.getInt(position + 21);
+                Map<String, Object> extensions = extensionOffset < 0 ? new HashMap<>() : decodeExtensions(buffer, extensionStart + extensionOffset, strings);
+                alignment.add(new Correspondence(source, target, confidence, relation, extensions, identifier));
+            }
+        }catch(BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException ex){
+            throw new IOException("The binary alignment is truncated or corrupt.", ex);
+        }
+    }
+
+    private static OntoInfo decodeOntoInfo(ByteBuffer buffer, String[] strings){
+        OntoInfo info = new OntoInfo(string(strings, buffer.getInt()), string(strings, buffer.getInt()));
+        info.setFormalism(string(strings, buffer.getInt()));
+        info.setFormalismURI(string(strings, buffer.getInt()));
+        return info;
+    }
+
+    private static Map<String, Object> decodeExtensions(ByteBuffer buffer, int position, String[] strings) throws IOException {
+        int numberOfExtensions = buffer.getInt(position);
+        position += 4;
+        Map<String, Object> extensions = new HashMap<>();
+        for(int i = 0; i < numberOfExtensions; i++){
+            String key = strings[buffer.getInt(position)];
+            byte type = buffer.get(position + 4);
+            position += 5;
+            switch(type){
+                case AlignmentBinarySerializer.TYPE_STRING:
+                    extensions.put(key, string(strings, buffer.getInt(position)));
+                    position += 4;
+                    break;
+                case AlignmentBinarySerializer.TYPE_DOUBLE:
+                    extensions.put(key, buffer.getDouble(position));
+                    position += 8;
+                    break;
+                case AlignmentBinarySerializer.TYPE_INTEGER:
+                    extensions.put(key, buffer.getInt(position));
+                    position += 4;
+                    break;
+                case AlignmentBinarySerializer.TYPE_LONG:
+                    extensions.put(key, buffer.getLong(position));
+                    position += 8;
+                    break;
+                case AlignmentBinarySerializer.TYPE_BOOLEAN:
+                    extensions.put(key, buffer.get(position) != 0);
+                    position += 1;
+                    break;
+                default:
+                    throw new IOException("Unknown extension value type " + type + " in binary alignment.");
+            }
+        }
+        return extensions;
+    }
+
+    private static String string(String[] strings, int id){
+        return id < 0 ? null : strings[id];
+    }
+}
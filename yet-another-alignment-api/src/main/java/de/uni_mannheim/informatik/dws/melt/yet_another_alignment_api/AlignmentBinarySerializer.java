@@ -0,0 +1,228 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes an {@link Alignment} in a compact binary format which is much faster to write and read than the XML based
+ * <a href="http://alignapi.gforge.inria.fr/format.html">Alignment Format</a>.
+ * The format is only meant for exchanging alignments between MELT components (e.g. between matchers of a pipeline) and
+ * is read by {@link AlignmentBinaryParser}. For all other purposes use the {@link AlignmentSerializer}.
+ * <p>
+ * Layout (all numbers big endian):
+ * <pre>
+ * magic (4 bytes "MBAL") | version (int)
+ * string table: count (int) followed by count times [length (int) | UTF-8 bytes]
+ * header: method, type, level (string ids) | onto1, onto2 (id, location, formalism, formalismURI as string ids)
+ *         number of alignment extensions (int) followed by [key id | value id] pairs
+ * records: count (int) followed by count fixed width records of {@value #RECORD_SIZE} bytes:
+ *         source id (int) | target id (int) | confidence (double) | relation (byte) | identifier id (int) | extension offset (int)
+ * extensions: length in bytes (int) followed by the extension block
+ * </pre>
+ * String ids are indices in the string table (-1 represents null). The extension offset of a record points into the
+ * extension block (-1 if the correspondence has no extensions). At this offset, the number of extensions (int) is stored
+ * followed by [key id (int) | type (byte) | value] where the value is stored according to its type
+ * (string id, double, int, long or boolean). All other extension values are stored as string.
+ */
+public class AlignmentBinarySerializer {
+
+    static final byte[] MAGIC = {'M', 'B', 'A', 'L'};
+    static final int VERSION = 1;
+    static final int RECORD_SIZE = 4 + 4 + 8 + 1 + 4 + 4;
+
+    static final byte TYPE_STRING = 0;
+    static final byte TYPE_DOUBLE = 1;
+    static final byte TYPE_INTEGER = 2;
+    static final byte TYPE_LONG = 3;
+    static final byte TYPE_BOOLEAN = 4;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Writes the alignment to the given file. If the file name ends with ".gz", the file is gzip compressed
+     * (but then it cannot be memory mapped when reading).
+     * @param alignment the alignment to write
+     * @param file the file to write to
+     * @throws IOException in case of an io error
+     */
+    public static void serialize(Alignment alignment, File file) throws IOException {
+        AlignmentSerializer.checkFile(file);
+        try(OutputStream fileOut = new FileOutputStream(file);
+            OutputStream out = AlignmentWriter.isGzipFile(file) ? new GZIPOutputStream(fileOut, BUFFER_SIZE) : fileOut){
+            serialize(alignment, out);
+        }
+    }
+
+    /**
+     * Writes the alignment to the given stream. The stream is buffered and closed after writing.
+     * @param alignment the alignment to write
+     * @param out the stream to write to
+     * @throws IOException in case of an io error
+     */
+    public static void serialize(Alignment alignment, OutputStream out) throws IOException {
+        try(DataOutputStream data = new DataOutputStream(new BufferedOutputStream(out, BUFFER_SIZE))){
+            new Encoder(alignment).write(data);
+        }
+    }
+
+    /**
+     * Serializes the alignment to a byte array.
+     * @param alignment the alignment to write
+     * @return the binary representation
+     */
+    public static byte[] serialize(Alignment alignment) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try {
+            serialize(alignment, out);
+        } catch (IOException ex) {
+            //can not happen with a ByteArrayOutputStream
+            throw new IllegalStateException("Could not serialize alignment to byte array", ex);
+        }
+        return out.toByteArray();
+    }
+
+    /**
+     * Collects all strings in a string table and encodes the extensions before anything is written,
+     * because the string table has to appear first.
+     */
+    private static class Encoder {
+        private final Map<String, Integer> stringIds;
+        private final List<String> strings;
+        private final Correspondence[] cells;
+        private final int[] extensionOffsets;
+        private final ByteArrayOutputStream extensionBytes;
+        private final DataOutputStream extensions;
+        private final int[] header;
+
+        Encoder(Alignment alignment) throws IOException {
+            this.stringIds = new HashMap<>();
+            this.strings = new ArrayList<>();
+            this.cells = alignment.toArray(new Correspondence[0]);
+            this.extensionOffsets = new int[cells.length];
+            this.extensionBytes = new ByteArrayOutputStream();
+            this.extensions = new DataOutputStream(extensionBytes);
+
+            for(int i = 0; i < cells.length; i++){
+                extensionOffsets[i] = encodeExtensions(cells[i].getExtensions());
+            }
+            this.header = encodeHeader(alignment);
+        }
+
+        private int id(String s){
+            if(s == null)
+                return -1;
+            Integer id = stringIds.get(s);
+            if(id == null){
+                id = strings.size();
+                stringIds.put(s, id);
+                strings.add(s);
+            }
+            return id;
+        }
+
+        private int encodeExtensions(Map<String, Object> cellExtensions) throws IOException {
+            if(cellExtensions == null || cellExtensions.isEmpty())
+                return -1;
+            int offset = extensions.size();
+            extensions.writeInt(cellExtensions.size());
+            for(Map.Entry<String, Object> extension : cellExtensions.entrySet()){
+                extensions.writeInt(id(extension.getKey()));
+                Object value = extension.getValue();
+                if(value instanceof Double){
+                    extensions.writeByte(TYPE_DOUBLE);
+                    extensions.writeDouble((Double) value);
+                }else if(value instanceof Integer){
+                    extensions.writeByte(TYPE_INTEGER);
+                    extensions.writeInt((Integer) value);
+                }else if(value instanceof Long){
+                    extensions.writeByte(TYPE_LONG);
+                    extensions.writeLong((Long) value);
+                }else if(value instanceof Boolean){
+                    extensions.writeByte(TYPE_BOOLEAN);
+                    extensions.writeBoolean((Boolean) value);
+                }else{
+                    extensions.writeByte(TYPE_STRING);
+                    extensions.writeInt(id(value == null ? null : value.toString()));
+                }
+            }
+            return offset;
+        }
+
+        private int[] encodeHeader(Alignment alignment){
+            List<Integer> ids = new ArrayList<>();
+            ids.add(id(alignment.getMethod()));
+            ids.add(id(alignment.getType()));
+            ids.add(id(alignment.getLevel()));
+            for(OntoInfo info : new OntoInfo[]{alignment.getOnto1(), alignment.getOnto2()}){
+                if(info == null)
+                    info = new OntoInfo();
+                ids.add(id(info.getOntoID()));
+                ids.add(id(info.getOntoLocation()));
+                ids.add(id(info.getFormalism()));
+                ids.add(id(info.getFormalismURI()));
+            }
+            Map<String, String> alignmentExtensions = alignment.getExtensions();
+            if(alignmentExtensions == null){
+                ids.add(0);
+            }else{
+                ids.add(alignmentExtensions.size());
+                for(Map.Entry<String, String> extension : alignmentExtensions.entrySet()){
+                    ids.add(id(extension.getKey()));
+                    ids.add(id(extension.getValue()));
+                }
+            }
+            for(Correspondence c : cells){
+                id(c.getEntityOne());
+                id(c.getEntityTwo());
+                id(c.getIdentifier());
+            }
+            int[] result = new int[ids.size()];
+            for(int i = 0; i < result.length; i++){
+                result[i] = ids.get(i);
+            }
+            return result;
+        }
+
+        void write(DataOutputStream out) throws IOException {
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+
+            out.writeInt(strings.size());
+            for(String s : strings){
+                byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+                out.writeInt(bytes.length);
+                out.write(bytes);
+            }
+
+            for(int id : header){
+                out.writeInt(id);
+            }
+
+            out.writeInt(cells.length);
+            for(int i = 0; i < cells.length; i++){
+                Correspondence c = cells[i];
+                out.writeInt(stringIds.get(c.getEntityOne()));
+                out.writeInt(stringIds.get(c.getEntityTwo()));
+                out.writeDouble(c.getConfidence());
+                out.writeByte(c.getRelation().ordinal());
+                out.writeInt(id(c.getIdentifier()));
+                out.writeInt(extensionOffsets[i]);
+            }
+
+            extensions.flush();
+            out.writeInt(extensionBytes.size());
+            extensionBytes.writeTo(out);
+        }
+    }
+}
@@ -0,0 +1,197 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Interprets the elements of the alignment format independently of the XML parser which is used.
+ * It is shared by the SAX based {@link AlignmentHandler} (used by the {@link AlignmentParser})
+ * and the StAX based {@link AlignmentReader} such that both read the same information.
+ * Header information (ontologies, type, level, alignment extensions) is written to the given alignment,
+ * every complete correspondence is handed over to the given consumer.
+ */
+class AlignmentElementHandler {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlignmentElementHandler.class);
+
+    static final String ALIGNMENT = "http://knowledgeweb.semanticweb.org/heterogeneity/alignment";
+    static final String SOAP_ENV = "http://schemas.xmlsoap.org/soap/envelope/";
+    static final String RDF = "http://www.w3.org/1999/02/22-rdf-syntax-ns#";
+    static final String EDOAL = "http://ns.inria.org/edoal/1.0/#";
+
+    /**
+     * Access to the attributes of the current start element.
+     */
+    interface Attributes {
+        /**
+         * Returns the value of the attribute or null if it does not exist.
+         * @param namespace namespace of the attribute (empty string for unqualified attributes)
+         * @param localName the local name of the attribute
+         * @return the value or null
+         */
+        String getValue(String namespace, String localName);
+    }
+
+    private final Alignment alignment;
+    private final Consumer<Correspondence> correspondenceConsumer;
+
+    private Correspondence cell;
+    private OntoInfo currentOntoInfo;
+
+    /**
+     * Indicator whether the parser is currently within a cell or not.
+     * This is used to determine whether extensions are made on alignment level or on correspondence level.
+     * When starting the parsing process, the initial state is false.
+     */
+    private boolean inCorrespondence;
+
+    /**
+     * Constructor
+     * @param alignment the alignment which holds the header information
+     * @param correspondenceConsumer receives each correspondence as soon as it is completely read
+     */
+    AlignmentElementHandler(Alignment alignment, Consumer<Correspondence> correspondenceConsumer) {
+        this.alignment = alignment;
+        this.correspondenceConsumer = correspondenceConsumer;
+        this.cell = new Correspondence();
+        this.currentOntoInfo = new OntoInfo();
+        this.inCorrespondence = false;
+    }
+
+    /**
+     * Processes a start element.
+     * @param namespaceURI the namespace of the element (empty string if there is none)
+     * @param name the local name of the element
+     * @param atts the attributes of the element
+     * @throws IOException in case of an unknown or unsupported element
+     */
+    void startElement(String namespaceURI, String name, Attributes atts) throws IOException {
+        if(isAlignmentNamespace(namespaceURI)){
+            switch(name){
+                case "entity1":
+                    cell.setEntityOne(atts.getValue(RDF, "resource"));
+                    break;
+                case "entity2":
+                    cell.setEntityTwo(atts.getValue(RDF, "resource"));
+                    break;
+                case "Cell":
+                    inCorrespondence = true;
+                    cell = new Correspondence();
+                    if(atts.getValue(RDF, "ID") != null){
+                        cell.setIdentifier(atts.getValue(RDF, "ID"));
+                    } else if(atts.getValue(RDF, "about") != null){
+                        cell.setIdentifier(atts.getValue(RDF, "about"));
+                    }
+                    break;
+                case "Formalism":
+                    if(atts.getValue("", "uri") != null){
+                        currentOntoInfo.setFormalismURI(atts.getValue("", "uri"));
+                    } else if(atts.getValue("", "name") != null){
+                        currentOntoInfo.setFormalism(atts.getValue("", "name"));
+                    }
+                    break;
+                case "Ontology":
+                    if(atts.getValue(RDF, "about") != null){
+                        currentOntoInfo.setOntoID(atts.getValue(RDF, "about"));
+                    }
+                    break;
+                case "onto1":
+                    currentOntoInfo = alignment.getOnto1();
+                    break;
+                case "onto2":
+                    currentOntoInfo = alignment.getOnto2();
+                    break;
+                default:
+                    break;
+            }
+        } else {
+            checkNamespace(namespaceURI, name);
+        }
+    }
+
+    /**
+     * Processes an end element.
+     * @param namespaceURI the namespace of the element (empty string if there is none)
+     * @param name the local name of the element
+     * @param text the text content of the element
+     * @throws IOException in case of an unknown or unsupported element
+     */
+    void endElement(String namespaceURI, String name, String text) throws IOException {
+        if(isAlignmentNamespace(namespaceURI)){
+            switch(name){
+                case "relation":
+                    cell.setRelation(CorrespondenceRelation.parse(text));
+                    break;
+                case "measure":
+                    cell.setConfidence(Double.parseDouble(text));
+                    break;
+                case "Cell":
+                    if(cell.getEntityOne() == null || cell.getEntityTwo() == null){
+                        LOGGER.warn("(cell voided), missing entity {} {}", cell.getEntityOne(), cell.getEntityTwo());
+                    } else {
+                        correspondenceConsumer.accept(cell);
+                    }
+                    inCorrespondence = false;
+                    break;
+                case "uri1":
+                    alignment.getOnto1().setOntoLocation(text);
+                    break;
+                case "uri2":
+                    alignment.getOnto2().setOntoLocation(text);
+                    break;
+                case "location":
+                    currentOntoInfo.setOntoLocation(text);
+                    break;
+                case "onto1":
+                case "onto2":
+                    if(currentOntoInfo.getOntoLocation().equals("") && !text.trim().isEmpty()){
+                        currentOntoInfo.setOntoLocation(text);
+                        if(currentOntoInfo.getOntoID().equals(""))
+                            currentOntoInfo.setOntoID(text);
+                    }
+                    currentOntoInfo = new OntoInfo();
+                    break;
+                case "type":
+                    alignment.setType(text);
+                    break;
+                case "level":
+                    if(text.startsWith("2")){ // Maybe !startsWith("0") would be better
+                        throw new IOException("Cannot parse Level 2 alignments (so far).");
+                    }
+                    alignment.setLevel(text);
+                    break;
+                default:
+                    break;
+            }
+        } else {
+            checkNamespace(namespaceURI, name);
+            if(!namespaceURI.equals(SOAP_ENV) && !namespaceURI.equals(RDF)){
+                // we are parsing an extension
+                if(inCorrespondence) {
+                    cell.addExtensionValue(namespaceURI + name, text);
+                } else {
+                    alignment.addExtensionValue(namespaceURI + name, text);
+                }
+            }
+        }
+    }
+
+    private static boolean isAlignmentNamespace(String namespaceURI){
+        return namespaceURI.equals(ALIGNMENT + "#") || namespaceURI.equals(ALIGNMENT);
+    }
+
+    private static void checkNamespace(String namespaceURI, String name) throws IOException {
+        if(namespaceURI.equals(SOAP_ENV)){
+            // Ignore SOAP namespace
+            if(!name.equals("Envelope") && !name.equals("Body"))
+                throw new IOException("[XMLParser] unknown element name: " + name);
+        } else if(namespaceURI.equals(RDF)){
+            if(!name.equals("RDF"))
+                throw new IOException("[XMLParser] unknown element name: " + name);
+        } else if(namespaceURI.equals(EDOAL)){
+            throw new IOException("[XMLParser] EDOAL alignment must have type EDOAL: " + name);
+        }
+    }
+}
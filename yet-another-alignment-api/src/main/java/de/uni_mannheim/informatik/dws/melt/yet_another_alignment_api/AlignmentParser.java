@@ -1,5 +1,6 @@
 package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
 
+import java.io.BufferedInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import org.xml.sax.SAXException;
@@ -14,6 +15,7 @@ import java.net.URI;
 import java.net.URL;
 import java.net.URLConnection;
 import java.nio.charset.StandardCharsets;
+import java.util.zip.GZIPInputStream;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVParser;
 import org.apache.commons.csv.CSVRecord;
@@ -95,16 +97,48 @@ public class AlignmentParser {
 	return parse(new FileInputStream(fileToBeParsed));
     }
     
+    /**
+     * Parses the given stream as alignment. The stream can also be gzip compressed.
+     * @param s the stream to be parsed
+     * @return Parsed alignment instance.
+     * @throws SAXException A SAXException.
+     * @throws IOException An IOException.
+     */
     public static Alignment parse(InputStream s) throws SAXException, IOException {
         Alignment m = new Alignment();
-        AlignmentHandler p = new AlignmentHandler(m);
-        threadLocal.get().parse(s, p);
-        return p.getAlignment();
+        parse(s, m);
+        return m;
     }
     
+    /**
+     * Parses the given stream and adds all correspondences to the given alignment. The stream can also be gzip compressed.
+     * @param s the stream to be parsed
+     * @param m the alignment which is filled
+     * @throws SAXException A SAXException.
+     * @throws IOException An IOException.
+     */
     public static void parse(InputStream s, Alignment m) throws SAXException, IOException {
         AlignmentHandler p = new AlignmentHandler(m);
-        threadLocal.get().parse(s, p);
+        threadLocal.get().parse(decompressIfGzipped(s), p);
+    }
+    
+    /**
+     * Returns a stream which is decompressed in case the given stream is gzip compressed (detected by the gzip magic number).
+     * Otherwise the returned stream contains the same content as the given stream.
+     * @param s the stream which might be gzip compressed
+     * @return a buffered and uncompressed stream
+     * @throws IOException An IOException.
+     */
+    public static InputStream decompressIfGzipped(InputStream s) throws IOException {
+        BufferedInputStream buffered = new BufferedInputStream(s, 64 * 1024);
+        buffered.mark(2);
+        int first = buffered.read();
+        int second = buffered.read();
+        buffered.reset();
+        if(first == (GZIPInputStream.GZIP_MAGIC & 0xff) && second == (GZIPInputStream.GZIP_MAGIC >>> 8)){
+            return new GZIPInputStream(buffered, 64 * 1024);
+        }
+        return buffered;
     }
     
     
@@ -0,0 +1,216 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.net.URL;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Pull based (StAX) reader for the alignment format which returns one {@link Correspondence} after the other.
+ * In contrast to the {@link AlignmentParser}, the correspondences are not collected in an {@link Alignment},
+ * thus the memory consumption does not depend on the size of the alignment.
+ * Gzip compressed files are detected automatically (by the gzip magic number, not by the file extension).
+ * The elements are interpreted by the same code as in the {@link AlignmentParser}, thus both return the same correspondences and header information.
+ * <pre>{@code
+ * try(AlignmentReader reader = new AlignmentReader(new File("big_alignment.rdf.gz"));
+ *     AlignmentWriter writer = new AlignmentWriter(new File("filtered.rdf"), reader.getHeader())){
+ *     while(reader.hasNext()){
+ *         Correspondence c = reader.next();
+ *         if(c.getConfidence() > 0.5)
+ *             writer.write(c);
+ *     }
+ * }
+ * }</pre>
+ * Parsing errors which occur during iteration are thrown as {@link UncheckedIOException}.
+ */
+public class AlignmentReader implements Iterator<Correspondence>, Closeable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AlignmentReader.class);
+
+    private static final XMLInputFactory FACTORY = createFactory();
+
+    private final InputStream stream;
+    private final XMLStreamReader reader;
+    private final Alignment header;
+
+    private final AlignmentElementHandler elementHandler;
+
+    private StringBuilder content;
+
+    private Correspondence next;
+    private boolean finished;
+
+    /**
+     * Creates a new reader. The header of the alignment (everything before the first correspondence) is read immediately.
+     * @param stream the stream to read from (can be gzip compressed). It is closed when this reader is closed.
+     * @throws IOException in case the stream cannot be read or parsed
+     */
+    public AlignmentReader(InputStream stream) throws IOException {
+        this.stream = AlignmentParser.decompressIfGzipped(stream);
+        try {
+            this.reader = FACTORY.createXMLStreamReader(this.stream);
+        } catch (XMLStreamException ex) {
+            this.stream.close();
+            throw new IOException("Could not create XML reader for alignment", ex);
+        }
+        this.header = new Alignment(false, false, false, false);
+        this.elementHandler = new AlignmentElementHandler(this.header, correspondence -> this.next = correspondence);
+        this.content = null;
+        this.next = null;
+        this.finished = false;
+        try {
+            readNext();
+        } catch (IOException ex) {
+            close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Creates a new reader for the given file (which can be gzip compressed).
+     * @param file the file to read from
+     * @throws IOException in case the file cannot be read or parsed
+     */
+    public AlignmentReader(File file) throws IOException {
+        this(new FileInputStream(file));
+    }
+
+    /**
+     * Creates a new reader for the given URL (which can be gzip compressed).
+     * @param url the url to read from
+     * @throws IOException in case the url cannot be read or parsed
+     */
+    public AlignmentReader(URL url) throws IOException {
+        this(AlignmentParser.getInputStreamFromURL(url));
+    }
+
+    private static XMLInputFactory createFactory(){
+        XMLInputFactory factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_NAMESPACE_AWARE, true);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, true);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        return factory;
+    }
+
+    /**
+     * Returns an alignment without correspondences which contains the header information like ontology information and alignment extensions.
+     * Everything which appears before the first correspondence is available directly after construction.
+     * Alignment extensions which appear after the correspondences are only available after all correspondences are read.
+     * @return the alignment header
+     */
+    public Alignment getHeader() {
+        return header;
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Correspondence next() {
+        if(next == null)
+            throw new NoSuchElementException();
+        Correspondence result = next;
+        try {
+            readNext();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return result;
+    }
+
+    /**
+     * Returns a sequential stream of the remaining correspondences. Closing the stream also closes this reader.
+     * @return stream of correspondences
+     */
+    public Stream<Correspondence> stream(){
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(() -> {
+                    try {
+                        close();
+                    } catch (IOException ex) {
+                        throw new UncheckedIOException(ex);
+                    }
+                });
+    }
+
+    @Override
+    public void close() throws IOException {
+        finished = true;
+        next = null;
+        try {
+            reader.close();
+        } catch (XMLStreamException ex) {
+            LOGGER.debug("Could not close XML reader.", ex);
+        } finally {
+            stream.close();
+        }
+    }
+
+    /**
+     * Reads until the next correspondence is complete or the document ends.
+     * @throws IOException in case of a parsing error
+     */
+    private void readNext() throws IOException {
+        next = null;
+        if(finished)
+            return;
+        try {
+            while(reader.hasNext()){
+                int event = reader.next();
+                switch(event){
+                    case XMLStreamConstants.START_ELEMENT:
+                        elementHandler.startElement(namespace(), reader.getLocalName(), this::getAttribute);
+                        content = new StringBuilder();
+                        break;
+                    case XMLStreamConstants.CHARACTERS:
+                    case XMLStreamConstants.CDATA:
+                        if(content != null)
+                            content.append(reader.getText());
+                        break;
+                    case XMLStreamConstants.END_ELEMENT:
+                        elementHandler.endElement(namespace(), reader.getLocalName(), content == null ? "" : content.toString());
+                        if(next != null)
+                            return;
+                        break;
+                    default:
+                        break;
+                }
+            }
+        } catch (XMLStreamException ex) {
+            throw new IOException("Could not parse alignment", ex);
+        }
+        finished = true;
+    }
+
+    private String namespace(){
+        String ns = reader.getNamespaceURI();
+        return ns == null ? "" : ns;
+    }
+
+    private String getAttribute(String namespace, String localName){
+        for(int i = 0; i < reader.getAttributeCount(); i++){
+            String attributeNamespace = reader.getAttributeNamespace(i);
+            if(reader.getAttributeLocalName(i).equals(localName) && namespace.equals(attributeNamespace == null ? "" : attributeNamespace))
+                return reader.getAttributeValue(i);
+        }
+        return null;
+    }
+}
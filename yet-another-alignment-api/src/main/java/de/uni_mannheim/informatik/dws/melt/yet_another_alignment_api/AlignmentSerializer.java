@@ -1,23 +1,21 @@
 package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.nio.charset.Charset;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
 
-import org.apache.commons.text.StringEscapeUtils;
-
 
 /**
  * The AlignmentSerializer writes a {@link Alignment} to a file.
+ * It delegates to the {@link AlignmentWriter}; see there for the gzip compression (based on the file extension)
+ * and the escaping of values.
  *
  * @author Sven Hertling
  * @author Jan Portisch
@@ -25,134 +23,47 @@ import org.apache.commons.text.StringEscapeUtils;
 public class AlignmentSerializer {
 
     /**
-     * Constant for UTF-8 encoding.
+     * Method to write the specified alignment to the specified file.
+     * The correspondences are directly written to the (buffered) file and not collected in a string before.
+     * If the file name ends with ".gz", the file is gzip compressed.
+     * @param alignment The alignment that shall be written.
+     * @param file The file to which the alignment shall be written.
+     * @throws IOException Exception that occurred while serializing the alignment.
      */
-    private static final Charset ENCODING = StandardCharsets.UTF_8;
+    public static void serialize(Alignment alignment, File file) throws IOException {
+        try (AlignmentWriter writer = new AlignmentWriter(file, alignment)) {
+            writer.writeAll(alignment);
+        }
+    }
     
-    private static final String newline = System.getProperty("line.separator");
-
     /**
-     * Method to write the specified alignment to the specified file
+     * Method to write the specified alignment to the given stream.
+     * The stream is buffered and closed after writing.
      * @param alignment The alignment that shall be written.
-     * @param file The file to which the alignment shall be written.
+     * @param out The stream to which the alignment shall be written.
      * @throws IOException Exception that occurred while serializing the alignment.
      */
-    public static void serialize(Alignment alignment, File file) throws IOException {
-        
-        if (file.exists()) {
-            if (file.isDirectory()) {
-                throw new IOException("File '" + file + "' exists but is a directory");
-            }
-            if (file.canWrite() == false) {
-                throw new IOException("File '" + file + "' cannot be written to");
-            }
-        } else {
-            final File parent = file.getParentFile();
-            if (parent != null) {
-                if (!parent.mkdirs() && !parent.isDirectory()) {
-                    throw new IOException("Directory '" + parent + "' could not be created");
-                }
-            }
+    public static void serialize(Alignment alignment, OutputStream out) throws IOException {
+        try (AlignmentWriter writer = new AlignmentWriter(out, alignment)) {
+            writer.writeAll(alignment);
         }
-        
-        try (FileOutputStream out = new FileOutputStream(file)) {
-            out.write(getXmlIntro(alignment).getBytes(ENCODING));
-            for(Correspondence cell : alignment){
-                out.write(getXmlMappingCellMultiLine(cell).getBytes(ENCODING));
-            }
-            out.write(getXmlOutro().getBytes(ENCODING));
-        }        
     }
 
     /**
      * Serializes an alignment as String.
+     * Better use the function serialize(Alignment, File) if the alignment is huge.
      * @param alignment The alignment to be serialized.
      * @return Alignment as String.
      */
     public static String serialize(Alignment alignment) {
-        StringBuilder sb = new StringBuilder();
-        sb.append(getXmlIntro(alignment));
-        for(Correspondence cell : alignment){
-            sb.append(getXmlMappingCellMultiLine(cell));
-        }
-        sb.append(getXmlOutro());
-        return sb.toString();
-    }
-
-    /**
-     * XML header.
-     * @param alignment Alignment to be serialized.
-     * @return XML header as String.
-     */
-    private static String getXmlIntro(Alignment alignment){
-        StringBuilder sb = new StringBuilder();
-        sb.append("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
-        sb.append("<rdf:RDF xmlns=\"http://knowledgeweb.semanticweb.org/heterogeneity/alignment\"\n");
-        sb.append("  xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"\n");
-        sb.append("  xmlns:xsd=\"http://www.w3.org/2001/XMLSchema#\">\n");
-        sb.append("<Alignment>\n");
-        sb.append("  <xml>yes</xml>\n");
-        sb.append("  <level>0</level>\n");
-        sb.append("  <type>??</type>\n");
-
-        if(alignment.getExtensions() != null) {
-            for (HashMap.Entry<String, String> extension : alignment.getExtensions().entrySet()) {
-                String extensionLabel = getExtensionLabel(extension.getKey());
-                sb.append("      <alignapilocalns:" + extensionLabel + " xmlns:alignapilocalns=\"" + getExtensionBaseUri(extension.getKey()) + "\">")
-                        .append(extension.getValue() + "</alignapilocalns:" + extensionLabel + ">\n");
-            }
-        }
-
-        serializeOntoInfo(sb, alignment.getOnto1(), "onto1");
-        serializeOntoInfo(sb, alignment.getOnto2(), "onto2");
-        return sb.toString();
-    }
-    
-    private static String getXmlMappingCellMultiLine(Correspondence cell){
-        StringBuilder sb = new StringBuilder();
-        sb.append("  <map>\n");
-        if(isBlank(cell.getIdentifier())) sb.append("    <Cell>\n");
-        else sb.append("    <Cell rdf:about=\"").append(StringEscapeUtils.ESCAPE_XML10.translate(cell.getIdentifier())).append(">\n");
-        sb.append("      <entity1 rdf:resource=\"").append(StringEscapeUtils.ESCAPE_XML10.translate(cell.getEntityOne())).append("\"/>\n");
-        sb.append("      <entity2 rdf:resource=\"").append(StringEscapeUtils.ESCAPE_XML10.translate(cell.getEntityTwo())).append("\"/>\n");
-        sb.append("      <relation>").append(StringEscapeUtils.ESCAPE_XML10.translate(cell.getRelation().toString())).append("</relation>\n");
-        sb.append("      <measure rdf:datatype=\"xsd:float\">").append(cell.getConfidence()).append("</measure>\n");
-        if(cell.getExtensions() != null){
-            for(HashMap.Entry<String, Object> extension : cell.getExtensions().entrySet()){
-                String extensionLabel = getExtensionLabel(extension.getKey());
-                sb.append("      <alignapilocalns:" + extensionLabel + " xmlns:alignapilocalns=\"" + getExtensionBaseUri(extension.getKey()) + "\">")
-                        .append(StringEscapeUtils.ESCAPE_XML10.translate(extension.getValue().toString()) + "</alignapilocalns:" + extensionLabel + ">\n");
-            }
-        }
-        sb.append("    </Cell>\n");
-        sb.append("  </map>\n");
-        return sb.toString();
-    }
-
-
-    /**
-     * Returns the XML footer.
-     * @return XML footer as string.
-     */
-    private static String getXmlOutro(){
-        return "</Alignment>\n</rdf:RDF>\n";
-    }
-    
-    private static void serializeOntoInfo(StringBuilder sb, OntoInfo o, String name) {
-        if (isBlank(o.getOntoID()) == false) {
-            sb.append("  <").append(name).append(">\n");
-            sb.append("    <Ontology rdf:about=\"").append(StringEscapeUtils.ESCAPE_XML10.translate(o.getOntoID())).append("\">\n");
-            if (isBlank(o.getOntoLocation()) == false) {
-                sb.append("      <location>").append(StringEscapeUtils.ESCAPE_XML10.translate(o.getOntoLocation())).append("</location>\n");
-            }
-            if (isBlank(o.getFormalism()) == false && isBlank(o.getFormalismURI()) == false) {
-                sb.append("      <formalism>\n");
-                sb.append("        <Formalism align:name=\"").append(StringEscapeUtils.ESCAPE_XML10.translate(o.getFormalism())).append("\" align:uri=\"").append(StringEscapeUtils.ESCAPE_XML10.translate(o.getFormalismURI())).append("\"/>\n");
-                sb.append("      </formalism>\n");
-            }
-            sb.append("    </Ontology>\n");
-            sb.append("  </").append(name).append(">\n");
+        StringWriter stringWriter = new StringWriter();
+        try (AlignmentWriter writer = new AlignmentWriter(stringWriter, alignment)) {
+            writer.writeAll(alignment);
+        } catch (IOException ex) {
+            //should not happen with a StringWriter
+            throw new UncheckedIOException(ex);
         }
+        return stringWriter.toString();
     }
 
     /**
@@ -194,19 +105,6 @@ public class AlignmentSerializer {
     }
 
 
-    private static boolean isBlank(final CharSequence cs) {
-        int strLen;
-        if (cs == null || (strLen = cs.length()) == 0) {
-            return true;
-        }
-        for (int i = 0; i < strLen; i++) {
-            if (!Character.isWhitespace(cs.charAt(i))) {
-                return false;
-            }
-        }
-        return true;
-    }
-
     /**
      * Method to write the specified alignment to the specified file (in CSV format).
      * @param alignment The alignment that shall be written.
@@ -258,7 +156,7 @@ public class AlignmentSerializer {
         }
     }
     
-    private static void checkFile(File file) throws IOException{
+    static void checkFile(File file) throws IOException{
         if (file.exists()) {
             if (file.isDirectory()) {
                 throw new IOException("File '" + file + "' exists but is a directory");
@@ -0,0 +1,265 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+import org.apache.commons.text.StringEscapeUtils;
+
+/**
+ * Streaming writer for the alignment format.
+ * The header is written when the writer is created, every correspondence is directly written to the underlying (buffered) stream
+ * and the footer is written on {@link #close() }. Thus the memory consumption does not depend on the number of correspondences
+ * and it is not necessary to have all correspondences in one {@link Alignment} object.
+ * <pre>{@code
+ * try(AlignmentReader reader = new AlignmentReader(new File("big_alignment.rdf"));
+ *     AlignmentWriter writer = new AlignmentWriter(new File("alignment.rdf.gz"))){
+ *     while(reader.hasNext()){
+ *         Correspondence c = reader.next();
+ *         if(c.getConfidence() > 0.5)
+ *             writer.write(c);
+ *     }
+ * }
+ * }</pre>
+ * <p>
+ * Differences to the output of previous versions of the {@link AlignmentSerializer}:
+ * <ul>
+ * <li>Gzip: if the file name ends with ".gz" (case insensitive), the output is gzip compressed.
+ * Writing to a stream is never compressed. All readers ({@link AlignmentParser}, {@link AlignmentReader})
+ * detect gzip by the magic number and not by the file extension.</li>
+ * <li>Escaping: all text content and attribute values are XML 1.0 escaped. This now also includes the values of
+ * alignment extensions (before, only correspondence extensions were escaped) and the closing quote of the
+ * rdf:about attribute of a cell with an identifier is written (before, the output was not well formed).</li>
+ * </ul>
+ */
+public class AlignmentWriter implements Closeable, Flushable {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final Writer writer;
+    private boolean closed;
+
+    /**
+     * Creates a new writer which writes the alignment header (ontology information and alignment extensions) of the given alignment.
+     * The correspondences of the given alignment are NOT written.
+     * @param out the stream to write to (it will be closed when this writer is closed).
+     * @param header the alignment which contains the header information (can be null)
+     * @throws IOException in case of an io error
+     */
+    public AlignmentWriter(OutputStream out, Alignment header) throws IOException {
+        this.writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE);
+        this.closed = false;
+        writeIntro(header == null ? new Alignment(false, false, false, false) : header);
+    }
+
+    /**
+     * Creates a new writer with an empty header.
+     * @param out the stream to write to (it will be closed when this writer is closed).
+     * @throws IOException in case of an io error
+     */
+    public AlignmentWriter(OutputStream out) throws IOException {
+        this(out, null);
+    }
+
+    /**
+     * Creates a new writer which writes to the given file. If the file name ends with ".gz", the output is gzip compressed.
+     * @param file the file to write to
+     * @param header the alignment which contains the header information (can be null)
+     * @throws IOException in case of an io error
+     */
+    public AlignmentWriter(File file, Alignment header) throws IOException {
+        this(openFile(file), header);
+    }
+
+    /**
+     * Creates a new writer which writes to the given file. If the file name ends with ".gz", the output is gzip compressed.
+     * @param file the file to write to
+     * @throws IOException in case of an io error
+     */
+    public AlignmentWriter(File file) throws IOException {
+        this(file, null);
+    }
+
+    /**
+     * Writer which writes to a writer (used for serializing to string).
+     * @param writer the writer
+     * @param header the header
+     * @throws IOException in case of an io error
+     */
+    AlignmentWriter(Writer writer, Alignment header) throws IOException {
+        this.writer = writer;
+        this.closed = false;
+        writeIntro(header);
+    }
+
+    private static OutputStream openFile(File file) throws IOException {
+        AlignmentSerializer.checkFile(file);
+        OutputStream out = new FileOutputStream(file);
+        if(isGzipFile(file)){
+            return new GZIPOutputStream(out, BUFFER_SIZE);
+        }
+        return out;
+    }
+
+    /**
+     * Returns true, if the file should be compressed / is compressed with gzip (based on file extension).
+     * @param file the file to check
+     * @return true if the file name ends with .gz
+     */
+    static boolean isGzipFile(File file){
+        return file.getName().toLowerCase().endsWith(".gz");
+    }
+
+    /**
+     * Writes the given correspondence.
+     * @param cell the correspondence to write
+     * @throws IOException in case of an io error
+     */
+    public void write(Correspondence cell) throws IOException {
+        writer.write("  <map>\n");
+        if(isBlank(cell.getIdentifier())){
+            writer.write("    <Cell>\n");
+        } else {
+            writer.write("    <Cell rdf:about=\"");
+            writeEscaped(cell.getIdentifier());
+            writer.write("\">\n");
+        }
+        writer.write("      <entity1 rdf:resource=\"");
+        writeEscaped(cell.getEntityOne());
+        writer.write("\"/>\n");
+        writer.write("      <entity2 rdf:resource=\"");
+        writeEscaped(cell.getEntityTwo());
+        writer.write("\"/>\n");
+        writer.write("      <relation>");
+        writeEscaped(cell.getRelation().toString());
+        writer.write("</relation>\n");
+        writer.write("      <measure rdf:datatype=\"xsd:float\">");
+        writer.write(Double.toString(cell.getConfidence()));
+        writer.write("</measure>\n");
+        if(cell.getExtensions() != null){
+            for(Map.Entry<String, Object> extension : cell.getExtensions().entrySet()){
+                writeExtension(extension.getKey(), extension.getValue().toString());
+            }
+        }
+        writer.write("    </Cell>\n");
+        writer.write("  </map>\n");
+    }
+
+    /**
+     * Writes all given correspondences.
+     * @param cells the correspondences to write
+     * @throws IOException in case of an io error
+     */
+    public void writeAll(Iterable<Correspondence> cells) throws IOException {
+        for(Correspondence cell : cells){
+            write(cell);
+        }
+    }
+
+    @Override
+    public void flush() throws IOException {
+        writer.flush();
+    }
+
+    /**
+     * Writes the footer and closes the underlying stream.
+     * @throws IOException in case of an io error
+     */
+    @Override
+    public void close() throws IOException {
+        if(closed)
+            return;
+        closed = true;
+        try{
+            writer.write("</Alignment>\n</rdf:RDF>\n");
+        } finally {
+            writer.close();
+        }
+    }
+
+    private void writeIntro(Alignment alignment) throws IOException {
+        writer.write("<?xml version=\"1.0\" encoding=\"utf-8\"?>\n");
+        writer.write("<rdf:RDF xmlns=\"http://knowledgeweb.semanticweb.org/heterogeneity/alignment\"\n");
+        writer.write("  xmlns:rdf=\"http://www.w3.org/1999/02/22-rdf-syntax-ns#\"\n");
+        writer.write("  xmlns:xsd=\"http://www.w3.org/2001/XMLSchema#\">\n");
+        writer.write("<Alignment>\n");
+        writer.write("  <xml>yes</xml>\n");
+        writer.write("  <level>0</level>\n");
+        writer.write("  <type>??</type>\n");
+        if(alignment.getExtensions() != null) {
+            for (Map.Entry<String, String> extension : alignment.getExtensions().entrySet()) {
+                writeExtension(extension.getKey(), extension.getValue());
+            }
+        }
+        writeOntoInfo(alignment.getOnto1(), "onto1");
+        writeOntoInfo(alignment.getOnto2(), "onto2");
+    }
+
+    private void writeExtension(String key, String value) throws IOException {
+        String extensionLabel = AlignmentSerializer.getExtensionLabel(key);
+        writer.write("      <alignapilocalns:");
+        writer.write(extensionLabel);
+        writer.write(" xmlns:alignapilocalns=\"");
+        writer.write(AlignmentSerializer.getExtensionBaseUri(key));
+        writer.write("\">");
+        writeEscaped(value);
+        writer.write("</alignapilocalns:");
+        writer.write(extensionLabel);
+        writer.write(">\n");
+    }
+
+    private void writeOntoInfo(OntoInfo o, String name) throws IOException {
+        if (o == null || isBlank(o.getOntoID()))
+            return;
+        writer.write("  <" + name + ">\n");
+        writer.write("    <Ontology rdf:about=\"");
+        writeEscaped(o.getOntoID());
+        writer.write("\">\n");
+        if (isBlank(o.getOntoLocation()) == false) {
+            writer.write("      <location>");
+            writeEscaped(o.getOntoLocation());
+            writer.write("</location>\n");
+        }
+        if (isBlank(o.getFormalism()) == false && isBlank(o.getFormalismURI()) == false) {
+            writer.write("      <formalism>\n");
+            writer.write("        <Formalism align:name=\"");
+            writeEscaped(o.getFormalism());
+            writer.write("\" align:uri=\"");
+            writeEscaped(o.getFormalismURI());
+            writer.write("\"/>\n");
+            writer.write("      </formalism>\n");
+        }
+        writer.write("    </Ontology>\n");
+        writer.write("  </" + name + ">\n");
+    }
+
+    /**
+     * Writes the text XML 1.0 escaped (also used for attribute values because quotes are escaped as well).
+     * @param text the text to write
+     * @throws IOException in case of an io error
+     */
+    private void writeEscaped(String text) throws IOException {
+        StringEscapeUtils.ESCAPE_XML10.translate(text, writer);
+    }
+
+    static boolean isBlank(final CharSequence cs) {
+        int strLen;
+        if (cs == null || (strLen = cs.length()) == 0) {
+            return true;
+        }
+        for (int i = 0; i < strLen; i++) {
+            if (!Character.isWhitespace(cs.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
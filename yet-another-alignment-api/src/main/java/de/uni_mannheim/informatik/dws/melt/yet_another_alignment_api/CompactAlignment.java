@@ -0,0 +1,1172 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import com.googlecode.cqengine.attribute.Attribute;
+import com.googlecode.cqengine.index.support.CloseableIterator;
+import com.googlecode.cqengine.query.Query;
+import com.googlecode.cqengine.query.logical.And;
+import com.googlecode.cqengine.query.option.QueryOptions;
+import com.googlecode.cqengine.query.simple.Equal;
+import com.googlecode.cqengine.resultset.ResultSet;
+import com.googlecode.cqengine.resultset.stored.StoredSetBasedResultSet;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.Set;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+import org.xml.sax.SAXException;
+
+/**
+ * Memory efficient implementation of an {@link Alignment} which can be used for very large alignments (millions of correspondences).
+ * <p>
+ * Instead of storing {@link Correspondence} objects in a CQEngine collection, all URIs are dictionary encoded to integers
+ * and the correspondences are stored in primitive columnar arrays (source id, target id, confidence, relation).
+ * Extensions are only allocated for correspondences which actually have extensions.
+ * Lookups by source and target are served by primitive int based indexes and the check if a correspondence
+ * (source, target, relation) is already contained is answered by a primitive open addressing hash table.
+ * <p>
+ * The public API is the same as {@link Alignment} but there are a few things to keep in mind:
+ * <ul>
+ * <li>The correspondences returned by the iterator and the query methods are created on the fly.
+ * Changes to the confidence, the identifier and the extensions of such a correspondence
+ * (e.g. via {@link Correspondence#setConfidence(double) } or {@link Correspondence#addExtensionValue(java.lang.String, java.lang.Object) })
+ * are written back to this alignment as long as the correspondence is still contained and {@link #compact() } was not called in the meantime.
+ * The source, target and relation cannot be changed because they identify the correspondence
+ * (the setters throw an {@link UnsupportedOperationException}); remove the correspondence and add a new one instead.</li>
+ * <li>Removed correspondences leave a tombstone such that iterators stay valid while removing correspondences.
+ * Call {@link #compact() } after removing a large fraction of correspondences to free the memory.</li>
+ * <li>All modifications are synchronized, but iterators are only weakly consistent.</li>
+ * </ul>
+ * Use {@link #toAlignment() } to get a CQEngine backed {@link Alignment} with all indexes.
+ */
+public class CompactAlignment extends Alignment {
+
+    private static final int INITIAL_CAPACITY = 16;
+    private static final int NONE = -1;
+    private static final byte DELETED = -1;
+    private static final CorrespondenceRelation[] RELATIONS = CorrespondenceRelation.values();
+
+    /**
+     * Dictionary which maps every URI to an integer id (shared between source and target).
+     */
+    private StringDictionary dictionary;
+
+    // columns of the correspondences - one row per correspondence
+    private int[] sources;
+    private int[] targets;
+    private double[] confidences;
+    private byte[] relations;
+    /**
+     * Extensions per row. The array itself as well as every entry is only allocated if extensions are used.
+     */
+    private Map<String, Object>[] rowExtensions;
+    /**
+     * Identifiers per row. The array is only allocated if at least one correspondence has an identifier.
+     */
+    private String[] identifiers;
+
+    private int rowCount;
+    private int deletedCount;
+    /**
+     * Incremented whenever the row ids change (on {@link #clear() } and {@link #compact() }).
+     */
+    private int generation;
+
+    // index on source and target: head row per dictionary id and linked list of rows
+    private int[] sourceHead;
+    private int[] targetHead;
+    private int[] nextSameSource;
+    private int[] nextSameTarget;
+
+    /**
+     * Open addressing hash table (linear probing) which contains row ids.
+     * It is used to find a row given source, target and relation.
+     */
+    private int[] rowTable;
+
+    public CompactAlignment() {
+        super(false, false, false, false);
+        initStorage(INITIAL_CAPACITY);
+    }
+
+    /**
+     * Constructor which already allocates enough space for the expected number of correspondences.
+     * @param expectedSize the expected number of correspondences
+     */
+    public CompactAlignment(int expectedSize) {
+        super(false, false, false, false);
+        initStorage(Math.max(INITIAL_CAPACITY, expectedSize));
+    }
+
+    public CompactAlignment(Iterable<Correspondence> correspondences) {
+        this();
+        for(Correspondence c : correspondences)
+            this.add(c);
+    }
+
+    /**
+     * Copy constructor which copies all information stores in alignment as well as all correspondences.
+     * @param alignment The alignment which shall be copied (deep copy).
+     */
+    public CompactAlignment(Alignment alignment) {
+        this(alignment, true);
+    }
+
+    /**
+     * Copy constructor which copies all information stores in alignment as well as all correspondences (depending on attribute copyCorrespondences).
+     * @param alignment The alignment which shall be copied (deep copy).
+     * @param copyCorrespondences if true copies all information, if false copies all but no correspondences
+     */
+    public CompactAlignment(Alignment alignment, boolean copyCorrespondences) {
+        super(false, false, false, false);
+        initStorage(copyCorrespondences ? Math.max(INITIAL_CAPACITY, alignment.size()) : INITIAL_CAPACITY);
+        this.method = alignment.method;
+        this.type = alignment.type;
+        this.level = alignment.level;
+        this.onto1 = new OntoInfo(alignment.onto1);
+        this.onto2 = new OntoInfo(alignment.onto2);
+        this.extensions = alignment.extensions == null ? new HashMap<>() : new HashMap<>(alignment.extensions);
+        if(copyCorrespondences){
+            for(Correspondence c : alignment)
+                this.add(c);
+        }
+    }
+
+    public CompactAlignment(File f) throws SAXException, IOException {
+        this(new FileInputStream(f));
+    }
+
+    public CompactAlignment(InputStream s) throws SAXException, IOException {
+        this();
+        AlignmentParser.parse(s, this);
+    }
+
+    private void initStorage(int capacity){
+        this.dictionary = new StringDictionary(capacity);
+        this.sources = new int[capacity];
+        this.targets = new int[capacity];
+        this.confidences = new double[capacity];
+        this.relations = new byte[capacity];
+        this.rowExtensions = null;
+        this.identifiers = null;
+        this.rowCount = 0;
+        this.deletedCount = 0;
+        this.generation++;
+        this.sourceHead = newFilledArray(capacity);
+        this.targetHead = newFilledArray(capacity);
+        this.nextSameSource = new int[capacity];
+        this.nextSameTarget = new int[capacity];
+        this.rowTable = newFilledArray(tableSizeFor(capacity));
+    }
+
+    private static int[] newFilledArray(int size){
+        int[] array = new int[size];
+        Arrays.fill(array, NONE);
+        return array;
+    }
+
+    private static int tableSizeFor(int capacity){
+        int n = Integer.highestOneBit(Math.max(capacity, INITIAL_CAPACITY) - 1) << 2; // load factor of at most 0.5
+        return n <= 0 ? 1 << 30 : n;
+    }
+
+    private static int hash(int source, int target, int relation){
+        int h = source * 0x9E3779B9 + target;
+        h = h * 0x9E3779B9 + relation;
+        return h ^ (h >>> 16);
+    }
+
+    /*******************************
+     * Low level row operations
+     *******************************/
+
+    private int findRow(int source, int target, byte relation){
+        int mask = rowTable.length - 1;
+        int slot = hash(source, target, relation) & mask;
+        while(true){
+            int row = rowTable[slot];
+            if(row == NONE)
+                return NONE;
+            if(relations[row] == relation && sources[row] == source && targets[row] == target)
+                return row;
+            slot = (slot + 1) & mask;
+        }
+    }
+
+    private int findRow(String source, String target, CorrespondenceRelation relation){
+        int sourceId = dictionary.getId(source);
+        if(sourceId == NONE)
+            return NONE;
+        int targetId = dictionary.getId(target);
+        if(targetId == NONE)
+            return NONE;
+        return findRow(sourceId, targetId, (byte) relation.ordinal());
+    }
+
+    private int findRow(Correspondence c){
+        if(c.getEntityOne() == null || c.getEntityTwo() == null || c.getRelation() == null)
+            return NONE;
+        return findRow(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+    }
+
+    private int appendRow(Correspondence c){
+        ensureRowCapacity(rowCount + 1);
+        int source = dictionary.getOrCreateId(c.getEntityOne());
+        int target = dictionary.getOrCreateId(c.getEntityTwo());
+        ensureDictionaryCapacity(dictionary.size());
+
+        int row = rowCount++;
+        sources[row] = source;
+        targets[row] = target;
+        confidences[row] = c.getConfidence();
+        relations[row] = (byte) c.getRelation().ordinal();
+        if(c.getExtensions() != null && !c.getExtensions().isEmpty()){
+            setRowExtensions(row, new HashMap<>(c.getExtensions()));
+        }
+        if(c.getIdentifier() != null){
+            if(identifiers == null)
+                identifiers = new String[sources.length];
+            identifiers[row] = c.getIdentifier();
+        }
+
+        nextSameSource[row] = sourceHead[source];
+        sourceHead[source] = row;
+        nextSameTarget[row] = targetHead[target];
+        targetHead[target] = row;
+
+        insertIntoTable(row);
+        return row;
+    }
+
+    private void insertIntoTable(int row){
+        if((rowCount << 1) > rowTable.length){
+            rehash(rowTable.length << 1);
+        }
+        int mask = rowTable.length - 1;
+        int slot = hash(sources[row], targets[row], relations[row]) & mask;
+        while(rowTable[slot] != NONE){
+            slot = (slot + 1) & mask;
+        }
+        rowTable[slot] = row;
+    }
+
+    private void rehash(int newSize){
+        int[] newTable = newFilledArray(newSize);
+        int mask = newSize - 1;
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] == DELETED)
+                continue;
+            int slot = hash(sources[row], targets[row], relations[row]) & mask;
+            while(newTable[slot] != NONE){
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = row;
+        }
+        this.rowTable = newTable;
+    }
+
+    /**
+     * Marks the row as deleted. The row stays in the hash table and in the source/target lists as a tombstone
+     * (it never matches any lookup because the relation is set to {@link #DELETED}).
+     * @param row the row to delete
+     */
+    private void deleteRow(int row){
+        relations[row] = DELETED;
+        if(rowExtensions != null)
+            rowExtensions[row] = null;
+        if(identifiers != null)
+            identifiers[row] = null;
+        deletedCount++;
+    }
+
+    private void ensureRowCapacity(int minCapacity){
+        if(minCapacity <= sources.length)
+            return;
+        int newCapacity = Math.max(minCapacity, sources.length + (sources.length >> 1));
+        sources = Arrays.copyOf(sources, newCapacity);
+        targets = Arrays.copyOf(targets, newCapacity);
+        confidences = Arrays.copyOf(confidences, newCapacity);
+        relations = Arrays.copyOf(relations, newCapacity);
+        nextSameSource = Arrays.copyOf(nextSameSource, newCapacity);
+        nextSameTarget = Arrays.copyOf(nextSameTarget, newCapacity);
+        if(rowExtensions != null)
+            rowExtensions = Arrays.copyOf(rowExtensions, newCapacity);
+        if(identifiers != null)
+            identifiers = Arrays.copyOf(identifiers, newCapacity);
+    }
+
+    private void ensureDictionaryCapacity(int minCapacity){
+        if(minCapacity <= sourceHead.length)
+            return;
+        int newCapacity = Math.max(minCapacity, sourceHead.length + (sourceHead.length >> 1));
+        int oldCapacity = sourceHead.length;
+        sourceHead = Arrays.copyOf(sourceHead, newCapacity);
+        targetHead = Arrays.copyOf(targetHead, newCapacity);
+        Arrays.fill(sourceHead, oldCapacity, newCapacity, NONE);
+        Arrays.fill(targetHead, oldCapacity, newCapacity, NONE);
+    }
+
+    @SuppressWarnings("unchecked")
+    private synchronized void setRowExtensions(int row, Map<String, Object> map){
+        if(rowExtensions == null)
+            rowExtensions = new Map[sources.length];
+        rowExtensions[row] = map;
+    }
+
+    private Map<String, Object> getRowExtensions(int row){
+        if(rowExtensions == null)
+            return null;
+        return rowExtensions[row];
+    }
+
+    /**
+     * Creates a correspondence object for the given row.
+     * @param row the row
+     * @return a new correspondence
+     */
+    private Correspondence materialize(int row){
+        Map<String, Object> ext = getRowExtensions(row);
+        if(ext == null)
+            ext = new RowExtensionMap(row);
+        return new RowCorrespondence(row, ext);
+    }
+
+    /**
+     * Checks if a row which was materialized in the given generation still holds the same correspondence.
+     * @param row the row
+     * @param rowGeneration the generation at the time the row was materialized
+     * @return true if changes can be written to the row
+     */
+    private boolean isRowValid(int row, int rowGeneration){
+        return rowGeneration == generation && row < rowCount && relations[row] != DELETED;
+    }
+
+    private List<Correspondence> collectSourceRows(int sourceId, int targetId, byte relation){
+        List<Correspondence> list = new ArrayList<>();
+        if(sourceId == NONE)
+            return list;
+        for(int row = sourceHead[sourceId]; row != NONE; row = nextSameSource[row]){
+            if(relations[row] == DELETED)
+                continue;
+            if(targetId != NONE && targets[row] != targetId)
+                continue;
+            if(relation != DELETED && relations[row] != relation)
+                continue;
+            list.add(materialize(row));
+        }
+        return list;
+    }
+
+    private List<Correspondence> collectTargetRows(int targetId, byte relation){
+        List<Correspondence> list = new ArrayList<>();
+        if(targetId == NONE)
+            return list;
+        for(int row = targetHead[targetId]; row != NONE; row = nextSameTarget[row]){
+            if(relations[row] == DELETED)
+                continue;
+            if(relation != DELETED && relations[row] != relation)
+                continue;
+            list.add(materialize(row));
+        }
+        return list;
+    }
+
+    /*******************************
+     * Collection methods
+     *******************************/
+
+    @Override
+    public synchronized boolean add(Correspondence c) {
+        if(findRow(c) != NONE)
+            return false;
+        appendRow(c);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean addAll(Collection<? extends Correspondence> c) {
+        ensureRowCapacity(rowCount + c.size());
+        boolean modified = false;
+        for(Correspondence correspondence : c){
+            if(add(correspondence))
+                modified = true;
+        }
+        return modified;
+    }
+
+    @Override
+    public synchronized boolean remove(Object o) {
+        if(!(o instanceof Correspondence))
+            return false;
+        int row = findRow((Correspondence) o);
+        if(row == NONE)
+            return false;
+        deleteRow(row);
+        return true;
+    }
+
+    @Override
+    public synchronized boolean removeAll(Collection<?> c) {
+        boolean modified = false;
+        for(Object o : c){
+            if(remove(o))
+                modified = true;
+        }
+        return modified;
+    }
+
+    @Override
+    public synchronized boolean retainAll(Collection<?> c) {
+        boolean modified = false;
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] == DELETED)
+                continue;
+            if(!c.contains(materialize(row))){
+                deleteRow(row);
+                modified = true;
+            }
+        }
+        return modified;
+    }
+
+    @Override
+    public synchronized void clear() {
+        initStorage(INITIAL_CAPACITY);
+    }
+
+    @Override
+    public synchronized boolean contains(Object o) {
+        if(!(o instanceof Correspondence))
+            return false;
+        return findRow((Correspondence) o) != NONE;
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        for(Object o : c){
+            if(!contains(o))
+                return false;
+        }
+        return true;
+    }
+
+    @Override
+    public synchronized int size() {
+        return rowCount - deletedCount;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return size() == 0;
+    }
+
+    @Override
+    public boolean update(Iterable<Correspondence> objectsToRemove, Iterable<Correspondence> objectsToAdd) {
+        return update(objectsToRemove, objectsToAdd, null);
+    }
+
+    @Override
+    public synchronized boolean update(Iterable<Correspondence> objectsToRemove, Iterable<Correspondence> objectsToAdd, QueryOptions queryOptions) {
+        boolean modified = false;
+        for(Correspondence c : objectsToRemove){
+            if(remove(c))
+                modified = true;
+        }
+        for(Correspondence c : objectsToAdd){
+            if(add(c))
+                modified = true;
+        }
+        return modified;
+    }
+
+    @Override
+    public CloseableIterator<Correspondence> iterator() {
+        return new RowIterator();
+    }
+
+    @Override
+    public Object[] toArray() {
+        return new ArrayList<>(this).toArray();
+    }
+
+    @Override
+    public <T> T[] toArray(T[] a) {
+        return new ArrayList<>(this).toArray(a);
+    }
+
+    /**
+     * Executes the query by scanning the correspondences.
+     * If the query contains an equality condition on source or target, only the correspondences with this source or target are scanned.
+     * @param query the query
+     * @param queryOptions the query options
+     * @return the result set which contains all matching correspondences
+     */
+    @Override
+    public ResultSet<Correspondence> retrieve(Query<Correspondence> query, QueryOptions queryOptions) {
+        Iterable<Correspondence> candidates = this;
+        String source = findEqualValue(query, Correspondence.SOURCE);
+        if(source != null){
+            candidates = getCorrespondencesSource(source);
+        }else{
+            String target = findEqualValue(query, Correspondence.TARGET);
+            if(target != null)
+                candidates = getCorrespondencesTarget(target);
+        }
+        Set<Correspondence> result = new LinkedHashSet<>();
+        for(Correspondence c : candidates){
+            if(query.matches(c, queryOptions))
+                result.add(c);
+        }
+        return new StoredSetBasedResultSet<>(result);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static String findEqualValue(Query<Correspondence> query, Attribute<Correspondence, String> attribute){
+        if(query instanceof Equal){
+            Equal<Correspondence, ?> equal = (Equal<Correspondence, ?>) query;
+            if(equal.getAttribute() == attribute)
+                return (String) equal.getValue();
+        }else if(query instanceof And){
+            for(Query<Correspondence> child : ((And<Correspondence>) query).getSimpleQueries()){
+                String value = findEqualValue(child, attribute);
+                if(value != null)
+                    return value;
+            }
+        }
+        return null;
+    }
+
+    /*******************************
+     * Alignment methods
+     *******************************/
+
+    @Override
+    public synchronized Correspondence addOrModify(Correspondence correspondence) {
+        int row = findRow(correspondence);
+        if(row == NONE){
+            return materialize(appendRow(correspondence));
+        }
+        mergeExtensions(row, correspondence);
+        confidences[row] = correspondence.getConfidence();
+        return materialize(row);
+    }
+
+    @Override
+    public synchronized Correspondence addOrUseHighestConfidence(Correspondence c) {
+        int row = findRow(c);
+        if(row == NONE){
+            return materialize(appendRow(c));
+        }
+        mergeExtensions(row, c);
+        if(c.getConfidence() > confidences[row])
+            confidences[row] = c.getConfidence();
+        return materialize(row);
+    }
+
+    private void mergeExtensions(int row, Correspondence c){
+        if(c.getExtensions() == null || c.getExtensions().isEmpty())
+            return;
+        Map<String, Object> ext = getRowExtensions(row);
+        if(ext == null){
+            setRowExtensions(row, new HashMap<>(c.getExtensions()));
+        }else{
+            ext.putAll(c.getExtensions());
+        }
+    }
+
+    @Override
+    public synchronized Correspondence getCorrespondence(String source, String target, CorrespondenceRelation relation) {
+        int row = findRow(source, target, relation);
+        if(row == NONE)
+            return null;
+        return materialize(row);
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesSourceTarget(String source, String target) {
+        int targetId = dictionary.getId(target);
+        if(targetId == NONE)
+            return Collections.emptyList();
+        return collectSourceRows(dictionary.getId(source), targetId, DELETED);
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesSource(String source) {
+        return collectSourceRows(dictionary.getId(source), NONE, DELETED);
+    }
+
+    @Override
+    public synchronized boolean isSourceContained(String source) {
+        int sourceId = dictionary.getId(source);
+        if(sourceId == NONE)
+            return false;
+        for(int row = sourceHead[sourceId]; row != NONE; row = nextSameSource[row]){
+            if(relations[row] != DELETED)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesSourceRelation(String source, CorrespondenceRelation relation) {
+        return collectSourceRows(dictionary.getId(source), NONE, (byte) relation.ordinal());
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesTarget(String target) {
+        return collectTargetRows(dictionary.getId(target), DELETED);
+    }
+
+    @Override
+    public synchronized boolean isTargetContained(String target) {
+        int targetId = dictionary.getId(target);
+        if(targetId == NONE)
+            return false;
+        for(int row = targetHead[targetId]; row != NONE; row = nextSameTarget[row]){
+            if(relations[row] != DELETED)
+                return true;
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesTargetRelation(String target, CorrespondenceRelation relation) {
+        return collectTargetRows(dictionary.getId(target), (byte) relation.ordinal());
+    }
+
+    @Override
+    public synchronized Iterable<Correspondence> getCorrespondencesRelation(CorrespondenceRelation relation) {
+        byte rel = (byte) relation.ordinal();
+        List<Correspondence> list = new ArrayList<>();
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] == rel)
+                list.add(materialize(row));
+        }
+        return list;
+    }
+
+    @Override
+    public synchronized void removeCorrespondencesSourceTarget(String source, String target) {
+        int sourceId = dictionary.getId(source);
+        int targetId = dictionary.getId(target);
+        if(sourceId == NONE || targetId == NONE)
+            return;
+        for(int row = sourceHead[sourceId]; row != NONE; row = nextSameSource[row]){
+            if(relations[row] != DELETED && targets[row] == targetId)
+                deleteRow(row);
+        }
+    }
+
+    @Override
+    public synchronized void removeCorrespondencesSource(String source) {
+        int sourceId = dictionary.getId(source);
+        if(sourceId == NONE)
+            return;
+        for(int row = sourceHead[sourceId]; row != NONE; row = nextSameSource[row]){
+            if(relations[row] != DELETED)
+                deleteRow(row);
+        }
+    }
+
+    @Override
+    public synchronized void removeCorrespondencesTarget(String target) {
+        int targetId = dictionary.getId(target);
+        if(targetId == NONE)
+            return;
+        for(int row = targetHead[targetId]; row != NONE; row = nextSameTarget[row]){
+            if(relations[row] != DELETED)
+                deleteRow(row);
+        }
+    }
+
+    @Override
+    public synchronized void removeCorrespondenceExtensions() {
+        this.rowExtensions = null;
+    }
+
+    @Override
+    public synchronized void removeCorrespondenceExtensions(Iterable<String> blacklist) {
+        if(rowExtensions == null)
+            return;
+        for(int row = 0; row < rowCount; row++){
+            Map<String, Object> ext = rowExtensions[row];
+            if(ext == null)
+                continue;
+            for(String key : blacklist){
+                ext.remove(key);
+            }
+        }
+    }
+
+    @Override
+    public synchronized void removeCorrespondenceExtensionsNotIn(Set<String> whitelist) {
+        if(rowExtensions == null)
+            return;
+        for(int row = 0; row < rowCount; row++){
+            Map<String, Object> ext = rowExtensions[row];
+            if(ext != null)
+                ext.keySet().retainAll(whitelist);
+        }
+    }
+
+    @Override
+    public synchronized CompactAlignment cut(double threshold) {
+        CompactAlignment m = new CompactAlignment(this, false);
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] != DELETED && confidences[row] >= threshold)
+                m.add(materialize(row));
+        }
+        return m;
+    }
+
+    @Override
+    public CompactAlignment sample(int n, Random rnd) {
+        if(n > this.size() || n < 0) {
+            throw new IllegalArgumentException("Parameter n is out of range (smaller zero or greater than the size of current alignment.");
+        }
+        ArrayList<Correspondence> correspondenceList = new ArrayList<>(this);
+        Collections.shuffle(correspondenceList, rnd);
+        CompactAlignment samples = new CompactAlignment(this, false);
+        samples.addAll(correspondenceList.subList(0, n));
+        return samples;
+    }
+
+    @Override
+    public CompactAlignment reverseWithoutRelationChange() {
+        CompactAlignment result = new CompactAlignment(this, false);
+        for(Correspondence c : this){
+            result.add(c.reverseWithoutRelationChange());
+        }
+        return result;
+    }
+
+    @Override
+    public CompactAlignment reverse() {
+        CompactAlignment result = new CompactAlignment(this, false);
+        for(Correspondence c : this){
+            result.add(c.reverse());
+        }
+        return result;
+    }
+
+    @Override
+    public Set<String> getDistinctCorrespondenceExtensionKeys(){
+        Set<String> keys = new HashSet<>();
+        synchronized(this){
+            if(rowExtensions == null)
+                return keys;
+            for(int row = 0; row < rowCount; row++){
+                if(rowExtensions[row] != null)
+                    keys.addAll(rowExtensions[row].keySet());
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public synchronized Iterable<String> getDistinctSources(){
+        Set<String> set = new HashSet<>();
+        for(int id = 0; id < dictionary.size(); id++){
+            for(int row = sourceHead[id]; row != NONE; row = nextSameSource[row]){
+                if(relations[row] != DELETED){
+                    set.add(dictionary.getString(id));
+                    break;
+                }
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public synchronized Iterable<String> getDistinctTargets(){
+        Set<String> set = new HashSet<>();
+        for(int id = 0; id < dictionary.size(); id++){
+            for(int row = targetHead[id]; row != NONE; row = nextSameTarget[row]){
+                if(relations[row] != DELETED){
+                    set.add(dictionary.getString(id));
+                    break;
+                }
+            }
+        }
+        return set;
+    }
+
+    @Override
+    public synchronized Iterable<CorrespondenceRelation> getDistinctRelations(){
+        Set<CorrespondenceRelation> set = new HashSet<>();
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] != DELETED)
+                set.add(RELATIONS[relations[row]]);
+        }
+        return set;
+    }
+
+    @Override
+    public synchronized Iterable<Double> getDistinctConfidences(){
+        Set<Double> set = new HashSet<>();
+        for(int row = 0; row < rowCount; row++){
+            if(relations[row] != DELETED)
+                set.add(confidences[row]);
+        }
+        return set;
+    }
+
+    /**
+     * No CQEngine index is necessary because source lookups are served by a primitive index.
+     */
+    @Override
+    public void assertIndexOnSource(){ }
+
+    /**
+     * No CQEngine index is necessary because target lookups are served by a primitive index.
+     */
+    @Override
+    public void assertIndexOnTarget(){ }
+
+    /**
+     * No CQEngine index is created. Relation queries are answered by scanning the relation column.
+     */
+    @Override
+    public void assertIndexOnRelation(){ }
+
+    /**
+     * No CQEngine index is created. Confidence queries are answered by scanning the confidence column.
+     */
+    @Override
+    public void assertIndexOnConfidence(){ }
+
+    /**
+     * Removes all tombstones of deleted correspondences and unused URIs from the dictionary.
+     * This should be called after a large fraction of correspondences is removed.
+     * Do not call this method while iterating over this alignment.
+     */
+    public synchronized void compact(){
+        if(deletedCount == 0 && rowCount == sources.length)
+            return;
+        StringDictionary oldDictionary = this.dictionary;
+        int[] oldSources = this.sources;
+        int[] oldTargets = this.targets;
+        double[] oldConfidences = this.confidences;
+        byte[] oldRelations = this.relations;
+        Map<String, Object>[] oldExtensions = this.rowExtensions;
+        String[] oldIdentifiers = this.identifiers;
+        int oldRowCount = this.rowCount;
+
+        initStorage(Math.max(INITIAL_CAPACITY, size()));
+        for(int row = 0; row < oldRowCount; row++){
+            if(oldRelations[row] == DELETED)
+                continue;
+            appendRow(new Correspondence(
+                    oldDictionary.getString(oldSources[row]),
+                    oldDictionary.getString(oldTargets[row]),
+                    oldConfidences[row],
+                    RELATIONS[oldRelations[row]],
+                    oldExtensions == null ? null : oldExtensions[row],
+                    oldIdentifiers == null ? null : oldIdentifiers[row]));
+        }
+    }
+
+    /**
+     * Returns a CQEngine backed {@link Alignment} with all indexes which contains the same information as this alignment.
+     * @return a new alignment
+     */
+    public Alignment toAlignment(){
+        Alignment alignment = new Alignment();
+        alignment.setMethod(this.method);
+        alignment.setType(this.type);
+        alignment.setLevel(this.level);
+        alignment.setOnto1(new OntoInfo(this.onto1));
+        alignment.setOnto2(new OntoInfo(this.onto2));
+        alignment.setExtensions(this.extensions == null ? new HashMap<>() : new HashMap<>(this.extensions));
+        alignment.addAll(this);
+        return alignment;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if(o == this)
+            return true;
+        if(!(o instanceof Set))
+            return false;
+        Set<?> other = (Set<?>) o;
+        if(other.size() != size())
+            return false;
+        return containsAll(other);
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for(Correspondence c : this){
+            h += c.hashCode();
+        }
+        return h;
+    }
+
+    /**
+     * Iterator over all rows which are not deleted.
+     */
+    private class RowIterator implements CloseableIterator<Correspondence> {
+        private int nextRow = -1;
+        private int lastRow = NONE;
+
+        RowIterator(){
+            advance();
+        }
+
+        private void advance(){
+            nextRow++;
+            while(nextRow < rowCount && relations[nextRow] == DELETED){
+                nextRow++;
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if(nextRow < rowCount && relations[nextRow] == DELETED)
+                advance();
+            return nextRow < rowCount;
+        }
+
+        @Override
+        public Correspondence next() {
+            if(!hasNext())
+                throw new NoSuchElementException();
+            lastRow = nextRow;
+            advance();
+            return materialize(lastRow);
+        }
+
+        @Override
+        public void remove() {
+            if(lastRow == NONE)
+                throw new IllegalStateException();
+            synchronized(CompactAlignment.this){
+                if(relations[lastRow] != DELETED)
+                    deleteRow(lastRow);
+            }
+            lastRow = NONE;
+        }
+
+        @Override
+        public void close() { }
+    }
+
+    /**
+     * Correspondence of a row which writes changes of the confidence and the identifier back to the row.
+     */
+    private class RowCorrespondence extends Correspondence {
+        private final int row;
+        private final int rowGeneration;
+
+        RowCorrespondence(int row, Map<String, Object> extensions){
+            super(dictionary.getString(sources[row]),
+                dictionary.getString(targets[row]),
+                confidences[row],
+                RELATIONS[relations[row]],
+                extensions,
+                identifiers == null ? null : identifiers[row]);
+            this.row = row;
+            this.rowGeneration = generation;
+        }
+
+        @Override
+        public void setConfidence(double confidence) {
+            super.setConfidence(confidence);
+            synchronized(CompactAlignment.this){
+                if(isRowValid(row, rowGeneration))
+                    confidences[row] = confidence;
+            }
+        }
+
+        @Override
+        public void setIdentifier(String identifier) {
+            super.setIdentifier(identifier);
+            synchronized(CompactAlignment.this){
+                if(isRowValid(row, rowGeneration)){
+                    if(identifiers == null){
+                        if(identifier == null)
+                            return;
+                        identifiers = new String[sources.length];
+                    }
+                    identifiers[row] = identifier;
+                }
+            }
+        }
+
+        @Override
+        public void setEntityOne(String entityOne) {
+            throw new UnsupportedOperationException("The source of a correspondence in a CompactAlignment cannot be changed. Remove it and add a new one.");
+        }
+
+        @Override
+        public void setEntityTwo(String entityTwo) {
+            throw new UnsupportedOperationException("The target of a correspondence in a CompactAlignment cannot be changed. Remove it and add a new one.");
+        }
+
+        @Override
+        public void setRelation(CorrespondenceRelation relation) {
+            throw new UnsupportedOperationException("The relation of a correspondence in a CompactAlignment cannot be changed. Remove it and add a new one.");
+        }
+    }
+
+    /**
+     * Extension map of a correspondence which had no extensions when it was materialized.
+     * As soon as a value is added, the map is attached to the row such that the change is visible in this alignment.
+     */
+    private class RowExtensionMap extends HashMap<String, Object> {
+        private static final long serialVersionUID = 1L;
+        private final int row;
+        private final int rowGeneration;
+        private boolean attached;
+
+        RowExtensionMap(int row){
+            super(4);
+            this.row = row;
+            this.rowGeneration = generation;
+            this.attached = false;
+        }
+
+        private void attach(){
+            if(attached)
+                return;
+            attached = true;
+            synchronized(CompactAlignment.this){
+                if(isRowValid(row, rowGeneration) && getRowExtensions(row) == null)
+                    setRowExtensions(row, this);
+            }
+        }
+
+        @Override
+        public Object put(String key, Object value) {
+            Object o = super.put(key, value);
+            attach();
+            return o;
+        }
+
+        @Override
+        public void putAll(Map<? extends String, ? extends Object> m) {
+            super.putAll(m);
+            if(!m.isEmpty())
+                attach();
+        }
+
+        @Override
+        public Object putIfAbsent(String key, Object value) {
+            Object o = super.putIfAbsent(key, value);
+            attach();
+            return o;
+        }
+
+        @Override
+        public Object computeIfAbsent(String key, Function<? super String, ? extends Object> mappingFunction) {
+            Object o = super.computeIfAbsent(key, mappingFunction);
+            attach();
+            return o;
+        }
+
+        @Override
+        public Object compute(String key, BiFunction<? super String, ? super Object, ? extends Object> remappingFunction) {
+            Object o = super.compute(key, remappingFunction);
+            attach();
+            return o;
+        }
+
+        @Override
+        public Object merge(String key, Object value, BiFunction<? super Object, ? super Object, ? extends Object> remappingFunction) {
+            Object o = super.merge(key, value, remappingFunction);
+            attach();
+            return o;
+        }
+    }
+
+    /**
+     * Dictionary which maps strings to consecutive integer ids and back.
+     * It uses an open addressing hash table with linear probing.
+     */
+    static class StringDictionary {
+        private String[] strings;
+        private int[] table;
+        private int size;
+
+        StringDictionary(int expectedSize){
+            this.strings = new String[Math.max(INITIAL_CAPACITY, expectedSize)];
+            this.table = newFilledArray(tableSizeFor(expectedSize));
+            this.size = 0;
+        }
+
+        int getId(String s){
+            if(s == null)
+                return NONE;
+            int mask = table.length - 1;
+            int slot = spread(s.hashCode()) & mask;
+            while(true){
+                int id = table[slot];
+                if(id == NONE)
+                    return NONE;
+                if(strings[id].equals(s))
+                    return id;
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        int getOrCreateId(String s){
+            int mask = table.length - 1;
+            int slot = spread(s.hashCode()) & mask;
+            while(true){
+                int id = table[slot];
+                if(id == NONE)
+                    break;
+                if(strings[id].equals(s))
+                    return id;
+                slot = (slot + 1) & mask;
+            }
+            int id = size++;
+            if(id >= strings.length)
+                strings = Arrays.copyOf(strings, strings.length + (strings.length >> 1));
+            strings[id] = s;
+            table[slot] = id;
+            if((size << 1) > table.length)
+                rehash(table.length << 1);
+            return id;
+        }
+
+        String getString(int id){
+            return strings[id];
+        }
+
+        int size(){
+            return size;
+        }
+
+        private void rehash(int newSize){
+            int[] newTable = newFilledArray(newSize);
+            int mask = newSize - 1;
+            for(int id = 0; id < size; id++){
+                int slot = spread(strings[id].hashCode()) & mask;
+                while(newTable[slot] != NONE){
+                    slot = (slot + 1) & mask;
+                }
+                newTable[slot] = id;
+            }
+            this.table = newTable;
+        }
+
+        private static int spread(int h){
+            h *= 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AbstractTypeTransformer;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.basetransformers.TypeTransformerHelper;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentBinarySerializer;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.Properties;
+
+/**
+ * Transforms an alignment to a file URL in the binary alignment format (see {@link AlignmentBinarySerializer}).
+ * It is only cheaper than the {@link Alignment2URLTransformer} (and thus chosen by the registry) if the parameter
+ * {@link ParameterConfigKeys#USE_BINARY_ALIGNMENT_FORMAT} is set to true.
+ */
+public class Alignment2BinaryURLTransformer extends AbstractTypeTransformer<Alignment, URL>{
+    
+    private static final String FILE_PREFIX = "alignment";
+    private static final String FILE_SUFFIX = ".mbal";
+
+    public Alignment2BinaryURLTransformer() {
+        super(Alignment.class, URL.class);
+    }
+    
+    @Override
+    public URL transform(Alignment value, Properties parameters) throws TypeTransformationException {
+        try{
+            File serializationFile = TypeTransformerHelper.getRandomSerializationFile(parameters, FILE_PREFIX, FILE_SUFFIX);
+            AlignmentBinarySerializer.serialize(value, serializationFile);
+            return serializationFile.toURI().toURL();
+        }catch(IOException e){
+            throw new TypeTransformationException("Could not transform Alignment to binary URL", e);
+        }
+    }
+
+    @Override
+    public int getTransformationCost(Properties parameters) {
+        return getBinaryTransformationCost(parameters);
+    }
+    
+    /**
+     * Returns the cost for the binary transformers which is lower than the XML based transformers
+     * if {@link ParameterConfigKeys#USE_BINARY_ALIGNMENT_FORMAT} is true and higher otherwise.
+     * @param parameters the parameters
+     * @return the transformation cost
+     */
+    static int getBinaryTransformationCost(Properties parameters){
+        if(parameters != null && TypeTransformerHelper.getOrDefault(parameters, ParameterConfigKeys.USE_BINARY_ALIGNMENT_FORMAT, Boolean.class, false)){
+            return 20;
+        }
+        return 40;
+    }
+}
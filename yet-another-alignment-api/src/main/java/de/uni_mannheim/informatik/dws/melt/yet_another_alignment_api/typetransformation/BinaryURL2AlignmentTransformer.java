@@ -0,0 +1,57 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.AbstractTypeTransformer;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.Alignment;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.AlignmentBinaryParser;
+import java.io.File;
+import java.io.IOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.Paths;
+import java.util.Properties;
+
+/**
+ * Transforms a URL in the binary alignment format (see {@link AlignmentBinaryParser}) to an alignment.
+ * Local files are memory mapped. If the URL does not point to a binary alignment, the transformation
+ * falls back to the {@link URL2AlignmentTransformer}, thus it can be used for both formats.
+ * It is only cheaper than the {@link URL2AlignmentTransformer} (and thus chosen by the registry) if the parameter
+ * {@link ParameterConfigKeys#USE_BINARY_ALIGNMENT_FORMAT} is set to true.
+ */
+public class BinaryURL2AlignmentTransformer extends AbstractTypeTransformer<URL, Alignment> {
+    
+    private static final URL2AlignmentTransformer XML_TRANSFORMER = new URL2AlignmentTransformer();
+    
+    public BinaryURL2AlignmentTransformer() {
+        super(URL.class, Alignment.class);
+    }
+
+    @Override
+    public Alignment transform(URL value, Properties parameters) throws TypeTransformationException {
+        File file = getFile(value);
+        if(file == null || !AlignmentBinaryParser.isBinaryAlignmentFile(file)){
+            return XML_TRANSFORMER.transform(value, parameters);
+        }
+        try {
+            return AlignmentBinaryParser.parse(file);
+        } catch (IOException e) {
+            throw new TypeTransformationException("Could not transform binary URL to Alignment", e);
+        }
+    }
+
+    @Override
+    public int getTransformationCost(Properties parameters) {
+        return Alignment2BinaryURLTransformer.getBinaryTransformationCost(parameters);
+    }
+    
+    private static File getFile(URL url){
+        if(!url.getProtocol().equalsIgnoreCase("file"))
+            return null;
+        try {
+            return Paths.get(url.toURI()).toFile();
+        } catch (URISyntaxException | IllegalArgumentException ex) {
+            return null;
+        }
+    }
+}
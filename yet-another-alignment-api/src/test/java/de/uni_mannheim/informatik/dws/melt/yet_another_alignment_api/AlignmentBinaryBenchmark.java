@@ -0,0 +1,100 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.xml.sax.SAXException;
+
+/**
+ * JMH comparison of the XML based alignment format ({@link AlignmentSerializer} / {@link AlignmentParser})
+ * and the binary alignment format ({@link AlignmentBinarySerializer} / {@link AlignmentBinaryParser}).
+ * This is not a unit test. Run the main method (or the JMH runner) to execute it.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class AlignmentBinaryBenchmark {
+
+    @Param({"10000", "100000"})
+    private int numberOfCorrespondences;
+
+    private Alignment alignment;
+    private File xmlFile;
+    private File binaryFile;
+
+    @Setup
+    public void setup() throws IOException{
+        alignment = AlignmentGenerator.generateRandomAlignment(numberOfCorrespondences);
+        xmlFile = File.createTempFile("alignment", ".rdf");
+        binaryFile = File.createTempFile("alignment", ".mbal");
+        AlignmentSerializer.serialize(alignment, xmlFile);
+        AlignmentBinarySerializer.serialize(alignment, binaryFile);
+    }
+
+    @TearDown
+    public void tearDown(){
+        xmlFile.delete();
+        binaryFile.delete();
+    }
+
+    @Benchmark
+    public File writeXml() throws IOException{
+        AlignmentSerializer.serialize(alignment, xmlFile);
+        return xmlFile;
+    }
+
+    @Benchmark
+    public File writeBinary() throws IOException{
+        AlignmentBinarySerializer.serialize(alignment, binaryFile);
+        return binaryFile;
+    }
+
+    @Benchmark
+    public Alignment readXml() throws IOException, SAXException{
+        return AlignmentParser.parse(xmlFile);
+    }
+
+    @Benchmark
+    public Alignment readBinary() throws IOException{
+        return AlignmentBinaryParser.parse(binaryFile, false);
+    }
+
+    @Benchmark
+    public Alignment readBinaryMemoryMapped() throws IOException{
+        return AlignmentBinaryParser.parse(binaryFile, true);
+    }
+
+    @Benchmark
+    public Alignment readBinaryIntoCompactAlignment() throws IOException{
+        CompactAlignment compact = new CompactAlignment();
+        AlignmentBinaryParser.parse(binaryFile, true, compact);
+        return compact;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(AlignmentBinaryBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(opt).run();
+    }
+}
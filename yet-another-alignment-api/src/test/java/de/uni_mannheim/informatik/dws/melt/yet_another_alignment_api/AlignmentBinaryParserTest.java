@@ -0,0 +1,142 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import de.uni_mannheim.informatik.dws.melt.matching_base.ParameterConfigKeys;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformationException;
+import de.uni_mannheim.informatik.dws.melt.matching_base.typetransformer.TypeTransformerRegistry;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation.Alignment2BinaryURLTransformer;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation.Alignment2URLTransformer;
+import de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api.typetransformation.BinaryURL2AlignmentTransformer;
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Properties;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.SAXException;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlignmentBinaryParserTest {
+
+    @TempDir
+    File tempDir;
+
+    private static Alignment getAlignmentWithExtensions(){
+        Alignment alignment = AlignmentGenerator.generateRandomAlignment(1000);
+        alignment.setMethod("binaryTest");
+        alignment.setOnto1(new OntoInfo("http://source", "http://source/location"));
+        alignment.getOnto2().setOntoID("http://target");
+        alignment.getOnto2().setFormalism("owl");
+        alignment.getOnto2().setFormalismURI("http://www.w3.org/2002/07/owl#");
+        alignment.addExtensionValue("http://www.extension.com#alignmentLabel", "äöü € 中文");
+
+        Correspondence c = new Correspondence("http://one#a", "http://two#b", 0.3, CorrespondenceRelation.SUBSUME);
+        c.setIdentifier("http://cell#1");
+        c.addExtensionValue("http://www.extension.com#string", "<value>");
+        c.addExtensionValue("http://www.extension.com#double", 0.25);
+        c.addExtensionValue("http://www.extension.com#integer", 42);
+        c.addExtensionValue("http://www.extension.com#long", 1L << 40);
+        c.addExtensionValue("http://www.extension.com#boolean", true);
+        c.addExtensionValue("http://www.extension.com#other", Arrays.asList("a", "b"));
+        alignment.add(c);
+        return alignment;
+    }
+
+    private static void assertSameContent(Alignment expected, Alignment actual){
+        assertEquals(expected, actual);
+        assertEquals(expected.getMethod(), actual.getMethod());
+        assertEquals(expected.getOnto1().getOntoID(), actual.getOnto1().getOntoID());
+        assertEquals(expected.getOnto1().getOntoLocation(), actual.getOnto1().getOntoLocation());
+        assertEquals(expected.getOnto2().getFormalism(), actual.getOnto2().getFormalism());
+        assertEquals(expected.getOnto2().getFormalismURI(), actual.getOnto2().getFormalismURI());
+        assertEquals(expected.getExtensions(), actual.getExtensions());
+        for(Correspondence c : expected){
+            Correspondence other = actual.getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation());
+            assertEquals(c.getConfidence(), other.getConfidence());
+            assertEquals(c.getIdentifier(), other.getIdentifier());
+        }
+    }
+
+    @Test
+    public void testRoundTripBytes() throws IOException {
+        Alignment alignment = getAlignmentWithExtensions();
+        Alignment parsed = AlignmentBinaryParser.parse(AlignmentBinarySerializer.serialize(alignment));
+        assertSameContent(alignment, parsed);
+
+        Correspondence c = parsed.getCorrespondence("http://one#a", "http://two#b", CorrespondenceRelation.SUBSUME);
+        assertEquals("<value>", c.getExtensionValue("http://www.extension.com#string"));
+        assertEquals(0.25, c.getExtensionValue("http://www.extension.com#double"));
+        assertEquals(42, c.getExtensionValue("http://www.extension.com#integer"));
+        assertEquals(1L << 40, c.getExtensionValue("http://www.extension.com#long"));
+        assertEquals(true, c.getExtensionValue("http://www.extension.com#boolean"));
+        assertEquals("[a, b]", c.getExtensionValue("http://www.extension.com#other"));
+    }
+
+    @Test
+    public void testRoundTripFile() throws IOException {
+        Alignment alignment = getAlignmentWithExtensions();
+        File file = new File(tempDir, "alignment.mbal");
+        AlignmentBinarySerializer.serialize(alignment, file);
+        assertTrue(AlignmentBinaryParser.isBinaryAlignmentFile(file));
+        assertSameContent(alignment, AlignmentBinaryParser.parse(file, true));
+        assertSameContent(alignment, AlignmentBinaryParser.parse(file, false));
+        assertSameContent(alignment, AlignmentBinaryParser.parse(file.toURI().toURL()));
+
+        CompactAlignment compact = new CompactAlignment();
+        AlignmentBinaryParser.parse(file, true, compact);
+        assertEquals(alignment.size(), compact.size());
+    }
+
+    @Test
+    public void testGzip() throws IOException {
+        Alignment alignment = getAlignmentWithExtensions();
+        File file = new File(tempDir, "alignment.mbal.gz");
+        AlignmentBinarySerializer.serialize(alignment, file);
+        assertFalse(AlignmentBinaryParser.isBinaryAlignmentFile(file));
+        assertSameContent(alignment, AlignmentBinaryParser.parse(file));
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        Alignment parsed = AlignmentBinaryParser.parse(AlignmentBinarySerializer.serialize(new Alignment()));
+        assertTrue(parsed.isEmpty());
+    }
+
+    @Test
+    public void testInvalidContent() {
+        assertThrows(IOException.class, () -> AlignmentBinaryParser.parse(new File("src/test/resources/LogMap-cmt-conference.rdf")));
+        byte[] bytes = AlignmentBinarySerializer.serialize(getAlignmentWithExtensions());
+        assertThrows(IOException.class, () -> AlignmentBinaryParser.parse(new ByteArrayInputStream(Arrays.copyOf(bytes, bytes.length / 2))));
+
+        //number of correspondences where count * record size overflows an int (2^32 + 4)
+        byte[] empty = AlignmentBinarySerializer.serialize(new Alignment());
+        ByteBuffer.wrap(empty).putInt(empty.length - 8, 171798692);
+        IOException ex = assertThrows(IOException.class, () -> AlignmentBinaryParser.parse(empty));
+        assertTrue(ex.getMessage().contains("171798692"));
+    }
+
+    @Test
+    public void testTransformerSelection() throws TypeTransformationException, IOException, SAXException {
+        Alignment alignment = getAlignmentWithExtensions();
+
+        //XML is the default
+        assertEquals(Alignment2URLTransformer.class,
+                TypeTransformerRegistry.getClassTransformationRoute(Alignment.class, URL.class).getTransformations().get(0).getClass());
+
+        Properties binary = new Properties();
+        binary.put(ParameterConfigKeys.USE_BINARY_ALIGNMENT_FORMAT, true);
+        assertEquals(Alignment2BinaryURLTransformer.class,
+                TypeTransformerRegistry.getClassTransformationRoute(Alignment.class, URL.class, binary).getTransformations().get(0).getClass());
+        assertEquals(BinaryURL2AlignmentTransformer.class,
+                TypeTransformerRegistry.getClassTransformationRoute(URL.class, Alignment.class, binary).getTransformations().get(0).getClass());
+
+        URL url = TypeTransformerRegistry.getTransformedObject(alignment, URL.class, binary);
+        assertSameContent(alignment, TypeTransformerRegistry.getTransformedObject(url, Alignment.class, binary));
+
+        //XML files can also be read by the binary transformer
+        URL xmlUrl = new File("src/test/resources/LogMap-cmt-conference.rdf").toURI().toURL();
+        assertEquals(AlignmentParser.parse(xmlUrl), new BinaryURL2AlignmentTransformer().transform(xmlUrl, binary));
+    }
+}
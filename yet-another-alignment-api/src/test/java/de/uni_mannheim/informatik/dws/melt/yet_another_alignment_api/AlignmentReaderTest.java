@@ -0,0 +1,124 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.xml.sax.SAXException;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AlignmentReaderTest {
+
+    @TempDir
+    File tempDir;
+
+    @Test
+    public void testSameAsParser() throws IOException, SAXException {
+        File alignmentFile = new File("src/test/resources/LogMap-cmt-conference.rdf");
+        Alignment expected = AlignmentParser.parse(alignmentFile);
+        Alignment actual = new Alignment();
+        try(AlignmentReader reader = new AlignmentReader(alignmentFile)){
+            while(reader.hasNext()){
+                actual.add(reader.next());
+            }
+            assertEquals(expected.getOnto1().getOntoID(), reader.getHeader().getOnto1().getOntoID());
+            assertEquals(expected.getOnto2().getOntoLocation(), reader.getHeader().getOnto2().getOntoLocation());
+        }
+        assertEquals(11, actual.size());
+        assertEquals(expected, actual);
+        for(Correspondence c : actual){
+            assertEquals(expected.getCorrespondence(c.getEntityOne(), c.getEntityTwo(), c.getRelation()).getConfidence(), c.getConfidence());
+        }
+    }
+
+    @Test
+    public void testExtensions() throws IOException {
+        try(AlignmentReader reader = new AlignmentReader(new File("src/test/resources/alignment_extension_test.rdf"))){
+            assertEquals("alignment extension value 1", reader.getHeader().getExtensionValue("http://www.alignment_extension_1.com/extensionLabel_1"));
+            assertEquals("alignment extension value 2", reader.getHeader().getExtensionValue("http://www.alignment_extension_2.com#extensionLabel_2"));
+            Correspondence c = reader.stream()
+                    .filter(x -> x.getEntityOne().equals("http://cmt#assignExternalReviewer"))
+                    .findFirst().get();
+            assertEquals("correspondence extension value 1", c.getExtensionValue("http://www.correspondence_extension_1.com/extensionLabel_1"));
+            assertEquals("correspondence extension value 2", c.getExtensionValue("http://www.correspondence_extension_2.com#extensionLabel_2"));
+        }
+    }
+
+    @Test
+    public void testWriterRoundTrip() throws IOException, SAXException {
+        Alignment alignment = AlignmentGenerator.generateRandomAlignment(1000);
+        alignment.getOnto1().setOntoID("http://source");
+        alignment.addExtensionValue("http://www.extension.com#alignmentLabel", "a & b");
+        Correspondence withIdentifier = new Correspondence("http://one#a", "http://two#b", 0.3, CorrespondenceRelation.SUBSUME);
+        withIdentifier.setIdentifier("http://cell#1");
+        withIdentifier.addExtensionValue("http://www.extension.com#label", "<value>");
+        alignment.add(withIdentifier);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        try(AlignmentWriter writer = new AlignmentWriter(out, alignment)){
+            writer.writeAll(alignment);
+        }
+        assertEquals(AlignmentSerializer.serialize(alignment), new String(out.toByteArray(), StandardCharsets.UTF_8));
+
+        //SAX parser can also read it
+        Alignment parsed = AlignmentParser.parse(new ByteArrayInputStream(out.toByteArray()));
+        assertEquals(alignment, parsed);
+        assertEquals("a & b", parsed.getExtensionValue("http://www.extension.com#alignmentLabel"));
+        assertEquals("http://cell#1", parsed.getCorrespondence("http://one#a", "http://two#b", CorrespondenceRelation.SUBSUME).getIdentifier());
+
+        try(AlignmentReader reader = new AlignmentReader(new ByteArrayInputStream(out.toByteArray()))){
+            assertEquals("http://source", reader.getHeader().getOnto1().getOntoID());
+            assertEquals("a & b", reader.getHeader().getExtensionValue("http://www.extension.com#alignmentLabel"));
+            Alignment read = new Alignment(reader.stream().collect(Collectors.toList()));
+            assertEquals(alignment, read);
+            Correspondence c = read.getCorrespondence("http://one#a", "http://two#b", CorrespondenceRelation.SUBSUME);
+            assertEquals("http://cell#1", c.getIdentifier());
+            assertEquals("<value>", c.getExtensionValue("http://www.extension.com#label"));
+        }
+    }
+
+    @Test
+    public void testGzip() throws IOException, SAXException {
+        Alignment alignment = AlignmentGenerator.generateRandomAlignment(500);
+        File gzipFile = new File(tempDir, "alignment.rdf.gz");
+        alignment.serialize(gzipFile);
+
+        //check that it is really compressed
+        try(InputStream in = new GZIPInputStream(new FileInputStream(gzipFile))){
+            assertTrue(in.read() >= 0);
+        }
+
+        assertEquals(alignment, new Alignment(gzipFile));
+        try(Stream<Correspondence> stream = new AlignmentReader(gzipFile).stream()){
+            assertEquals(500, stream.count());
+        }
+    }
+
+    @Test
+    public void testEmpty() throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        new AlignmentWriter(out).close();
+        try(AlignmentReader reader = new AlignmentReader(new ByteArrayInputStream(out.toByteArray()))){
+            assertFalse(reader.hasNext());
+        }
+    }
+
+    @Test
+    public void testUnparsable() {
+        assertThrows(IOException.class, () -> {
+            try(AlignmentReader reader = new AlignmentReader(new File("src/test/resources/unparsable_alignment.rdf"))){
+                while(reader.hasNext()){
+                    reader.next();
+                }
+            }
+        });
+    }
+}
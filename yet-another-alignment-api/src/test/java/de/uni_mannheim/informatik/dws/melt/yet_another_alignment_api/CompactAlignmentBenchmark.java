@@ -0,0 +1,132 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * JMH comparison of the CQEngine backed {@link Alignment} and the {@link CompactAlignment}.
+ * This is not a unit test. Run the main method (or the JMH runner) to execute it.
+ * The GC profiler is enabled to also compare the allocation rate.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgs = {"-Xmx4g"})
+@State(Scope.Benchmark)
+public class CompactAlignmentBenchmark {
+
+    @Param({"100000", "1000000"})
+    private int numberOfCorrespondences;
+
+    @Param({"cqengine", "compact"})
+    private String implementation;
+
+    private String[] sources;
+    private String[] targets;
+    private double[] confidences;
+    private Alignment filled;
+
+    @Setup
+    public void setup(){
+        Random rnd = new Random(1234);
+        int numberOfEntities = Math.max(1, numberOfCorrespondences / 5);
+        sources = new String[numberOfCorrespondences];
+        targets = new String[numberOfCorrespondences];
+        confidences = new double[numberOfCorrespondences];
+        for(int i = 0; i < numberOfCorrespondences; i++){
+            sources[i] = "http://exampleLeftWithALongURI/" + rnd.nextInt(numberOfEntities);
+            targets[i] = "http://exampleRightWithALongURI/" + rnd.nextInt(numberOfEntities);
+            confidences[i] = rnd.nextDouble();
+        }
+        filled = fill();
+    }
+
+    private Alignment newAlignment(){
+        if(implementation.equals("compact"))
+            return new CompactAlignment();
+        return new Alignment();
+    }
+
+    private Alignment fill(){
+        Alignment alignment = newAlignment();
+        for(int i = 0; i < numberOfCorrespondences; i++){
+            alignment.add(sources[i], targets[i], confidences[i]);
+        }
+        return alignment;
+    }
+
+    @Benchmark
+    public Alignment build(){
+        return fill();
+    }
+
+    @Benchmark
+    public void addOrUseHighestConfidence(Blackhole bh){
+        Alignment alignment = newAlignment();
+        for(int i = 0; i < numberOfCorrespondences; i++){
+            bh.consume(alignment.addOrUseHighestConfidence(sources[i], targets[i % 1000], confidences[i]));
+        }
+    }
+
+    @Benchmark
+    public void lookupSource(Blackhole bh){
+        for(int i = 0; i < numberOfCorrespondences; i += 10){
+            for(Correspondence c : filled.getCorrespondencesSource(sources[i])){
+                bh.consume(c);
+            }
+        }
+    }
+
+    @Benchmark
+    public void lookupTarget(Blackhole bh){
+        for(int i = 0; i < numberOfCorrespondences; i += 10){
+            for(Correspondence c : filled.getCorrespondencesTarget(targets[i])){
+                bh.consume(c);
+            }
+        }
+    }
+
+    @Benchmark
+    public void contains(Blackhole bh){
+        for(int i = 0; i < numberOfCorrespondences; i++){
+            bh.consume(filled.contains(new Correspondence(sources[i], targets[i])));
+        }
+    }
+
+    @Benchmark
+    public void iterate(Blackhole bh){
+        for(Correspondence c : filled){
+            bh.consume(c);
+        }
+    }
+
+    @Benchmark
+    public Alignment cut(){
+        return filled.cut(0.5);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(CompactAlignmentBenchmark.class.getSimpleName())
+                .addProfiler("gc")
+                .build();
+        new Runner(opt).run();
+    }
+}
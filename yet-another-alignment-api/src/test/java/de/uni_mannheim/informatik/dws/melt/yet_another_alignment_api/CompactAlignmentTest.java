@@ -0,0 +1,244 @@
+package de.uni_mannheim.informatik.dws.melt.yet_another_alignment_api;
+
+import com.googlecode.cqengine.query.QueryFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CompactAlignmentTest {
+
+    @Test
+    public void testEmpty(){
+        CompactAlignment m = new CompactAlignment();
+        assertTrue(m.isEmpty());
+        assertFalse(m.iterator().hasNext());
+        assertThrows(NoSuchElementException.class, () -> {m.iterator().next();});
+    }
+
+    @Test
+    public void testAddAndContains(){
+        CompactAlignment m = new CompactAlignment();
+        assertTrue(m.add(new Correspondence("a", "b", 0.5)));
+        assertFalse(m.add(new Correspondence("a", "b", 0.8)));
+        assertTrue(m.add(new Correspondence("a", "b", 0.8, CorrespondenceRelation.SUBSUME)));
+        m.add("a", "c", 0.3);
+        m.add("d", "b", 0.4);
+
+        assertEquals(4, m.size());
+        assertTrue(m.contains(new Correspondence("a", "b")));
+        assertTrue(m.contains(new Correspondence("a", "b", 0.1, CorrespondenceRelation.SUBSUME)));
+        assertFalse(m.contains(new Correspondence("a", "d")));
+        assertFalse(m.contains(new Correspondence("x", "y")));
+        assertEquals(0.5, m.getCorrespondence("a", "b", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+    }
+
+    @Test
+    public void testSourceTargetLookup(){
+        CompactAlignment m = new CompactAlignment();
+        m.add("a", "b");
+        m.add("a", "c");
+        m.add("d", "c");
+        m.add("a", "c", CorrespondenceRelation.SUBSUMED);
+
+        assertEquals(3, Alignment.makeList(m.getCorrespondencesSource("a")).size());
+        assertEquals(2, Alignment.makeList(m.getCorrespondencesSourceRelation("a", CorrespondenceRelation.EQUIVALENCE)).size());
+        assertEquals(3, Alignment.makeList(m.getCorrespondencesTarget("c")).size());
+        assertEquals(2, Alignment.makeList(m.getCorrespondencesSourceTarget("a", "c")).size());
+        assertEquals(0, Alignment.makeList(m.getCorrespondencesSource("b")).size());
+        assertTrue(m.isSourceContained("d"));
+        assertFalse(m.isSourceContained("c"));
+        assertTrue(m.isTargetContained("c"));
+        assertEquals(new HashSet<>(Arrays.asList("a", "d")), m.getDistinctSourcesAsSet());
+        assertEquals(new HashSet<>(Arrays.asList("b", "c")), m.getDistinctTargetsAsSet());
+    }
+
+    @Test
+    public void testRemove(){
+        CompactAlignment m = new CompactAlignment();
+        m.add("a", "b");
+        m.add("a", "c");
+        m.add("d", "c");
+
+        assertTrue(m.remove(new Correspondence("a", "b")));
+        assertFalse(m.remove(new Correspondence("a", "b")));
+        assertEquals(2, m.size());
+        assertEquals(1, Alignment.makeList(m.getCorrespondencesSource("a")).size());
+
+        m.removeCorrespondencesTarget("c");
+        assertTrue(m.isEmpty());
+
+        m.add("a", "b");
+        assertEquals(1, m.size());
+        m.compact();
+        assertEquals(1, m.size());
+        assertTrue(m.contains(new Correspondence("a", "b")));
+    }
+
+    @Test
+    public void testIteratorRemove(){
+        CompactAlignment m = new CompactAlignment();
+        for(int i = 0; i < 100; i++){
+            m.add("s" + i, "t" + i, i / 100.0);
+        }
+        Iterator<Correspondence> it = m.iterator();
+        while(it.hasNext()){
+            if(it.next().getConfidence() < 0.5)
+                it.remove();
+        }
+        assertEquals(50, m.size());
+        for(Correspondence c : m){
+            assertTrue(c.getConfidence() >= 0.5);
+        }
+    }
+
+    @Test
+    public void testAddOrUseHighestConfidence(){
+        CompactAlignment m = new CompactAlignment();
+        m.addOrUseHighestConfidence("a", "b", 0.5);
+        m.addOrUseHighestConfidence("a", "b", 0.3);
+        assertEquals(0.5, m.getCorrespondence("a", "b", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+        m.addOrUseHighestConfidence("a", "b", 0.7);
+        assertEquals(0.7, m.getCorrespondence("a", "b", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+        m.addOrModify(new Correspondence("a", "b", 0.1));
+        assertEquals(0.1, m.getCorrespondence("a", "b", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+        assertEquals(1, m.size());
+    }
+
+    @Test
+    public void testAddOrModifyReturnsRowView(){
+        CompactAlignment m = new CompactAlignment();
+        Correspondence added = m.addOrModify(new Correspondence("a", "b", 0.5));
+        added.setConfidence(0.8);
+        assertEquals(0.8, m.getCorrespondence("a", "b", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+        Correspondence modified = m.addOrModify(new Correspondence("a", "b", 0.4));
+        modified.setConfidence(0.6);
+        assertEquals(0.6, m.getCorrespondence("a", "b", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+
+        Correspondence highest = m.addOrUseHighestConfidence(new Correspondence("c", "d", 0.5));
+        highest.addExtensionValue("http://example.com/ext", "foo");
+        assertEquals("foo", m.getCorrespondence("c", "d", CorrespondenceRelation.EQUIVALENCE).getExtensionValue("http://example.com/ext"));
+        highest = m.addOrUseHighestConfidence(new Correspondence("c", "d", 0.7));
+        highest.setConfidence(0.2);
+        assertEquals(0.2, m.getCorrespondence("c", "d", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+    }
+
+    @Test
+    public void testExtensionsAreWrittenBack(){
+        CompactAlignment m = new CompactAlignment();
+        m.add("a", "b");
+        m.add("c", "d");
+        for(Correspondence c : m){
+            if(c.getEntityOne().equals("a"))
+                c.addExtensionValue("http://example.com/ext", "value");
+        }
+        assertEquals("value", m.getCorrespondence("a", "b", CorrespondenceRelation.EQUIVALENCE).getExtensionValue("http://example.com/ext"));
+        assertNull(m.getCorrespondence("c", "d", CorrespondenceRelation.EQUIVALENCE).getExtensionValue("http://example.com/ext"));
+        assertEquals(new HashSet<>(Arrays.asList("http://example.com/ext")), m.getDistinctCorrespondenceExtensionKeys());
+
+        m.addAdditionalConfidence("c", "d", CompactAlignmentTest.class, 0.4);
+        assertEquals(0.4, m.getCorrespondence("c", "d", CorrespondenceRelation.EQUIVALENCE).getAdditionalConfidence(CompactAlignmentTest.class));
+
+        m.removeCorrespondenceExtensions();
+        assertTrue(m.getDistinctCorrespondenceExtensionKeys().isEmpty());
+    }
+
+    @Test
+    public void testCorrespondenceChangesAreWrittenBack(){
+        CompactAlignment m = new CompactAlignment();
+        m.add("a", "b", 0.5);
+        m.add("a", "c", 0.6);
+
+        Correspondence c = m.getCorrespondence("a", "b", CorrespondenceRelation.EQUIVALENCE);
+        c.setConfidence(0.9);
+        c.setIdentifier("id1");
+        c.addExtensionValue("http://example.com/ext", "foo");
+
+        Correspondence readBack = m.getCorrespondence("a", "b", CorrespondenceRelation.EQUIVALENCE);
+        assertEquals(0.9, readBack.getConfidence());
+        assertEquals("id1", readBack.getIdentifier());
+        assertEquals("foo", readBack.getExtensionValue("http://example.com/ext"));
+        assertEquals(0.6, m.getCorrespondence("a", "c", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+
+        for(Correspondence x : m.getCorrespondencesSource("a")){
+            x.setConfidence(0.1);
+        }
+        for(Correspondence x : m){
+            assertEquals(0.1, x.getConfidence());
+        }
+        assertEquals(0, m.cut(0.5).size());
+
+        assertThrows(UnsupportedOperationException.class, () -> readBack.setEntityOne("x"));
+        assertThrows(UnsupportedOperationException.class, () -> readBack.setRelation(CorrespondenceRelation.SUBSUME));
+
+        //no write back after the correspondence is removed
+        m.remove(readBack);
+        readBack.setConfidence(0.3);
+        m.add("a", "b", 0.7);
+        assertEquals(0.7, m.getCorrespondence("a", "b", CorrespondenceRelation.EQUIVALENCE).getConfidence());
+    }
+
+    @Test
+    public void testCut(){
+        Alignment reference = AlignmentGenerator.generateRandomAlignment(10000);
+        CompactAlignment m = new CompactAlignment(reference);
+        assertEquals(reference.size(), m.size());
+        assertEquals(reference.cut(0.7), m.cut(0.7));
+        for(Correspondence c : m.cut(0.7)){
+            assertTrue(c.getConfidence() >= 0.7);
+        }
+    }
+
+    @Test
+    public void testRetrieve(){
+        CompactAlignment m = new CompactAlignment();
+        m.add("a", "b", 0.2);
+        m.add("a", "c", 0.6);
+        m.add("d", "c", 0.9);
+
+        Set<Correspondence> result = Alignment.makeSet(m.retrieve(QueryFactory.and(
+                QueryFactory.equal(Correspondence.SOURCE, "a"),
+                QueryFactory.greaterThan(Correspondence.CONFIDENCE, 0.5))));
+        assertEquals(1, result.size());
+        assertTrue(result.contains(new Correspondence("a", "c")));
+
+        result = Alignment.makeSet(m.retrieve(QueryFactory.in(Correspondence.TARGET, "b", "c")));
+        assertEquals(3, result.size());
+    }
+
+    @Test
+    public void testEqualsAndSetOperations(){
+        Alignment reference = new Alignment();
+        reference.add("a", "b");
+        reference.add("c", "d");
+        CompactAlignment m = new CompactAlignment(reference);
+        assertEquals(reference, m);
+        assertEquals(m, reference);
+        assertEquals(reference.hashCode(), m.hashCode());
+
+        Alignment other = new Alignment();
+        other.add("a", "b");
+        assertEquals(1, Alignment.intersection(m, other).size());
+        assertEquals(1, Alignment.subtraction(m, other).size());
+        m.retainAll(other);
+        assertEquals(other, m);
+    }
+
+    @Test
+    public void testParseAndSerialize() throws Exception{
+        Alignment reference = new Alignment();
+        reference.add("http://a.com/1", "http://b.com/1", 0.4);
+        reference.add("http://a.com/2", "http://b.com/2", 0.7, CorrespondenceRelation.SUBSUME);
+        reference.addOrModify("http://a.com/2", "http://b.com/2", "http://example.com/ext", "foo");
+        String xml = new CompactAlignment(reference).serialize();
+
+        CompactAlignment parsed = new CompactAlignment(new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+        assertEquals(reference, parsed);
+        assertEquals(reference, parsed.toAlignment());
+    }
+}